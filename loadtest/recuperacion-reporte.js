@@ -0,0 +1,65 @@
+// Prueba de carga (k6) de los endpoints de recuperación de contraseña y reporte de donantes, para comparar
+// el modo de hilos de plataforma con el de hilos virtuales (perfil "virtual").
+//
+// Uso (ver README, "Virtual threads"):
+//   k6 run -e BASE_URL=http://localhost:8080 -e MODO=plataforma loadtest/recuperacion-reporte.js
+//   k6 run -e BASE_URL=http://localhost:8080 -e MODO=virtual    loadtest/recuperacion-reporte.js
+//
+// Los límites de intentos de recuperación (app.limite.recuperar.*) responderían 429 a casi todo; para la prueba
+// hay que arrancar la aplicación con límites altos (variables APP_LIMITE_RECUPERAR_*).
+// El reporte es solo para administradores: pasar el token de un administrador en TOKEN_ADMIN.
+
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const MODO = __ENV.MODO || 'sin-etiqueta';
+const TASA = parseInt(__ENV.TASA || '200', 10);     // peticiones por segundo por escenario
+const DURACION = __ENV.DURACION || '2m';
+const TOKEN_ADMIN = __ENV.TOKEN_ADMIN || '';
+
+export const options = {
+    // Tasa de llegada constante: si el servidor se satura, las peticiones se acumulan (como en producción)
+    // en lugar de frenar al generador de carga.
+    scenarios: {
+        recuperacion: {
+            executor: 'constant-arrival-rate',
+            exec: 'recuperacion',
+            rate: TASA,
+            timeUnit: '1s',
+            duration: DURACION,
+            preAllocatedVUs: 200,
+            maxVUs: 2000,
+        },
+        reporte: {
+            executor: 'constant-arrival-rate',
+            exec: 'reporte',
+            rate: Math.max(1, Math.floor(TASA / 10)),
+            timeUnit: '1s',
+            duration: DURACION,
+            preAllocatedVUs: 50,
+            maxVUs: 1000,
+        },
+    },
+    tags: { modo: MODO },
+    thresholds: {
+        'http_req_duration{scenario:recuperacion}': ['p(99)<1000'],
+        'http_req_duration{scenario:reporte}': ['p(99)<5000'],
+        http_req_failed: ['rate<0.01'],
+    },
+    summaryTrendStats: ['avg', 'med', 'p(90)', 'p(99)', 'max'],
+};
+
+export function recuperacion() {
+    const correo = `carga${__VU}_${__ITER % 500}@prueba.com`;
+    const res = http.post(`${BASE_URL}/api/usuarios/recuperar`, JSON.stringify({ correo }), {
+        headers: { 'Content-Type': 'application/json' },
+    });
+    check(res, { 'recuperación 200': (r) => r.status === 200 });
+}
+
+export function reporte() {
+    const res = http.get(`${BASE_URL}/api/donaciones/reporte/stream?from=2025-01-01T00:00:00&to=2025-12-31T23:59:59`,
+        { headers: { Authorization: `Bearer ${TOKEN_ADMIN}` } });
+    check(res, { 'reporte 200': (r) => r.status === 200 });
+}
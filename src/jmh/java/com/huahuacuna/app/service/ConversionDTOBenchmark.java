@@ -0,0 +1,83 @@
+package com.huahuacuna.app.service;
+
+import com.huahuacuna.app.model.Apadrinamiento;
+import com.huahuacuna.app.model.Bitacora;
+import com.huahuacuna.app.model.Nino;
+import com.huahuacuna.app.model.Usuario;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de la conversión entidad → DTO de {@link BitacoraService} y {@link ApadrinamientoService},
+ * que se ejecuta una vez por fila en los listados.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConversionDTOBenchmark {
+
+    private static final int ENTIDADES = 1024;
+
+    private final BitacoraService bitacoraService = new BitacoraService();
+    private final ApadrinamientoService apadrinamientoService = new ApadrinamientoService();
+    private Bitacora[] bitacoras;
+    private Apadrinamiento[] apadrinamientos;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        Random random = new Random(42L);
+        bitacoras = new Bitacora[ENTIDADES];
+        apadrinamientos = new Apadrinamiento[ENTIDADES];
+        for (int i = 0; i < ENTIDADES; i++) {
+            Nino nino = new Nino();
+            nino.setId_nino(i + 1);
+            nino.setNombre("Niño " + i);
+            nino.setFechaNacimiento(LocalDate.of(2012, 1, 1).plusDays(random.nextInt(365 * 10)));
+            nino.setGenero(i % 2 == 0 ? "M" : "F");
+            nino.setDescripcion("Descripción del niño " + i);
+            nino.setFotoUrl("/uploads/ninos/" + i + ".jpg");
+
+            Usuario padrino = new Usuario();
+            padrino.setId_usuario(i + 1);
+            padrino.setNombre("Padrino " + i);
+
+            Bitacora bitacora = new Bitacora();
+            bitacora.setIdBitacora(i + 1);
+            bitacora.setNino(nino);
+            bitacora.setFechaRegistro(LocalDate.of(2025, 1, 1).plusDays(random.nextInt(365)));
+            bitacora.setDescripcion("Entrada de bitácora " + i);
+            bitacora.setFotoUrl("/uploads/bitacora/" + i + ".jpg");
+            bitacoras[i] = bitacora;
+
+            Apadrinamiento apadrinamiento = new Apadrinamiento();
+            apadrinamiento.setIdApadrinamiento(i + 1);
+            apadrinamiento.setPadrino(padrino);
+            apadrinamiento.setNino(nino);
+            apadrinamiento.setFechaInicio(LocalDate.of(2024, 1, 1).plusDays(random.nextInt(365)));
+            apadrinamientos[i] = apadrinamiento;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTIDADES)
+    public void bitacoraConvertirADTO(Blackhole bh) {
+        for (Bitacora bitacora : bitacoras) {
+            bh.consume(bitacoraService.convertirADTO(bitacora));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTIDADES)
+    public void apadrinamientoConvertirADTO(Blackhole bh) {
+        for (Apadrinamiento apadrinamiento : apadrinamientos) {
+            bh.consume(apadrinamientoService.convertirADTO(apadrinamiento));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.huahuacuna.app.service;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Datos sintéticos y repositorios falsos para los benchmarks JMH.
+ *
+ * <p>Los benchmarks miden la capa de servicios sin base de datos: los repositorios de Spring Data se
+ * reemplazan por un {@link Proxy} que responde los métodos indicados con filas generadas de antemano.</p>
+ */
+final class DatosSinteticos {
+
+    /**
+     * Promedio de donaciones por donante usado para dimensionar los fixtures del reporte.
+     */
+    static final int DONACIONES_POR_DONANTE = 10;
+
+    private DatosSinteticos() {
+    }
+
+    /**
+     * Crea una implementación falsa de un repositorio. Los métodos sin respuesta registrada lanzan
+     * {@link UnsupportedOperationException} para que un cambio en el servicio no pase desapercibido.
+     *
+     * @param tipo       interfaz del repositorio
+     * @param respuestas respuesta por nombre de método (recibe los argumentos de la llamada)
+     */
+    static <T> T repositorio(Class<T> tipo, Map<String, Function<Object[], Object>> respuestas) {
+        Object proxy = Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo}, (p, metodo, args) -> {
+            Function<Object[], Object> respuesta = respuestas.get(metodo.getName());
+            if (respuesta != null) {
+                return respuesta.apply(args);
+            }
+            return switch (metodo.getName()) {
+                case "toString" -> tipo.getSimpleName() + "Falso";
+                case "hashCode" -> System.identityHashCode(p);
+                case "equals" -> p == args[0];
+                default -> throw new UnsupportedOperationException(tipo.getSimpleName() + "." + metodo.getName());
+            };
+        });
+        return tipo.cast(proxy);
+    }
+
+    /**
+     * Filas del reporte de donantes (una por donante) con la forma que devuelven las consultas nativas:
+     * idUsuario, correo, totalDonado, totalDonaciones, ultimaDonacion.
+     *
+     * <p>Un 30% de los donantes es anónimo ({@code idUsuario = 0}) y un 1% tiene un correo que obliga a
+     * escapar la celda CSV.</p>
+     *
+     * @param donantes número de filas
+     * @param desde    índice del primer donante (permite generar subconjuntos que se solapan)
+     * @param semilla  semilla del generador, para que las corridas sean reproducibles
+     */
+    static List<Object[]> filasReporte(int donantes, int desde, long semilla) {
+        Random random = new Random(semilla);
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        List<Object[]> filas = new ArrayList<>(donantes);
+        for (int i = desde; i < desde + donantes; i++) {
+            long idUsuario = random.nextInt(10) < 3 ? 0L : i + 1L;
+            String correo = i % 100 == 0 ? "\"donante, " + i + "\"@correo.com" : "donante" + i + "@correo.com";
+            long cantidad = 1 + random.nextInt(2 * DONACIONES_POR_DONANTE - 1);
+            BigDecimal total = BigDecimal.valueOf(cantidad * (10_000L + random.nextInt(5_000_000)), 2);
+            Timestamp ultima = Timestamp.valueOf(base.plusMinutes(random.nextInt(365 * 24 * 60)));
+            filas.add(new Object[]{idUsuario, correo, total, cantidad, ultima});
+        }
+        return filas;
+    }
+}
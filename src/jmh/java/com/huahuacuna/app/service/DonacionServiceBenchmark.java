@@ -0,0 +1,72 @@
+package com.huahuacuna.app.service;
+
+import com.huahuacuna.app.DTO.DonorReportDTO;
+import com.huahuacuna.app.repository.DonacionRepository;
+import com.huahuacuna.app.repository.TotalDonanteRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.UnsupportedEncodingException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks del reporte de donantes de {@link DonacionService}.
+ *
+ * <p>El parámetro {@code donaciones} es el tamaño de la tabla simulada; el reporte recibe una fila por
+ * donante ({@code donaciones / DONACIONES_POR_DONANTE}). Con {@code rango = parcial} se consulta un rango
+ * cuyos extremos no caen a medianoche, de modo que además de los acumulados se combinan las filas de los
+ * dos días parciales (un 2% de los donantes en cada extremo).</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class DonacionServiceBenchmark {
+
+    @Param({"10000", "100000", "1000000", "5000000"})
+    public int donaciones;
+
+    @Param({"completo", "parcial"})
+    public String rango;
+
+    private DonacionService donacionService;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        int donantes = Math.max(1, donaciones / DatosSinteticos.DONACIONES_POR_DONANTE);
+        List<Object[]> acumulados = DatosSinteticos.filasReporte(donantes, 0, 42L);
+        List<Object[]> bordes = DatosSinteticos.filasReporte(Math.max(1, donantes / 50), donantes / 3, 7L);
+
+        DonacionRepository donacionRepository = DatosSinteticos.repositorio(DonacionRepository.class, Map.of(
+                "findDonorReport", args -> bordes,
+                "findDonorReportEntre", args -> bordes));
+        TotalDonanteRepository totalDonanteRepository = DatosSinteticos.repositorio(TotalDonanteRepository.class, Map.of(
+                "findReporte", args -> acumulados));
+
+        donacionService = new DonacionService();
+        ReflectionTestUtils.setField(donacionService, "donacionRepository", donacionRepository);
+        ReflectionTestUtils.setField(donacionService, "totalDonanteRepository", totalDonanteRepository);
+
+        if ("parcial".equals(rango)) {
+            from = LocalDateTime.of(2025, 1, 1, 9, 30);
+            to = LocalDateTime.of(2025, 12, 31, 18, 0);
+        }
+    }
+
+    @Benchmark
+    public List<DonorReportDTO> buildDonorReport() {
+        return donacionService.buildDonorReport(from, to, null, null);
+    }
+
+    @Benchmark
+    public byte[] generateDonorReportCsv() throws UnsupportedEncodingException {
+        return donacionService.generateDonorReportCsv(from, to, null, null);
+    }
+}
@@ -0,0 +1,40 @@
+package com.huahuacuna.app.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de {@link DonacionService#escapeCsv} con una mezcla de valores: la mayoría no necesita
+ * escaparse y un 1% contiene comas o comillas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EscapeCsvBenchmark {
+
+    private static final int VALORES = 1024;
+
+    private final DonacionService donacionService = new DonacionService();
+    private String[] valores;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        valores = new String[VALORES];
+        for (int i = 0; i < VALORES; i++) {
+            valores[i] = i % 100 == 0 ? "\"donante, " + i + "\"@correo.com" : "donante" + i + "@correo.com";
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALORES)
+    public void escapeCsv(Blackhole bh) {
+        for (String valor : valores) {
+            bh.consume(donacionService.escapeCsv(valor));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.huahuacuna.app.service;
+
+import com.huahuacuna.app.DTO.DonacionDTO;
+import com.huahuacuna.app.FundacionAppApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filas por segundo al registrar donaciones una a una ({@link DonacionService#crearDonacion}, una
+ * transacción e INSERT por fila) frente a la importación masiva ({@link ImportacionDonacionService}, lotes
+ * con {@code rewriteBatchedStatements}).
+ *
+ * <p>A diferencia del resto de benchmarks, este necesita una base de datos MySQL real: arranca el contexto de
+ * la aplicación (sin servidor web) con la configuración de {@code application.properties}, que se puede
+ * cambiar con variables de entorno (se heredan en los procesos que lanza JMH), por ejemplo
+ * {@code SPRING_DATASOURCE_URL=jdbc:mysql://localhost:3306/huahuacuna_bench?rewriteBatchedStatements=true}.
+ * Usar una base de datos desechable: las filas insertadas (banco {@value #BANCO}) se borran al final de cada
+ * iteración y se reconstruyen los acumulados.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class ImportacionDonacionBenchmark {
+
+    static final String BANCO = "JMH-BENCH";
+
+    /**
+     * Filas por invocación de cada benchmark; el resultado (ops/s) son filas por segundo.
+     */
+    static final int FILAS = 2000;
+
+    private ConfigurableApplicationContext contexto;
+    private DonacionService donacionService;
+    private ImportacionDonacionService importacionDonacionService;
+    private JdbcTemplate jdbcTemplate;
+    private List<DonacionDTO> dtos;
+    private String csv;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        contexto = new SpringApplicationBuilder(FundacionAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false")
+                .run();
+        donacionService = contexto.getBean(DonacionService.class);
+        importacionDonacionService = contexto.getBean(ImportacionDonacionService.class);
+        jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+
+        dtos = new ArrayList<>(FILAS);
+        StringBuilder sb = new StringBuilder("idUsuario,monto,banco,correoElectronico,tipoDotacion\n");
+        for (int i = 0; i < FILAS; i++) {
+            boolean material = i % 5 == 0;
+            long idUsuario = 1 + i % 50;
+            BigDecimal monto = material ? null : BigDecimal.valueOf(10_000L + i * 37L % 500_000, 2);
+            String correo = "donante" + idUsuario + "@correo.com";
+            String dotacion = material ? "Útiles escolares" : null;
+            dtos.add(new DonacionDTO(idUsuario, null, monto, null, BANCO, correo, null, dotacion));
+            sb.append(idUsuario).append(',')
+                    .append(monto != null ? monto : "").append(',')
+                    .append(BANCO).append(',')
+                    .append(correo).append(',')
+                    .append(dotacion != null ? dotacion : "").append('\n');
+        }
+        csv = sb.toString();
+    }
+
+    @TearDown(Level.Iteration)
+    public void limpiar() {
+        jdbcTemplate.update("DELETE FROM donaciones WHERE banco = ?", BANCO);
+        contexto.getBean(TotalDonanteService.class).reconstruir();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILAS)
+    public void crearUnaPorUna() {
+        for (DonacionDTO dto : dtos) {
+            donacionService.crearDonacion(dto);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILAS)
+    public Object importarCsv() throws IOException {
+        return importacionDonacionService.importar(new StringReader(csv));
+    }
+}
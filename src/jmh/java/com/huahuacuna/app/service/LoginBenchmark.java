@@ -0,0 +1,79 @@
+package com.huahuacuna.app.service;
+
+import com.huahuacuna.app.model.Usuario;
+import com.huahuacuna.app.repository.UsuarioRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput del inicio de sesión ({@link UsuarioService#autenticar}) con BCrypt, con tantos hilos como
+ * núcleos compitiendo por el pool acotado de {@link HashContrasenaService}.
+ *
+ * <p>{@code costo} es el coste de BCrypt; {@code cache = frio} desactiva la caché de verificaciones (cada
+ * login paga un BCrypt completo) y {@code cache = caliente} mide el caso de un usuario que vuelve a iniciar
+ * sesión dentro del TTL. {@code registrar} mide el hash de una contraseña nueva.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(Threads.MAX)
+@Fork(1)
+public class LoginBenchmark {
+
+    private static final String CORREO = "padrino@correo.com";
+    private static final String CONTRASENA = "una-contrasena-segura";
+
+    @Param({"10", "11", "12"})
+    public int costo;
+
+    @Param({"frio", "caliente"})
+    public String cache;
+
+    private HashContrasenaService hashContrasenaService;
+    private UsuarioService usuarioService;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        Duration ttl = "frio".equals(cache) ? Duration.ZERO : Duration.ofMinutes(10);
+        // Cola amplia: el benchmark mide el throughput del pool, no las peticiones rechazadas
+        hashContrasenaService = new HashContrasenaService(costo, 0, 1024, Duration.ofMinutes(1), 10_000, ttl);
+
+        Usuario usuario = new Usuario();
+        usuario.setId_usuario(1);
+        usuario.setCorreo(CORREO);
+        usuario.setRol(Usuario.Rol.padrino);
+        hashContrasenaService.asignar(usuario, CONTRASENA);
+
+        UsuarioRepository usuarioRepository = DatosSinteticos.repositorio(UsuarioRepository.class, Map.of(
+                "findByCorreo", args -> Optional.of(usuario),
+                "save", args -> args[0]));
+
+        usuarioService = new UsuarioService();
+        ReflectionTestUtils.setField(usuarioService, "usuarioRepository", usuarioRepository);
+        ReflectionTestUtils.setField(usuarioService, "hashContrasenaService", hashContrasenaService);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        hashContrasenaService.cerrar();
+    }
+
+    @Benchmark
+    public Optional<Usuario> autenticar() {
+        return usuarioService.autenticar(CORREO, CONTRASENA);
+    }
+
+    @Benchmark
+    public Usuario registrar() {
+        Usuario usuario = new Usuario();
+        hashContrasenaService.asignar(usuario, CONTRASENA);
+        return usuario;
+    }
+}
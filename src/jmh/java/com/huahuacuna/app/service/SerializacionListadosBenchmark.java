@@ -0,0 +1,108 @@
+package com.huahuacuna.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.huahuacuna.app.DTO.InscripcionEventoResumenDTO;
+import com.huahuacuna.app.model.Evento;
+import com.huahuacuna.app.model.InscripcionEvento;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialización del listado {@code GET /api/eventos/inscripciones}: las entidades {@link InscripcionEvento}
+ * con su {@link Evento} anidado (como se devolvían antes) frente a {@link InscripcionEventoResumenDTO}, que
+ * lleva el evento por id, y Jackson con reflexión frente a Jackson con {@link BlackbirdModule}.
+ *
+ * <p>Al preparar los datos imprime el tamaño de cada respuesta sin comprimir y con gzip.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacionListadosBenchmark {
+
+    private static final int EVENTOS = 20;
+    private static final int INSCRIPCIONES = 2000;
+
+    private final ObjectMapper reflexion = crearMapper();
+    private final ObjectMapper blackbird = crearMapper().registerModule(new BlackbirdModule());
+    private List<InscripcionEvento> entidades;
+    private List<InscripcionEventoResumenDTO> resumenes;
+
+    private static ObjectMapper crearMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        EventoService eventoService = new EventoService();
+        List<Evento> eventos = new ArrayList<>();
+        for (int i = 0; i < EVENTOS; i++) {
+            Evento evento = new Evento();
+            evento.setId((long) i + 1);
+            evento.setTitulo("Evento " + i);
+            evento.setDescripcion("Actividad con los niños de la fundación. ".repeat(10));
+            evento.setHorario("10:00 AM - 2:00 PM");
+            evento.setLugar("Sede principal, salón " + i);
+            evento.setImagenUrl("/api/media/" + i + ".jpg");
+            evento.setDescripcionDetallada("Programa completo de la jornada, materiales y recomendaciones. ".repeat(40));
+            evento.setFechaEvento(LocalDateTime.of(2026, 3, 1, 10, 0).plusDays(i));
+            evento.setCapacidad(150);
+            evento.setCuposOcupados(100);
+            evento.setFechaCreacion(LocalDateTime.of(2026, 1, 1, 9, 0));
+            evento.setFechaActualizacion(LocalDateTime.of(2026, 1, 2, 9, 0));
+            eventos.add(evento);
+        }
+        entidades = new ArrayList<>();
+        for (int i = 0; i < INSCRIPCIONES; i++) {
+            InscripcionEvento inscripcion = new InscripcionEvento();
+            inscripcion.setId((long) i + 1);
+            inscripcion.setEvento(eventos.get(i % EVENTOS));
+            inscripcion.setNombreCompleto("Voluntario " + i);
+            inscripcion.setEmail("voluntario" + i + "@correo.com");
+            inscripcion.setTelefono("300" + (1000000 + i));
+            inscripcion.setFechaInscripcion(LocalDateTime.of(2026, 2, 1, 8, 0).plusMinutes(i));
+            entidades.add(inscripcion);
+        }
+        resumenes = entidades.stream().map(eventoService::convertirInscripcionADTO).toList();
+
+        imprimirTamano("entidades", reflexion.writeValueAsBytes(entidades));
+        imprimirTamano("resumen", reflexion.writeValueAsBytes(resumenes));
+    }
+
+    private static void imprimirTamano(String nombre, byte[] json) throws IOException {
+        ByteArrayOutputStream comprimido = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(comprimido)) {
+            gzip.write(json);
+        }
+        System.out.printf("%n%s: %,d bytes JSON, %,d bytes gzip%n", nombre, json.length, comprimido.size());
+    }
+
+    @Benchmark
+    public byte[] entidadesReflexion() throws IOException {
+        return reflexion.writeValueAsBytes(entidades);
+    }
+
+    @Benchmark
+    public byte[] resumenReflexion() throws IOException {
+        return reflexion.writeValueAsBytes(resumenes);
+    }
+
+    @Benchmark
+    public byte[] resumenBlackbird() throws IOException {
+        return blackbird.writeValueAsBytes(resumenes);
+    }
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
+import java.time.Period;
 
 @Data
 @NoArgsConstructor
@@ -26,4 +27,17 @@ public class ApadrinamientoDTO {
     private Integer edadNino;
     private String generoNino;
     private String descripcionNino;
+
+    /**
+     * Constructor usado por las proyecciones JPQL ({@code SELECT new ...}): recibe la fecha de nacimiento
+     * del niño y calcula la edad igual que {@link com.huahuacuna.app.model.Nino#getEdad()}.
+     */
+    public ApadrinamientoDTO(Integer idApadrinamiento, Integer idPadrino, Integer idNino,
+                             LocalDate fechaInicio, LocalDate fechaFin, EstadoApadrinamiento estado,
+                             String nombrePadrino, String nombreNino, String fotoNino,
+                             LocalDate fechaNacimientoNino, String generoNino, String descripcionNino) {
+        this(idApadrinamiento, idPadrino, idNino, fechaInicio, fechaFin, estado, nombrePadrino, nombreNino, fotoNino,
+                fechaNacimientoNino != null ? Period.between(fechaNacimientoNino, LocalDate.now()).getYears() : 0,
+                generoNino, descripcionNino);
+    }
 }
\ No newline at end of file
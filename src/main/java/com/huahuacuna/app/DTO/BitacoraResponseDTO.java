@@ -14,4 +14,5 @@ public class BitacoraResponseDTO {
     private String fecha;
     private String descripcion;
     private String imagen;
+    private String imagenMiniatura;  // variante reducida de imagen si está en /api/media (cargar esta primero)
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.huahuacuna.app.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Totales de un donante en un año, para su certificado de donación.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CertificadoDonanteDTO {
+    private Long idUsuario;            // 0 si anónimo/no definido
+    private String correoElectronico;  // puede ser vacío
+    private String nombre;             // nombre del usuario registrado, o null
+    private String nit;                // NIT o documento indicado en las donaciones, o null
+    private BigDecimal totalMonetario; // suma de las donaciones en dinero
+    private Long donacionesMonetarias;
+    private Long donacionesMateriales;
+}
@@ -0,0 +1,64 @@
+package com.huahuacuna.app.DTO;
+
+import com.huahuacuna.app.model.Donacion;
+import com.huahuacuna.app.model.Nino;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Totales del panel de administración ({@code GET /api/dashboard}).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardDTO {
+
+    /**
+     * Donaciones de los últimos días por día y tipo, del más reciente al más antiguo.
+     */
+    private List<DonacionesDia> donacionesPorDia;
+
+    /**
+     * Número de niños por estado de apadrinamiento (todos los estados, aunque sea 0).
+     */
+    private Map<Nino.EstadoApadrinamiento, Long> ninosPorEstado;
+
+    private long apadrinamientosActivos;
+
+    /**
+     * Inscripciones por evento, por id de evento.
+     */
+    private List<InscripcionesEvento> inscripcionesPorEvento;
+
+    /**
+     * Última vez que los contadores se conciliaron con la base de datos.
+     */
+    private LocalDateTime ultimaConciliacion;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DonacionesDia {
+        private LocalDate fecha;
+        private Donacion.TipoDonacion tipo;
+        private long cantidad;
+        private BigDecimal monto;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class InscripcionesEvento {
+        private Long eventoId;
+        private long confirmadas;
+        private long listaEspera;
+        private long canceladas;
+    }
+}
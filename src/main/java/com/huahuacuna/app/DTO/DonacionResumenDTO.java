@@ -0,0 +1,26 @@
+package com.huahuacuna.app.DTO;
+
+import com.huahuacuna.app.model.Donacion;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Proyección ligera de una donación para listados (sin descripción, banco ni NIT).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DonacionResumenDTO {
+    private Long id;
+    private Long idUsuario;
+    private Donacion.TipoDonacion tipo;
+    private BigDecimal monto;
+    private Donacion.EstadoDonacion estado;
+    private LocalDateTime fechaDonacion;
+    private String correoElectronico;
+    private String tipoDotacion;
+}
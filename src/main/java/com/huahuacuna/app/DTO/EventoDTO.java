@@ -1,6 +1,7 @@
 package com.huahuacuna.app.DTO;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -25,4 +26,8 @@ public class EventoDTO {
     private String descripcionDetallada;
     private LocalDateTime fechaEvento;
     private Boolean activo;
+
+    @PositiveOrZero(message = "La capacidad no puede ser negativa")
+    private Integer capacidad;      // null = sin límite
+    private Integer cuposOcupados;  // solo lectura
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.huahuacuna.app.DTO;
+
+import com.huahuacuna.app.model.Donacion;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtros opcionales para el listado paginado de donaciones. Los campos nulos no filtran.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FiltroDonacionDTO {
+    private Donacion.EstadoDonacion estado;
+    private Donacion.TipoDonacion tipo;
+    private String tipoDotacion;
+    private String correo;
+    private LocalDateTime desde;  // inclusive
+    private LocalDateTime hasta;  // inclusive
+}
@@ -0,0 +1,25 @@
+package com.huahuacuna.app.DTO;
+
+import com.huahuacuna.app.model.InscripcionEvento;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Inscripción a un evento para listados y respuestas: el evento va solo por id (sin sus descripciones, que
+ * se repetirían en cada inscripción).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InscripcionEventoResumenDTO {
+    private Long id;
+    private Long eventoId;
+    private String nombreCompleto;
+    private String email;
+    private String telefono;
+    private InscripcionEvento.EstadoInscripcion estado;
+    private LocalDateTime fechaInscripcion;
+}
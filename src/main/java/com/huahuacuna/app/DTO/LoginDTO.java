@@ -17,7 +17,7 @@ import lombok.Setter;
  *
  * Uso típico:
  * - Se utiliza como @RequestBody en el endpoint de login:
- *   public ResponseEntity<?> login(@RequestBody @Valid LoginDTO loginRequest, HttpSession session)
+ *   public ResponseEntity<?> login(@RequestBody @Valid LoginDTO loginRequest)
  *
  * Seguridad:
  * - La contraseña llega en texto plano desde el cliente; debe compararse contra
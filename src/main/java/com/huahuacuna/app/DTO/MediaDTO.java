@@ -0,0 +1,22 @@
+package com.huahuacuna.app.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Archivo subido al almacén de medios.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaDTO {
+    private String hash;                    // SHA-256 del contenido, en hexadecimal
+    private String url;                     // /api/media/{hash}.{ext}: guardar en fotoUrl / imagenUrl / videoUrl
+    private String tipoContenido;
+    private long tamano;
+    private boolean duplicado;              // el mismo contenido ya estaba almacenado
+    private Map<Integer, String> miniaturas; // ancho -> url de la variante (vacío para videos)
+}
@@ -0,0 +1,21 @@
+package com.huahuacuna.app.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de resultados de una consulta paginada por keyset (cursor).
+ *
+ * @param <T> tipo de los elementos
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaDTO<T> {
+    private List<T> items;
+    private String siguienteCursor;  // null si no hay más páginas
+    private boolean hayMas;
+}
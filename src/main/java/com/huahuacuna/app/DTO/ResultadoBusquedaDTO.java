@@ -0,0 +1,22 @@
+package com.huahuacuna.app.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Un resultado de la búsqueda de texto completo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoBusquedaDTO {
+
+    public enum Tipo { NINO, EVENTO, PROYECTO, BITACORA }
+
+    private Tipo tipo;
+    private Long id;
+    private String titulo;      // nombre del niño / título del evento / nombre del proyecto; en BITACORA, el niño
+    private String fragmento;   // extracto del texto con las coincidencias entre <mark></mark> (HTML escapado)
+    private double relevancia;
+}
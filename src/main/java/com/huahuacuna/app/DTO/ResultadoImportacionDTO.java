@@ -0,0 +1,32 @@
+package com.huahuacuna.app.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado de una importación masiva de donaciones desde CSV.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoImportacionDTO {
+    private int filasLeidas;
+    private int insertadas;
+    private int conErrores;
+    private List<ErrorFila> errores;   // como máximo los primeros ImportacionDonacionService.MAX_ERRORES_REPORTADOS
+    private long duracionMs;
+
+    /**
+     * Error de una fila del CSV.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ErrorFila {
+        private int linea;
+        private String mensaje;
+    }
+}
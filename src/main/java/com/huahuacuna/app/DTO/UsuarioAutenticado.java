@@ -0,0 +1,29 @@
+package com.huahuacuna.app.DTO;
+
+import com.huahuacuna.app.model.Usuario;
+
+/**
+ * Usuario autenticado de la petición actual: solo su id y su rol, tal como vienen en el token firmado.
+ *
+ * <p>Lo establece {@link com.huahuacuna.app.config.AutenticacionFilter} y los controladores lo reciben como
+ * parámetro (es {@code null} si la petición no trae un token válido). No contiene datos sensibles y no
+ * requiere consultar la base de datos.</p>
+ *
+ * @param id  id del usuario
+ * @param rol rol del usuario
+ */
+public record UsuarioAutenticado(Integer id, Usuario.Rol rol) {
+
+    /**
+     * Atributo de la petición donde el filtro deja el usuario autenticado.
+     */
+    public static final String ATRIBUTO = UsuarioAutenticado.class.getName();
+
+    public boolean esAdmin() {
+        return rol == Usuario.Rol.administrador;
+    }
+
+    public boolean esPadrino() {
+        return rol == Usuario.Rol.padrino;
+    }
+}
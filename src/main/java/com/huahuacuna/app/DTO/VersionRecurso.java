@@ -0,0 +1,57 @@
+package com.huahuacuna.app.DTO;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Versión de un recurso o listado para las peticiones condicionales: ETag y, si se conoce, fecha de última
+ * modificación. Se pasa a {@code WebRequest.checkNotModified(etag, ultimaModificacion)} antes de armar la
+ * respuesta.
+ *
+ * <p>El ETag es débil ({@code W/"..."}): identifica los datos, no los bytes exactos de la respuesta (que
+ * pueden ir comprimidos).</p>
+ *
+ * @param etag               ETag entre comillas
+ * @param ultimaModificacion milisegundos epoch, o {@code -1} si no se conoce
+ */
+public record VersionRecurso(String etag, long ultimaModificacion) {
+
+    /**
+     * Versión sin fecha de modificación, a partir de los valores que la identifican.
+     */
+    public static VersionRecurso de(Object... partes) {
+        return new VersionRecurso(etag(partes), -1);
+    }
+
+    /**
+     * Versión con {@code Last-Modified}; la fecha también forma parte del ETag.
+     */
+    public static VersionRecurso conFecha(LocalDateTime ultimaModificacion, Object... partes) {
+        Object[] todas = Arrays.copyOf(partes, partes.length + 1);
+        todas[partes.length] = ultimaModificacion;
+        long millis = ultimaModificacion == null ? -1
+                : ultimaModificacion.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return new VersionRecurso(etag(todas), millis);
+    }
+
+    private static String etag(Object... partes) {
+        return Arrays.stream(partes)
+                .map(VersionRecurso::texto)
+                .collect(Collectors.joining("-", "W/\"", "\""));
+    }
+
+    private static String texto(Object parte) {
+        if (parte == null) {
+            return "0";
+        }
+        if (parte instanceof LocalDateTime fecha) {
+            // Microsegundos, la precisión de datetime(6)
+            Instant instante = fecha.atZone(ZoneId.systemDefault()).toInstant();
+            return Long.toString(instante.getEpochSecond() * 1_000_000 + instante.getNano() / 1_000);
+        }
+        return parte.toString();
+    }
+}
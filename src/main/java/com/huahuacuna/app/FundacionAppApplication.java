@@ -2,6 +2,7 @@ package com.huahuacuna.app;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Punto de entrada de la aplicación Spring Boot.
@@ -10,6 +11,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * <ul>
  *   <li>Arrancar el contexto de Spring y la configuración automática.</li>
  *   <li>Iniciar el servidor embebido (Tomcat) y exponer los endpoints.</li>
+ *   <li>Habilitar las tareas programadas ({@code @Scheduled}), p. ej. el despacho de la cola de correos.</li>
  * </ul>
  *
  * <p>Notas operativas:
@@ -20,6 +22,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * </ul>
  */
 @SpringBootApplication
+@EnableScheduling
 public class FundacionAppApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,41 @@
+package com.huahuacuna.app.Utils;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Cuenta las sentencias SQL que Hibernate prepara en el hilo actual.
+ *
+ * <p>Se registra con {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}. No modifica
+ * el SQL; solo incrementa un contador por hilo que los tests usan para comprobar cuántas consultas hace una
+ * operación (por ejemplo, que un listado no degenere en N+1):</p>
+ *
+ * <pre>
+ * ContadorConsultas.reiniciar();
+ * servicio.listar(...);
+ * assertEquals(1, ContadorConsultas.total());
+ * </pre>
+ */
+public class ContadorConsultas implements StatementInspector {
+
+    private static final ThreadLocal<int[]> CONTADOR = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        CONTADOR.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * Pone a cero el contador del hilo actual.
+     */
+    public static void reiniciar() {
+        CONTADOR.get()[0] = 0;
+    }
+
+    /**
+     * Sentencias preparadas en el hilo actual desde el último {@link #reiniciar()}.
+     */
+    public static int total() {
+        return CONTADOR.get()[0];
+    }
+}
@@ -0,0 +1,56 @@
+package com.huahuacuna.app.Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Codifica y decodifica los cursores opacos usados por la paginación por keyset.
+ *
+ * <p>Un cursor es la clave de ordenación de la última fila devuelta (por ejemplo fecha + id), unida con
+ * {@code '|'} y codificada en Base64 URL-safe. Para el cliente es un valor opaco que solo debe devolver
+ * tal cual para pedir la página siguiente.</p>
+ */
+public final class CursorUtil {
+
+    private static final String SEPARADOR = "|";
+
+    private CursorUtil() {
+    }
+
+    /**
+     * Construye un cursor a partir de las partes de la clave de ordenación.
+     *
+     * @param partes valores de la clave (se usan sus {@code toString()}); no deben contener {@code '|'}
+     * @return cursor opaco
+     */
+    public static String codificar(Object... partes) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < partes.length; i++) {
+            if (i > 0) sb.append(SEPARADOR);
+            sb.append(partes[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor y valida la cantidad de partes.
+     *
+     * @param cursor          cursor recibido del cliente
+     * @param partesEsperadas número de partes que debe contener
+     * @return partes de la clave de ordenación
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public static String[] decodificar(String cursor, int partesEsperadas) {
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = texto.split("\\|", -1);
+            if (partes.length != partesEsperadas) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return partes;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+}
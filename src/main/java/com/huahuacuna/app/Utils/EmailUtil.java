@@ -1,5 +1,7 @@
 package com.huahuacuna.app.Utils;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.mail.*;
 import jakarta.mail.internet.InternetAddress;
 import jakarta.mail.internet.MimeMessage;
@@ -7,31 +9,42 @@ import org.springframework.stereotype.Component;
 
 import java.io.UnsupportedEncodingException;
 import java.util.Date;
-import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Construye y envía correos de texto plano de la fundación.
+ *
+ * <p>La configuración SMTP (host, puerto, credenciales, STARTTLS, timeouts) se toma de las propiedades
+ * {@code spring.mail.*} a través de {@link SmtpTransportPool}, que reutiliza conexiones ya autenticadas.</p>
+ *
+ * <p>La duración de cada envío (incluida la espera por una conexión del pool) se registra en el timer
+ * {@value #METRICA_ENVIO}, con la etiqueta {@code resultado} ({@code exito} o {@code error}).</p>
+ */
 @Component
 public class EmailUtil {
 
-    public void sendEmail(String fromEmail, String password, String toEmail, String subject, String body) throws MessagingException {
-        Properties props = new Properties();
-        props.put("mail.smtp.auth", "true");
-        props.put("mail.smtp.starttls.enable", "true");
-        props.put("mail.smtp.starttls.required", "true");
-        props.put("mail.smtp.host", "smtp.gmail.com");
-        props.put("mail.smtp.port", "587");
-        props.put("mail.smtp.ssl.trust", "smtp.gmail.com");
-        props.put("mail.smtp.ssl.protocols", "TLSv1.2 TLSv1.3");
-        props.put("mail.debug", "false"); // Cambiar a true solo para debug
+    public static final String METRICA_ENVIO = "app.correo.envio";
 
-        Authenticator auth = new Authenticator() {
-            protected PasswordAuthentication getPasswordAuthentication() {
-                return new PasswordAuthentication(fromEmail, password);
-            }
-        };
+    private final SmtpTransportPool transportPool;
+    private final Timer enviosExitosos;
+    private final Timer enviosFallidos;
 
-        Session session = Session.getInstance(props, auth);
+    public EmailUtil(SmtpTransportPool transportPool, MeterRegistry meterRegistry) {
+        this.transportPool = transportPool;
+        this.enviosExitosos = timerEnvio(meterRegistry, "exito");
+        this.enviosFallidos = timerEnvio(meterRegistry, "error");
+    }
+
+    private static Timer timerEnvio(MeterRegistry meterRegistry, String resultado) {
+        return Timer.builder(METRICA_ENVIO)
+                .description("Duración del envío de un correo por SMTP")
+                .tag("resultado", resultado)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
-        MimeMessage msg = new MimeMessage(session);
+    public void sendEmail(String fromEmail, String toEmail, String subject, String body) throws MessagingException {
+        MimeMessage msg = new MimeMessage(transportPool.getSession());
 
         try {
             msg.setFrom(new InternetAddress(fromEmail, "Fundación Huahuacuna", "UTF-8"));
@@ -45,6 +58,13 @@ public class EmailUtil {
         msg.setSentDate(new Date());
         msg.setText(body, "UTF-8");
 
-        Transport.send(msg);
+        long inicio = System.nanoTime();
+        try {
+            transportPool.enviar(msg);
+        } catch (MessagingException | RuntimeException e) {
+            enviosFallidos.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        enviosExitosos.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,123 @@
+package com.huahuacuna.app.Utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector incremental de CSV (RFC 4180): lee un registro a la vez desde un {@link Reader}, sin cargar el
+ * archivo en memoria.
+ *
+ * <p>Admite separador coma, campos entre comillas dobles con comas, saltos de línea y comillas escapadas
+ * ({@code ""}), finales de línea {@code \n} o {@code \r\n} y un BOM UTF-8 al inicio. Se ignoran las líneas
+ * vacías.</p>
+ */
+public class LectorCsv {
+
+    private static final int NINGUNO = Integer.MIN_VALUE;
+
+    private final Reader reader;
+    private final StringBuilder campo = new StringBuilder();
+    private int linea = 1;
+    private int lineaRegistro = 1;
+    private int pendiente = NINGUNO;
+    private boolean inicio = true;
+
+    /**
+     * @param reader origen; conviene que tenga buffer (por ejemplo {@link java.io.BufferedReader})
+     */
+    public LectorCsv(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Número de línea (desde 1) en que empieza el último registro leído.
+     */
+    public int getLinea() {
+        return lineaRegistro;
+    }
+
+    /**
+     * Lee el siguiente registro.
+     *
+     * @return campos del registro, o {@code null} al final del archivo
+     * @throws IOException si falla la lectura o hay comillas sin cerrar al final del archivo
+     */
+    public List<String> leer() throws IOException {
+        int c = leerCaracter();
+        // Saltar líneas vacías
+        while (c == '\n' || c == '\r') {
+            if (c == '\n') {
+                linea++;
+            }
+            c = leerCaracter();
+        }
+        if (c == -1) {
+            return null;
+        }
+        lineaRegistro = linea;
+
+        List<String> campos = new ArrayList<>();
+        campo.setLength(0);
+        boolean entreComillas = false;
+        while (true) {
+            if (entreComillas) {
+                if (c == -1) {
+                    throw new IOException("Comillas sin cerrar en el registro de la línea " + lineaRegistro);
+                }
+                if (c == '"') {
+                    int d = leerCaracter();
+                    if (d == '"') {
+                        campo.append('"');
+                    } else {
+                        entreComillas = false;
+                        c = d;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        linea++;
+                    }
+                    campo.append((char) c);
+                }
+            } else if (c == '"' && campo.isEmpty()) {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r') {
+                    int d = leerCaracter();
+                    if (d != '\n') {
+                        pendiente = d;
+                    }
+                }
+                if (c != -1) {
+                    linea++;
+                }
+                campos.add(campo.toString());
+                return campos;
+            } else {
+                campo.append((char) c);
+            }
+            c = leerCaracter();
+        }
+    }
+
+    private int leerCaracter() throws IOException {
+        if (pendiente != NINGUNO) {
+            int c = pendiente;
+            pendiente = NINGUNO;
+            return c;
+        }
+        int c = reader.read();
+        if (inicio) {
+            inicio = false;
+            if (c == '\uFEFF') {
+                c = reader.read();
+            }
+        }
+        return c;
+    }
+}
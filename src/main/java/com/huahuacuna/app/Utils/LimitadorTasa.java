@@ -0,0 +1,195 @@
+package com.huahuacuna.app.Utils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limitador de tasa por clave (IP, correo...) con cubetas de tokens, sin bloqueos y con memoria acotada.
+ *
+ * <p>Cada clave tiene una cubeta de {@code capacidad} tokens que se recarga a razón de uno cada
+ * {@code periodo}. La cubeta se representa con un único {@code long}, el instante teórico en que volvería a
+ * estar llena (algoritmo GCRA, equivalente a la cubeta de tokens): consumir un token es un
+ * compare-and-set sobre ese valor, sin locks ni hilos de recarga.</p>
+ *
+ * <p>Las claves se reparten en {@code franjas} mapas independientes según su hash; cada franja admite como
+ * máximo {@code maxClaves / franjas} cubetas. Una cubeta que ya se recargó por completo no guarda
+ * información útil (equivale a una nueva), así que {@link #purgar()} la elimina: solo quedan en memoria las
+ * claves activas en la última ventana de {@code capacidad * periodo}. Si una franja está llena incluso
+ * después de purgarla (por ejemplo, un ataque con muchas claves distintas) las claves nuevas se rechazan
+ * hasta que se liberen cubetas; una franja llena se purga como mucho una vez por {@code periodo}.</p>
+ */
+public class LimitadorTasa {
+
+    private final String nombre;
+    private final int capacidad;
+    private final long intervaloNs;
+    private final long toleranciaNs;
+    private final int maxClavesPorFranja;
+    private final Franja[] franjas;
+
+    // Métricas
+    private final LongAdder permitidos = new LongAdder();
+    private final LongAdder rechazados = new LongAdder();
+    private final LongAdder desbordes = new LongAdder();
+
+    /**
+     * @param nombre    nombre del limitador (para las métricas)
+     * @param capacidad intentos seguidos permitidos con la cubeta llena
+     * @param periodo   tiempo en que se recupera un intento
+     * @param maxClaves máximo de claves en memoria
+     * @param franjas   número de franjas (se redondea a potencia de dos)
+     */
+    public LimitadorTasa(String nombre, int capacidad, Duration periodo, int maxClaves, int franjas) {
+        if (capacidad < 1 || periodo.isZero() || periodo.isNegative()) {
+            throw new IllegalArgumentException("Límite inválido para " + nombre);
+        }
+        int n = franjas <= 1 ? 1 : Integer.highestOneBit(franjas - 1) << 1;
+        this.nombre = nombre;
+        this.capacidad = capacidad;
+        this.intervaloNs = periodo.toNanos();
+        this.toleranciaNs = intervaloNs * (capacidad - 1);
+        this.maxClavesPorFranja = Math.max(1, maxClaves / n);
+        this.franjas = new Franja[n];
+        for (int i = 0; i < n; i++) {
+            this.franjas[i] = new Franja(System.nanoTime());
+        }
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Intenta consumir un token de la cubeta de la clave.
+     *
+     * @return 0 si el intento está permitido; si no, los milisegundos que faltan para el siguiente token
+     *         (como mínimo 1)
+     */
+    public long consumir(String clave) {
+        long ahora = System.nanoTime();
+        Cubeta cubeta = obtener(clave, ahora);
+        if (cubeta == null) {
+            desbordes.increment();
+            rechazados.increment();
+            return Math.max(1, intervaloNs / 1_000_000);
+        }
+        while (true) {
+            long tat = cubeta.tat.get();
+            long inicio = Math.max(tat, ahora);
+            long exceso = inicio - ahora - toleranciaNs;
+            if (exceso > 0) {
+                cubeta.rechazados.increment();
+                rechazados.increment();
+                return Math.max(1, exceso / 1_000_000);
+            }
+            if (cubeta.tat.compareAndSet(tat, inicio + intervaloNs)) {
+                cubeta.permitidos.increment();
+                permitidos.increment();
+                return 0;
+            }
+        }
+    }
+
+    private Cubeta obtener(String clave, long ahora) {
+        Franja franja = franjas[indice(clave)];
+        Cubeta cubeta = franja.cubetas.get(clave);
+        if (cubeta != null) {
+            return cubeta;
+        }
+        if (franja.cubetas.size() >= maxClavesPorFranja) {
+            long ultima = franja.ultimaPurga.get();
+            if (ahora - ultima >= intervaloNs && franja.ultimaPurga.compareAndSet(ultima, ahora)) {
+                franja.purgar(ahora);
+            }
+            if (franja.cubetas.size() >= maxClavesPorFranja) {
+                return null;
+            }
+        }
+        Cubeta nueva = new Cubeta(ahora);
+        Cubeta existente = franja.cubetas.putIfAbsent(clave, nueva);
+        return existente != null ? existente : nueva;
+    }
+
+    private int indice(String clave) {
+        int h = clave.hashCode();
+        return (h ^ (h >>> 16)) & (franjas.length - 1);
+    }
+
+    /**
+     * Elimina las cubetas que ya se recargaron por completo.
+     */
+    public void purgar() {
+        long ahora = System.nanoTime();
+        for (Franja franja : franjas) {
+            franja.ultimaPurga.set(ahora);
+            franja.purgar(ahora);
+        }
+    }
+
+    /**
+     * Instantánea de las métricas: configuración, claves en memoria, contadores acumulados y las claves con
+     * más intentos rechazados.
+     *
+     * @param maxClaves número máximo de claves a listar
+     */
+    public Map<String, Object> metricas(int maxClaves) {
+        List<Map.Entry<String, Cubeta>> entradas = new ArrayList<>();
+        for (Franja franja : franjas) {
+            entradas.addAll(franja.cubetas.entrySet());
+        }
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("capacidad", capacidad);
+        m.put("periodoMs", intervaloNs / 1_000_000);
+        m.put("claves", entradas.size());
+        m.put("permitidos", permitidos.sum());
+        m.put("rechazados", rechazados.sum());
+        m.put("desbordes", desbordes.sum());
+        m.put("masRechazadas", entradas.stream()
+                .filter(e -> e.getValue().rechazados.sum() > 0)
+                .sorted(Comparator.comparingLong((Map.Entry<String, Cubeta> e) -> e.getValue().rechazados.sum()).reversed())
+                .limit(maxClaves)
+                .map(e -> Map.of(
+                        "clave", e.getKey(),
+                        "permitidos", e.getValue().permitidos.sum(),
+                        "rechazados", e.getValue().rechazados.sum()))
+                .toList());
+        return m;
+    }
+
+    /**
+     * Subconjunto de las claves, con su propio mapa y límite de tamaño.
+     */
+    private static final class Franja {
+        private final ConcurrentHashMap<String, Cubeta> cubetas = new ConcurrentHashMap<>();
+        private final AtomicLong ultimaPurga;
+
+        private Franja(long ahora) {
+            this.ultimaPurga = new AtomicLong(ahora);
+        }
+
+        private void purgar(long ahora) {
+            cubetas.values().removeIf(c -> c.tat.get() - ahora <= 0);
+        }
+    }
+
+    /**
+     * Estado de la cubeta de una clave.
+     */
+    private static final class Cubeta {
+        /** Instante teórico (nanoTime) en que la cubeta vuelve a estar llena. */
+        private final AtomicLong tat;
+        private final LongAdder permitidos = new LongAdder();
+        private final LongAdder rechazados = new LongAdder();
+
+        private Cubeta(long ahora) {
+            this.tat = new AtomicLong(ahora);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.huahuacuna.app.Utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Extrae el fragmento de un texto alrededor de las palabras buscadas y las resalta con {@code <mark>}.
+ *
+ * <p>Compara sin tildes ni mayúsculas ({@code "nino"} resalta {@code "Niño"}) y por prefijo de palabra, igual
+ * que la búsqueda de texto completo ({@code nino*}). El resultado es HTML: el texto original se escapa y solo
+ * se añaden las etiquetas {@code <mark>}.</p>
+ */
+public final class ResaltadoUtil {
+
+    private ResaltadoUtil() {
+    }
+
+    /**
+     * Quita tildes y diacríticos y pasa a minúsculas, carácter a carácter, de modo que cada posición del
+     * resultado corresponde a la misma posición del texto original.
+     */
+    public static String plegar(String texto) {
+        StringBuilder sb = new StringBuilder(texto.length());
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c < 128) {
+                sb.append(Character.toLowerCase(c));
+            } else {
+                String descompuesto = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+                sb.append(Character.toLowerCase(descompuesto.charAt(0)));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Fragmento de hasta {@code largo} caracteres centrado en la primera coincidencia (o el principio del
+     * texto si no hay ninguna), con las palabras que empiezan por algún término entre {@code <mark></mark>}.
+     *
+     * @param texto    texto original (puede ser {@code null})
+     * @param terminos términos ya plegados con {@link #plegar}
+     * @param largo    longitud máxima aproximada del fragmento
+     * @return fragmento en HTML escapado, o {@code ""} si el texto es {@code null}
+     */
+    public static String fragmento(String texto, List<String> terminos, int largo) {
+        if (texto == null || texto.isEmpty()) {
+            return "";
+        }
+        String plegado = plegar(texto);
+        List<int[]> coincidencias = coincidencias(plegado, terminos);
+
+        int inicio = 0;
+        if (!coincidencias.isEmpty()) {
+            inicio = Math.max(0, coincidencias.get(0)[0] - largo / 3);
+        }
+        int fin = Math.min(texto.length(), inicio + largo);
+        if (fin == texto.length()) {
+            inicio = Math.max(0, fin - largo);
+        }
+        // No cortar palabras por la mitad
+        while (inicio > 0 && Character.isLetterOrDigit(texto.charAt(inicio - 1))) inicio--;
+        while (fin < texto.length() && Character.isLetterOrDigit(texto.charAt(fin))) fin++;
+
+        StringBuilder sb = new StringBuilder(fin - inicio + 32);
+        if (inicio > 0) sb.append('…');
+        int pos = inicio;
+        for (int[] c : coincidencias) {
+            if (c[1] <= inicio || c[0] >= fin) continue;
+            escapar(texto, pos, c[0], sb);
+            sb.append("<mark>");
+            escapar(texto, c[0], Math.min(c[1], fin), sb);
+            sb.append("</mark>");
+            pos = Math.min(c[1], fin);
+        }
+        escapar(texto, pos, fin, sb);
+        if (fin < texto.length()) sb.append('…');
+        return sb.toString();
+    }
+
+    /**
+     * Palabras completas (inicio, fin) que empiezan por alguno de los términos, en orden.
+     */
+    private static List<int[]> coincidencias(String plegado, List<String> terminos) {
+        List<int[]> resultado = new ArrayList<>();
+        int i = 0;
+        while (i < plegado.length()) {
+            if (!Character.isLetterOrDigit(plegado.charAt(i))) {
+                i++;
+                continue;
+            }
+            int finPalabra = i;
+            while (finPalabra < plegado.length() && Character.isLetterOrDigit(plegado.charAt(finPalabra))) finPalabra++;
+            for (String termino : terminos) {
+                if (plegado.startsWith(termino, i)) {
+                    resultado.add(new int[]{i, finPalabra});
+                    break;
+                }
+            }
+            i = finPalabra;
+        }
+        return resultado;
+    }
+
+    private static void escapar(String texto, int desde, int hasta, StringBuilder sb) {
+        for (int i = desde; i < hasta; i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '&' -> sb.append("&amp;");
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '"' -> sb.append("&quot;");
+                case '\'' -> sb.append("&#39;");
+                default -> sb.append(c);
+            }
+        }
+    }
+
+    /**
+     * Términos de una búsqueda: palabras de letras o dígitos, plegadas, sin repetir.
+     *
+     * @param consulta   texto escrito por el usuario
+     * @param largoMinimo longitud mínima de una palabra para tenerla en cuenta
+     */
+    public static List<String> terminos(String consulta, int largoMinimo) {
+        List<String> terminos = new ArrayList<>();
+        for (String palabra : plegar(consulta).split("[^\\p{L}\\p{N}]+")) {
+            if (palabra.length() >= largoMinimo && !terminos.contains(palabra)) {
+                terminos.add(palabra.toLowerCase(Locale.ROOT));
+            }
+        }
+        return terminos;
+    }
+}
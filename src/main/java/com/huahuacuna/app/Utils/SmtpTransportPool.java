@@ -0,0 +1,283 @@
+package com.huahuacuna.app.Utils;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Authenticator;
+import jakarta.mail.MessagingException;
+import jakarta.mail.PasswordAuthentication;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool acotado de conexiones SMTP autenticadas y reutilizables.
+ *
+ * <p>Antes cada correo creaba su propia {@link Session} y llamaba a {@link Transport#send}, que abre la
+ * conexión, negocia STARTTLS, se autentica y la cierra. Este pool crea una única {@link Session} a partir
+ * de las propiedades {@code spring.mail.*} y mantiene hasta {@code app.mail.pool.max-conexiones}
+ * {@link Transport} ya conectados, de modo que un envío sobre una conexión caliente cuesta un único
+ * intercambio SMTP (MAIL/RCPT/DATA) en lugar de un handshake TLS completo.</p>
+ *
+ * <p>Comportamiento:</p>
+ * <ul>
+ *   <li>Las conexiones libres se reutilizan en orden LIFO (la más reciente primero).</li>
+ *   <li>Una conexión inactiva más de {@code app.mail.pool.inactividad-maxima} se cierra y se reemplaza.</li>
+ *   <li>Si lleva más de {@code app.mail.pool.intervalo-validacion} sin usarse se valida con un NOOP
+ *       ({@link Transport#isConnected()}) antes de entregarla.</li>
+ *   <li>Si un envío falla por un problema de conexión sobre una conexión reutilizada, se descarta y se
+ *       reintenta una vez con una conexión nueva. Los rechazos de destinatario no se reintentan.</li>
+ *   <li>Si todas las conexiones están ocupadas se espera como máximo {@code app.mail.pool.espera-maxima}.</li>
+ * </ul>
+ *
+ * <p>Las métricas del pool se exponen con {@link #metricas()}.</p>
+ */
+@Component
+public class SmtpTransportPool {
+
+    private static final Logger log = LoggerFactory.getLogger(SmtpTransportPool.class);
+
+    private final Session session;
+    private final String host;
+    private final int port;
+    private final String username;
+    private final String password;
+
+    private final int maxConexiones;
+    private final long inactividadMaximaMs;
+    private final long intervaloValidacionMs;
+    private final long esperaMaximaMs;
+
+    /**
+     * Conexiones conectadas y libres. El total de conexiones vivas nunca supera {@link #maxConexiones}
+     * porque solo se crea una conexión nueva cuando no hay ninguna libre y se posee un permiso.
+     */
+    private final BlockingDeque<ConexionSmtp> libres = new LinkedBlockingDeque<>();
+    private final Semaphore permisos;
+    private volatile boolean cerrado = false;
+
+    // Métricas
+    private final AtomicLong creadas = new AtomicLong();
+    private final AtomicLong reutilizadas = new AtomicLong();
+    private final AtomicLong descartadas = new AtomicLong();
+    private final AtomicLong enviados = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+    private final AtomicLong reintentos = new AtomicLong();
+    private final AtomicLong esperasAgotadas = new AtomicLong();
+
+    public SmtpTransportPool(MailProperties mailProperties,
+                             @Value("${app.mail.pool.max-conexiones:4}") int maxConexiones,
+                             @Value("${app.mail.pool.inactividad-maxima:60s}") Duration inactividadMaxima,
+                             @Value("${app.mail.pool.intervalo-validacion:15s}") Duration intervaloValidacion,
+                             @Value("${app.mail.pool.espera-maxima:10s}") Duration esperaMaxima) {
+        this.host = mailProperties.getHost();
+        this.port = mailProperties.getPort() != null ? mailProperties.getPort() : 587;
+        this.username = mailProperties.getUsername();
+        this.password = mailProperties.getPassword();
+        this.maxConexiones = maxConexiones;
+        this.inactividadMaximaMs = inactividadMaxima.toMillis();
+        this.intervaloValidacionMs = intervaloValidacion.toMillis();
+        this.esperaMaximaMs = esperaMaxima.toMillis();
+        this.permisos = new Semaphore(maxConexiones, true);
+
+        Properties props = new Properties();
+        props.putAll(mailProperties.getProperties());
+        props.put("mail.smtp.host", host);
+        props.put("mail.smtp.port", String.valueOf(port));
+
+        String user = username;
+        String pass = password;
+        this.session = Session.getInstance(props, new Authenticator() {
+            @Override
+            protected PasswordAuthentication getPasswordAuthentication() {
+                return new PasswordAuthentication(user, pass);
+            }
+        });
+    }
+
+    /**
+     * Sesión compartida para construir los mensajes ({@link MimeMessage}) que se enviarán por el pool.
+     */
+    public Session getSession() {
+        return session;
+    }
+
+    /**
+     * Envía un mensaje usando una conexión del pool.
+     *
+     * @param mensaje mensaje ya construido (se llama a {@code saveChanges()} antes de enviarlo)
+     * @throws MessagingException si el envío falla o no hay conexiones disponibles a tiempo
+     */
+    public void enviar(MimeMessage mensaje) throws MessagingException {
+        mensaje.saveChanges();
+        ConexionSmtp conexion = obtener();
+        try {
+            conexion.transport.sendMessage(mensaje, mensaje.getAllRecipients());
+            devolver(conexion, true);
+            enviados.incrementAndGet();
+        } catch (MessagingException | IllegalStateException e) {
+            devolver(conexion, false);
+            if (!conexion.reutilizada || e instanceof SendFailedException) {
+                fallos.incrementAndGet();
+                throw e;
+            }
+            // La conexión reutilizada estaba caducada (el servidor la cerró): un único reintento con una nueva.
+            reintentos.incrementAndGet();
+            log.debug("Conexión SMTP caducada, reintentando con una conexión nueva: {}", e.getMessage());
+            enviarConConexionNueva(mensaje);
+        }
+    }
+
+    private void enviarConConexionNueva(MimeMessage mensaje) throws MessagingException {
+        adquirirPermiso();
+        ConexionSmtp conexion;
+        try {
+            conexion = crear();
+        } catch (MessagingException | RuntimeException e) {
+            permisos.release();
+            fallos.incrementAndGet();
+            throw e;
+        }
+        try {
+            conexion.transport.sendMessage(mensaje, mensaje.getAllRecipients());
+            devolver(conexion, true);
+            enviados.incrementAndGet();
+        } catch (MessagingException | IllegalStateException e) {
+            devolver(conexion, false);
+            fallos.incrementAndGet();
+            throw e;
+        }
+    }
+
+    private ConexionSmtp obtener() throws MessagingException {
+        adquirirPermiso();
+        try {
+            ConexionSmtp conexion;
+            while ((conexion = libres.pollFirst()) != null) {
+                if (esUtilizable(conexion)) {
+                    conexion.reutilizada = true;
+                    reutilizadas.incrementAndGet();
+                    return conexion;
+                }
+                cerrar(conexion);
+            }
+            return crear();
+        } catch (MessagingException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    private void adquirirPermiso() throws MessagingException {
+        if (cerrado) {
+            throw new MessagingException("El pool de conexiones SMTP está cerrado");
+        }
+        try {
+            if (!permisos.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS)) {
+                esperasAgotadas.incrementAndGet();
+                throw new MessagingException("No hay conexiones SMTP disponibles (máximo " + maxConexiones + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrumpido mientras se esperaba una conexión SMTP", e);
+        }
+    }
+
+    private void devolver(ConexionSmtp conexion, boolean valida) {
+        try {
+            if (valida && !cerrado) {
+                conexion.ultimoUso = System.currentTimeMillis();
+                libres.offerFirst(conexion);
+            } else {
+                cerrar(conexion);
+            }
+        } finally {
+            permisos.release();
+        }
+    }
+
+    private boolean esUtilizable(ConexionSmtp conexion) {
+        long inactiva = System.currentTimeMillis() - conexion.ultimoUso;
+        if (inactiva > inactividadMaximaMs) {
+            return false;
+        }
+        if (inactiva > intervaloValidacionMs) {
+            // Para SMTP, isConnected() envía un NOOP y comprueba la respuesta.
+            return conexion.transport.isConnected();
+        }
+        return true;
+    }
+
+    private ConexionSmtp crear() throws MessagingException {
+        Transport transport = session.getTransport("smtp");
+        transport.connect(host, port, username, password);
+        creadas.incrementAndGet();
+        return new ConexionSmtp(transport);
+    }
+
+    private void cerrar(ConexionSmtp conexion) {
+        descartadas.incrementAndGet();
+        try {
+            conexion.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error cerrando conexión SMTP: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Instantánea de las métricas del pool.
+     *
+     * @return mapa con el tamaño del pool (máximo, en uso, libres) y contadores acumulados de conexiones
+     *         creadas, reutilizadas y descartadas, correos enviados, fallos, reintentos y esperas agotadas.
+     */
+    public Map<String, Object> metricas() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("maxConexiones", maxConexiones);
+        m.put("enUso", maxConexiones - permisos.availablePermits());
+        m.put("libres", libres.size());
+        m.put("creadas", creadas.get());
+        m.put("reutilizadas", reutilizadas.get());
+        m.put("descartadas", descartadas.get());
+        m.put("enviados", enviados.get());
+        m.put("fallos", fallos.get());
+        m.put("reintentos", reintentos.get());
+        m.put("esperasAgotadas", esperasAgotadas.get());
+        return m;
+    }
+
+    @PreDestroy
+    public void cerrarTodas() {
+        cerrado = true;
+        ConexionSmtp conexion;
+        while ((conexion = libres.pollFirst()) != null) {
+            cerrar(conexion);
+        }
+    }
+
+    /**
+     * Conexión SMTP del pool junto con su información de uso.
+     */
+    private static final class ConexionSmtp {
+        private final Transport transport;
+        private volatile long ultimoUso = System.currentTimeMillis();
+        private boolean reutilizada = false;
+
+        private ConexionSmtp(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
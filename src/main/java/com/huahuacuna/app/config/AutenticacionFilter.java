@@ -0,0 +1,62 @@
+package com.huahuacuna.app.config;
+
+import com.huahuacuna.app.DTO.UsuarioAutenticado;
+import com.huahuacuna.app.service.TokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Filtro que autentica cada petición a partir del token firmado emitido en el login.
+ *
+ * <p>Busca el token en la cabecera {@code Authorization: Bearer <token>} o, si no está, en la cookie
+ * {@value #COOKIE_TOKEN} (HttpOnly, la usa el frontend web). Si la firma y la expiración son válidas deja un
+ * {@link UsuarioAutenticado} en el atributo {@link UsuarioAutenticado#ATRIBUTO} de la petición. No rechaza
+ * peticiones: cada controlador decide qué rutas requieren sesión y qué rol.</p>
+ */
+@Component
+public class AutenticacionFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE_TOKEN = "HUAHUACUNA_TOKEN";
+    private static final String PREFIJO_BEARER = "Bearer ";
+
+    private final TokenService tokenService;
+
+    public AutenticacionFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String token = extraerToken(request);
+        if (token != null) {
+            tokenService.verificar(token)
+                    .ifPresent(usuario -> request.setAttribute(UsuarioAutenticado.ATRIBUTO, usuario));
+        }
+        chain.doFilter(request, response);
+    }
+
+    private String extraerToken(HttpServletRequest request) {
+        String cabecera = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (cabecera != null && cabecera.regionMatches(true, 0, PREFIJO_BEARER, 0, PREFIJO_BEARER.length())) {
+            return cabecera.substring(PREFIJO_BEARER.length()).trim();
+        }
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (COOKIE_TOKEN.equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,60 @@
+package com.huahuacuna.app.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuración de las cachés en memoria (Caffeine) de las lecturas del sitio público.
+ *
+ * <p>Cada caché es acotada por tamaño y expira sus entradas por TTL, y registra estadísticas de
+ * aciertos, fallos y desalojos (ver {@code GET /api/monitoreo/cache}). El {@link CacheManager} está
+ * envuelto en un {@link TransactionAwareCacheManagerProxy}: las invalidaciones hechas dentro de una
+ * transacción se aplican después del commit, de modo que una lectura concurrente no puede volver a
+ * cachear el valor anterior antes de que el cambio sea visible, y un rollback no invalida nada.</p>
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /** Perfil público de un niño, por id. */
+    public static final String NINOS_PUBLICOS = "ninosPublicos";
+    /** Lista de eventos activos (una sola entrada). */
+    public static final String EVENTOS_ACTIVOS = "eventosActivos";
+    /** Lista de próximos eventos activos (una sola entrada). */
+    public static final String EVENTOS_PROXIMOS = "eventosProximos";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${app.cache.ninos-publicos.tamano-maximo:1000}") long ninosTamano,
+            @Value("${app.cache.ninos-publicos.ttl:10m}") Duration ninosTtl,
+            @Value("${app.cache.eventos.ttl:5m}") Duration eventosTtl) {
+        CaffeineCacheManager manager = new CaffeineCacheManager();
+        // Solo existen las cachés registradas abajo: un nombre desconocido en una anotación es un error.
+        manager.setCacheNames(List.of());
+        manager.registerCustomCache(NINOS_PUBLICOS, Caffeine.newBuilder()
+                .maximumSize(ninosTamano)
+                .expireAfterWrite(ninosTtl)
+                .recordStats()
+                .build());
+        manager.registerCustomCache(EVENTOS_ACTIVOS, Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(eventosTtl)
+                .recordStats()
+                .build());
+        manager.registerCustomCache(EVENTOS_PROXIMOS, Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(eventosTtl)
+                .recordStats()
+                .build());
+        return new TransactionAwareCacheManagerProxy(manager);
+    }
+}
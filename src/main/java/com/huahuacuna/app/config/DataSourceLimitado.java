@@ -0,0 +1,138 @@
+package com.huahuacuna.app.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link DataSource} que limita con un semáforo justo (FIFO) cuántas conexiones pueden estar prestadas a la
+ * vez. Se activa con {@code app.bd.limite.habilitado=true} (perfil {@code virtual}, ver
+ * {@link DataSourceLimitadoConfig}).
+ *
+ * <p>Con hilos virtuales no hay un máximo de hilos de Tomcat que frene la carga: miles de peticiones pueden
+ * pedir conexión a la vez y amontonarse dentro de HikariCP, que no está pensado para tantos hilos esperando.
+ * El semáforo hace esperar a los hilos sobrantes fuera del pool, en orden de llegada, y falla con
+ * {@link SQLTransientConnectionException} si no hay permiso en {@code app.bd.limite.espera-maxima}. El
+ * permiso se devuelve al cerrar la conexión.</p>
+ */
+public class DataSourceLimitado extends DelegatingDataSource {
+
+    private final Semaphore permisos;
+    private final long esperaMaximaNanos;
+
+    public DataSourceLimitado(DataSource destino, int maxConexiones, Duration esperaMaxima) {
+        super(destino);
+        this.permisos = new Semaphore(maxConexiones, true);
+        this.esperaMaximaNanos = esperaMaxima.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        adquirir();
+        return conLiberacion(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        adquirir();
+        return conLiberacion(() -> super.getConnection(username, password));
+    }
+
+    /**
+     * Hilos esperando un permiso (estimado).
+     */
+    public int getEsperando() {
+        return permisos.getQueueLength();
+    }
+
+    /**
+     * Permisos libres en este momento.
+     */
+    public int getDisponibles() {
+        return permisos.availablePermits();
+    }
+
+    private void adquirir() throws SQLException {
+        try {
+            if (!permisos.tryAcquire(esperaMaximaNanos, TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException("No hay conexiones a la base de datos disponibles en "
+                        + TimeUnit.NANOSECONDS.toMillis(esperaMaximaNanos) + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrumpido esperando una conexión", e);
+        }
+    }
+
+    private Connection conLiberacion(Apertura apertura) throws SQLException {
+        Connection conexion;
+        try {
+            conexion = apertura.abrir();
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new Liberacion(conexion));
+    }
+
+    @FunctionalInterface
+    private interface Apertura {
+        Connection abrir() throws SQLException;
+    }
+
+    /**
+     * Delega todas las llamadas en la conexión real y devuelve el permiso la primera vez que se cierra.
+     */
+    private final class Liberacion implements InvocationHandler {
+
+        private final Connection conexion;
+        private final AtomicBoolean liberada = new AtomicBoolean();
+
+        private Liberacion(Connection conexion) {
+            this.conexion = conexion;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(conexion, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            } finally {
+                if ("close".equals(method.getName()) && liberada.compareAndSet(false, true)) {
+                    permisos.release();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.huahuacuna.app.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Envuelve el {@link DataSource} de la aplicación en un {@link DataSourceLimitado} cuando
+ * {@code app.bd.limite.habilitado=true} (perfil {@code virtual}).
+ *
+ * <p>El número de permisos es {@code app.bd.limite.max-conexiones}, por defecto el tamaño máximo del pool de
+ * Hikari. Exporta las métricas {@code app.bd.limite.esperando} y {@code app.bd.limite.disponibles}.</p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.bd.limite.habilitado", havingValue = "true")
+public class DataSourceLimitadoConfig {
+
+    @Bean
+    static BeanPostProcessor dataSourceLimitadoPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof DataSourceLimitado)) {
+                    int maxConexiones = environment.getProperty("app.bd.limite.max-conexiones", Integer.class,
+                            environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+                    Duration esperaMaxima = environment.getProperty("app.bd.limite.espera-maxima", Duration.class,
+                            Duration.ofSeconds(5));
+                    return new DataSourceLimitado(dataSource, maxConexiones, esperaMaxima);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void registrarMetricas(ApplicationReadyEvent evento) {
+        ObjectProvider<MeterRegistry> registros = evento.getApplicationContext().getBeanProvider(MeterRegistry.class);
+        DataSource dataSource = evento.getApplicationContext().getBean(DataSource.class);
+        MeterRegistry registro = registros.getIfAvailable();
+        if (registro != null && dataSource instanceof DataSourceLimitado limitado) {
+            Gauge.builder("app.bd.limite.esperando", limitado, DataSourceLimitado::getEsperando)
+                    .description("Hilos esperando un permiso para pedir conexión a la base de datos")
+                    .register(registro);
+            Gauge.builder("app.bd.limite.disponibles", limitado, DataSourceLimitado::getDisponibles)
+                    .description("Permisos libres para pedir conexión a la base de datos")
+                    .register(registro);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.huahuacuna.app.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de Jackson.
+ *
+ * <p>Registra {@link BlackbirdModule}: los getters y setters de los DTO se invocan con accesores generados
+ * en tiempo de ejecución en lugar de por reflexión, lo que abarata la serialización de los listados grandes
+ * (donaciones, inscripciones, niños). Spring Boot agrega cualquier bean {@link Module} al {@code ObjectMapper}
+ * de la aplicación.</p>
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,85 @@
+package com.huahuacuna.app.config;
+
+import com.huahuacuna.app.service.LimiteIntentosService;
+import com.huahuacuna.app.service.LimiteIntentosService.Operacion;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Aplica el límite de intentos por IP ({@link LimiteIntentosService}) a las rutas de login y recuperación de
+ * contraseña, antes de leer el cuerpo de la petición. Si se supera responde 429 Too Many Requests con la
+ * cabecera {@code Retry-After}.
+ *
+ * <p>La IP es {@link HttpServletRequest#getRemoteAddr()}. Detrás de un proxy inverso hay que activar
+ * {@code server.forward-headers-strategy=native} para que sea la del cliente y no la del proxy.</p>
+ *
+ * <p>La ruta se compara ya decodificada, sin parámetros de ruta ({@code ;x}) ni barras repetidas, igual que
+ * la resuelve Spring MVC: {@code /auth/%6Cogin} o {@code /auth/login;x} llegan al mismo controlador que
+ * {@code /auth/login} y cuentan como login.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class LimiteIntentosFilter extends OncePerRequestFilter {
+
+    public static final String MENSAJE = "Demasiados intentos, intente de nuevo más tarde.";
+
+    private static final Map<String, Operacion> RUTAS = Map.of(
+            "/auth/login", Operacion.LOGIN,
+            "/api/usuarios/recuperar", Operacion.RECUPERAR,
+            "/api/usuarios/recuperar/verificar", Operacion.CODIGO,
+            "/api/usuarios/recuperar/reset", Operacion.CODIGO);
+
+    private final LimiteIntentosService limiteIntentosService;
+
+    public LimiteIntentosFilter(LimiteIntentosService limiteIntentosService) {
+        this.limiteIntentosService = limiteIntentosService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !RUTAS.containsKey(ruta(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long esperaMs = limiteIntentosService.consumirIp(RUTAS.get(ruta(request)), request.getRemoteAddr());
+        if (esperaMs > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(segundos(esperaMs)));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write("{\"mensaje\":\"" + MENSAJE + "\"}");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Ruta dentro de la aplicación, decodificada y sin contenido tras {@code ;}.
+     */
+    private static String ruta(HttpServletRequest request) {
+        return UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+    }
+
+    /**
+     * Milisegundos de espera redondeados hacia arriba a segundos, para la cabecera {@code Retry-After}.
+     */
+    public static long segundos(long esperaMs) {
+        return Math.max(1, (esperaMs + 999) / 1000);
+    }
+}
@@ -0,0 +1,52 @@
+package com.huahuacuna.app.config;
+
+import com.huahuacuna.app.Utils.ContadorConsultas;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Registra cuántas sentencias SQL ejecuta cada petición, en la distribución {@value #METRICA} con las mismas
+ * etiquetas de baja cardinalidad que {@code http.server.requests}: método y plantilla de la ruta
+ * ({@code /api/donaciones/{id}}, nunca la URL concreta).
+ *
+ * <p>Usa el contador por hilo de {@link ContadorConsultas}, así que solo cuenta las consultas hechas en el hilo
+ * de la petición (no las de respuestas en streaming ni tareas asíncronas). Un percentil alto en una ruta
+ * de listado suele indicar un N+1.</p>
+ */
+@Component
+public class MetricasConsultasInterceptor implements HandlerInterceptor {
+
+    public static final String METRICA = "app.http.consultas";
+
+    private final Meter.MeterProvider<DistributionSummary> consultas;
+
+    public MetricasConsultasInterceptor(MeterRegistry meterRegistry) {
+        this.consultas = DistributionSummary.builder(METRICA)
+                .description("Sentencias SQL ejecutadas por petición HTTP")
+                .baseUnit("consultas")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ContadorConsultas.reiniciar();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object ruta = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        consultas.withTags(Tags.of(
+                        "method", request.getMethod(),
+                        "uri", ruta != null ? ruta.toString() : "UNKNOWN"))
+                .record(ContadorConsultas.total());
+    }
+}
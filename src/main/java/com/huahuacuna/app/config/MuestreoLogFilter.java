@@ -0,0 +1,42 @@
+package com.huahuacuna.app.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Filtro de Logback que deja pasar solo una muestra aleatoria de los mensajes de un logger (por defecto
+ * {@code org.hibernate.SQL}). Se configura en {@code logback-spring.xml}.
+ *
+ * <p>Es un {@link TurboFilter}, así que los mensajes descartados no llegan a crear el evento de log ni a pasar
+ * por los appenders. Las consultas de nivel ({@code isDebugEnabled()}) no se muestrean, porque en ese
+ * momento aún no hay mensaje; la decisión se toma al registrar.</p>
+ */
+public class MuestreoLogFilter extends TurboFilter {
+
+    private String logger = "org.hibernate.SQL";
+    private double proporcion = 0.01;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (format == null || !this.logger.equals(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        return ThreadLocalRandom.current().nextDouble() < proporcion ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public void setLogger(String logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Proporción de mensajes que se registran, entre 0 y 1.
+     */
+    public void setProporcion(double proporcion) {
+        this.proporcion = proporcion;
+    }
+}
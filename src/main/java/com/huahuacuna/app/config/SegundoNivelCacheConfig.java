@@ -0,0 +1,87 @@
+package com.huahuacuna.app.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Caché de segundo nivel de Hibernate (JCache con Caffeine) para las entidades que se leen en casi todas las
+ * peticiones y casi nunca cambian: {@code Nino}, {@code Proyecto} y {@code Evento}, y para las consultas
+ * cacheadas de {@code ProyectoRepository} y {@code EventoRepository}.
+ *
+ * <p>Las regiones se crean aquí, cada una acotada por tamaño (con desalojo por frecuencia de uso de Caffeine)
+ * y con expiración, y Hibernate las recibe ya creadas. Con {@code missing_cache_strategy=fail} una región que
+ * no esté declarada aquí es un error al arrancar, así que no puede aparecer una caché sin límite.</p>
+ *
+ * <p>Las estadísticas por región se exportan como métricas {@code hibernate.second.level.cache.*} y en
+ * {@code GET /api/monitoreo/cache/hibernate}.</p>
+ */
+@Configuration
+public class SegundoNivelCacheConfig {
+
+    /** Región de la entidad Nino. */
+    public static final String NINOS = "ninos";
+    /** Región de la entidad Proyecto. */
+    public static final String PROYECTOS = "proyectos";
+    /** Región de la entidad Evento. */
+    public static final String EVENTOS = "eventos";
+    /** Resultados de {@code ProyectoRepository.findByEstado}. */
+    public static final String PROYECTOS_POR_ESTADO = "proyectos-por-estado";
+    /** Resultados de las consultas de eventos activos de {@code EventoRepository}. */
+    public static final String EVENTOS_ACTIVOS = "eventos-activos";
+
+    /** Regiones propias de Hibernate: resultados de consultas sin región y marcas de actualización de tablas. */
+    private static final String CONSULTAS_POR_DEFECTO = "default-query-results-region";
+    private static final String MARCAS_ACTUALIZACION = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager segundoNivelCacheManager(
+            @Value("${app.cache.hibernate.ninos.tamano-maximo:5000}") long ninos,
+            @Value("${app.cache.hibernate.proyectos.tamano-maximo:1000}") long proyectos,
+            @Value("${app.cache.hibernate.eventos.tamano-maximo:1000}") long eventos,
+            @Value("${app.cache.hibernate.consultas.tamano-maximo:200}") long consultas,
+            @Value("${app.cache.hibernate.ttl:30m}") Duration ttl) {
+        CacheManager manager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        crear(manager, NINOS, ninos, ttl);
+        crear(manager, PROYECTOS, proyectos, ttl);
+        crear(manager, EVENTOS, eventos, ttl);
+        crear(manager, PROYECTOS_POR_ESTADO, consultas, ttl);
+        crear(manager, EVENTOS_ACTIVOS, consultas, ttl);
+        crear(manager, CONSULTAS_POR_DEFECTO, consultas, ttl);
+        // Una marca por tabla; no deben expirar antes que los resultados que invalidan
+        crear(manager, MARCAS_ACTUALIZACION, 1000, null);
+        return manager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer segundoNivelCacheCustomizer(CacheManager segundoNivelCacheManager) {
+        return propiedades -> {
+            propiedades.put(ConfigSettings.CACHE_MANAGER, segundoNivelCacheManager);
+            propiedades.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static void crear(CacheManager manager, String region, long tamanoMaximo, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuracion = new CaffeineConfiguration<>();
+        configuracion.setMaximumSize(OptionalLong.of(tamanoMaximo));
+        if (ttl != null) {
+            configuracion.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        configuracion.setStatisticsEnabled(true);
+        // El CacheManager por defecto del proveedor es compartido: un contexto anterior (reinicio de DevTools)
+        // puede haber dejado la región creada
+        if (manager.getCache(region) != null) {
+            manager.destroyCache(region);
+        }
+        manager.createCache(region, configuracion);
+    }
+}
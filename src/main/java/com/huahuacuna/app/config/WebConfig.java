@@ -0,0 +1,82 @@
+package com.huahuacuna.app.config;
+
+import com.huahuacuna.app.DTO.UsuarioAutenticado;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodParameter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Configuración de Spring MVC.
+ *
+ * <p>Permite declarar un parámetro {@link UsuarioAutenticado} en los métodos de los controladores: recibe el
+ * usuario que {@link AutenticacionFilter} validó a partir del token, o {@code null} si no hay sesión.</p>
+ *
+ * <p>Las respuestas en streaming ({@code StreamingResponseBody}: CSV y PDF de reportes, ZIP de certificados)
+ * se escriben en un pool acotado de {@code app.render.hilos} hilos con una cola de {@code app.render.cola}
+ * tareas, para que la generación de documentos no consuma los hilos del servidor ni se dispare con la carga.
+ * Con el pool y la cola llenos la petición se rechaza con {@code TaskRejectedException}. El tiempo máximo de
+ * esas respuestas es {@code spring.mvc.async.request-timeout}, que aplica Spring Boot.</p>
+ *
+ * <p>Registra {@link MetricasConsultasInterceptor} (consultas SQL por petición).</p>
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ThreadPoolTaskExecutor render;
+    private final MetricasConsultasInterceptor metricasConsultasInterceptor;
+
+    public WebConfig(MetricasConsultasInterceptor metricasConsultasInterceptor,
+                     @Value("${app.render.hilos:4}") int hilos,
+                     @Value("${app.render.cola:16}") int cola) {
+        this.render = new ThreadPoolTaskExecutor();
+        render.setCorePoolSize(hilos);
+        render.setMaxPoolSize(hilos);
+        render.setQueueCapacity(cola);
+        render.setThreadNamePrefix("render-");
+        render.initialize();
+        this.metricasConsultasInterceptor = metricasConsultasInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(metricasConsultasInterceptor);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(render);
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        render.shutdown();
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new HandlerMethodArgumentResolver() {
+            @Override
+            public boolean supportsParameter(MethodParameter parameter) {
+                return UsuarioAutenticado.class.equals(parameter.getParameterType());
+            }
+
+            @Override
+            public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                          NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+                return webRequest.getAttribute(UsuarioAutenticado.ATRIBUTO, RequestAttributes.SCOPE_REQUEST);
+            }
+        });
+    }
+}
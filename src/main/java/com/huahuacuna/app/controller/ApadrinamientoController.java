@@ -1,9 +1,9 @@
 package com.huahuacuna.app.controller;
 
 import com.huahuacuna.app.DTO.ApadrinamientoDTO;
+import com.huahuacuna.app.DTO.UsuarioAutenticado;
 import com.huahuacuna.app.model.Usuario;
 import com.huahuacuna.app.service.ApadrinamientoService;
-import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -23,15 +23,14 @@ public class ApadrinamientoController {
     @PostMapping
     public ResponseEntity<?> crearApadrinamiento(
             @RequestBody Map<String, Integer> body,
-            HttpSession session) {
+            UsuarioAutenticado usuario) {
         
-        Usuario usuario = (Usuario) session.getAttribute("usuarioLogueado");
         if (usuario == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("mensaje", "Debe iniciar sesión para apadrinar"));
         }
 
-        if (usuario.getRol() != Usuario.Rol.padrino) {
+        if (usuario.rol() != Usuario.Rol.padrino) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("mensaje", "Solo los padrinos pueden apadrinar niños"));
         }
@@ -44,7 +43,7 @@ public class ApadrinamientoController {
 
         try {
             ApadrinamientoDTO apadrinamiento = apadrinamientoService
-                    .crearApadrinamiento(usuario.getId_usuario(), idNino);
+                    .crearApadrinamiento(usuario.id(), idNino);
             return ResponseEntity.status(HttpStatus.CREATED).body(apadrinamiento);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("mensaje", e.getMessage()));
@@ -52,29 +51,27 @@ public class ApadrinamientoController {
     }
 
     @GetMapping("/mis-apadrinados")
-    public ResponseEntity<?> obtenerMisApadrinados(HttpSession session) {
-        Usuario usuario = (Usuario) session.getAttribute("usuarioLogueado");
+    public ResponseEntity<?> obtenerMisApadrinados(UsuarioAutenticado usuario) {
         if (usuario == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("mensaje", "Debe iniciar sesión"));
         }
 
         List<ApadrinamientoDTO> apadrinamientos = apadrinamientoService
-                .obtenerApadrinamientosPorPadrino(usuario.getId_usuario());
+                .obtenerApadrinamientosPorPadrino(usuario.id());
         
         return ResponseEntity.ok(apadrinamientos);
     }
 
     @GetMapping("/historial")
-    public ResponseEntity<?> obtenerHistorial(HttpSession session) {
-        Usuario usuario = (Usuario) session.getAttribute("usuarioLogueado");
+    public ResponseEntity<?> obtenerHistorial(UsuarioAutenticado usuario) {
         if (usuario == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("mensaje", "Debe iniciar sesión"));
         }
 
         List<ApadrinamientoDTO> apadrinamientos = apadrinamientoService
-                .obtenerTodosApadrinamientosPorPadrino(usuario.getId_usuario());
+                .obtenerTodosApadrinamientosPorPadrino(usuario.id());
         
         return ResponseEntity.ok(apadrinamientos);
     }
@@ -82,15 +79,14 @@ public class ApadrinamientoController {
     @PatchMapping("/{id}/finalizar")
     public ResponseEntity<?> finalizarApadrinamiento(
             @PathVariable Integer id,
-            HttpSession session) {
+            UsuarioAutenticado usuario) {
         
-        Usuario usuario = (Usuario) session.getAttribute("usuarioLogueado");
         if (usuario == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("mensaje", "Debe iniciar sesión"));
         }
 
-        if (usuario.getRol() != Usuario.Rol.administrador) {
+        if (usuario.rol() != Usuario.Rol.administrador) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("mensaje", "Solo los administradores pueden finalizar apadrinamientos"));
         }
@@ -106,16 +102,15 @@ public class ApadrinamientoController {
     @GetMapping("/verificar/{idNino}")
     public ResponseEntity<?> verificarApadrinamiento(
             @PathVariable Integer idNino,
-            HttpSession session) {
+            UsuarioAutenticado usuario) {
         
-        Usuario usuario = (Usuario) session.getAttribute("usuarioLogueado");
         if (usuario == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("mensaje", "Debe iniciar sesión"));
         }
 
         boolean existe = apadrinamientoService
-                .existeApadrinamiento(usuario.getId_usuario(), idNino);
+                .existeApadrinamiento(usuario.id(), idNino);
         
         return ResponseEntity.ok(Map.of("apadrinado", existe));
     }
@@ -1,11 +1,18 @@
 package com.huahuacuna.app.controller;
 
 import com.huahuacuna.app.DTO.LoginDTO;
+import com.huahuacuna.app.config.AutenticacionFilter;
+import com.huahuacuna.app.config.LimiteIntentosFilter;
 import com.huahuacuna.app.model.Usuario;
-import com.huahuacuna.app.repository.UsuarioRepository;
+import com.huahuacuna.app.service.HashContrasenaService;
+import com.huahuacuna.app.service.LimiteIntentosService;
+import com.huahuacuna.app.service.TokenService;
+import com.huahuacuna.app.service.UsuarioService;
 import org.springframework.beans.factory.annotation.Autowired;
-import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -19,18 +26,21 @@ import java.util.Optional;
  * - POST /auth/login
  *   - Request body: {@link com.huahuacuna.app.DTO.LoginDTO} (correo, contrasena)
  *   - Respuestas:
- *     - 200 OK: mapa JSON con { "mensaje", "rol", "usuarioId" } cuando las credenciales son válidas.
+ *     - 200 OK: mapa JSON con { "mensaje", "rol", "usuarioId", "token" } cuando las credenciales son válidas,
+ *       y la cookie HttpOnly {@value AutenticacionFilter#COOKIE_TOKEN} con el mismo token.
  *     - 401 Unauthorized: mapa JSON con { "mensaje" : "Credenciales inválidas" } cuando no coinciden.
+ *     - 429 Too Many Requests: demasiados intentos desde la IP o para el correo ({@link LimiteIntentosService}).
+ *     - 503 Service Unavailable: la verificación de contraseñas está saturada (con cabecera Retry-After).
  * </p>
  *
  * Notas de seguridad y funcionamiento:
- * - Actualmente las contraseñas se comparan directamente con equals(...).
- *   Esto asume que las contraseñas están almacenadas exactamente como el usuario las envía.
- *   Recomendado: almacenar contraseñas hasheadas (BCrypt) y usar {@code BCrypt.checkpw}.
- * - El usuario autenticado se guarda en la sesión HTTP con la clave "usuarioLogueado".
- *   Dependiendo del flujo del proyecto, podría preferirse:
- *     - Usar tokens JWT (stateless) en vez de HttpSession.
- *     - Guardar únicamente el ID y rol en la sesión, no la entidad completa.
+ * - Las contraseñas se verifican con BCrypt en {@link HashContrasenaService} (pool acotado y caché de
+ *   verificaciones); las contraseñas heredadas en texto plano se migran a BCrypt en el primer login correcto.
+ * - La sesión es stateless: no se usa HttpSession. Se emite un token firmado ({@link TokenService}) que solo
+ *   contiene el id y el rol del usuario; {@link AutenticacionFilter} lo verifica en cada petición sin consultar
+ *   la base de datos, así que cualquier nodo puede atender cualquier petición (sin sesiones pegajosas ni
+ *   replicación de sesiones). Los clientes web usan la cookie; otros clientes pueden enviar
+ *   {@code Authorization: Bearer <token>}.
  * - Validar y sanitizar los datos de entrada (aquí se asume que LoginDTO ya tiene validaciones si son necesarias).
  */
 @RestController
@@ -38,46 +48,87 @@ import java.util.Optional;
 @CrossOrigin(origins = "http://localhost:3001", allowCredentials = "true")
 public class AuthController {
     /**
-     * Repositorio JPA para acceder a la entidad Usuario.
+     * Servicio de usuarios (verificación de credenciales).
      *
      * Inyección por campo con @Autowired (se puede cambiar a inyección por constructor si se desea
      * favorecer testabilidad y evitar uso directo de @Autowired en campos).
      */
     @Autowired
-    private UsuarioRepository usuarioRepository;
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private LimiteIntentosService limiteIntentosService;
+
+    /**
+     * Si la cookie del token se marca como Secure (debe ser true cuando se sirve por HTTPS).
+     */
+    @Value("${app.auth.token.cookie-segura:false}")
+    private boolean cookieSegura;
     /**
      * Endpoint para iniciar sesión.
      *
      * Flujo:
-     * 1. Busca un usuario por correo usando {@link UsuarioRepository#findByCorreo(String)}.
-     * 2. Si el usuario existe y la contraseña coincide, guarda el usuario en la sesión HTTP y
-     *    responde 200 OK con información mínima (mensaje, rol y usuarioId).
+     * 1. Verifica el correo y la contraseña con {@link UsuarioService#autenticar(String, String)}.
+     * 2. Si el usuario existe y la contraseña coincide, emite un token firmado con su id y rol, lo envía en
+     *    una cookie HttpOnly y responde 200 OK con información mínima (mensaje, rol, usuarioId y token).
      * 3. Si no coincide, responde 401 Unauthorized con un mensaje de credenciales inválidas.
      *
      * @param loginRequest DTO con campos "correo" y "contrasena".
-     * @param session      HttpSession actual; se usa para almacenar el usuario logueado.
      * @return ResponseEntity con mapa JSON (éxito o error).
      */
 
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginDTO loginRequest, HttpSession session) {
-        Optional<Usuario> usuario = usuarioRepository.findByCorreo(loginRequest.getCorreo());
+    public ResponseEntity<?> login(@RequestBody LoginDTO loginRequest) {
+        long esperaMs = limiteIntentosService.consumirCorreo(LimiteIntentosService.Operacion.LOGIN, loginRequest.getCorreo());
+        if (esperaMs > 0) {
+            return demasiadosIntentos(esperaMs);
+        }
 
-        if (usuario.isPresent() && usuario.get().getContrasena().equals(loginRequest.getContrasena())) {
-            // Guardar en la sesión. Considerar guardar solo el ID/rol en vez del objeto completo.
-            session.setAttribute("usuarioLogueado", usuario.get());
+        Optional<Usuario> usuario;
+        try {
+            usuario = usuarioService.autenticar(loginRequest.getCorreo(), loginRequest.getContrasena());
+        } catch (HashContrasenaService.ServicioSaturadoException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("mensaje", e.getMessage()));
+        }
+
+        if (usuario.isPresent()) {
+            String token = tokenService.emitir(usuario.get().getId_usuario(), usuario.get().getRol());
+            ResponseCookie cookie = ResponseCookie.from(AutenticacionFilter.COOKIE_TOKEN, token)
+                    .httpOnly(true)
+                    .secure(cookieSegura)
+                    .sameSite("Lax")
+                    .path("/")
+                    .maxAge(tokenService.getDuracion())
+                    .build();
 
             // Respuesta simplificada con información útil para el cliente.
-            return ResponseEntity.ok(Map.of(
-                    "mensaje", "Inicio de sesión exitoso",
-                    "rol", usuario.get().getRol(),
-                    "usuarioId", usuario.get().getId_usuario()
-            ));
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.SET_COOKIE, cookie.toString())
+                    .body(Map.of(
+                            "mensaje", "Inicio de sesión exitoso",
+                            "rol", usuario.get().getRol(),
+                            "usuarioId", usuario.get().getId_usuario(),
+                            "token", token
+                    ));
         } else {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
                     "mensaje", "Credenciales inválidas"
             ));
         }
     }
+
+    /**
+     * Respuesta 429 cuando se supera el límite de intentos por correo.
+     */
+    private ResponseEntity<?> demasiadosIntentos(long esperaMs) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(LimiteIntentosFilter.segundos(esperaMs)))
+                .body(Map.of("mensaje", LimiteIntentosFilter.MENSAJE));
+    }
 }
@@ -3,14 +3,18 @@ package com.huahuacuna.app.controller;
 
 import com.huahuacuna.app.DTO.BitacoraDTO;
 import com.huahuacuna.app.DTO.BitacoraResponseDTO;
+import com.huahuacuna.app.DTO.PaginaDTO;
+import com.huahuacuna.app.DTO.UsuarioAutenticado;
+import com.huahuacuna.app.DTO.VersionRecurso;
 import com.huahuacuna.app.model.Usuario;
 import com.huahuacuna.app.service.BitacoraService;
-import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -23,21 +27,42 @@ public class BitacoraController {
     @Autowired
     private BitacoraService bitacoraService;
 
-    // Obtener bitácora de un niño
+    // Obtener bitácora de un niño.
+    // Sin parámetros devuelve la lista completa; con ?limite= y/o ?cursor= devuelve una página
+    // { items, siguienteCursor, hayMas } para scroll infinito (pasar siguienteCursor en la siguiente llamada).
+    // Responde ETag con la versión de la bitácora del niño; con If-None-Match y sin cambios, 304 sin cuerpo.
     @GetMapping("/nino/{ninoId}")
     public ResponseEntity<?> obtenerPorNino(
             @PathVariable Integer ninoId,
-            HttpSession session) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite,
+            UsuarioAutenticado usuario,
+            WebRequest request) {
 
-        Usuario usuario = (Usuario) session.getAttribute("usuarioLogueado");
         if (usuario == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("mensaje", "Debe iniciar sesión"));
         }
 
+        VersionRecurso version = bitacoraService.versionPorNino(ninoId);
+        if (request.checkNotModified(version.etag(), version.ultimaModificacion())) {
+            return null;
+        }
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+
+        if (cursor != null || limite != null) {
+            try {
+                PaginaDTO<BitacoraResponseDTO> pagina = bitacoraService.obtenerPaginaPorNino(ninoId, cursor, limite);
+                return ResponseEntity.ok().cacheControl(cacheControl).body(pagina);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(Map.of("mensaje", e.getMessage()));
+            }
+        }
+
         try {
             List<BitacoraResponseDTO> entradas = bitacoraService.obtenerPorNino(ninoId);
-            return ResponseEntity.ok(entradas);
+            return ResponseEntity.ok().cacheControl(cacheControl).body(entradas);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("mensaje", e.getMessage()));
@@ -48,9 +73,8 @@ public class BitacoraController {
     @GetMapping("/{id}")
     public ResponseEntity<?> obtenerPorId(
             @PathVariable Integer id,
-            HttpSession session) {
+            UsuarioAutenticado usuario) {
 
-        Usuario usuario = (Usuario) session.getAttribute("usuarioLogueado");
         if (usuario == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("mensaje", "Debe iniciar sesión"));
@@ -70,15 +94,14 @@ public class BitacoraController {
     public ResponseEntity<?> crearEntrada(
             @PathVariable String ninoId,
             @Valid @RequestBody BitacoraDTO dto,
-            HttpSession session) {
+            UsuarioAutenticado usuario) {
 
-        Usuario usuario = (Usuario) session.getAttribute("usuarioLogueado");
         if (usuario == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("mensaje", "Debe iniciar sesión"));
         }
 
-        if (usuario.getRol() != Usuario.Rol.administrador) {
+        if (usuario.rol() != Usuario.Rol.administrador) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("mensaje", "Solo los administradores pueden crear entradas"));
         }
@@ -101,15 +124,14 @@ public class BitacoraController {
     public ResponseEntity<?> actualizarEntrada(
             @PathVariable Integer id,
             @Valid @RequestBody BitacoraDTO dto,
-            HttpSession session) {
+            UsuarioAutenticado usuario) {
 
-        Usuario usuario = (Usuario) session.getAttribute("usuarioLogueado");
         if (usuario == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("mensaje", "Debe iniciar sesión"));
         }
 
-        if (usuario.getRol() != Usuario.Rol.administrador) {
+        if (usuario.rol() != Usuario.Rol.administrador) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("mensaje", "Solo los administradores pueden editar entradas"));
         }
@@ -127,15 +149,14 @@ public class BitacoraController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> eliminarEntrada(
             @PathVariable Integer id,
-            HttpSession session) {
+            UsuarioAutenticado usuario) {
 
-        Usuario usuario = (Usuario) session.getAttribute("usuarioLogueado");
         if (usuario == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("mensaje", "Debe iniciar sesión"));
         }
 
-        if (usuario.getRol() != Usuario.Rol.administrador) {
+        if (usuario.rol() != Usuario.Rol.administrador) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("mensaje", "Solo los administradores pueden eliminar entradas"));
         }
@@ -0,0 +1,51 @@
+package com.huahuacuna.app.controller;
+
+import com.huahuacuna.app.DTO.PaginaDTO;
+import com.huahuacuna.app.DTO.ResultadoBusquedaDTO;
+import com.huahuacuna.app.DTO.UsuarioAutenticado;
+import com.huahuacuna.app.service.BusquedaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Búsqueda de texto completo en niños, eventos, proyectos y bitácoras (administradores y padrinos).
+ *
+ * <p>Ejemplo: {@code GET /api/busqueda?q=nino futbol&tipo=NINO&tipo=BITACORA&limite=20}. Devuelve
+ * {@code { items, siguienteCursor, hayMas }}, ordenado por relevancia; para la página siguiente se pasa
+ * {@code siguienteCursor} como {@code ?cursor=} con la misma consulta.</p>
+ */
+@RestController
+@RequestMapping("/api/busqueda")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+public class BusquedaController {
+
+    @Autowired
+    private BusquedaService busquedaService;
+
+    @GetMapping
+    public ResponseEntity<?> buscar(
+            @RequestParam String q,
+            @RequestParam(name = "tipo", required = false) List<ResultadoBusquedaDTO.Tipo> tipos,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite,
+            UsuarioAutenticado usuario) {
+
+        if (usuario == null || (!usuario.esAdmin() && !usuario.esPadrino())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("mensaje", "Acceso denegado: solo administradores y padrinos."));
+        }
+
+        try {
+            PaginaDTO<ResultadoBusquedaDTO> pagina = busquedaService.buscar(q, tipos, cursor, limite);
+            return ResponseEntity.ok(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("mensaje", e.getMessage()));
+        }
+    }
+}
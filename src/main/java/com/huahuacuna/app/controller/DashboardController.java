@@ -0,0 +1,35 @@
+package com.huahuacuna.app.controller;
+
+import com.huahuacuna.app.DTO.UsuarioAutenticado;
+import com.huahuacuna.app.service.DashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Totales del panel de administración (solo ADMIN): donaciones por día y tipo, niños por estado de
+ * apadrinamiento, apadrinamientos activos e inscripciones por evento.
+ *
+ * <p>Se sirven desde contadores en memoria (ver {@link DashboardService}), sin consultar la base de datos.</p>
+ */
+@RestController
+@RequestMapping("/api/dashboard")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+public class DashboardController {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @GetMapping
+    public ResponseEntity<?> obtener(UsuarioAutenticado usuario) {
+        if (usuario == null || !usuario.esAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("mensaje", "Acceso denegado: solo administradores."));
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(dashboardService.obtener());
+    }
+}
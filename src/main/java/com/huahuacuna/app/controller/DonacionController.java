@@ -1,37 +1,60 @@
 package com.huahuacuna.app.controller;
 
+import com.huahuacuna.app.DTO.CertificadoDonanteDTO;
 import com.huahuacuna.app.DTO.DonacionDTO;
+import com.huahuacuna.app.DTO.DonacionResumenDTO;
+import com.huahuacuna.app.DTO.FiltroDonacionDTO;
+import com.huahuacuna.app.DTO.PaginaDTO;
+import com.huahuacuna.app.DTO.ResultadoImportacionDTO;
+import com.huahuacuna.app.DTO.UsuarioAutenticado;
 import com.huahuacuna.app.model.Donacion;
 import com.huahuacuna.app.service.DonacionService;
+import com.huahuacuna.app.service.ImportacionDonacionService;
+import com.huahuacuna.app.service.PdfDonacionService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Controlador REST para operaciones relacionadas con donaciones.
  *
  * <p>Expone endpoints para crear, listar, obtener, actualizar estado,
- * eliminar donaciones y descargar reportes (CSV) de donantes.</p>
+ * eliminar donaciones y descargar reportes (CSV o PDF) y certificados de donación.</p>
  *
  * Rutas:
  * - POST   /api/donaciones           : crear una donación
+ * - POST   /api/donaciones/importar  : importar donaciones desde un CSV (solo ADMIN)
  * - GET    /api/donaciones           : listar todas las donaciones
+ * - GET    /api/donaciones/pagina    : listar paginado por cursor con filtros combinados
  * - GET    /api/donaciones/estado/{estado} : listar por estado
  * - GET    /api/donaciones/correo/{correo} : listar por correo
  * - GET    /api/donaciones/{id}      : obtener donación por id
  * - PATCH  /api/donaciones/{id}/estado : actualizar estado
  * - DELETE /api/donaciones/{id}      : eliminar donación
- * - GET    /api/donaciones/reporte   : descargar CSV de donantes con filtros
+ * - GET    /api/donaciones/reporte   : descargar CSV (o PDF con format=pdf) de donantes con filtros
+ * - GET    /api/donaciones/reporte/stream : descargar el mismo CSV en streaming (sin cargarlo en memoria)
+ * - GET    /api/donaciones/certificados/{anio}     : certificado de donación (PDF) de un donante
+ * - GET    /api/donaciones/certificados/{anio}/zip : ZIP con los certificados de todos los donantes (solo ADMIN)
  *
  * @author Janka033
  * @since 1.0
@@ -48,6 +71,12 @@ public class DonacionController {
     @Autowired
     private DonacionService donacionService;
 
+    @Autowired
+    private ImportacionDonacionService importacionDonacionService;
+
+    @Autowired
+    private PdfDonacionService pdfDonacionService;
+
     /**
      * Crea una donación a partir de un DTO válido.
      *
@@ -60,16 +89,112 @@ public class DonacionController {
         return ResponseEntity.status(HttpStatus.CREATED).body(creada);
     }
 
+    /**
+     * Importa donaciones desde un CSV enviado directamente como cuerpo ({@code Content-Type: text/csv}). El
+     * cuerpo se procesa a medida que llega, sin cargarlo en memoria.
+     *
+     * <p>Ejemplo:</p>
+     * <pre>
+     * curl -X POST -H "Content-Type: text/csv" -H "Authorization: Bearer ..." \
+     *      --data-binary @conciliacion.csv http://localhost:8080/api/donaciones/importar
+     * </pre>
+     *
+     * @param cuerpo  contenido del CSV (UTF-8, con cabecera; ver {@link ImportacionDonacionService})
+     * @param usuario usuario autenticado (debe ser administrador)
+     * @return 200 OK con el {@link ResultadoImportacionDTO} (filas insertadas y errores por línea);
+     *         400 si la cabecera no es válida; 403 si no es administrador.
+     */
+    @PostMapping(value = "/importar", consumes = "text/csv")
+    public ResponseEntity<?> importarCsv(InputStream cuerpo, UsuarioAutenticado usuario) throws IOException {
+        if (usuario == null || !usuario.esAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("mensaje", "Acceso denegado: solo administradores."));
+        }
+        return importar(cuerpo);
+    }
+
+    /**
+     * Igual que {@link #importarCsv} pero con el CSV como archivo de un formulario multipart (campo
+     * {@code archivo}), para las subidas desde el navegador.
+     */
+    @PostMapping(value = "/importar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importarArchivo(@RequestParam("archivo") MultipartFile archivo, UsuarioAutenticado usuario)
+            throws IOException {
+        if (usuario == null || !usuario.esAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("mensaje", "Acceso denegado: solo administradores."));
+        }
+        try (InputStream in = archivo.getInputStream()) {
+            return importar(in);
+        }
+    }
+
+    private ResponseEntity<?> importar(InputStream in) throws IOException {
+        try {
+            ResultadoImportacionDTO resultado = importacionDonacionService.importar(
+                    new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024));
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("mensaje", e.getMessage()));
+        }
+    }
+
     /**
      * Lista todas las donaciones existentes.
      *
-     * @return ResponseEntity con la lista de donaciones y código HTTP 200 (OK).
+     * @return ResponseEntity con la lista de donaciones (proyección ligera) y código HTTP 200 (OK).
      */
     @GetMapping
-    public ResponseEntity<List<Donacion>> listarTodas() {
+    public ResponseEntity<List<DonacionResumenDTO>> listarTodas() {
         return ResponseEntity.ok(donacionService.listarTodas());
     }
 
+    /**
+     * Lista donaciones paginadas por cursor (keyset), de la más reciente a la más antigua, con filtros
+     * opcionales combinables. Devuelve una proyección ligera de cada donación.
+     *
+     * <p>Ejemplo de uso:</p>
+     * <pre>
+     * GET /api/donaciones/pagina?estado=COMPLETADA&amp;tipo=MONETARIA&amp;limite=100
+     * GET /api/donaciones/pagina?estado=COMPLETADA&amp;tipo=MONETARIA&amp;limite=100&amp;cursor={siguienteCursor}
+     * </pre>
+     *
+     * @param estado       Estado de la donación (opcional).
+     * @param tipo         Tipo de donación (opcional).
+     * @param tipoDotacion Subtipo de la dotación (opcional).
+     * @param correo       Correo del donante (opcional).
+     * @param desde        Fecha/hora inicial inclusive (opcional). Formato ISO-8601.
+     * @param hasta        Fecha/hora final inclusive (opcional). Formato ISO-8601.
+     * @param cursor       Valor {@code siguienteCursor} de la página anterior (opcional).
+     * @param limite       Tamaño de página (opcional, por defecto 50, máximo 200).
+     * @param usuario      usuario autenticado (debe ser administrador: la página incluye los correos de los donantes)
+     * @return ResponseEntity con la página y código HTTP 200 (OK), HTTP 400 si el cursor no es válido,
+     *         401 sin sesión o 403 si no es administrador.
+     */
+    @GetMapping("/pagina")
+    public ResponseEntity<?> listarPagina(
+            @RequestParam(required = false) Donacion.EstadoDonacion estado,
+            @RequestParam(required = false) Donacion.TipoDonacion tipo,
+            @RequestParam(required = false) String tipoDotacion,
+            @RequestParam(required = false) String correo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite,
+            UsuarioAutenticado usuario) {
+        if (usuario == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("mensaje", "No hay sesión activa"));
+        }
+        if (!usuario.esAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("mensaje", "Acceso denegado: solo administradores."));
+        }
+        FiltroDonacionDTO filtro = new FiltroDonacionDTO(estado, tipo, tipoDotacion, correo, desde, hasta);
+        try {
+            PaginaDTO<DonacionResumenDTO> pagina = donacionService.listarPagina(filtro, cursor, limite);
+            return ResponseEntity.ok(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("mensaje", e.getMessage()));
+        }
+    }
+
     /**
      * Lista donaciones filtradas por estado.
      *
@@ -140,33 +265,48 @@ public class DonacionController {
      *     <li>to   (LocalDateTime, formato ISO) - fecha/hora hasta</li>
      *     <li>tipo (String) - tipo de donación: por ejemplo "MONETARIA" o "MATERIAL"</li>
      *     <li>tipoDotacion (String) - subcategoría o descripción del tipo (ej. "Alimentos")</li>
-     *     <li>format (String) - formato de salida; actualmente solo se acepta "csv" (valor por defecto "csv")</li>
+     *     <li>format (String) - formato de salida: "csv" (valor por defecto) o "pdf"</li>
      * </ul>
      *
      * <p>Ejemplos:</p>
      * <pre>
      * GET /api/donaciones/reporte?tipo=MONETARIA
      * GET /api/donaciones/reporte?tipo=MATERIAL&tipoDotacion=Alimentos&from=2025-01-01T00:00:00
+     * GET /api/donaciones/reporte?format=pdf&from=2025-01-01T00:00:00
      * </pre>
      *
+     * <p>El PDF se genera en streaming (ver {@link PdfDonacionService#escribirReportePdf}).</p>
+     *
      * @param from        Fecha/hora inicial (opcional). Formato ISO-8601 (p. ej. 2025-01-01T10:00:00).
      * @param to          Fecha/hora final (opcional). Formato ISO-8601.
      * @param tipo        Tipo de donación (opcional).
      * @param tipoDotacion Subtipo o descripción de la dotación (opcional).
-     * @param format      Formato de salida (por defecto "csv"). Actualmente solo se acepta "csv".
-     * @return ResponseEntity con el recurso byte (CSV) y cabeceras para forzar descarga. Código HTTP 200 (OK) si todo va bien,
-     *         HTTP 400 (BAD REQUEST) si se solicita un formato no soportado.
+     * @param format      Formato de salida (por defecto "csv"): "csv" o "pdf".
+     * @param usuario     usuario autenticado (solo administradores: el reporte incluye los correos de los donantes)
+     * @return ResponseEntity con el recurso byte (CSV) o el PDF en streaming y cabeceras para forzar descarga. Código HTTP 200 (OK) si todo va bien,
+     *         HTTP 400 (BAD REQUEST) si se solicita un formato no soportado, 403 si no es administrador.
      * @throws UnsupportedEncodingException Si ocurre un problema construyendo el nombre del archivo (raramente).
      */
     @GetMapping("/reporte")
-    public ResponseEntity<ByteArrayResource> descargarReporteDonantes(
+    public ResponseEntity<?> descargarReporteDonantes(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
             @RequestParam(required = false) String tipo,
             @RequestParam(required = false) String tipoDotacion,
-            @RequestParam(required = false, defaultValue = "csv") String format
+            @RequestParam(required = false, defaultValue = "csv") String format,
+            UsuarioAutenticado usuario
     ) throws UnsupportedEncodingException {
+        if (usuario == null || !usuario.esAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("mensaje", "Acceso denegado: solo administradores."));
+        }
 
+        if ("pdf".equalsIgnoreCase(format)) {
+            StreamingResponseBody body = out -> pdfDonacionService.escribirReportePdf(from, to, tipo, tipoDotacion, out);
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + nombreArchivoReporte(tipo, tipoDotacion, "pdf") + "\"")
+                    .contentType(MediaType.APPLICATION_PDF)
+                    .body(body);
+        }
         if (!"csv".equalsIgnoreCase(format)) {
             return ResponseEntity.badRequest().build();
         }
@@ -174,15 +314,141 @@ public class DonacionController {
         byte[] data = donacionService.generateDonorReportCsv(from, to, tipo, tipoDotacion);
         ByteArrayResource resource = new ByteArrayResource(data);
 
-        String filename = "reporte_donantes";
-        if (tipo != null) filename += "_" + tipo;
-        if (tipoDotacion != null) filename += "_" + tipoDotacion.replace(" ", "_");
-        filename += ".csv";
-
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + nombreArchivoReporte(tipo, tipoDotacion, "csv") + "\"")
                 .contentLength(data.length)
                 .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
                 .body(resource);
     }
+
+    /**
+     * Descarga el informe CSV de donantes en modo streaming.
+     *
+     * <p>Acepta los mismos filtros que {@link #descargarReporteDonantes}, pero el CSV no se construye en
+     * memoria: las filas se leen de la base de datos como un cursor y se escriben directamente en la
+     * respuesta, que se envía con {@code Transfer-Encoding: chunked} (no se conoce el tamaño de antemano).
+     * Recomendado para exportaciones grandes (cierres contables, campañas de fin de año).</p>
+     *
+     * <p>Ejemplo:</p>
+     * <pre>
+     * GET /api/donaciones/reporte/stream?from=2025-01-01T00:00:00&amp;to=2025-12-31T23:59:59
+     * </pre>
+     *
+     * @param from        Fecha/hora inicial (opcional). Formato ISO-8601.
+     * @param to          Fecha/hora final (opcional). Formato ISO-8601.
+     * @param tipo        Tipo de donación (opcional).
+     * @param tipoDotacion Subtipo o descripción de la dotación (opcional).
+     * @param usuario     usuario autenticado (solo administradores)
+     * @return ResponseEntity cuyo cuerpo se escribe de forma asíncrona a medida que se leen las filas, o 403 si no
+     *         es administrador.
+     */
+    @GetMapping("/reporte/stream")
+    public ResponseEntity<?> descargarReporteDonantesStream(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String tipo,
+            @RequestParam(required = false) String tipoDotacion,
+            UsuarioAutenticado usuario
+    ) {
+        if (usuario == null || !usuario.esAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("mensaje", "Acceso denegado: solo administradores."));
+        }
+        StreamingResponseBody body = out -> donacionService.writeDonorReportCsv(from, to, tipo, tipoDotacion, out);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + nombreArchivoReporte(tipo, tipoDotacion, "csv") + "\"")
+                .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
+                .body(body);
+    }
+
+    /**
+     * Descarga el certificado de donación (PDF) de un donante para un año gravable: totales de sus donaciones
+     * COMPLETADAS, con su NIT/documento.
+     *
+     * <p>Un administrador puede pedir el de cualquier donante (por {@code idUsuario} y/o {@code correo}; sin
+     * {@code idUsuario}, 0 identifica las donaciones sin usuario). Cualquier otro usuario recibe el suyo.</p>
+     *
+     * <p>Ejemplo:</p>
+     * <pre>
+     * GET /api/donaciones/certificados/2025
+     * GET /api/donaciones/certificados/2025?idUsuario=12
+     * </pre>
+     *
+     * @param anio      año gravable
+     * @param idUsuario id del donante (solo administradores; por defecto, el usuario autenticado)
+     * @param correo    correo con que se hicieron las donaciones (opcional; sin él se suman todos)
+     * @param usuario   usuario autenticado
+     * @return 200 OK con el PDF; 401 sin sesión; 403 si pide el de otro donante sin ser administrador;
+     *         404 si no hay donaciones completadas ese año.
+     */
+    @GetMapping("/certificados/{anio}")
+    public ResponseEntity<?> descargarCertificado(
+            @PathVariable int anio,
+            @RequestParam(required = false) Long idUsuario,
+            @RequestParam(required = false) String correo,
+            UsuarioAutenticado usuario) {
+        if (usuario == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("mensaje", "No hay sesión activa"));
+        }
+        if (!usuario.esAdmin()) {
+            if (idUsuario != null && idUsuario.longValue() != usuario.id()) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("mensaje", "Acceso denegado."));
+            }
+            idUsuario = usuario.id().longValue();
+        } else if (idUsuario == null && correo == null) {
+            return ResponseEntity.badRequest().body(Map.of("mensaje", "Indique idUsuario o correo."));
+        }
+
+        Optional<CertificadoDonanteDTO> certificado = pdfDonacionService.buscarCertificado(anio, idUsuario, correo);
+        if (certificado.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("mensaje", "No hay donaciones completadas en " + anio));
+        }
+        StreamingResponseBody body = out -> pdfDonacionService.escribirCertificado(certificado.get(), anio, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\""
+                        + PdfDonacionService.nombreArchivoCertificado(certificado.get(), anio) + "\"")
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(body);
+    }
+
+    /**
+     * Descarga un ZIP con los certificados de donación de todos los donantes del año gravable. El ZIP se
+     * genera en streaming, un PDF por donante, sin tener los documentos en memoria.
+     *
+     * @param anio    año gravable
+     * @param usuario usuario autenticado (debe ser administrador)
+     * @return 200 OK con el ZIP; 403 si no es administrador.
+     */
+    @GetMapping("/certificados/{anio}/zip")
+    public ResponseEntity<?> descargarCertificadosZip(@PathVariable int anio, UsuarioAutenticado usuario) {
+        if (usuario == null || !usuario.esAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("mensaje", "Acceso denegado: solo administradores."));
+        }
+        StreamingResponseBody body = out -> pdfDonacionService.escribirCertificadosZip(anio, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"certificados_" + anio + ".zip\"")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+
+    /**
+     * El pool de generación de documentos está lleno (ver {@link com.huahuacuna.app.config.WebConfig}).
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<Map<String, String>> renderSaturado() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "10")
+                .body(Map.of("mensaje", "Hay demasiados documentos generándose, intente de nuevo en unos segundos."));
+    }
+
+    /**
+     * Construye el nombre del archivo descargable del reporte a partir de los filtros aplicados.
+     */
+    private String nombreArchivoReporte(String tipo, String tipoDotacion, String extension) {
+        String filename = "reporte_donantes";
+        if (tipo != null) filename += "_" + tipo;
+        if (tipoDotacion != null) filename += "_" + tipoDotacion.replace(" ", "_");
+        return filename + "." + extension;
+    }
 }
\ No newline at end of file
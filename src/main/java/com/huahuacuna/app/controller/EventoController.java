@@ -2,15 +2,21 @@ package com.huahuacuna.app.controller;
 
 import com.huahuacuna.app.DTO.EventoDTO;
 import com.huahuacuna.app.DTO.InscripcionEventoDTO;
+import com.huahuacuna.app.DTO.InscripcionEventoResumenDTO;
+import com.huahuacuna.app.DTO.VersionRecurso;
 import com.huahuacuna.app.model.InscripcionEvento;
 import com.huahuacuna.app.service.EventoService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Controlador REST para la gestión de eventos e inscripciones.
@@ -31,6 +37,13 @@ import java.util.List;
  * - GET    /api/eventos/inscripciones   : listar todas las inscripciones
  * - PATCH  /api/eventos/inscripciones/{id}/estado : actualizar estado de una inscripción
  *
+ * Los GET de eventos responden {@code ETag} y {@code Last-Modified} (de {@code fechaActualizacion}) y, si el
+ * cliente manda {@code If-None-Match} o {@code If-Modified-Since} y nada cambió, 304 sin cuerpo: la versión
+ * se consulta antes de leer los eventos.
+ *
+ * Si el evento tiene capacidad y está lleno, la inscripción queda en lista de espera (202 ACCEPTED) y se
+ * confirma sola cuando se libera un cupo. Confirmar a mano una inscripción sin cupos libres responde 409.
+ *
  * @see EventoService
  * @see EventoDTO
  * @see InscripcionEventoDTO
@@ -66,42 +79,55 @@ public class EventoController {
     /**
      * Lista todos los eventos existentes (sin filtro).
      *
-     * @return ResponseEntity con la lista de EventoDTO y estado HTTP 200 (OK).
+     * @return ResponseEntity con la lista de EventoDTO y estado HTTP 200 (OK), o 304 si no cambió.
      */
     @GetMapping
-    public ResponseEntity<List<EventoDTO>> listarTodos() {
-        return ResponseEntity.ok(eventoService.listarTodos());
+    public ResponseEntity<List<EventoDTO>> listarTodos(WebRequest request) {
+        if (noModificado(request, eventoService.versionTodos())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(eventoService.listarTodos());
     }
 
     /**
      * Lista los eventos marcados como activos.
      *
-     * @return ResponseEntity con la lista de eventos activos y estado HTTP 200 (OK).
+     * @return ResponseEntity con la lista de eventos activos y estado HTTP 200 (OK), o 304 si no cambió.
      */
     @GetMapping("/activos")
-    public ResponseEntity<List<EventoDTO>> listarActivos() {
-        return ResponseEntity.ok(eventoService.listarActivos());
+    public ResponseEntity<List<EventoDTO>> listarActivos(WebRequest request) {
+        if (noModificado(request, eventoService.versionActivos())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(eventoService.listarActivos());
     }
 
     /**
      * Lista los eventos próximos (por fecha o criterio definido en el servicio).
      *
-     * @return ResponseEntity con la lista de próximos eventos y estado HTTP 200 (OK).
+     * @return ResponseEntity con la lista de próximos eventos y estado HTTP 200 (OK), o 304 si no cambió.
      */
     @GetMapping("/proximos")
-    public ResponseEntity<List<EventoDTO>> listarProximos() {
-        return ResponseEntity.ok(eventoService.listarProximosEventos());
+    public ResponseEntity<List<EventoDTO>> listarProximos(WebRequest request) {
+        if (noModificado(request, eventoService.versionActivos())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(eventoService.listarProximosEventos());
     }
 
     /**
      * Obtiene un evento por su identificador.
      *
      * @param id Identificador del evento.
-     * @return ResponseEntity con el EventoDTO correspondiente y estado HTTP 200 (OK).
+     * @return ResponseEntity con el EventoDTO correspondiente y estado HTTP 200 (OK), o 304 si no cambió.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<EventoDTO> obtenerPorId(@PathVariable Long id) {
-        return ResponseEntity.ok(eventoService.obtenerPorId(id));
+    public ResponseEntity<EventoDTO> obtenerPorId(@PathVariable Long id, WebRequest request) {
+        Optional<VersionRecurso> version = eventoService.versionEvento(id);
+        if (version.isPresent() && noModificado(request, version.get())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(eventoService.obtenerPorId(id));
     }
 
     /**
@@ -134,48 +160,70 @@ public class EventoController {
      * Registra una inscripción a un evento usando la información del DTO.
      *
      * @param dto DTO con los datos de inscripción (por ejemplo: eventoId, datos del usuario).
-     * @return ResponseEntity con la entidad InscripcionEvento creada y estado HTTP 201 (CREATED).
+     * @return ResponseEntity con la inscripción creada (el evento va por id) y estado HTTP 201 (CREATED), o 202
+     *         (ACCEPTED) si el evento está lleno y la inscripción quedó en lista de espera.
      */
     @PostMapping("/inscribirse")
-    public ResponseEntity<InscripcionEvento> inscribirse(@Valid @RequestBody InscripcionEventoDTO dto) {
+    public ResponseEntity<InscripcionEventoResumenDTO> inscribirse(@Valid @RequestBody InscripcionEventoDTO dto) {
         InscripcionEvento inscripcion = eventoService.inscribirse(dto);
-        return ResponseEntity.status(HttpStatus.CREATED).body(inscripcion);
+        HttpStatus status = inscripcion.getEstado() == InscripcionEvento.EstadoInscripcion.LISTA_ESPERA
+                ? HttpStatus.ACCEPTED
+                : HttpStatus.CREATED;
+        return ResponseEntity.status(status).body(eventoService.convertirInscripcionADTO(inscripcion));
     }
 
     /**
      * Obtiene la lista de inscripciones asociadas a un evento.
      *
      * @param id Identificador del evento.
-     * @return ResponseEntity con la lista de InscripcionEvento y estado HTTP 200 (OK).
+     * @return ResponseEntity con la lista de inscripciones (el evento va por id) y estado HTTP 200 (OK).
      */
     @GetMapping("/{id}/inscripciones")
-    public ResponseEntity<List<InscripcionEvento>> obtenerInscripciones(@PathVariable Long id) {
+    public ResponseEntity<List<InscripcionEventoResumenDTO>> obtenerInscripciones(@PathVariable Long id) {
         return ResponseEntity.ok(eventoService.obtenerInscripciones(id));
     }
 
     /**
      * Lista todas las inscripciones de todos los eventos (sin filtro).
      *
-     * @return ResponseEntity con la lista de InscripcionEvento y estado HTTP 200 (OK).
+     * @return ResponseEntity con la lista de inscripciones (el evento va por id) y estado HTTP 200 (OK).
      */
     @GetMapping("/inscripciones")
-    public ResponseEntity<List<InscripcionEvento>> listarTodasInscripciones() {
+    public ResponseEntity<List<InscripcionEventoResumenDTO>> listarTodasInscripciones() {
         return ResponseEntity.ok(eventoService.listarTodasInscripciones());
     }
 
     /**
      * Actualiza el estado de una inscripción.
      *
-     * <p>Ejemplo: PATCH /api/eventos/inscripciones/45/estado?estado=CONFIRMADA</p>
+     * <p>Ejemplo: PATCH /api/eventos/inscripciones/45/estado?estado=CANCELADO</p>
      *
      * @param id     Identificador de la inscripción.
      * @param estado Nuevo estado a asignar (enum {@link InscripcionEvento.EstadoInscripcion}).
-     * @return ResponseEntity con la InscripcionEvento actualizada y estado HTTP 200 (OK).
+     * @return ResponseEntity con la inscripción actualizada y estado HTTP 200 (OK).
      */
     @PatchMapping("/inscripciones/{id}/estado")
-    public ResponseEntity<InscripcionEvento> actualizarEstado(
+    public ResponseEntity<InscripcionEventoResumenDTO> actualizarEstado(
             @PathVariable Long id,
             @RequestParam InscripcionEvento.EstadoInscripcion estado) {
-        return ResponseEntity.ok(eventoService.actualizarEstadoInscripcion(id, estado));
+        return ResponseEntity.ok(eventoService.convertirInscripcionADTO(
+                eventoService.actualizarEstadoInscripcion(id, estado)));
+    }
+
+    /**
+     * Evalúa {@code If-None-Match} / {@code If-Modified-Since} contra la versión y deja puestos {@code ETag} y
+     * {@code Last-Modified} en la respuesta. Si devuelve {@code true} la respuesta ya es un 304.
+     */
+    private static boolean noModificado(WebRequest request, VersionRecurso version) {
+        return request.checkNotModified(version.etag(), version.ultimaModificacion());
+    }
+
+    /**
+     * Conflicto con los cupos del evento (confirmar sin cupos libres, o bajar la capacidad por debajo de las
+     * inscripciones confirmadas).
+     */
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<Map<String, String>> sinCupos(IllegalStateException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("mensaje", e.getMessage()));
     }
 }
\ No newline at end of file
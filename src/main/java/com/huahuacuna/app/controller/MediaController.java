@@ -0,0 +1,187 @@
+package com.huahuacuna.app.controller;
+
+import com.huahuacuna.app.DTO.MediaDTO;
+import com.huahuacuna.app.DTO.UsuarioAutenticado;
+import com.huahuacuna.app.service.MediaService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Subida y descarga de fotos y videos del almacén de medios (ver {@link MediaService}).
+ *
+ * <ul>
+ *   <li>{@code POST /api/media} (solo admin, multipart {@code archivo}): guarda el archivo y devuelve su URL y
+ *       las de sus miniaturas.</li>
+ *   <li>{@code GET /api/media/{hash}.{ext}[?ancho=480]}: el archivo o su variante. Responde {@code ETag}
+ *       (304 con {@code If-None-Match}), admite {@code Range} (206, para los videos) y el contenido se
+ *       cachea un año: una URL nunca cambia de contenido.</li>
+ * </ul>
+ *
+ * <p>El archivo se envía sin pasar por la JVM: con el conector NIO de Tomcat se le delega con
+ * {@code sendfile}, y si no está disponible se copia con {@link FileChannel#transferTo}.</p>
+ */
+@RestController
+@RequestMapping("/api/media")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+public class MediaController {
+
+    private static final String SENDFILE_SOPORTADO = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_ARCHIVO = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIN = "org.apache.tomcat.sendfile.end";
+
+    private static final String CACHE_INMUTABLE = "public, max-age=31536000, immutable";
+
+    @Autowired
+    private MediaService mediaService;
+
+    @PostMapping
+    public ResponseEntity<?> subir(@RequestParam("archivo") MultipartFile archivo, UsuarioAutenticado usuario) {
+        if (usuario == null || !usuario.esAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("mensaje", "Acceso denegado: solo administradores."));
+        }
+        try {
+            MediaDTO media = mediaService.guardar(archivo);
+            return ResponseEntity.status(media.isDuplicado() ? HttpStatus.OK : HttpStatus.CREATED).body(media);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("mensaje", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("mensaje", "No se pudo guardar el archivo"));
+        }
+    }
+
+    @GetMapping("/{nombre}")
+    public void descargar(@PathVariable String nombre,
+                          @RequestParam(required = false) Integer ancho,
+                          HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+        MediaService.Archivo archivo;
+        try {
+            archivo = mediaService.resolver(nombre, ancho);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        if (archivo == null) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ETAG, archivo.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, archivo.definitivo() ? CACHE_INMUTABLE : "no-cache");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (coincideEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), archivo.etag())) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        long tamano = Files.size(archivo.ruta());
+        long inicio = 0;
+        long fin = tamano;  // exclusivo
+        String rango = request.getHeader(HttpHeaders.RANGE);
+        String siRango = request.getHeader(HttpHeaders.IF_RANGE);
+        if (rango != null && (siRango == null || siRango.equals(archivo.etag()))) {
+            long[] limites = parsearRango(rango, tamano);
+            if (limites == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + tamano);
+                response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            if (limites.length == 2) {
+                inicio = limites[0];
+                fin = limites[1];
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + inicio + "-" + (fin - 1) + "/" + tamano);
+            }
+        }
+
+        response.setContentType(archivo.tipoContenido());
+        response.setContentLengthLong(fin - inicio);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SOPORTADO))) {
+            // Tomcat escribe el archivo con sendfile cuando termina la petición
+            request.setAttribute(SENDFILE_ARCHIVO, archivo.ruta().toString());
+            request.setAttribute(SENDFILE_INICIO, inicio);
+            request.setAttribute(SENDFILE_FIN, fin);
+            return;
+        }
+        try (FileChannel canal = FileChannel.open(archivo.ruta(), StandardOpenOption.READ)) {
+            WritableByteChannel salida = Channels.newChannel(response.getOutputStream());
+            long posicion = inicio;
+            while (posicion < fin) {
+                posicion += canal.transferTo(posicion, fin - posicion, salida);
+            }
+        }
+    }
+
+    private static boolean coincideEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String valor : ifNoneMatch.split(",")) {
+            String v = valor.trim();
+            if (v.startsWith("W/")) v = v.substring(2);
+            if (v.equals(etag) || v.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Interpreta un único rango {@code bytes=a-b}, {@code bytes=a-} o {@code bytes=-n}.
+     *
+     * @return {inicio, fin exclusivo}; un arreglo vacío si la cabecera no se entiende o pide varios rangos
+     *         (se responde el archivo completo); {@code null} si el rango no se puede satisfacer (416)
+     */
+    private static long[] parsearRango(String rango, long tamano) {
+        if (!rango.startsWith("bytes=") || rango.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String valor = rango.substring("bytes=".length()).trim();
+        int guion = valor.indexOf('-');
+        if (guion < 0) {
+            return new long[0];
+        }
+        try {
+            String a = valor.substring(0, guion).trim();
+            String b = valor.substring(guion + 1).trim();
+            long inicio;
+            long fin;
+            if (a.isEmpty()) {
+                long sufijo = Long.parseLong(b);
+                if (sufijo <= 0) return null;
+                inicio = Math.max(0, tamano - sufijo);
+                fin = tamano;
+            } else {
+                inicio = Long.parseLong(a);
+                fin = b.isEmpty() ? tamano : Math.min(Long.parseLong(b) + 1, tamano);
+            }
+            if (inicio >= tamano || inicio >= fin) {
+                return null;
+            }
+            return new long[]{inicio, fin};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.huahuacuna.app.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.huahuacuna.app.DTO.UsuarioAutenticado;
+import com.huahuacuna.app.Utils.SmtpTransportPool;
+import com.huahuacuna.app.model.EmailOutbox;
+import com.huahuacuna.app.repository.EmailOutboxRepository;
+import com.huahuacuna.app.service.HashContrasenaService;
+import com.huahuacuna.app.service.LimiteIntentosService;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controlador REST con información operativa de la aplicación (solo ADMIN).
+ *
+ * Rutas:
+ * - GET /api/monitoreo/correo : métricas del pool de conexiones SMTP
+ * - GET /api/monitoreo/correo/outbox : estado de la cola de correos salientes y últimos fallidos
+ * - GET /api/monitoreo/cache : estadísticas de las cachés en memoria
+ * - GET /api/monitoreo/cache/hibernate : caché de segundo nivel y caché de consultas de Hibernate, por región
+ * - GET /api/monitoreo/contrasenas : pool de hash de contraseñas y caché de verificaciones
+ * - GET /api/monitoreo/limites : límites de intentos de login y recuperación, con las claves más rechazadas
+ * - GET /api/monitoreo/bd : pool de conexiones a la base de datos (conexiones activas, esperas y timeouts)
+ */
+@RestController
+@RequestMapping("/api/monitoreo")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+public class MonitoreoController {
+
+    @Autowired
+    private SmtpTransportPool smtpTransportPool;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private HashContrasenaService hashContrasenaService;
+
+    @Autowired
+    private LimiteIntentosService limiteIntentosService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Métricas del pool de conexiones SMTP (conexiones en uso, libres, reutilizadas, fallos, etc.).
+     */
+    @GetMapping("/correo")
+    public ResponseEntity<?> metricasCorreo(UsuarioAutenticado usuario) {
+        if (!esAdmin(usuario)) {
+            return ResponseEntity.status(403).body(Map.of("mensaje", "Acceso denegado: solo administradores."));
+        }
+        return ResponseEntity.ok(smtpTransportPool.metricas());
+    }
+
+    /**
+     * Cantidad de correos por estado en la cola y los últimos correos fallidos (dead letters).
+     */
+    @GetMapping("/correo/outbox")
+    public ResponseEntity<?> estadoOutbox(UsuarioAutenticado usuario) {
+        if (!esAdmin(usuario)) {
+            return ResponseEntity.status(403).body(Map.of("mensaje", "Acceso denegado: solo administradores."));
+        }
+        Map<String, Object> respuesta = new LinkedHashMap<>();
+        for (EmailOutbox.EstadoCorreo estado : EmailOutbox.EstadoCorreo.values()) {
+            respuesta.put(estado.name(), emailOutboxRepository.countByEstado(estado));
+        }
+        respuesta.put("ultimosFallidos", emailOutboxRepository
+                .findTop20ByEstadoOrderByIdDesc(EmailOutbox.EstadoCorreo.FALLIDO).stream()
+                .map(c -> Map.of(
+                        "id", c.getId(),
+                        "destinatario", c.getDestinatario(),
+                        "intentos", c.getIntentos(),
+                        "ultimoError", c.getUltimoError() != null ? c.getUltimoError() : ""))
+                .toList());
+        return ResponseEntity.ok(respuesta);
+    }
+
+    /**
+     * Estadísticas de cada caché: tamaño estimado, aciertos, fallos, tasa de aciertos y desalojos.
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<?> estadisticasCache(UsuarioAutenticado usuario) {
+        if (!esAdmin(usuario)) {
+            return ResponseEntity.status(403).body(Map.of("mensaje", "Acceso denegado: solo administradores."));
+        }
+        Map<String, Object> respuesta = new LinkedHashMap<>();
+        for (String nombre : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(nombre);
+            if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+                CacheStats stats = caffeine.stats();
+                Map<String, Object> m = new LinkedHashMap<>();
+                m.put("tamano", caffeine.estimatedSize());
+                m.put("aciertos", stats.hitCount());
+                m.put("fallos", stats.missCount());
+                m.put("tasaAciertos", stats.hitRate());
+                m.put("desalojos", stats.evictionCount());
+                respuesta.put(nombre, m);
+            }
+        }
+        return ResponseEntity.ok(respuesta);
+    }
+
+    /**
+     * Estadísticas de la caché de segundo nivel de Hibernate: por región, aciertos, fallos, inserciones y
+     * elementos en memoria; y en total, aciertos y fallos de la caché de consultas.
+     */
+    @GetMapping("/cache/hibernate")
+    public ResponseEntity<?> estadisticasCacheHibernate(UsuarioAutenticado usuario) {
+        if (!esAdmin(usuario)) {
+            return ResponseEntity.status(403).body(Map.of("mensaje", "Acceso denegado: solo administradores."));
+        }
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Object> regiones = new LinkedHashMap<>();
+        for (String region : estadisticas.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics r = estadisticas.getCacheRegionStatistics(region);
+            if (r == null) {
+                continue;
+            }
+            long consultas = r.getHitCount() + r.getMissCount();
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("aciertos", r.getHitCount());
+            m.put("fallos", r.getMissCount());
+            m.put("tasaAciertos", consultas == 0 ? 0.0 : (double) r.getHitCount() / consultas);
+            m.put("inserciones", r.getPutCount());
+            m.put("elementos", r.getElementCountInMemory());
+            regiones.put(region, m);
+        }
+        Map<String, Object> respuesta = new LinkedHashMap<>();
+        respuesta.put("estadisticasActivas", estadisticas.isStatisticsEnabled());
+        respuesta.put("regiones", regiones);
+        respuesta.put("consultasAciertos", estadisticas.getQueryCacheHitCount());
+        respuesta.put("consultasFallos", estadisticas.getQueryCacheMissCount());
+        return ResponseEntity.ok(respuesta);
+    }
+
+    /**
+     * Métricas del hash de contraseñas: coste, hilos ocupados, tareas en cola, aciertos de la caché de
+     * verificaciones, hashes regenerados en el login y peticiones rechazadas por saturación.
+     */
+    @GetMapping("/contrasenas")
+    public ResponseEntity<?> metricasContrasenas(UsuarioAutenticado usuario) {
+        if (!esAdmin(usuario)) {
+            return ResponseEntity.status(403).body(Map.of("mensaje", "Acceso denegado: solo administradores."));
+        }
+        return ResponseEntity.ok(hashContrasenaService.metricas());
+    }
+
+    /**
+     * Contadores de cada límite de intentos (por IP y por correo): claves en memoria, intentos permitidos y
+     * rechazados, y las claves con más rechazos.
+     */
+    @GetMapping("/limites")
+    public ResponseEntity<?> metricasLimites(UsuarioAutenticado usuario) {
+        if (!esAdmin(usuario)) {
+            return ResponseEntity.status(403).body(Map.of("mensaje", "Acceso denegado: solo administradores."));
+        }
+        return ResponseEntity.ok(limiteIntentosService.metricas());
+    }
+
+    /**
+     * Estado del pool de conexiones (HikariCP): conexiones activas, libres y totales, hilos esperando una
+     * conexión y, de las métricas de Micrometer, el tiempo de espera para obtenerla y los timeouts. Si hay
+     * hilos esperando de forma sostenida, los hilos de Tomcat están bloqueados en el pool.
+     */
+    @GetMapping("/bd")
+    public ResponseEntity<?> metricasBaseDatos(UsuarioAutenticado usuario) throws SQLException {
+        if (!esAdmin(usuario)) {
+            return ResponseEntity.status(403).body(Map.of("mensaje", "Acceso denegado: solo administradores."));
+        }
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        Map<String, Object> respuesta = new LinkedHashMap<>();
+        respuesta.put("pool", hikari.getPoolName());
+        respuesta.put("maximo", hikari.getMaximumPoolSize());
+        if (pool != null) {
+            respuesta.put("activas", pool.getActiveConnections());
+            respuesta.put("libres", pool.getIdleConnections());
+            respuesta.put("totales", pool.getTotalConnections());
+            respuesta.put("hilosEsperando", pool.getThreadsAwaitingConnection());
+        }
+        Timer espera = meterRegistry.find("hikaricp.connections.acquire").tag("pool", hikari.getPoolName()).timer();
+        if (espera != null) {
+            respuesta.put("obtenidas", espera.count());
+            respuesta.put("esperaMediaMs", espera.mean(TimeUnit.MILLISECONDS));
+            respuesta.put("esperaMaximaMs", espera.max(TimeUnit.MILLISECONDS));
+        }
+        Counter timeouts = meterRegistry.find("hikaricp.connections.timeout").tag("pool", hikari.getPoolName()).counter();
+        respuesta.put("timeouts", timeouts != null ? (long) timeouts.count() : 0L);
+        return ResponseEntity.ok(respuesta);
+    }
+
+    /**
+     * Verifica si el usuario logueado es administrador.
+     */
+    private boolean esAdmin(UsuarioAutenticado usuario) {
+        return usuario != null && usuario.esAdmin();
+    }
+}
@@ -2,17 +2,19 @@
 package com.huahuacuna.app.controller;
 
 import com.huahuacuna.app.DTO.NinoDTO;
+import com.huahuacuna.app.DTO.UsuarioAutenticado;
+import com.huahuacuna.app.DTO.VersionRecurso;
 import com.huahuacuna.app.model.Nino;
-import com.huahuacuna.app.model.Usuario;
 import com.huahuacuna.app.service.NinoService;
-import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/ninos")
@@ -22,28 +24,26 @@ public class NinoController {
     @Autowired
     private NinoService ninoService;
 
-    private boolean esAdmin(HttpSession session) {
-        Usuario usuario = (Usuario) session.getAttribute("usuarioLogueado");
-        return usuario != null && usuario.getRol() == Usuario.Rol.administrador;
+    private boolean esAdmin(UsuarioAutenticado usuario) {
+        return usuario != null && usuario.esAdmin();
     }
 
-    private boolean esPadrino(HttpSession session) {
-        Usuario usuario = (Usuario) session.getAttribute("usuarioLogueado");
-        return usuario != null && usuario.getRol() == Usuario.Rol.padrino;
+    private boolean esPadrino(UsuarioAutenticado usuario) {
+        return usuario != null && usuario.esPadrino();
     }
 
     @GetMapping
-    public ResponseEntity<?> listarTodos(HttpSession session) {
+    public ResponseEntity<?> listarTodos(UsuarioAutenticado usuario) {
         // Permitir acceso a administradores Y padrinos
-        if (!esAdmin(session) && !esPadrino(session)) {
+        if (!esAdmin(usuario) && !esPadrino(usuario)) {
             return ResponseEntity.status(403).body(Map.of("mensaje", "Acceso denegado: solo administradores y padrinos."));
         }
         return ResponseEntity.ok(ninoService.listarTodos());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> obtenerPorId(@PathVariable Integer id, HttpSession session) {
-        if (!esAdmin(session)) {
+    public ResponseEntity<?> obtenerPorId(@PathVariable Integer id, UsuarioAutenticado usuario) {
+        if (!esAdmin(usuario)) {
             return ResponseEntity.status(403).body(Map.of("mensaje", "Acceso denegado: solo administradores."));
         }
         return ninoService.buscarPorId(id)
@@ -52,8 +52,8 @@ public class NinoController {
     }
 
     @PostMapping
-    public ResponseEntity<?> crear(@RequestBody NinoDTO dto, HttpSession session) {
-        if (!esAdmin(session)) {
+    public ResponseEntity<?> crear(@RequestBody NinoDTO dto, UsuarioAutenticado usuario) {
+        if (!esAdmin(usuario)) {
             return ResponseEntity.status(403).body(Map.of("mensaje", "Acceso denegado: solo administradores."));
         }
         Nino nuevo = ninoService.guardar(dto);
@@ -64,9 +64,9 @@ public class NinoController {
     public ResponseEntity<?> actualizarParcialmente(
             @PathVariable Integer id,
             @RequestBody Map<String, Object> campos,
-            HttpSession session) {
+            UsuarioAutenticado usuario) {
 
-        if (!esAdmin(session)) {
+        if (!esAdmin(usuario)) {
             return ResponseEntity.status(403).body(Map.of("mensaje", "Acceso denegado: solo administradores."));
         }
 
@@ -81,31 +81,23 @@ public class NinoController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> eliminar(@PathVariable Integer id, HttpSession session) {
-        if (!esAdmin(session)) {
+    public ResponseEntity<?> eliminar(@PathVariable Integer id, UsuarioAutenticado usuario) {
+        if (!esAdmin(usuario)) {
             return ResponseEntity.status(403).body(Map.of("mensaje", "Acceso denegado: solo administradores."));
         }
         ninoService.eliminar(id);
         return ResponseEntity.noContent().build();
     }
 
+    // Con ETag por versión del niño: 304 sin leer el perfil si el cliente ya lo tiene
     @GetMapping("/publico/{id}")
-    public ResponseEntity<?> verNinoPublico(@PathVariable Integer id) {
-        return ninoService.buscarPorId(id)
-                .map(nino -> {
-                    Map<String, Object> response = new HashMap<>();
-                    response.put("id_nino", nino.getId_nino());
-                    response.put("nombre", nino.getNombre() != null ? nino.getNombre() : "");
-                    response.put("edad", nino.getEdad());
-                    response.put("genero", nino.getGenero() != null ? nino.getGenero() : "");
-                    response.put("descripcion", nino.getDescripcion() != null ? nino.getDescripcion() : "");
-                    response.put("foto", nino.getFotoUrl()); 
-                    response.put("fotoUrl", nino.getFotoUrl()); 
-                    response.put("fechaNacimiento", nino.getFechaNacimiento() != null ? nino.getFechaNacimiento().toString() : null);
-                    response.put("estadoApadrinamiento", nino.getEstadoApadrinamiento() != null ? nino.getEstadoApadrinamiento().toString() : "");
-                    
-                    return ResponseEntity.ok(response);
-                })
+    public ResponseEntity<?> verNinoPublico(@PathVariable Integer id, WebRequest request) {
+        Optional<VersionRecurso> version = ninoService.versionPerfilPublico(id);
+        if (version.isPresent() && request.checkNotModified(version.get().etag(), version.get().ultimaModificacion())) {
+            return null;
+        }
+        return ninoService.obtenerPerfilPublico(id)
+                .<ResponseEntity<?>>map(perfil -> ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(perfil))
                 .orElse(ResponseEntity.status(404).body(Map.of("mensaje", "Niño no encontrado.")));
     }
 }
\ No newline at end of file
@@ -1,18 +1,23 @@
 package com.huahuacuna.app.controller;
 
 import com.huahuacuna.app.DTO.ProyectoDTO;
+import com.huahuacuna.app.DTO.UsuarioAutenticado;
+import com.huahuacuna.app.DTO.VersionRecurso;
 import com.huahuacuna.app.model.Proyecto;
-import com.huahuacuna.app.model.Usuario;
 import com.huahuacuna.app.service.ProyectoService;
-import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Controlador REST para la gestión de proyectos (solo ADMIN).
+ *
+ * Los GET responden con {@code ETag} (versión de los proyectos) y 304 si el cliente ya tiene esa versión.
  */
 @RestController
 @RequestMapping("/api/proyectos")
@@ -26,31 +31,41 @@ public class ProyectoController {
      * Listar todos los proyectos (solo admin logueado).
      */
     @GetMapping
-    public ResponseEntity<?> listarTodos(HttpSession session) {
-        if (!esAdmin(session)) {
+    public ResponseEntity<?> listarTodos(UsuarioAutenticado usuario, WebRequest request) {
+        if (!esAdmin(usuario)) {
             return ResponseEntity.status(403).body("Acceso denegado: solo administradores.");
         }
-        return ResponseEntity.ok(proyectoService.listarTodos());
+        if (noModificado(request, proyectoService.versionTodos())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(proyectoService.listarTodos());
     }
 
     /**
      * Listar solo proyectos activos.
      */
     @GetMapping("/activos")
-    public ResponseEntity<?> listarActivos() {
-        return ResponseEntity.ok(proyectoService.listarActivos());
+    public ResponseEntity<?> listarActivos(WebRequest request) {
+        if (noModificado(request, proyectoService.versionActivos())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(proyectoService.listarActivos());
     }
 
     /**
      * Obtener un proyecto por ID (solo admin logueado).
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> obtenerPorId(@PathVariable Integer id, HttpSession session) {
-        if (!esAdmin(session)) {
+    public ResponseEntity<?> obtenerPorId(@PathVariable Integer id, UsuarioAutenticado usuario, WebRequest request) {
+        if (!esAdmin(usuario)) {
             return ResponseEntity.status(403).body("Acceso denegado: solo administradores.");
         }
+        Optional<VersionRecurso> version = proyectoService.versionProyecto(id);
+        if (version.isPresent() && noModificado(request, version.get())) {
+            return null;
+        }
         return proyectoService.buscarPorId(id)
-                .map(ResponseEntity::ok)
+                .<ResponseEntity<?>>map(p -> ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(p))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -58,8 +73,8 @@ public class ProyectoController {
      * Crear un nuevo proyecto (solo admin logueado).
      */
     @PostMapping
-    public ResponseEntity<?> crear(@RequestBody ProyectoDTO dto, HttpSession session) {
-        if (!esAdmin(session)) {
+    public ResponseEntity<?> crear(@RequestBody ProyectoDTO dto, UsuarioAutenticado usuario) {
+        if (!esAdmin(usuario)) {
             return ResponseEntity.status(403).body("Acceso denegado: solo administradores.");
         }
         Proyecto nuevo = proyectoService.guardar(dto);
@@ -70,8 +85,8 @@ public class ProyectoController {
      * Actualizar un proyecto existente (solo admin logueado).
      */
     @PatchMapping("/{id}")
-    public ResponseEntity<?> actualizar(@PathVariable Integer id, @RequestBody ProyectoDTO dto, HttpSession session) {
-        if (!esAdmin(session)) {
+    public ResponseEntity<?> actualizar(@PathVariable Integer id, @RequestBody ProyectoDTO dto, UsuarioAutenticado usuario) {
+        if (!esAdmin(usuario)) {
             return ResponseEntity.status(403).body("Acceso denegado: solo administradores.");
         }
         Proyecto actualizado = proyectoService.actualizar(id, dto);
@@ -82,8 +97,8 @@ public class ProyectoController {
      * Eliminar un proyecto (solo admin logueado).
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> eliminar(@PathVariable Integer id, HttpSession session) {
-        if (!esAdmin(session)) {
+    public ResponseEntity<?> eliminar(@PathVariable Integer id, UsuarioAutenticado usuario) {
+        if (!esAdmin(usuario)) {
             return ResponseEntity.status(403).body("Acceso denegado: solo administradores.");
         }
         proyectoService.eliminar(id);
@@ -93,12 +108,12 @@ public class ProyectoController {
     /**
      * Verifica si el usuario logueado es administrador.
      */
-    private boolean esAdmin(HttpSession session) {
-        Object usuario = session.getAttribute("usuarioLogueado");
-        if (usuario instanceof com.huahuacuna.app.model.Usuario user) {
-            return user.getRol() == Usuario.Rol.administrador;
-        }
-        return false;
+    private static boolean noModificado(WebRequest request, VersionRecurso version) {
+        return request.checkNotModified(version.etag(), version.ultimaModificacion());
+    }
+
+    private boolean esAdmin(UsuarioAutenticado usuario) {
+        return usuario != null && usuario.esAdmin();
     }
 }
 
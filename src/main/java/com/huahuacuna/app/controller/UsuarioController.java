@@ -2,13 +2,18 @@ package com.huahuacuna.app.controller;
 
 import com.huahuacuna.app.DTO.*;
 import com.huahuacuna.app.model.Usuario;
+import com.huahuacuna.app.service.HashContrasenaService;
+import com.huahuacuna.app.service.LimiteIntentosService;
 import com.huahuacuna.app.service.UsuarioService;
 import com.huahuacuna.app.DTO.ActualizarPerfilDTO;
-import jakarta.mail.MessagingException;
-import jakarta.servlet.http.HttpSession;
+import com.huahuacuna.app.config.AutenticacionFilter;
+import com.huahuacuna.app.config.LimiteIntentosFilter;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -23,13 +28,14 @@ import java.util.Map;
  * - verificación de código de recuperación
  * - restablecimiento de contraseña mediante código
  * - cambio de contraseña para usuarios autenticados
- * - ver perfil (basado en sesión HTTP)
+ * - ver perfil (del usuario autenticado por token)
  * - cierre de sesión</p>
  *
  * <p>Notas de seguridad/importantes:
  * - El endpoint de registro normaliza el correo (trim + lowercase) antes de comprobar existencia/crear.
  * - El flujo de recuperación no revela si un correo existe (respuesta intencionalmente ambigua) para evitar enumeración de usuarios.
- * - Este controlador usa HttpSession para almacenar/obtener el usuario logueado bajo el atributo "usuarioLogueado". Asegúrate de que el filtro/autenticación de la app establezca ese atributo al iniciar sesión.</p>
+ * - El usuario logueado llega como {@link UsuarioAutenticado} (id y rol), validado por
+ *   {@link AutenticacionFilter} a partir del token emitido en {@code /auth/login}; es {@code null} si no hay sesión.</p>
  *
  * @see UsuarioService
  * @see RegistroDTO
@@ -52,6 +58,9 @@ public class UsuarioController {
     @Autowired
     private UsuarioService usuarioService;
 
+    @Autowired
+    private LimiteIntentosService limiteIntentosService;
+
     /**
      * Registra un nuevo usuario en el sistema.
      *
@@ -61,7 +70,7 @@ public class UsuarioController {
      *
      * @param dto DTO con los datos de registro (correo, nombre, contraseña). Validado por {@code @Valid}.
      * @return ResponseEntity con un mapa que incluye usuarioId, correo y nombre en caso de éxito (201),
-     *         o con un mensaje de error en caso de conflicto (409).
+     *         o con un mensaje de error en caso de conflicto (409) o de contraseña de más de 72 bytes (400).
      */
     @PostMapping("/registro")
     public ResponseEntity<?> registrar(@Valid @RequestBody RegistroDTO dto) {
@@ -89,15 +98,20 @@ public class UsuarioController {
     /**
      * Inicia el proceso de recuperación de contraseña para un correo dado.
      *
-     * <p>El servicio intentará enviar un correo con un código de recuperación. Por motivos de seguridad
+     * <p>El servicio genera un código de recuperación y encola el correo que lo contiene; el envío se hace
+     * en segundo plano, por lo que la respuesta no espera al servidor SMTP. Por motivos de seguridad
      * la respuesta pública no indica si el correo existe o no; en ambos casos se devuelve 200 OK con
-     * un mensaje genérico. Si ocurre un error enviando el correo se devuelve 500 INTERNAL SERVER ERROR.</p>
+     * un mensaje genérico.</p>
      *
      * @param dto DTO con el correo para iniciar la recuperación. Validado por {@code @Valid}.
-     * @return ResponseEntity con mensaje genérico (200) o con mensaje de error (500) si falla el envío.
+     * @return ResponseEntity con mensaje genérico (200); 429 si se superó el límite de intentos.
      */
     @PostMapping("/recuperar")
     public ResponseEntity<?> iniciarRecuperacion(@Valid @RequestBody RecuperarRequestDTO dto) {
+        long esperaMs = limiteIntentosService.consumirCorreo(LimiteIntentosService.Operacion.RECUPERAR, dto.getCorreo());
+        if (esperaMs > 0) {
+            return demasiadosIntentos(esperaMs);
+        }
         try {
             usuarioService.iniciarRecuperacion(dto.getCorreo());
             // Por seguridad no confirmamos si el correo existe o no en la respuesta pública.
@@ -105,8 +119,6 @@ public class UsuarioController {
         } catch (IllegalArgumentException e) {
             // Se devuelve el mismo 200 para evitar enumeración de usuarios.
             return ResponseEntity.ok(Map.of("mensaje", "Si el correo existe, se ha enviado un código de recuperación."));
-        } catch (MessagingException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("mensaje", "Error enviando el correo."));
         }
     }
 
@@ -114,10 +126,15 @@ public class UsuarioController {
      * Verifica si un código de recuperación es válido para el correo indicado.
      *
      * @param dto DTO con correo y código a verificar. Validado por {@code @Valid}.
-     * @return 200 OK con mensaje si el código es válido; 400 BAD REQUEST con mensaje si es inválido o expirado.
+     * @return 200 OK con mensaje si el código es válido; 400 BAD REQUEST con mensaje si es inválido o expirado;
+     *         429 si se superó el límite de intentos.
      */
     @PostMapping("/recuperar/verificar")
     public ResponseEntity<?> verificarCodigo(@Valid @RequestBody VerificarCodigoDTO dto) {
+        long esperaMs = limiteIntentosService.consumirCorreo(LimiteIntentosService.Operacion.CODIGO, dto.getCorreo());
+        if (esperaMs > 0) {
+            return demasiadosIntentos(esperaMs);
+        }
         boolean ok = usuarioService.verificarCodigo(dto.getCorreo(), dto.getCodigo());
         if (ok) {
             return ResponseEntity.ok(Map.of("mensaje", "Código válido."));
@@ -130,10 +147,15 @@ public class UsuarioController {
      * Restablece la contraseña utilizando el correo, el código de recuperación y la nueva contraseña.
      *
      * @param dto DTO con correo, código y nueva contraseña. Validado por {@code @Valid}.
-     * @return 200 OK con mensaje si la contraseña fue restablecida; 400 BAD REQUEST si el código es inválido/expirado.
+     * @return 200 OK con mensaje si la contraseña fue restablecida; 400 BAD REQUEST si el código es inválido/expirado
+     *         o la nueva contraseña supera los 72 bytes; 429 si se superó el límite de intentos.
      */
     @PostMapping("/recuperar/reset")
     public ResponseEntity<?> resetContrasena(@Valid @RequestBody ResetContrasenaDTO dto) {
+        long esperaMs = limiteIntentosService.consumirCorreo(LimiteIntentosService.Operacion.CODIGO, dto.getCorreo());
+        if (esperaMs > 0) {
+            return demasiadosIntentos(esperaMs);
+        }
         boolean ok = usuarioService.resetContrasena(dto.getCorreo(), dto.getCodigo(), dto.getNuevaContrasena());
         if (ok) {
             return ResponseEntity.ok(Map.of("mensaje", "Contraseña restablecida correctamente."));
@@ -143,23 +165,23 @@ public class UsuarioController {
     }
 
     /**
-     * Cambia la contraseña del usuario actualmente autenticado (guardado en la sesión).
+     * Cambia la contraseña del usuario actualmente autenticado.
      *
-     * <p>Requiere que el usuario esté presente en la sesión bajo el atributo "usuarioLogueado". Si no hay
-     * usuario en sesión devuelve 401 UNAUTHORIZED. Si la contraseña actual no coincide, devuelve 400 BAD REQUEST.</p>
+     * <p>Si no hay usuario autenticado devuelve 401 UNAUTHORIZED. Si la contraseña actual no coincide,
+     * devuelve 400 BAD REQUEST.</p>
      *
      * @param dto DTO con la contraseña actual y la nueva contraseña. Validado por {@code @Valid}.
-     * @param session HttpSession donde se busca el atributo "usuarioLogueado".
-     * @return 200 OK si el cambio fue exitoso; 401 si no hay sesión; 400 si la contraseña actual es incorrecta.
+     * @param usuario usuario autenticado por token ({@code null} si no hay sesión).
+     * @return 200 OK si el cambio fue exitoso; 401 si no hay sesión; 400 si la contraseña actual es incorrecta
+     *         o la nueva supera los 72 bytes.
      */
     @PostMapping("/cambiar")
-    public ResponseEntity<?> cambiarContrasena(@Valid @RequestBody CambiarContrasenaDTO dto, HttpSession session) {
-        Usuario usuario = (Usuario) session.getAttribute("usuarioLogueado");
+    public ResponseEntity<?> cambiarContrasena(@Valid @RequestBody CambiarContrasenaDTO dto, UsuarioAutenticado usuario) {
         if (usuario == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("mensaje", "Debe iniciar sesión para cambiar la contraseña."));
         }
 
-        boolean cambiado = usuarioService.cambiarContrasena(usuario.getId_usuario(), dto.getContrasenaActual(), dto.getNuevaContrasena());
+        boolean cambiado = usuarioService.cambiarContrasena(usuario.id(), dto.getContrasenaActual(), dto.getNuevaContrasena());
         if (cambiado) {
             return ResponseEntity.ok(Map.of("mensaje", "Contraseña cambiada correctamente."));
         } else {
@@ -168,16 +190,19 @@ public class UsuarioController {
     }
 
     /**
-     * Devuelve el perfil del usuario actualmente en sesión.
+     * Devuelve el perfil del usuario autenticado, leído de la base de datos.
      *
-     * @param session HttpSession donde se busca el usuario bajo "usuarioLogueado".
-     * @return 200 OK con la entidad Usuario si está en sesión; 401 UNAUTHORIZED si no hay sesión activa.
+     * @param usuario usuario autenticado por token ({@code null} si no hay sesión).
+     * @return 200 OK con la entidad Usuario; 401 UNAUTHORIZED si no hay sesión activa o el usuario ya no existe.
      */
     @GetMapping("/perfil")
-    public ResponseEntity<?> verPerfil(HttpSession session) {
-        Usuario usuario = (Usuario) session.getAttribute("usuarioLogueado");
+    public ResponseEntity<?> verPerfil(UsuarioAutenticado usuario) {
         if (usuario != null) {
-            return ResponseEntity.ok(usuario);
+            return usuarioService.buscarPorId(usuario.id())
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
+                            "mensaje", "Debe iniciar sesión para ver su perfil."
+                    )));
         } else {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
                     "mensaje", "Debe iniciar sesión para ver su perfil."
@@ -186,38 +211,69 @@ public class UsuarioController {
     }
 
     /**
-     * Cierra la sesión HTTP del usuario actual invalidando la sesión.
+     * Cierra la sesión del usuario actual borrando la cookie del token.
      *
-     * @param session HttpSession a invalidar.
+     * <p>El token es autocontenido: un cliente que lo haya copiado (por ejemplo en la cabecera
+     * {@code Authorization}) puede seguir usándolo hasta que expire.</p>
+     *
+     * @param response respuesta HTTP donde se expira la cookie.
      * @return 200 OK con mensaje de confirmación.
      */
     @PostMapping("/logout")
-    public ResponseEntity<?> cerrarSesion(HttpSession session) {
-        session.invalidate();
+    public ResponseEntity<?> cerrarSesion(HttpServletResponse response) {
+        ResponseCookie cookie = ResponseCookie.from(AutenticacionFilter.COOKIE_TOKEN, "")
+                .httpOnly(true)
+                .path("/")
+                .maxAge(0)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
         return ResponseEntity.ok(Map.of(
                 "mensaje", "Sesión cerrada correctamente."
         ));
     }
     /**
-     * Actualiza el perfil del usuario actualmente en sesión.
+     * Actualiza el perfil del usuario autenticado.
      *
      * @param dto DTO con los datos a actualizar (nombre, telefono, direccion).
-     * @param session HttpSession donde se busca el usuario bajo "usuarioLogueado".
+     * @param usuario usuario autenticado por token ({@code null} si no hay sesión).
      * @return 200 OK con el usuario actualizado; 401 UNAUTHORIZED si no hay sesión activa.
      */
     @PatchMapping("/perfil")
-    public ResponseEntity<?> actualizarPerfil(@Valid @RequestBody ActualizarPerfilDTO dto, HttpSession session) {
-        Usuario usuario = (Usuario) session.getAttribute("usuarioLogueado");
+    public ResponseEntity<?> actualizarPerfil(@Valid @RequestBody ActualizarPerfilDTO dto, UsuarioAutenticado usuario) {
         if (usuario == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("mensaje", "Debe iniciar sesión para actualizar su perfil."));
         }
 
-        Usuario usuarioActualizado = usuarioService.actualizarPerfil(usuario.getId_usuario(), dto);
-        
-        // Actualizar el usuario en la sesión
-        session.setAttribute("usuarioLogueado", usuarioActualizado);
-        
+        Usuario usuarioActualizado = usuarioService.actualizarPerfil(usuario.id(), dto);
+
         return ResponseEntity.ok(usuarioActualizado);
     }
-}
\ No newline at end of file
+
+    /**
+     * Registro y cambios de contraseña cuando el pool de hash de contraseñas está saturado.
+     */
+    @ExceptionHandler(HashContrasenaService.ServicioSaturadoException.class)
+    public ResponseEntity<?> servicioSaturado(HashContrasenaService.ServicioSaturadoException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("mensaje", e.getMessage()));
+    }
+
+    /**
+     * Registro y cambios de contraseña con una contraseña nueva de más de 72 bytes.
+     */
+    @ExceptionHandler(HashContrasenaService.ContrasenaDemasiadoLargaException.class)
+    public ResponseEntity<?> contrasenaDemasiadoLarga(HashContrasenaService.ContrasenaDemasiadoLargaException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("mensaje", e.getMessage()));
+    }
+
+    /**
+     * Respuesta 429 cuando se supera el límite de intentos por correo.
+     */
+    private ResponseEntity<?> demasiadosIntentos(long esperaMs) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(LimiteIntentosFilter.segundos(esperaMs)))
+                .body(Map.of("mensaje", LimiteIntentosFilter.MENSAJE));
+    }
+}
@@ -2,11 +2,15 @@ package com.huahuacuna.app.controller;
 
 import com.huahuacuna.app.DTO.RegistroVoluntariadoDTO;
 import com.huahuacuna.app.model.Voluntariado;
+import com.huahuacuna.app.service.HashContrasenaService;
 import com.huahuacuna.app.service.VoluntariadoService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/voluntariado")
 public class VoluntariadoController {
@@ -22,5 +26,13 @@ public class VoluntariadoController {
         Voluntariado nuevo = voluntariadoService.registrarVoluntario(dto);
         return ResponseEntity.ok(nuevo);
     }
+
+    /**
+     * Registro de un voluntario nuevo con una contraseña de más de 72 bytes.
+     */
+    @ExceptionHandler(HashContrasenaService.ContrasenaDemasiadoLargaException.class)
+    public ResponseEntity<?> contrasenaDemasiadoLarga(HashContrasenaService.ContrasenaDemasiadoLargaException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("mensaje", e.getMessage()));
+    }
 }
 
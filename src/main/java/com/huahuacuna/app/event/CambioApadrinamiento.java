@@ -0,0 +1,7 @@
+package com.huahuacuna.app.event;
+
+/**
+ * Se creó ({@code +1}) o finalizó ({@code -1}) un apadrinamiento activo.
+ */
+public record CambioApadrinamiento(int activos) {
+}
@@ -0,0 +1,48 @@
+package com.huahuacuna.app.event;
+
+import com.huahuacuna.app.model.Donacion;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Se crearon ({@code cantidad > 0}) o eliminaron ({@code cantidad < 0}) donaciones de un tipo en un día.
+ *
+ * @param dia      día de la donación ({@code fechaDonacion})
+ * @param tipo     tipo de donación
+ * @param cantidad número de donaciones, negativo si se eliminaron
+ * @param monto    suma de los montos, con el mismo signo que {@code cantidad}
+ */
+public record CambioDonaciones(LocalDate dia, Donacion.TipoDonacion tipo, long cantidad, BigDecimal monto) {
+
+    public static CambioDonaciones alta(Donacion donacion) {
+        return new CambioDonaciones(donacion.getFechaDonacion().toLocalDate(), donacion.getTipo(), 1, monto(donacion));
+    }
+
+    public static CambioDonaciones baja(Donacion donacion) {
+        return new CambioDonaciones(donacion.getFechaDonacion().toLocalDate(), donacion.getTipo(), -1,
+                monto(donacion).negate());
+    }
+
+    /**
+     * Un cambio por cada día y tipo presentes en un lote de donaciones creadas.
+     */
+    public static List<CambioDonaciones> altas(List<Donacion> donaciones) {
+        Map<List<Object>, List<Donacion>> grupos = donaciones.stream()
+                .collect(Collectors.groupingBy(d -> List.of(d.getFechaDonacion().toLocalDate(), d.getTipo())));
+        return grupos.entrySet().stream()
+                .map(e -> new CambioDonaciones(
+                        (LocalDate) e.getKey().get(0),
+                        (Donacion.TipoDonacion) e.getKey().get(1),
+                        e.getValue().size(),
+                        e.getValue().stream().map(CambioDonaciones::monto).reduce(BigDecimal.ZERO, BigDecimal::add)))
+                .toList();
+    }
+
+    private static BigDecimal monto(Donacion donacion) {
+        return donacion.getMonto() != null ? donacion.getMonto() : BigDecimal.ZERO;
+    }
+}
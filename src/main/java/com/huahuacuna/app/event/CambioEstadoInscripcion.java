@@ -0,0 +1,11 @@
+package com.huahuacuna.app.event;
+
+import com.huahuacuna.app.model.InscripcionEvento;
+
+/**
+ * Una inscripción a un evento se creó ({@code anterior == null}) o cambió de estado.
+ */
+public record CambioEstadoInscripcion(Long eventoId,
+                                      InscripcionEvento.EstadoInscripcion anterior,
+                                      InscripcionEvento.EstadoInscripcion nuevo) {
+}
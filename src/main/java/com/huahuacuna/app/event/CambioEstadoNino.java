@@ -0,0 +1,10 @@
+package com.huahuacuna.app.event;
+
+import com.huahuacuna.app.model.Nino;
+
+/**
+ * Un niño cambió de estado de apadrinamiento, se registró ({@code anterior == null}) o se eliminó
+ * ({@code nuevo == null}).
+ */
+public record CambioEstadoNino(Nino.EstadoApadrinamiento anterior, Nino.EstadoApadrinamiento nuevo) {
+}
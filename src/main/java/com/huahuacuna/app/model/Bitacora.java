@@ -6,7 +6,10 @@ import lombok.Setter;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "bitacora")
+@Table(name = "bitacora", indexes = {
+        // Línea de tiempo paginada de un niño (fecha_registro DESC, id_bitacora DESC)
+        @Index(name = "idx_bitacora_nino_fecha", columnList = "id_nino, fecha_registro, id_bitacora")
+})
 @Getter
 @Setter
 public class Bitacora {
@@ -31,4 +34,12 @@ public class Bitacora {
     
     @Column(name = "video_url")
     private String videoUrl;
+
+    /**
+     * Se incrementa en cada modificación (bloqueo optimista). Con ella se calcula el ETag de las respuestas
+     * que incluyen la entrada.
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint not null default 0")
+    private Long version;
 }
\ No newline at end of file
@@ -12,7 +12,16 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "donaciones")
+@Table(name = "donaciones", indexes = {
+        // Orden y seek del listado paginado (fecha_donacion DESC, id_donacion DESC)
+        @Index(name = "idx_donaciones_fecha_id", columnList = "fecha_donacion, id_donacion"),
+        // Reporte de donantes y certificados (ver db/migration/V1__indices_reporte_donaciones.sql)
+        @Index(name = "idx_donaciones_reporte_fecha",
+                columnList = "fecha_donacion, tipo, tipo_dotacion, id_usuario, correo_electronico, monto"),
+        @Index(name = "idx_donaciones_reporte_tipo",
+                columnList = "tipo, tipo_dotacion, fecha_donacion, id_usuario, correo_electronico, monto"),
+        @Index(name = "idx_donaciones_estado_fecha", columnList = "estado, fecha_donacion")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
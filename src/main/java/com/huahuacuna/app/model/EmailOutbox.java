@@ -0,0 +1,104 @@
+package com.huahuacuna.app.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Correo saliente pendiente de envío (patrón outbox).
+ *
+ * <p>Las operaciones que deben notificar por correo (por ejemplo la recuperación de contraseña) insertan
+ * una fila en esta tabla dentro de la misma transacción en la que modifican sus datos; el envío real lo
+ * hace en segundo plano {@link com.huahuacuna.app.service.EmailOutboxDispatcher}. Así el correo solo se
+ * envía si la transacción se confirmó, y la petición HTTP no espera al servidor SMTP.</p>
+ *
+ * <p>Ciclo de vida: {@code PENDIENTE} → {@code ENVIADO}, o {@code PENDIENTE} → {@code FALLIDO}
+ * (dead letter) tras agotar los reintentos. Mientras está pendiente, {@code proximoIntento} indica
+ * cuándo puede volver a intentarse (backoff exponencial o bloqueo temporal de un despachador).</p>
+ *
+ * <p>El cuerpo puede llevar credenciales (contraseña nueva, código de recuperación): al llegar a
+ * {@code ENVIADO} o {@code FALLIDO} se borra, y las filas terminadas se eliminan al cumplir
+ * {@code app.mail.outbox.retencion}.</p>
+ */
+@Entity
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_pendientes", columnList = "estado, proximo_intento"),
+        @Index(name = "idx_email_outbox_dedup", columnList = "clave_dedup, estado"),
+        @Index(name = "idx_email_outbox_terminados", columnList = "estado, fecha_creacion")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_email_outbox_dedup_pendiente", columnNames = "clave_dedup_pendiente")
+})
+@Getter
+@Setter
+public class EmailOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_correo")
+    private Long id;
+
+    @Column(name = "destinatario", nullable = false)
+    private String destinatario;
+
+    @Column(name = "asunto", nullable = false)
+    private String asunto;
+
+    /**
+     * Cuerpo en texto plano. Vacío una vez que el correo está {@code ENVIADO} o {@code FALLIDO}.
+     */
+    @Column(name = "cuerpo", columnDefinition = "TEXT", nullable = false)
+    private String cuerpo;
+
+    /**
+     * Clave de deduplicación (tipo de correo + destinatario). Mientras exista un correo pendiente con la
+     * misma clave, un nuevo encolado reemplaza su contenido en lugar de crear otro envío.
+     */
+    @Column(name = "clave_dedup")
+    private String claveDedup;
+
+    /**
+     * {@code claveDedup} mientras el correo está pendiente, {@code NULL} después. Columna generada por MySQL con
+     * un índice único: garantiza que no haya dos correos pendientes con la misma clave aunque se encolen a la
+     * vez (ver {@link com.huahuacuna.app.repository.EmailOutboxRepository#encolarDeduplicado}).
+     */
+    @Column(name = "clave_dedup_pendiente", insertable = false, updatable = false,
+            columnDefinition = "varchar(255) GENERATED ALWAYS AS (IF(estado = 'PENDIENTE', clave_dedup, NULL)) STORED")
+    private String claveDedupPendiente;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false)
+    private EstadoCorreo estado = EstadoCorreo.PENDIENTE;
+
+    @Column(name = "intentos", nullable = false)
+    private int intentos = 0;
+
+    @Column(name = "proximo_intento", nullable = false)
+    private LocalDateTime proximoIntento = LocalDateTime.now();
+
+    @Column(name = "ultimo_error", length = 1000)
+    private String ultimoError;
+
+    @CreationTimestamp
+    @Column(name = "fecha_creacion", updatable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column(name = "fecha_envio")
+    private LocalDateTime fechaEnvio;
+
+    /**
+     * Versión para bloqueo optimista: si el contenido se reemplaza mientras se está enviando, el
+     * despachador no podrá marcarlo como enviado y el correo actualizado se reenviará.
+     */
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    public enum EstadoCorreo {
+        PENDIENTE,
+        ENVIADO,
+        FALLIDO
+    }
+}
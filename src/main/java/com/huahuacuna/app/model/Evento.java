@@ -1,10 +1,13 @@
 package com.huahuacuna.app.model;
 
+import com.huahuacuna.app.config.SegundoNivelCacheConfig;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -12,6 +15,8 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "eventos")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SegundoNivelCacheConfig.EVENTOS)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -42,6 +47,19 @@ public class Evento {
 
     private Boolean activo = true; // Para activar/desactivar eventos
 
+    /**
+     * Cupos del evento; {@code null} si no tiene límite.
+     */
+    private Integer capacidad;
+
+    /**
+     * Inscripciones confirmadas. Solo lo modifican las actualizaciones atómicas de {@code EventoRepository}
+     * ({@code ocuparCupo}/{@code liberarCupo}); no es actualizable desde la entidad para que guardar un
+     * evento leído antes no pise el contador.
+     */
+    @Column(name = "cupos_ocupados", nullable = false, updatable = false)
+    private Integer cuposOcupados = 0;
+
     @CreationTimestamp
     @Column(updatable = false)
     private LocalDateTime fechaCreacion;
@@ -11,7 +11,10 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "inscripcion_evento")
+@Table(name = "inscripcion_evento", indexes = {
+        // Primer inscrito en lista de espera de un evento
+        @Index(name = "idx_inscripcion_evento_estado", columnList = "evento_id, estado, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -41,7 +44,11 @@ public class InscripcionEvento {
     @Column(updatable = false)
     private LocalDateTime fechaInscripcion;
 
+    /**
+     * CONFIRMADO ocupa un cupo del evento; LISTA_ESPERA se confirma en orden de inscripción cuando se libera
+     * un cupo (ver {@code EventoService}).
+     */
     public enum EstadoInscripcion {
-        CONFIRMADO, CANCELADO
+        CONFIRMADO, CANCELADO, LISTA_ESPERA
     }
 }
\ No newline at end of file
@@ -1,8 +1,11 @@
 package com.huahuacuna.app.model;
 
+import com.huahuacuna.app.config.SegundoNivelCacheConfig;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.time.Period;
@@ -12,6 +15,8 @@ import java.time.Period;
  */
 @Entity
 @Table(name = "ninos")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SegundoNivelCacheConfig.NINOS)
 @Getter
 @Setter
 public class Nino {
@@ -42,6 +47,14 @@ public class Nino {
     @Column(name = "fecha_registro", nullable = false)
     private LocalDate fechaRegistro = LocalDate.now();
 
+    /**
+     * Se incrementa en cada modificación (bloqueo optimista). Con ella se calcula el ETag de las respuestas
+     * que incluyen al niño.
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint not null default 0")
+    private Long version;
+
     /**
      * Método getter que calcula la edad dinámicamente
      * No se persiste en la BD
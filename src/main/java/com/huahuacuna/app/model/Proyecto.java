@@ -1,14 +1,19 @@
 package com.huahuacuna.app.model;
 
 
+import com.huahuacuna.app.config.SegundoNivelCacheConfig;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 
 @Entity
 @Table(name = "proyectos")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SegundoNivelCacheConfig.PROYECTOS)
 @Getter
 @Setter
 public class Proyecto {
@@ -34,6 +39,14 @@ public class Proyecto {
     @Column(name = "estado", nullable = false)
     private EstadoProyecto estado = EstadoProyecto.ACTIVO;
 
+    /**
+     * Se incrementa en cada modificación (bloqueo optimista). Con ella se calcula el ETag de las respuestas
+     * que incluyen al proyecto.
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint not null default 0")
+    private Long version;
+
     public enum EstadoProyecto {
         ACTIVO,
         INACTIVO,
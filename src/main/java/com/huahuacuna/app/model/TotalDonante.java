@@ -0,0 +1,64 @@
+package com.huahuacuna.app.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Acumulado de donaciones por donante, tipo, tipo de dotación, estado y día (tabla {@code donor_totals}).
+ *
+ * <p>Es una tabla derivada de {@code donaciones} que mantiene {@link com.huahuacuna.app.service.TotalDonanteService}
+ * de forma incremental cada vez que se crea, cambia de estado o se elimina una donación. El reporte de
+ * donantes suma estos buckets en lugar de reagrupar toda la tabla de donaciones.</p>
+ *
+ * <p>Las columnas de la clave no admiten nulos para que el índice único funcione: un donante sin usuario
+ * se guarda con {@code id_usuario = 0} y los correos o dotaciones ausentes como cadena vacía, igual que
+ * los {@code COALESCE} del reporte original.</p>
+ */
+@Entity
+@Table(name = "donor_totals",
+        uniqueConstraints = @UniqueConstraint(name = "uk_donor_totals_bucket",
+                columnNames = {"id_usuario", "correo", "tipo", "tipo_dotacion", "estado", "dia"}),
+        indexes = @Index(name = "idx_donor_totals_dia", columnList = "dia"))
+@Getter
+@Setter
+public class TotalDonante {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_total")
+    private Long id;
+
+    @Column(name = "id_usuario", nullable = false)
+    private Long idUsuario;
+
+    @Column(name = "correo", nullable = false)
+    private String correo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false)
+    private Donacion.TipoDonacion tipo;
+
+    @Column(name = "tipo_dotacion", nullable = false)
+    private String tipoDotacion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false)
+    private Donacion.EstadoDonacion estado;
+
+    @Column(name = "dia", nullable = false)
+    private LocalDate dia;
+
+    @Column(name = "total_monto", nullable = false, precision = 38, scale = 2)
+    private BigDecimal totalMonto;
+
+    @Column(name = "cantidad", nullable = false)
+    private Long cantidad;
+
+    @Column(name = "ultima_donacion")
+    private LocalDateTime ultimaDonacion;
+}
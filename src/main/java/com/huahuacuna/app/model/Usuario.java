@@ -1,5 +1,6 @@
 package com.huahuacuna.app.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -15,9 +16,8 @@ import java.time.LocalDateTime;
  * creación y estado.</p>
  *
  * <p>Notas importantes:
- * - La contraseña se almacena en el campo {@code contrasena}. Por seguridad, en
- *   producción este campo debe contener un hash (por ejemplo BCrypt). No guardar
- *   contraseñas en texto plano.
+ * - La contraseña se almacena hasheada (BCrypt) en el campo {@code contrasena}, junto con
+ *   el algoritmo y el coste usados. Los campos sensibles no se serializan a JSON.
  * - Considerar añadir validaciones (@NotNull, @Email, @Size, etc.) ya sea aquí
  *   o a través de DTOs para la entrada (recomendado usar DTOs para los endpoints).
  * - La fecha de creación es un {@link LocalDate}; revisar la política de timezone
@@ -50,15 +50,32 @@ public class Usuario {
     private String correo;
 
     /**
-     * Contraseña del usuario.
+     * Hash de la contraseña del usuario.
      *
-     * <p>Nota: almacenar el hash de la contraseña, no la contraseña en texto plano.
-     * Recomendado: {@code BCrypt.hashpw(password, BCrypt.gensalt())} al guardar y
-     * {@code BCrypt.checkpw(rawPassword, storedHash)} al validar.</p>
+     * <p>Se asigna siempre con {@link com.huahuacuna.app.service.HashContrasenaService#asignar}, que también
+     * rellena {@link #hashAlgoritmo} y {@link #hashCosto}. Las filas anteriores a la migración conservan la
+     * contraseña en texto plano (algoritmo {@code null}) hasta el siguiente inicio de sesión correcto.</p>
      */
+    @JsonIgnore
     @Column(nullable = false)
     private String contrasena;
 
+    /**
+     * Algoritmo con el que se generó {@link #contrasena} ({@code bcrypt}); {@code null} en las filas
+     * heredadas que aún guardan la contraseña en texto plano.
+     */
+    @JsonIgnore
+    @Column(name = "hash_algoritmo", length = 20)
+    private String hashAlgoritmo;
+
+    /**
+     * Coste (log2 de las rondas para BCrypt) con el que se generó {@link #contrasena}. Si es menor que el
+     * configurado, el hash se regenera en el siguiente inicio de sesión.
+     */
+    @JsonIgnore
+    @Column(name = "hash_costo")
+    private Integer hashCosto;
+
     /**
      * Teléfono de contacto (opcional).
      */
@@ -105,9 +122,11 @@ public class Usuario {
      *
      * Ambos campos son nullable en la BD y se deben limpiar después de usar el código.
      */
+    @JsonIgnore
     @Column(name = "recovery_code", nullable = true)
     private String recoveryCode;
 
+    @JsonIgnore
     @Column(name = "recovery_expiry", nullable = true)
     private LocalDateTime recoveryExpiry;
 
@@ -1,5 +1,6 @@
 package com.huahuacuna.app.repository;
 
+import com.huahuacuna.app.DTO.ApadrinamientoDTO;
 import com.huahuacuna.app.model.Apadrinamiento;
 import com.huahuacuna.app.model.Apadrinamiento.EstadoApadrinamiento;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -12,6 +13,21 @@ import java.util.Optional;
 
 @Repository
 public interface ApadrinamientoRepository extends JpaRepository<Apadrinamiento, Integer> {
+
+    /**
+     * Proyección de {@link ApadrinamientoDTO} con los datos del padrino y del niño en una sola consulta
+     * (JOIN), sin cargar las entidades ni sus asociaciones EAGER.
+     */
+    String SELECT_DTO = "SELECT new com.huahuacuna.app.DTO.ApadrinamientoDTO(" +
+            "a.idApadrinamiento, p.id_usuario, n.id_nino, a.fechaInicio, a.fechaFin, a.estado, " +
+            "p.nombre, n.nombre, n.fotoUrl, n.fechaNacimiento, n.genero, n.descripcion) " +
+            "FROM Apadrinamiento a JOIN a.padrino p JOIN a.nino n ";
+
+    @Query(SELECT_DTO + "WHERE p.id_usuario = :idPadrino ORDER BY a.idApadrinamiento")
+    List<ApadrinamientoDTO> findDTOByPadrinoId(@Param("idPadrino") Integer idPadrino);
+
+    @Query(SELECT_DTO + "WHERE p.id_usuario = :idPadrino AND a.estado = :estado ORDER BY a.idApadrinamiento")
+    List<ApadrinamientoDTO> findDTOByPadrinoIdAndEstado(@Param("idPadrino") Integer idPadrino, @Param("estado") EstadoApadrinamiento estado);
     
     @Query("SELECT a FROM Apadrinamiento a WHERE a.padrino.id_usuario = :idPadrino")
     List<Apadrinamiento> findByPadrinoId(@Param("idPadrino") Integer idPadrino);
@@ -30,4 +46,6 @@ public interface ApadrinamientoRepository extends JpaRepository<Apadrinamiento,
     
     @Query("SELECT COUNT(a) FROM Apadrinamiento a WHERE a.padrino.id_usuario = :idPadrino AND a.estado = :estado")
     long countByPadrinoIdAndEstado(@Param("idPadrino") Integer idPadrino, @Param("estado") EstadoApadrinamiento estado);
+
+    long countByEstado(EstadoApadrinamiento estado);
 }
\ No newline at end of file
@@ -2,16 +2,45 @@
 package com.huahuacuna.app.repository;
 
 import com.huahuacuna.app.model.Bitacora;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Repository
 public interface BitacoraRepository extends JpaRepository<Bitacora, Integer> {
 
-    @Query("SELECT b FROM Bitacora b WHERE b.nino.id_nino = :ninoId ORDER BY b.fechaRegistro DESC")
-    List<Bitacora> findByNinoIdOrderByFechaDesc(@Param("ninoId") Integer ninoId);
+    /**
+     * Línea de tiempo de un niño, de la entrada más reciente a la más antigua. Devuelve solo las columnas
+     * del DTO: idBitacora, fechaRegistro, descripcion, fotoUrl (sin cargar el niño ni el video).
+     */
+    @Query("SELECT b.idBitacora, b.fechaRegistro, b.descripcion, b.fotoUrl FROM Bitacora b " +
+            "WHERE b.nino.id_nino = :ninoId " +
+            "ORDER BY b.fechaRegistro DESC, b.idBitacora DESC")
+    List<Object[]> findTimeline(@Param("ninoId") Integer ninoId, Pageable pageable);
+
+    /**
+     * Igual que {@link #findTimeline}, pero continúa después de la entrada {@code (fecha, id)} de la página anterior.
+     */
+    @Query("SELECT b.idBitacora, b.fechaRegistro, b.descripcion, b.fotoUrl FROM Bitacora b " +
+            "WHERE b.nino.id_nino = :ninoId " +
+            "  AND (b.fechaRegistro < :fecha OR (b.fechaRegistro = :fecha AND b.idBitacora < :id)) " +
+            "ORDER BY b.fechaRegistro DESC, b.idBitacora DESC")
+    List<Object[]> findTimelineDespuesDe(@Param("ninoId") Integer ninoId,
+                                         @Param("fecha") LocalDate fecha,
+                                         @Param("id") Integer id,
+                                         Pageable pageable);
+
+    /**
+     * Versión de la bitácora de un niño: número de entradas, mayor id, suma de versiones de las entradas y
+     * versión del niño (su nombre va en cada entrada). Cambia con cualquier alta, baja o modificación.
+     */
+    @Query("SELECT COUNT(b), MAX(b.idBitacora), COALESCE(SUM(b.version), 0), " +
+            "  (SELECT n.version FROM Nino n WHERE n.id_nino = :ninoId) " +
+            "FROM Bitacora b WHERE b.nino.id_nino = :ninoId")
+    List<Object[]> findVersionPorNino(@Param("ninoId") Integer ninoId);
 }
\ No newline at end of file
@@ -1,41 +1,81 @@
 package com.huahuacuna.app.repository;
 
+import com.huahuacuna.app.DTO.DonacionResumenDTO;
 import com.huahuacuna.app.model.Donacion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface DonacionRepository extends JpaRepository<Donacion, Long> {
+public interface DonacionRepository extends JpaRepository<Donacion, Long>, DonacionRepositoryCustom {
     List<Donacion> findByEstado(Donacion.EstadoDonacion estado);
     List<Donacion> findByCorreoElectronico(String correoElectronico);
+
+    /**
+     * Todas las donaciones como {@link DonacionResumenDTO}, leyendo solo las columnas del resumen.
+     */
+    @Query("SELECT new com.huahuacuna.app.DTO.DonacionResumenDTO(d.id, d.idUsuario, d.tipo, d.monto, d.estado, " +
+            "d.fechaDonacion, d.correoElectronico, d.tipoDotacion) FROM Donacion d ORDER BY d.id")
+    List<DonacionResumenDTO> findAllResumen();
+
     /**
-     * Agrupa por donante (id_usuario y correo) y devuelve:
-     * id_usuario, correo_electronico, totalDonado, totalDonaciones, ultimaDonacion
-     * Ahora soporta filtros opcionales: from, to, tipo (MONETARIA|MATERIAL), tipo_dotacion (ej. 'Alimentos').
+     * Número y suma de montos de las donaciones desde {@code desde}, por día y tipo:
+     * [dia (java.sql.Date), tipo, cantidad, monto].
      */
-    @Query(value = "" +
+    @Query(value = "SELECT DATE(d.fecha_donacion) AS dia, d.tipo, COUNT(*) AS cantidad, " +
+            "COALESCE(SUM(d.monto), 0) AS monto FROM donaciones d " +
+            "WHERE d.fecha_donacion >= :desde GROUP BY DATE(d.fecha_donacion), d.tipo", nativeQuery = true)
+    List<Object[]> contarPorDiaYTipo(@Param("desde") LocalDateTime desde);
+
+    /**
+     * Totales por donante (id_usuario y correo) de las donaciones COMPLETADAS en {@code [desde, hasta)}, para
+     * los certificados de donación: idUsuario, correo, nombre (del usuario, si existe), nit, totalMonetario,
+     * donacionesMonetarias, donacionesMateriales. Filtros opcionales por idUsuario y correo.
+     */
+    String CERTIFICADOS_SQL = "" +
             "SELECT " +
-            "  COALESCE(id_usuario, 0) AS idUsuario, " +
-            "  COALESCE(correo_electronico, '') AS correo, " +
-            "  COALESCE(SUM(monto), 0) AS totalDonado, " +
-            "  COUNT(*) AS totalDonaciones, " +
-            "  MAX(fecha_donacion) AS ultimaDonacion " +
+            "  COALESCE(d.id_usuario, 0) AS idUsuario, " +
+            "  COALESCE(d.correo_electronico, '') AS correo, " +
+            "  MAX(u.nombre) AS nombre, " +
+            "  MAX(d.nit) AS nit, " +
+            "  COALESCE(SUM(CASE WHEN d.tipo = 'MONETARIA' THEN d.monto END), 0) AS totalMonetario, " +
+            "  SUM(CASE WHEN d.tipo = 'MONETARIA' THEN 1 ELSE 0 END) AS donacionesMonetarias, " +
+            "  SUM(CASE WHEN d.tipo = 'MATERIAL' THEN 1 ELSE 0 END) AS donacionesMateriales " +
             "FROM donaciones d " +
-            "WHERE (:from IS NULL OR fecha_donacion >= :from) " +
-            "  AND (:to IS NULL OR fecha_donacion <= :to) " +
-            "  AND (:tipo IS NULL OR tipo = :tipo) " +
-            "  AND (:tipoDotacion IS NULL OR tipo_dotacion = :tipoDotacion) " +
-            "GROUP BY COALESCE(id_usuario, 0), COALESCE(correo_electronico, '') " +
-            "ORDER BY totalDonado DESC",
-            nativeQuery = true)
-    List<Object[]> findDonorReport(
-            @Param("from") LocalDateTime from,
-            @Param("to") LocalDateTime to,
-            @Param("tipo") String tipo,
-            @Param("tipoDotacion") String tipoDotacion);
-}
\ No newline at end of file
+            "LEFT JOIN usuarios u ON u.id_usuario = d.id_usuario " +
+            "WHERE d.estado = 'COMPLETADA' AND d.fecha_donacion >= :desde AND d.fecha_donacion < :hasta " +
+            "  AND (:idUsuario IS NULL OR COALESCE(d.id_usuario, 0) = :idUsuario) " +
+            "  AND (:correo IS NULL OR COALESCE(d.correo_electronico, '') = :correo) " +
+            "GROUP BY COALESCE(d.id_usuario, 0), COALESCE(d.correo_electronico, '') " +
+            "ORDER BY correo, idUsuario";
+
+    @Query(value = CERTIFICADOS_SQL, nativeQuery = true)
+    List<Object[]> findCertificados(
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta,
+            @Param("idUsuario") Long idUsuario,
+            @Param("correo") String correo);
+
+    /**
+     * Igual que {@link #findCertificados} pero como cursor (ver {@link DonacionRepositoryCustom#streamDonorReport}), para generar los
+     * certificados de todo un año sin cargarlos en memoria.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = CERTIFICADOS_SQL, nativeQuery = true)
+    Stream<Object[]> streamCertificados(
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta,
+            @Param("idUsuario") Long idUsuario,
+            @Param("correo") String correo);
+}
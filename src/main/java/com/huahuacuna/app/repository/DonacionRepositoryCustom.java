@@ -0,0 +1,58 @@
+package com.huahuacuna.app.repository;
+
+import com.huahuacuna.app.DTO.DonacionResumenDTO;
+import com.huahuacuna.app.DTO.FiltroDonacionDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Consultas de donaciones construidas dinámicamente (Criteria API), implementadas en
+ * {@link DonacionRepositoryImpl}.
+ */
+public interface DonacionRepositoryCustom {
+
+    /**
+     * Devuelve una página de donaciones ordenadas por {@code (fechaDonacion DESC, id DESC)} usando
+     * paginación por keyset: si se indica la clave de la última fila de la página anterior, solo se
+     * devuelven las filas posteriores a ella, sin OFFSET.
+     *
+     * @param filtro         filtros opcionales; solo los campos no nulos generan predicados
+     * @param despuesDeFecha fecha de la última fila de la página anterior (null para la primera página)
+     * @param despuesDeId    id de la última fila de la página anterior (null para la primera página)
+     * @param limite         número máximo de filas a devolver
+     * @return lista de proyecciones ligeras
+     */
+    List<DonacionResumenDTO> buscarPagina(FiltroDonacionDTO filtro, LocalDateTime despuesDeFecha, Long despuesDeId, int limite);
+
+    /**
+     * Reporte de donantes: agrupa por donante (id_usuario y correo) y devuelve
+     * idUsuario, correo_electronico, totalDonado, totalDonaciones, ultimaDonacion, ordenado por total donado
+     * de mayor a menor.
+     *
+     * <p>Solo los filtros no nulos generan predicados, de modo que MySQL puede usar los índices
+     * {@code idx_donaciones_reporte_*} para el rango de fechas o el tipo.</p>
+     *
+     * @param from         fecha/hora desde (inclusive), opcional
+     * @param to           fecha/hora hasta (inclusive), opcional
+     * @param tipo         tipo de donación (MONETARIA|MATERIAL, sin distinguir mayúsculas), opcional
+     * @param tipoDotacion tipo de dotación (ej. 'Alimentos'), opcional
+     */
+    List<Object[]> findDonorReport(LocalDateTime from, LocalDateTime to, String tipo, String tipoDotacion);
+
+    /**
+     * Igual que {@link #findDonorReport} pero con el límite superior exclusivo ({@code fecha_donacion < hasta}),
+     * ambos límites obligatorios y sin ordenar. Lo usa el reporte para el día parcial inicial de un rango.
+     */
+    List<Object[]> findDonorReportEntre(LocalDateTime desde, LocalDateTime hasta, String tipo, String tipoDotacion);
+
+    /**
+     * Igual que {@link #findDonorReport} pero devuelve las filas como un cursor.
+     *
+     * <p>El fetch size {@code Integer.MIN_VALUE} indica a MySQL Connector/J que transmita las filas
+     * una a una en lugar de cargar todo el resultado en memoria. El {@link Stream} debe consumirse
+     * dentro de una transacción y cerrarse al terminar (try-with-resources).</p>
+     */
+    Stream<Object[]> streamDonorReport(LocalDateTime from, LocalDateTime to, String tipo, String tipoDotacion);
+}
@@ -0,0 +1,151 @@
+package com.huahuacuna.app.repository;
+
+import com.huahuacuna.app.DTO.DonacionResumenDTO;
+import com.huahuacuna.app.DTO.FiltroDonacionDTO;
+import com.huahuacuna.app.model.Donacion;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Implementación de {@link DonacionRepositoryCustom}. Spring Data la combina con
+ * {@link DonacionRepository} por convención de nombre ({@code *Impl}).
+ */
+public class DonacionRepositoryImpl implements DonacionRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<DonacionResumenDTO> buscarPagina(FiltroDonacionDTO filtro, LocalDateTime despuesDeFecha,
+                                                 Long despuesDeId, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<DonacionResumenDTO> cq = cb.createQuery(DonacionResumenDTO.class);
+        Root<Donacion> d = cq.from(Donacion.class);
+        Path<LocalDateTime> fecha = d.get("fechaDonacion");
+        Path<Long> id = d.get("id");
+
+        List<Predicate> predicados = new ArrayList<>();
+        if (filtro.getEstado() != null) {
+            predicados.add(cb.equal(d.get("estado"), filtro.getEstado()));
+        }
+        if (filtro.getTipo() != null) {
+            predicados.add(cb.equal(d.get("tipo"), filtro.getTipo()));
+        }
+        if (filtro.getTipoDotacion() != null) {
+            predicados.add(cb.equal(d.get("tipoDotacion"), filtro.getTipoDotacion()));
+        }
+        if (filtro.getCorreo() != null) {
+            predicados.add(cb.equal(d.get("correoElectronico"), filtro.getCorreo()));
+        }
+        if (filtro.getDesde() != null) {
+            predicados.add(cb.greaterThanOrEqualTo(fecha, filtro.getDesde()));
+        }
+        if (filtro.getHasta() != null) {
+            predicados.add(cb.lessThanOrEqualTo(fecha, filtro.getHasta()));
+        }
+        if (despuesDeFecha != null && despuesDeId != null) {
+            // (fecha, id) < (:fecha, :id) en orden descendente
+            predicados.add(cb.or(
+                    cb.lessThan(fecha, despuesDeFecha),
+                    cb.and(cb.equal(fecha, despuesDeFecha), cb.lessThan(id, despuesDeId))));
+        }
+
+        cq.select(cb.construct(DonacionResumenDTO.class,
+                        id,
+                        d.get("idUsuario"),
+                        d.get("tipo"),
+                        d.get("monto"),
+                        d.get("estado"),
+                        fecha,
+                        d.get("correoElectronico"),
+                        d.get("tipoDotacion")))
+                .where(predicados.toArray(new Predicate[0]))
+                .orderBy(cb.desc(fecha), cb.desc(id));
+
+        return entityManager.createQuery(cq)
+                .setMaxResults(limite)
+                .getResultList();
+    }
+
+    @Override
+    public List<Object[]> findDonorReport(LocalDateTime from, LocalDateTime to, String tipo, String tipoDotacion) {
+        return consultaReporte(from, to, false, tipo, tipoDotacion, true).getResultList();
+    }
+
+    @Override
+    public List<Object[]> findDonorReportEntre(LocalDateTime desde, LocalDateTime hasta, String tipo, String tipoDotacion) {
+        return consultaReporte(desde, hasta, true, tipo, tipoDotacion, false).getResultList();
+    }
+
+    @Override
+    public Stream<Object[]> streamDonorReport(LocalDateTime from, LocalDateTime to, String tipo, String tipoDotacion) {
+        return consultaReporte(from, to, false, tipo, tipoDotacion, true)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, Integer.MIN_VALUE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    /**
+     * Construye la consulta del reporte de donantes. Los valores por defecto de los {@code COALESCE} son
+     * literales y no parámetros, para que la expresión del SELECT sea idéntica a la del GROUP BY
+     * ({@code ONLY_FULL_GROUP_BY}).
+     */
+    private TypedQuery<Object[]> consultaReporte(LocalDateTime desde, LocalDateTime hasta, boolean hastaExclusivo,
+                                                 String tipo, String tipoDotacion, boolean ordenar) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> cq = cb.createQuery(Object[].class);
+        Root<Donacion> d = cq.from(Donacion.class);
+        Path<LocalDateTime> fecha = d.get("fechaDonacion");
+
+        List<Predicate> predicados = new ArrayList<>();
+        if (desde != null) {
+            predicados.add(cb.greaterThanOrEqualTo(fecha, desde));
+        }
+        if (hasta != null) {
+            predicados.add(hastaExclusivo ? cb.lessThan(fecha, hasta) : cb.lessThanOrEqualTo(fecha, hasta));
+        }
+        if (tipo != null) {
+            Donacion.TipoDonacion tipoDonacion = tipoDonacion(tipo);
+            // Un tipo desconocido no coincide con ninguna donación (como con la consulta nativa anterior)
+            predicados.add(tipoDonacion != null ? cb.equal(d.get("tipo"), tipoDonacion) : cb.disjunction());
+        }
+        if (tipoDotacion != null) {
+            predicados.add(cb.equal(d.get("tipoDotacion"), tipoDotacion));
+        }
+
+        Expression<Long> idUsuario = cb.coalesce(d.<Long>get("idUsuario"), cb.literal(0L));
+        Expression<String> correo = cb.coalesce(d.<String>get("correoElectronico"), cb.literal(""));
+        Expression<BigDecimal> totalDonado = cb.coalesce(cb.sum(d.<BigDecimal>get("monto")), cb.literal(BigDecimal.ZERO));
+
+        cq.multiselect(idUsuario, correo, totalDonado, cb.count(d), cb.greatest(fecha))
+                .where(predicados.toArray(new Predicate[0]))
+                .groupBy(idUsuario, correo);
+        if (ordenar) {
+            cq.orderBy(cb.desc(totalDonado));
+        }
+        return entityManager.createQuery(cq);
+    }
+
+    private static Donacion.TipoDonacion tipoDonacion(String tipo) {
+        try {
+            return Donacion.TipoDonacion.valueOf(tipo.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.huahuacuna.app.repository;
+
+import com.huahuacuna.app.model.EmailOutbox;
+import com.huahuacuna.app.model.EmailOutbox.EstadoCorreo;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    /**
+     * Ids de los correos en el estado dado cuyo próximo intento ya venció, del más antiguo al más reciente.
+     */
+    @Query("SELECT e.id FROM EmailOutbox e WHERE e.estado = :estado AND e.proximoIntento <= :ahora ORDER BY e.proximoIntento ASC")
+    List<Long> findIdsVencidos(@Param("estado") EstadoCorreo estado, @Param("ahora") LocalDateTime ahora, Pageable pageable);
+
+    /**
+     * Reclama un correo pendiente para enviarlo, desplazando su próximo intento hasta {@code bloqueoHasta}.
+     *
+     * <p>Es una actualización condicional: devuelve 1 solo para el despachador que lo reclamó primero.
+     * Si ese despachador se cae, el correo vuelve a estar disponible al vencer el bloqueo.</p>
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.proximoIntento = :bloqueoHasta " +
+            "WHERE e.id = :id AND e.estado = :estado AND e.proximoIntento <= :ahora")
+    int reclamar(@Param("id") Long id,
+                 @Param("estado") EstadoCorreo estado,
+                 @Param("ahora") LocalDateTime ahora,
+                 @Param("bloqueoHasta") LocalDateTime bloqueoHasta);
+
+    /**
+     * Inserta un correo pendiente o, si ya hay uno pendiente con la misma {@code claveDedup} (índice único
+     * {@code uk_email_outbox_dedup_pendiente}), reemplaza su contenido y reinicia sus reintentos. Es una sola
+     * sentencia, así que dos encolados simultáneos con la misma clave no pueden crear dos correos. Incrementa la
+     * versión para que un envío en curso del contenido anterior no lo marque como enviado.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO email_outbox (destinatario, asunto, cuerpo, clave_dedup, estado, intentos, " +
+            "proximo_intento, fecha_creacion, version) " +
+            "VALUES (:destinatario, :asunto, :cuerpo, :claveDedup, 'PENDIENTE', 0, :ahora, :ahora, 0) " +
+            "ON DUPLICATE KEY UPDATE destinatario = VALUES(destinatario), asunto = VALUES(asunto), " +
+            "cuerpo = VALUES(cuerpo), intentos = 0, ultimo_error = NULL, " +
+            "proximo_intento = VALUES(proximo_intento), version = version + 1", nativeQuery = true)
+    int encolarDeduplicado(@Param("destinatario") String destinatario,
+                           @Param("asunto") String asunto,
+                           @Param("cuerpo") String cuerpo,
+                           @Param("claveDedup") String claveDedup,
+                           @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Elimina los correos en los estados dados creados antes de {@code limite}.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM EmailOutbox e WHERE e.estado IN :estados AND e.fechaCreacion < :limite")
+    int eliminarAnteriores(@Param("estados") List<EstadoCorreo> estados, @Param("limite") LocalDateTime limite);
+
+    long countByEstado(EstadoCorreo estado);
+
+    List<EmailOutbox> findTop20ByEstadoOrderByIdDesc(EstadoCorreo estado);
+}
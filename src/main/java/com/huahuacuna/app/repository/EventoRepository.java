@@ -1,13 +1,85 @@
 package com.huahuacuna.app.repository;
 
+import com.huahuacuna.app.config.SegundoNivelCacheConfig;
 import com.huahuacuna.app.model.Evento;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface EventoRepository extends JpaRepository<Evento, Long> {
+
+    /**
+     * Resultados cacheados en la región {@value SegundoNivelCacheConfig#EVENTOS_ACTIVOS}. Cualquier escritura
+     * en {@code eventos} los invalida.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SegundoNivelCacheConfig.EVENTOS_ACTIVOS)
+    })
     List<Evento> findByActivoTrue();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SegundoNivelCacheConfig.EVENTOS_ACTIVOS)
+    })
     List<Evento> findByActivoTrueOrderByFechaEventoAsc();
-}
\ No newline at end of file
+
+    /**
+     * Ocupa un cupo si queda alguno, en una sola sentencia: la comprobación y el incremento son atómicos y
+     * la fila del evento queda bloqueada hasta el final de la transacción, así que dos inscripciones
+     * simultáneas nunca pueden ocupar el mismo cupo. Actualiza {@code fechaActualizacion} (no pasa por
+     * {@code @UpdateTimestamp}) para que cambie el ETag del evento. Vacía el contexto de persistencia al
+     * terminar, para que las lecturas siguientes del evento vean los cupos actualizados y no una copia vieja.
+     *
+     * @return 1 si se ocupó el cupo; 0 si el evento está lleno o no existe
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Evento e SET e.cuposOcupados = e.cuposOcupados + 1, e.fechaActualizacion = LOCAL DATETIME " +
+            "WHERE e.id = :id AND (e.capacidad IS NULL OR e.cuposOcupados < e.capacidad)")
+    int ocuparCupo(@Param("id") Long id);
+
+    /**
+     * Libera un cupo ocupado.
+     *
+     * @return 1 si se liberó; 0 si el evento no existe o no tenía cupos ocupados
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Evento e SET e.cuposOcupados = e.cuposOcupados - 1, e.fechaActualizacion = LOCAL DATETIME " +
+            "WHERE e.id = :id AND e.cuposOcupados > 0")
+    int liberarCupo(@Param("id") Long id);
+
+    /**
+     * Lee el evento con {@code SELECT ... FOR UPDATE} (sin pasar por la caché de segundo nivel), para
+     * serializar los cambios de cupos y lista de espera de un mismo evento.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Evento e WHERE e.id = :id")
+    Optional<Evento> bloquear(@Param("id") Long id);
+
+    /**
+     * Número de eventos, mayor id y última modificación: cambia con cualquier alta, baja o modificación.
+     */
+    @Query("SELECT COUNT(e), MAX(e.id), MAX(e.fechaActualizacion) FROM Evento e")
+    List<Object[]> findVersionTodos();
+
+    /**
+     * Como {@link #findVersionTodos()}, solo para los eventos activos.
+     */
+    @Query("SELECT COUNT(e), MAX(e.id), MAX(e.fechaActualizacion) FROM Evento e WHERE e.activo = true")
+    List<Object[]> findVersionActivos();
+
+    @Query("SELECT e.fechaActualizacion FROM Evento e WHERE e.id = :id")
+    Optional<LocalDateTime> findFechaActualizacionById(@Param("id") Long id);
+}
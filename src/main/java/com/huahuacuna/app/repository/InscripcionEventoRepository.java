@@ -1,12 +1,65 @@
 package com.huahuacuna.app.repository;
 
+import com.huahuacuna.app.DTO.InscripcionEventoResumenDTO;
 import com.huahuacuna.app.model.InscripcionEvento;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface InscripcionEventoRepository extends JpaRepository<InscripcionEvento, Long> {
     List<InscripcionEvento> findByEventoId(Long eventoId);
-}
\ No newline at end of file
+
+    /**
+     * Inscripciones de un evento como DTO, leyendo solo las columnas de {@code inscripcion_evento} (el evento
+     * se referencia por su id, sin join).
+     */
+    @Query("SELECT new com.huahuacuna.app.DTO.InscripcionEventoResumenDTO(" +
+            "i.id, i.evento.id, i.nombreCompleto, i.email, i.telefono, i.estado, i.fechaInscripcion) " +
+            "FROM InscripcionEvento i WHERE i.evento.id = :eventoId ORDER BY i.id")
+    List<InscripcionEventoResumenDTO> findResumenByEventoId(@Param("eventoId") Long eventoId);
+
+    @Query("SELECT new com.huahuacuna.app.DTO.InscripcionEventoResumenDTO(" +
+            "i.id, i.evento.id, i.nombreCompleto, i.email, i.telefono, i.estado, i.fechaInscripcion) " +
+            "FROM InscripcionEvento i ORDER BY i.id")
+    List<InscripcionEventoResumenDTO> findAllResumen();
+
+    /**
+     * Inscripción más antigua del evento en el estado indicado (la siguiente de la lista de espera), leída
+     * con {@code FOR UPDATE} para ver siempre la última versión confirmada.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<InscripcionEvento> findFirstByEventoIdAndEstadoOrderByIdAsc(Long eventoId, InscripcionEvento.EstadoInscripcion estado);
+
+    /**
+     * Igual que {@link #findFirstByEventoIdAndEstadoOrderByIdAsc} pero sin tener en cuenta la inscripción
+     * {@code id} (la que se acaba de pasar a la lista de espera, que no debe recuperar su propio cupo).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<InscripcionEvento> findFirstByEventoIdAndEstadoAndIdNotOrderByIdAsc(
+            Long eventoId, InscripcionEvento.EstadoInscripcion estado, Long id);
+
+    @Query("SELECT i.evento.id FROM InscripcionEvento i WHERE i.id = :id")
+    Optional<Long> findEventoIdById(@Param("id") Long id);
+
+    /**
+     * Lee la inscripción con {@code SELECT ... FOR UPDATE}.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM InscripcionEvento i WHERE i.id = :id")
+    Optional<InscripcionEvento> bloquear(@Param("id") Long id);
+
+    long countByEventoIdAndEstado(Long eventoId, InscripcionEvento.EstadoInscripcion estado);
+
+    /**
+     * Número de inscripciones por evento y estado: [eventoId, estado, cantidad].
+     */
+    @Query("SELECT i.evento.id, i.estado, COUNT(i) FROM InscripcionEvento i GROUP BY i.evento.id, i.estado")
+    List<Object[]> contarPorEventoYEstado();
+}
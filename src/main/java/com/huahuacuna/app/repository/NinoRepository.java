@@ -2,12 +2,29 @@ package com.huahuacuna.app.repository;
 
 import com.huahuacuna.app.model.Nino;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Repositorio JPA para la entidad Nino.
  */
 @Repository
 public interface NinoRepository extends JpaRepository<Nino, Integer> {
+
+    @Query("SELECT n.nombre FROM Nino n WHERE n.id_nino = :id")
+    Optional<String> findNombreById(@Param("id") Integer id);
+
+    @Query("SELECT n.version FROM Nino n WHERE n.id_nino = :id")
+    Optional<Long> findVersionById(@Param("id") Integer id);
+
+    /**
+     * Número de niños por estado de apadrinamiento: [estado, cantidad].
+     */
+    @Query("SELECT n.estadoApadrinamiento, COUNT(n) FROM Nino n GROUP BY n.estadoApadrinamiento")
+    List<Object[]> contarPorEstado();
 }
 
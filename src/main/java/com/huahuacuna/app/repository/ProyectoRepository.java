@@ -1,13 +1,40 @@
 package com.huahuacuna.app.repository;
 
+import com.huahuacuna.app.config.SegundoNivelCacheConfig;
 import com.huahuacuna.app.model.Proyecto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProyectoRepository extends JpaRepository<Proyecto, Integer> {
+
+    /**
+     * Resultado cacheado en la región {@value SegundoNivelCacheConfig#PROYECTOS_POR_ESTADO} (solo los ids; los
+     * proyectos salen de la región de la entidad). Cualquier escritura en {@code proyectos} lo invalida.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SegundoNivelCacheConfig.PROYECTOS_POR_ESTADO)
+    })
     List<Proyecto> findByEstado(Proyecto.EstadoProyecto estado);
-}
 
+    /**
+     * Número de proyectos, mayor id y suma de versiones: cambia con cualquier alta, baja o modificación.
+     */
+    @Query("SELECT COUNT(p), MAX(p.idProyecto), COALESCE(SUM(p.version), 0) FROM Proyecto p")
+    List<Object[]> findVersionTodos();
+
+    @Query("SELECT COUNT(p), MAX(p.idProyecto), COALESCE(SUM(p.version), 0) FROM Proyecto p WHERE p.estado = :estado")
+    List<Object[]> findVersionPorEstado(@Param("estado") Proyecto.EstadoProyecto estado);
+
+    @Query("SELECT p.version FROM Proyecto p WHERE p.idProyecto = :id")
+    Optional<Long> findVersionById(@Param("id") Integer id);
+}
@@ -0,0 +1,154 @@
+package com.huahuacuna.app.repository;
+
+import com.huahuacuna.app.model.TotalDonante;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TotalDonanteRepository extends JpaRepository<TotalDonante, Long> {
+
+    /**
+     * Columnas del bucket calculadas a partir de una fila de {@code donaciones}, en el mismo orden que
+     * {@link #INSERT_COLUMNAS}.
+     */
+    String SELECT_BUCKET = "" +
+            "SELECT COALESCE(d.id_usuario, 0), COALESCE(d.correo_electronico, ''), d.tipo, " +
+            "  COALESCE(d.tipo_dotacion, ''), COALESCE(d.estado, 'PENDIENTE'), DATE(d.fecha_donacion), " +
+            "  COALESCE(SUM(d.monto), 0), COUNT(*), MAX(d.fecha_donacion) " +
+            "FROM donaciones d ";
+
+    String GROUP_BY_BUCKET = "" +
+            "GROUP BY COALESCE(d.id_usuario, 0), COALESCE(d.correo_electronico, ''), d.tipo, " +
+            "  COALESCE(d.tipo_dotacion, ''), COALESCE(d.estado, 'PENDIENTE'), DATE(d.fecha_donacion) ";
+
+    String INSERT_COLUMNAS = "" +
+            "INSERT INTO donor_totals (id_usuario, correo, tipo, tipo_dotacion, estado, dia, total_monto, cantidad, ultima_donacion) ";
+
+    /**
+     * Suma una donación a su bucket, creándolo si no existe. Es atómico: dos inserciones concurrentes
+     * sobre el mismo bucket se serializan en la fila del índice único.
+     */
+    @Modifying
+    @Query(value = INSERT_COLUMNAS +
+            "VALUES (:idUsuario, :correo, :tipo, :tipoDotacion, :estado, :dia, :monto, 1, :fecha) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "  total_monto = total_monto + VALUES(total_monto), " +
+            "  cantidad = cantidad + 1, " +
+            "  ultima_donacion = GREATEST(COALESCE(ultima_donacion, VALUES(ultima_donacion)), VALUES(ultima_donacion))",
+            nativeQuery = true)
+    int sumar(@Param("idUsuario") Long idUsuario,
+              @Param("correo") String correo,
+              @Param("tipo") String tipo,
+              @Param("tipoDotacion") String tipoDotacion,
+              @Param("estado") String estado,
+              @Param("dia") LocalDate dia,
+              @Param("monto") BigDecimal monto,
+              @Param("fecha") LocalDateTime fecha);
+
+    /**
+     * Igual que {@link #sumar} pero para varias donaciones del mismo bucket a la vez (importación masiva).
+     */
+    @Modifying
+    @Query(value = INSERT_COLUMNAS +
+            "VALUES (:idUsuario, :correo, :tipo, :tipoDotacion, :estado, :dia, :monto, :cantidad, :fecha) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "  total_monto = total_monto + VALUES(total_monto), " +
+            "  cantidad = cantidad + VALUES(cantidad), " +
+            "  ultima_donacion = GREATEST(COALESCE(ultima_donacion, VALUES(ultima_donacion)), VALUES(ultima_donacion))",
+            nativeQuery = true)
+    int acumular(@Param("idUsuario") Long idUsuario,
+                 @Param("correo") String correo,
+                 @Param("tipo") String tipo,
+                 @Param("tipoDotacion") String tipoDotacion,
+                 @Param("estado") String estado,
+                 @Param("dia") LocalDate dia,
+                 @Param("monto") BigDecimal monto,
+                 @Param("cantidad") long cantidad,
+                 @Param("fecha") LocalDateTime fecha);
+
+    /**
+     * Elimina un bucket. Se usa antes de {@link #recalcularBucket} cuando una donación sale del bucket.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM donor_totals " +
+            "WHERE id_usuario = :idUsuario AND correo = :correo AND tipo = :tipo " +
+            "  AND tipo_dotacion = :tipoDotacion AND estado = :estado AND dia = :dia",
+            nativeQuery = true)
+    int eliminarBucket(@Param("idUsuario") Long idUsuario,
+                       @Param("correo") String correo,
+                       @Param("tipo") String tipo,
+                       @Param("tipoDotacion") String tipoDotacion,
+                       @Param("estado") String estado,
+                       @Param("dia") LocalDate dia);
+
+    /**
+     * Vuelve a calcular un bucket a partir de las donaciones de ese día. Solo lee las filas de un día
+     * (rango sobre {@code idx_donaciones_fecha_id}); si ya no queda ninguna no inserta nada.
+     */
+    @Modifying
+    @Query(value = INSERT_COLUMNAS + SELECT_BUCKET +
+            "WHERE d.fecha_donacion >= :inicio AND d.fecha_donacion < :fin " +
+            "  AND COALESCE(d.id_usuario, 0) = :idUsuario AND COALESCE(d.correo_electronico, '') = :correo " +
+            "  AND d.tipo = :tipo AND COALESCE(d.tipo_dotacion, '') = :tipoDotacion " +
+            "  AND COALESCE(d.estado, 'PENDIENTE') = :estado " +
+            GROUP_BY_BUCKET +
+            "ON DUPLICATE KEY UPDATE total_monto = VALUES(total_monto), cantidad = VALUES(cantidad), " +
+            "  ultima_donacion = VALUES(ultima_donacion)",
+            nativeQuery = true)
+    int recalcularBucket(@Param("idUsuario") Long idUsuario,
+                         @Param("correo") String correo,
+                         @Param("tipo") String tipo,
+                         @Param("tipoDotacion") String tipoDotacion,
+                         @Param("estado") String estado,
+                         @Param("inicio") LocalDateTime inicio,
+                         @Param("fin") LocalDateTime fin);
+
+    @Modifying
+    @Query(value = "DELETE FROM donor_totals", nativeQuery = true)
+    int eliminarTodos();
+
+    /**
+     * Calcula todos los buckets desde {@code donaciones}. Es idempotente: un bucket que ya existe se
+     * sobrescribe con el valor calculado (no se suma), así que dos instancias que lo ejecuten a la vez dejan
+     * el mismo resultado. No borra los buckets que ya no tienen donaciones; para eso, {@link #eliminarTodos}
+     * antes.
+     *
+     * @return filas afectadas según MySQL (1 por bucket nuevo, 2 por bucket que cambió)
+     */
+    @Modifying
+    @Query(value = INSERT_COLUMNAS + SELECT_BUCKET + GROUP_BY_BUCKET +
+            "ON DUPLICATE KEY UPDATE " +
+            "  total_monto = VALUES(total_monto), " +
+            "  cantidad = VALUES(cantidad), " +
+            "  ultima_donacion = VALUES(ultima_donacion)",
+            nativeQuery = true)
+    int reconstruir();
+
+    /**
+     * Reporte de donantes sumando los buckets de los días {@code [desde, hasta)}. Devuelve las mismas
+     * columnas que {@link DonacionRepository#findDonorReport}: idUsuario, correo, totalDonado,
+     * totalDonaciones, ultimaDonacion.
+     */
+    @Query(value = "" +
+            "SELECT id_usuario AS idUsuario, correo, " +
+            "  SUM(total_monto) AS totalDonado, SUM(cantidad) AS totalDonaciones, MAX(ultima_donacion) AS ultimaDonacion " +
+            "FROM donor_totals " +
+            "WHERE (:desde IS NULL OR dia >= :desde) " +
+            "  AND (:hasta IS NULL OR dia < :hasta) " +
+            "  AND (:tipo IS NULL OR tipo = :tipo) " +
+            "  AND (:tipoDotacion IS NULL OR tipo_dotacion = :tipoDotacion) " +
+            "GROUP BY id_usuario, correo",
+            nativeQuery = true)
+    List<Object[]> findReporte(@Param("desde") LocalDate desde,
+                               @Param("hasta") LocalDate hasta,
+                               @Param("tipo") String tipo,
+                               @Param("tipoDotacion") String tipoDotacion);
+}
@@ -1,6 +1,9 @@
 package com.huahuacuna.app.service;
 
 import com.huahuacuna.app.DTO.ApadrinamientoDTO;
+import com.huahuacuna.app.config.CacheConfig;
+import com.huahuacuna.app.event.CambioApadrinamiento;
+import com.huahuacuna.app.event.CambioEstadoNino;
 import com.huahuacuna.app.model.Apadrinamiento;
 import com.huahuacuna.app.model.Apadrinamiento.EstadoApadrinamiento;
 import com.huahuacuna.app.model.Nino;
@@ -9,13 +12,14 @@ import com.huahuacuna.app.repository.ApadrinamientoRepository;
 import com.huahuacuna.app.repository.NinoRepository;
 import com.huahuacuna.app.repository.UsuarioRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class ApadrinamientoService {
@@ -29,7 +33,11 @@ public class ApadrinamientoService {
     @Autowired
     private NinoRepository ninoRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.NINOS_PUBLICOS, key = "#idNino")
     public ApadrinamientoDTO crearApadrinamiento(Integer idPadrino, Integer idNino) {
         Usuario padrino = usuarioRepository.findById(idPadrino)
                 .orElseThrow(() -> new IllegalArgumentException("Padrino no encontrado"));
@@ -61,40 +69,50 @@ public class ApadrinamientoService {
         ninoRepository.save(nino);
 
         Apadrinamiento guardado = apadrinamientoRepository.save(apadrinamiento);
+        eventPublisher.publishEvent(new CambioApadrinamiento(1));
+        eventPublisher.publishEvent(new CambioEstadoNino(
+                Nino.EstadoApadrinamiento.Disponible, Nino.EstadoApadrinamiento.Apadrinado));
         return convertirADTO(guardado);
     }
 
+    /**
+     * Apadrinamientos activos del padrino ("mis apadrinados"), resueltos con una única consulta.
+     */
+    @Transactional(readOnly = true)
     public List<ApadrinamientoDTO> obtenerApadrinamientosPorPadrino(Integer idPadrino) {
-        List<Apadrinamiento> apadrinamientos = apadrinamientoRepository
-                .findByPadrinoIdAndEstado(idPadrino, EstadoApadrinamiento.Activo);
-        
-        return apadrinamientos.stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return apadrinamientoRepository.findDTOByPadrinoIdAndEstado(idPadrino, EstadoApadrinamiento.Activo);
     }
 
+    /**
+     * Historial completo de apadrinamientos del padrino, resuelto con una única consulta.
+     */
+    @Transactional(readOnly = true)
     public List<ApadrinamientoDTO> obtenerTodosApadrinamientosPorPadrino(Integer idPadrino) {
-        List<Apadrinamiento> apadrinamientos = apadrinamientoRepository
-                .findByPadrinoId(idPadrino);
-        
-        return apadrinamientos.stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return apadrinamientoRepository.findDTOByPadrinoId(idPadrino);
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.NINOS_PUBLICOS, key = "#result.idNino")
     public ApadrinamientoDTO finalizarApadrinamiento(Integer idApadrinamiento) {
         Apadrinamiento apadrinamiento = apadrinamientoRepository.findById(idApadrinamiento)
                 .orElseThrow(() -> new IllegalArgumentException("Apadrinamiento no encontrado"));
+        boolean estabaActivo = apadrinamiento.getEstado() == EstadoApadrinamiento.Activo;
 
         apadrinamiento.setEstado(EstadoApadrinamiento.Finalizado);
         apadrinamiento.setFechaFin(LocalDate.now());
 
         Nino nino = apadrinamiento.getNino();
+        Nino.EstadoApadrinamiento estadoNino = nino.getEstadoApadrinamiento();
         nino.setEstadoApadrinamiento(Nino.EstadoApadrinamiento.Disponible);
         ninoRepository.save(nino);
 
         Apadrinamiento guardado = apadrinamientoRepository.save(apadrinamiento);
+        if (estabaActivo) {
+            eventPublisher.publishEvent(new CambioApadrinamiento(-1));
+        }
+        if (estadoNino != Nino.EstadoApadrinamiento.Disponible) {
+            eventPublisher.publishEvent(new CambioEstadoNino(estadoNino, Nino.EstadoApadrinamiento.Disponible));
+        }
         return convertirADTO(guardado);
     }
 
@@ -104,7 +122,7 @@ public class ApadrinamientoService {
         return existente.isPresent() && existente.get().getEstado() == EstadoApadrinamiento.Activo;
     }
 
-    private ApadrinamientoDTO convertirADTO(Apadrinamiento apadrinamiento) {
+    ApadrinamientoDTO convertirADTO(Apadrinamiento apadrinamiento) {
         ApadrinamientoDTO dto = new ApadrinamientoDTO();
         dto.setIdApadrinamiento(apadrinamiento.getIdApadrinamiento());
         dto.setIdPadrino(apadrinamiento.getPadrino().getId_usuario());
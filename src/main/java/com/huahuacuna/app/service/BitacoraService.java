@@ -3,18 +3,24 @@ package com.huahuacuna.app.service;
 
 import com.huahuacuna.app.DTO.BitacoraDTO;
 import com.huahuacuna.app.DTO.BitacoraResponseDTO;
+import com.huahuacuna.app.DTO.PaginaDTO;
+import com.huahuacuna.app.DTO.VersionRecurso;
+import com.huahuacuna.app.Utils.CursorUtil;
 import com.huahuacuna.app.model.Bitacora;
 import com.huahuacuna.app.model.Nino;
 import com.huahuacuna.app.repository.BitacoraRepository;
 import com.huahuacuna.app.repository.NinoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class BitacoraService {
@@ -27,6 +33,9 @@ public class BitacoraService {
 
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
+    static final int LIMITE_PAGINA_DEFECTO = 20;
+    static final int LIMITE_PAGINA_MAXIMO = 100;
+
     @Transactional
     public BitacoraResponseDTO crearEntrada(Integer ninoId, BitacoraDTO dto) {
         Nino nino = ninoRepository.findById(ninoId)
@@ -54,11 +63,63 @@ public class BitacoraService {
         return convertirADTO(actualizada);
     }
 
+    @Transactional(readOnly = true)
     public List<BitacoraResponseDTO> obtenerPorNino(Integer ninoId) {
-        List<Bitacora> bitacoras = bitacoraRepository.findByNinoIdOrderByFechaDesc(ninoId);
-        return bitacoras.stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return convertirFilas(ninoId, bitacoraRepository.findTimeline(ninoId, Pageable.unpaged()));
+    }
+
+    /**
+     * Página de la línea de tiempo de un niño (paginación por keyset, de la entrada más reciente a la más
+     * antigua). Solo se leen las columnas del DTO y el nombre del niño se consulta una vez por página.
+     *
+     * @param ninoId id del niño
+     * @param cursor cursor devuelto en la página anterior, o {@code null} para la primera página
+     * @param limite tamaño de página; por defecto {@value #LIMITE_PAGINA_DEFECTO}, máximo {@value #LIMITE_PAGINA_MAXIMO}
+     * @return página de entradas con el cursor de la siguiente
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<BitacoraResponseDTO> obtenerPaginaPorNino(Integer ninoId, String cursor, Integer limite) {
+        int tamano = limite == null ? LIMITE_PAGINA_DEFECTO : Math.max(1, Math.min(limite, LIMITE_PAGINA_MAXIMO));
+        Pageable pagina = PageRequest.ofSize(tamano + 1);
+
+        List<Object[]> filas;
+        if (cursor == null || cursor.isBlank()) {
+            filas = bitacoraRepository.findTimeline(ninoId, pagina);
+        } else {
+            String[] partes = CursorUtil.decodificar(cursor, 2);
+            try {
+                filas = bitacoraRepository.findTimelineDespuesDe(
+                        ninoId, LocalDate.parse(partes[0]), Integer.parseInt(partes[1]), pagina);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Cursor inválido", e);
+            }
+        }
+
+        boolean hayMas = filas.size() > tamano;
+        if (hayMas) {
+            filas = filas.subList(0, tamano);
+        }
+        String siguienteCursor = null;
+        if (hayMas) {
+            Object[] ultima = filas.get(filas.size() - 1);
+            siguienteCursor = CursorUtil.codificar(ultima[1], ultima[0]);
+        }
+        return new PaginaDTO<>(convertirFilas(ninoId, filas), siguienteCursor, hayMas);
+    }
+
+    /**
+     * Versión (ETag) de la línea de tiempo de un niño, con una sola consulta agregada. Vale para la lista
+     * completa y para cada página: el ETag se guarda por URL, que incluye cursor y límite. Incluye la versión
+     * del niño porque cada entrada lleva su nombre.
+     */
+    public VersionRecurso versionPorNino(Integer ninoId) {
+        Object[] fila = bitacoraRepository.findVersionPorNino(ninoId).get(0);
+        Object entradas = fila[0];
+        Object mayorId = fila[1];
+        Object versionesEntradas = fila[2];
+        Object versionNino = fila[3];
+        return VersionRecurso.de("bitacora", ninoId, entradas, mayorId, versionesEntradas, versionNino);
     }
 
     public BitacoraResponseDTO obtenerPorId(Integer id) {
@@ -75,13 +136,37 @@ public class BitacoraService {
         bitacoraRepository.deleteById(id);
     }
 
-    private BitacoraResponseDTO convertirADTO(Bitacora bitacora) {
+    /**
+     * Convierte filas de {@link BitacoraRepository#findTimeline} en DTOs, resolviendo el nombre del niño
+     * una sola vez para todas.
+     */
+    private List<BitacoraResponseDTO> convertirFilas(Integer ninoId, List<Object[]> filas) {
+        List<BitacoraResponseDTO> entradas = new ArrayList<>(filas.size());
+        if (filas.isEmpty()) {
+            return entradas;
+        }
+        String nombreNino = ninoRepository.findNombreById(ninoId).orElse(null);
+        for (Object[] fila : filas) {
+            BitacoraResponseDTO dto = new BitacoraResponseDTO();
+            dto.setId((Integer) fila[0]);
+            dto.setNombreNino(nombreNino);
+            dto.setFecha(((LocalDate) fila[1]).format(FORMATTER));
+            dto.setDescripcion((String) fila[2]);
+            dto.setImagen((String) fila[3]);
+            dto.setImagenMiniatura(MediaService.urlMiniatura((String) fila[3]));
+            entradas.add(dto);
+        }
+        return entradas;
+    }
+
+    BitacoraResponseDTO convertirADTO(Bitacora bitacora) {
         BitacoraResponseDTO dto = new BitacoraResponseDTO();
         dto.setId(bitacora.getIdBitacora());
         dto.setNombreNino(bitacora.getNino().getNombre());
         dto.setFecha(bitacora.getFechaRegistro().format(FORMATTER));
         dto.setDescripcion(bitacora.getDescripcion());
         dto.setImagen(bitacora.getFotoUrl());
+        dto.setImagenMiniatura(MediaService.urlMiniatura(bitacora.getFotoUrl()));
         return dto;
     }
 }
\ No newline at end of file
@@ -0,0 +1,175 @@
+package com.huahuacuna.app.service;
+
+import com.huahuacuna.app.DTO.PaginaDTO;
+import com.huahuacuna.app.DTO.ResultadoBusquedaDTO;
+import com.huahuacuna.app.DTO.ResultadoBusquedaDTO.Tipo;
+import com.huahuacuna.app.Utils.CursorUtil;
+import com.huahuacuna.app.Utils.ResaltadoUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Búsqueda de texto completo en niños, eventos, proyectos y entradas de bitácora, con índices
+ * {@code FULLTEXT} de MySQL.
+ *
+ * <p>Funcionamiento:</p>
+ * <ul>
+ *   <li>Cada palabra de la consulta se busca por prefijo y todas deben aparecer ({@code +palabra*} en modo
+ *       booleano). Las palabras de menos de {@code app.busqueda.largo-minimo} letras se ignoran, igual que
+ *       hace InnoDB al indexar ({@code innodb_ft_min_token_size}, 3 por defecto).</li>
+ *   <li>Las tildes no cuentan: las tablas usan una intercalación {@code utf8mb4_*_ci} que no distingue
+ *       acentos, así que {@code nino} encuentra {@code niño}. El resaltado hace lo mismo en Java
+ *       ({@link ResaltadoUtil}).</li>
+ *   <li>En una primera consulta se ordenan por relevancia solo tipo, id y puntuación de las coincidencias
+ *       (resuelto con los índices) y se corta la página; después se leen los textos únicamente de las filas
+ *       de esa página. Nunca se traen tablas enteras a la JVM.</li>
+ *   <li>InnoDB mantiene los índices al insertar, modificar o borrar filas; no hay que reindexar.</li>
+ * </ul>
+ *
+ * <p>Los índices los crea la migración {@code V3__indices_texto_completo}; las columnas de cada tipo en
+ * {@code MATCH} deben ser exactamente las de su índice.</p>
+ */
+@Service
+public class BusquedaService {
+
+    private static final int LIMITE_POR_DEFECTO = 20;
+    private static final int LIMITE_MAXIMO = 50;
+    private static final int MAX_TERMINOS = 8;
+    private static final int LARGO_FRAGMENTO = 200;
+
+    /**
+     * Tabla indexada para un tipo de resultado.
+     */
+    private record Indice(Tipo tipo, String tabla, String columnaId, String columnas) {
+    }
+
+    private static final List<Indice> INDICES = List.of(
+            new Indice(Tipo.NINO, "ninos", "id_nino", "nombre, descripcion"),
+            new Indice(Tipo.EVENTO, "eventos", "id", "titulo, descripcion, descripcion_detallada, lugar"),
+            new Indice(Tipo.PROYECTO, "proyectos", "id_proyecto", "nombre_proyecto, descripcion"),
+            new Indice(Tipo.BITACORA, "bitacora", "id_bitacora", "descripcion"));
+
+    /**
+     * Título y texto de cada tipo, para las filas de la página ({@code %s} = un marcador por id).
+     */
+    private static final Map<Tipo, String> DETALLE = Map.of(
+            Tipo.NINO, "SELECT id_nino, nombre, descripcion FROM ninos WHERE id_nino IN (%s)",
+            Tipo.EVENTO, "SELECT id, titulo, CONCAT_WS(' · ', descripcion, lugar, descripcion_detallada) " +
+                    "FROM eventos WHERE id IN (%s)",
+            Tipo.PROYECTO, "SELECT id_proyecto, nombre_proyecto, descripcion FROM proyectos WHERE id_proyecto IN (%s)",
+            Tipo.BITACORA, "SELECT b.id_bitacora, n.nombre, b.descripcion FROM bitacora b " +
+                    "JOIN ninos n ON n.id_nino = b.id_nino WHERE b.id_bitacora IN (%s)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int largoMinimo;
+
+    public BusquedaService(JdbcTemplate jdbcTemplate,
+                           @Value("${app.busqueda.largo-minimo:3}") int largoMinimo) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.largoMinimo = largoMinimo;
+    }
+
+    /**
+     * Busca {@code consulta} en los tipos indicados, de más a menos relevante.
+     *
+     * @param consulta texto a buscar
+     * @param tipos    tipos de resultado a incluir; {@code null} o vacío = todos
+     * @param cursor   {@code siguienteCursor} de la página anterior, o {@code null} para la primera
+     * @param limite   tamaño de página (por defecto 20, máximo 50)
+     * @return página de resultados con fragmento resaltado
+     * @throws IllegalArgumentException si la consulta no tiene ninguna palabra buscable o el cursor no es válido
+     */
+    public PaginaDTO<ResultadoBusquedaDTO> buscar(String consulta, Collection<Tipo> tipos, String cursor, Integer limite) {
+        List<String> terminos = ResaltadoUtil.terminos(consulta == null ? "" : consulta, largoMinimo);
+        if (terminos.isEmpty()) {
+            throw new IllegalArgumentException("La búsqueda debe tener al menos una palabra de "
+                    + largoMinimo + " letras o más");
+        }
+        if (terminos.size() > MAX_TERMINOS) {
+            terminos = terminos.subList(0, MAX_TERMINOS);
+        }
+        int tamano = limite == null ? LIMITE_POR_DEFECTO : Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        int desplazamiento = 0;
+        if (cursor != null) {
+            try {
+                desplazamiento = Integer.parseInt(CursorUtil.decodificar(cursor, 1)[0]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Cursor inválido", e);
+            }
+            if (desplazamiento < 0) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+        }
+        Set<Tipo> incluidos = tipos == null || tipos.isEmpty() ? EnumSet.allOf(Tipo.class) : EnumSet.copyOf(tipos);
+
+        // Solo letras y dígitos: ningún operador del modo booleano puede llegar desde el usuario
+        String expresion = terminos.stream().map(t -> "+" + t + "*").collect(Collectors.joining(" "));
+
+        List<ResultadoBusquedaDTO> pagina = buscarCoincidencias(expresion, incluidos, desplazamiento, tamano + 1);
+        boolean hayMas = pagina.size() > tamano;
+        if (hayMas) {
+            pagina = pagina.subList(0, tamano);
+        }
+        completarTextos(pagina, terminos);
+        return new PaginaDTO<>(pagina,
+                hayMas ? CursorUtil.codificar(desplazamiento + tamano) : null,
+                hayMas);
+    }
+
+    /**
+     * Tipo, id y relevancia de las coincidencias de la página, sin leer los textos.
+     */
+    private List<ResultadoBusquedaDTO> buscarCoincidencias(String expresion, Set<Tipo> tipos, int desplazamiento, int filas) {
+        List<String> partes = new ArrayList<>();
+        List<Object> parametros = new ArrayList<>();
+        for (Indice indice : INDICES) {
+            if (!tipos.contains(indice.tipo())) continue;
+            String match = "MATCH(" + indice.columnas() + ") AGAINST (? IN BOOLEAN MODE)";
+            partes.add("SELECT '" + indice.tipo() + "' AS tipo, " + indice.columnaId() + " AS id, " + match
+                    + " AS relevancia FROM " + indice.tabla() + " WHERE " + match);
+            parametros.add(expresion);
+            parametros.add(expresion);
+        }
+        String sql = String.join(" UNION ALL ", partes)
+                + " ORDER BY relevancia DESC, tipo, id LIMIT ? OFFSET ?";
+        parametros.add(filas);
+        parametros.add(desplazamiento);
+
+        return jdbcTemplate.query(sql, (rs, i) -> new ResultadoBusquedaDTO(
+                Tipo.valueOf(rs.getString("tipo")),
+                rs.getLong("id"),
+                null,
+                null,
+                rs.getDouble("relevancia")), parametros.toArray());
+    }
+
+    /**
+     * Lee título y texto de las filas de la página (una consulta por tipo presente) y arma los fragmentos.
+     */
+    private void completarTextos(List<ResultadoBusquedaDTO> pagina, List<String> terminos) {
+        Map<Tipo, List<ResultadoBusquedaDTO>> porTipo = pagina.stream()
+                .collect(Collectors.groupingBy(ResultadoBusquedaDTO::getTipo));
+        for (Map.Entry<Tipo, List<ResultadoBusquedaDTO>> entrada : porTipo.entrySet()) {
+            Map<Long, ResultadoBusquedaDTO> porId = new HashMap<>();
+            entrada.getValue().forEach(r -> porId.put(r.getId(), r));
+            String marcadores = String.join(", ", Collections.nCopies(porId.size(), "?"));
+            jdbcTemplate.query(DETALLE.get(entrada.getKey()).formatted(marcadores), rs -> {
+                ResultadoBusquedaDTO resultado = porId.get(rs.getLong(1));
+                resultado.setTitulo(rs.getString(2));
+                // Si la coincidencia está solo en el título, el fragmento es el principio del texto
+                resultado.setFragmento(ResaltadoUtil.fragmento(rs.getString(3), terminos, LARGO_FRAGMENTO));
+            }, porId.keySet().toArray());
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.huahuacuna.app.service;
+
+import com.huahuacuna.app.DTO.DashboardDTO;
+import com.huahuacuna.app.event.CambioApadrinamiento;
+import com.huahuacuna.app.event.CambioDonaciones;
+import com.huahuacuna.app.event.CambioEstadoInscripcion;
+import com.huahuacuna.app.event.CambioEstadoNino;
+import com.huahuacuna.app.model.Apadrinamiento;
+import com.huahuacuna.app.model.Donacion;
+import com.huahuacuna.app.model.InscripcionEvento;
+import com.huahuacuna.app.model.Nino;
+import com.huahuacuna.app.repository.ApadrinamientoRepository;
+import com.huahuacuna.app.repository.DonacionRepository;
+import com.huahuacuna.app.repository.InscripcionEventoRepository;
+import com.huahuacuna.app.repository.NinoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Totales del panel de administración, servidos desde contadores en memoria.
+ *
+ * <ul>
+ *   <li>Los contadores son {@link LongAdder}: cada hilo suma en su propia celda, así que las escrituras
+ *       concurrentes (inscripciones a un mismo evento, importaciones) no compiten por una misma variable.</li>
+ *   <li>Se actualizan con los eventos de dominio de {@code com.huahuacuna.app.event} que publican los servicios.
+ *       Se escuchan después del commit: un cambio que se revierte no llega a los contadores.</li>
+ *   <li>Cada {@code app.dashboard.conciliacion-ms} (y al arrancar) se recalculan desde MySQL y reemplazan a los
+ *       de memoria. Así se corrigen los cambios que no pasan por los servicios de esta instancia (otra instancia
+ *       de la aplicación, borrados en cascada, cambios a mano en la base de datos).</li>
+ *   <li>Mientras se recalculan, los eventos que llegan se aplican a los contadores actuales y además se
+ *       anotan; antes del reemplazo se vuelven a aplicar sobre los nuevos, para no perder los cambios que se
+ *       confirmaron después de la foto de la base de datos. Un cambio confirmado justo antes de la primera
+ *       consulta puede contarse dos veces hasta la siguiente conciliación.</li>
+ *   <li>Las donaciones se cuentan por día durante los últimos {@code app.dashboard.dias} días.</li>
+ * </ul>
+ *
+ * <p>Leer el panel no consulta la base de datos. Los cambios de esta instancia se ven al momento; los que no
+ * pasan por ella llegan con hasta {@code app.dashboard.conciliacion-ms} de retraso.</p>
+ */
+@Service
+public class DashboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardService.class);
+
+    private record ClaveDia(LocalDate dia, Donacion.TipoDonacion tipo) {
+    }
+
+    private static final class ContadorDonaciones {
+        private final LongAdder cantidad = new LongAdder();
+        private final LongAdder centavos = new LongAdder();
+    }
+
+    /**
+     * Un juego completo de contadores. La conciliación arma uno nuevo y lo sustituye entero.
+     */
+    private static final class Contadores {
+        private final Map<ClaveDia, ContadorDonaciones> donaciones = new ConcurrentHashMap<>();
+        private final Map<Nino.EstadoApadrinamiento, LongAdder> ninos = new EnumMap<>(Nino.EstadoApadrinamiento.class);
+        private final LongAdder apadrinamientosActivos = new LongAdder();
+        /**
+         * Por evento, un contador por {@link InscripcionEvento.EstadoInscripcion} (índice = ordinal).
+         */
+        private final Map<Long, LongAdder[]> inscripciones = new ConcurrentHashMap<>();
+
+        private Contadores() {
+            for (Nino.EstadoApadrinamiento estado : Nino.EstadoApadrinamiento.values()) {
+                ninos.put(estado, new LongAdder());
+            }
+        }
+
+        private void aplicar(CambioDonaciones cambio) {
+            ContadorDonaciones contador = donaciones(cambio.dia(), cambio.tipo());
+            contador.cantidad.add(cambio.cantidad());
+            contador.centavos.add(centavos(cambio.monto()));
+        }
+
+        private void aplicar(CambioEstadoNino cambio) {
+            if (cambio.anterior() != null) {
+                ninos.get(cambio.anterior()).decrement();
+            }
+            if (cambio.nuevo() != null) {
+                ninos.get(cambio.nuevo()).increment();
+            }
+        }
+
+        private void aplicar(CambioEstadoInscripcion cambio) {
+            if (cambio.anterior() != null) {
+                inscripciones(cambio.eventoId(), cambio.anterior()).decrement();
+            }
+            if (cambio.nuevo() != null) {
+                inscripciones(cambio.eventoId(), cambio.nuevo()).increment();
+            }
+        }
+
+        private ContadorDonaciones donaciones(LocalDate dia, Donacion.TipoDonacion tipo) {
+            return donaciones.computeIfAbsent(new ClaveDia(dia, tipo), k -> new ContadorDonaciones());
+        }
+
+        private LongAdder inscripciones(Long eventoId, InscripcionEvento.EstadoInscripcion estado) {
+            return inscripciones.computeIfAbsent(eventoId, k -> {
+                LongAdder[] porEstado = new LongAdder[InscripcionEvento.EstadoInscripcion.values().length];
+                for (int i = 0; i < porEstado.length; i++) {
+                    porEstado[i] = new LongAdder();
+                }
+                return porEstado;
+            })[estado.ordinal()];
+        }
+    }
+
+    private final DonacionRepository donacionRepository;
+    private final NinoRepository ninoRepository;
+    private final ApadrinamientoRepository apadrinamientoRepository;
+    private final InscripcionEventoRepository inscripcionRepository;
+    private final int dias;
+
+    private volatile Contadores contadores = new Contadores();
+    private volatile LocalDateTime ultimaConciliacion;
+
+    /**
+     * Cambios recibidos durante la conciliación en curso, para aplicarlos también a los contadores nuevos.
+     * Solo se usa (con el monitor de la lista) mientras {@code conciliando} es {@code true}.
+     */
+    private final List<Consumer<Contadores>> pendientes = new ArrayList<>();
+    private volatile boolean conciliando;
+
+    public DashboardService(DonacionRepository donacionRepository,
+                            NinoRepository ninoRepository,
+                            ApadrinamientoRepository apadrinamientoRepository,
+                            InscripcionEventoRepository inscripcionRepository,
+                            @Value("${app.dashboard.dias:30}") int dias) {
+        this.donacionRepository = donacionRepository;
+        this.ninoRepository = ninoRepository;
+        this.apadrinamientoRepository = apadrinamientoRepository;
+        this.inscripcionRepository = inscripcionRepository;
+        this.dias = dias;
+    }
+
+    /**
+     * Totales actuales, leídos de los contadores en memoria.
+     */
+    public DashboardDTO obtener() {
+        DashboardDTO dto = resumen(contadores);
+        dto.setUltimaConciliacion(ultimaConciliacion);
+        return dto;
+    }
+
+    // Eventos de dominio
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarDonaciones(CambioDonaciones cambio) {
+        if (cambio.dia().isBefore(primerDia())) {
+            return;
+        }
+        aplicar(c -> c.aplicar(cambio));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarEstadoNino(CambioEstadoNino cambio) {
+        aplicar(c -> c.aplicar(cambio));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarApadrinamiento(CambioApadrinamiento cambio) {
+        aplicar(c -> c.apadrinamientosActivos.add(cambio.activos()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarEstadoInscripcion(CambioEstadoInscripcion cambio) {
+        aplicar(c -> c.aplicar(cambio));
+    }
+
+    /**
+     * Aplica un cambio a los contadores actuales. Fuera de la conciliación basta una lectura volátil; durante
+     * ella el cambio se aplica y se anota bajo el monitor de {@code pendientes}, el mismo que usa el reemplazo,
+     * así que cada cambio acaba exactamente una vez en los contadores que quedan.
+     */
+    private void aplicar(Consumer<Contadores> cambio) {
+        if (conciliando) {
+            synchronized (pendientes) {
+                if (conciliando) {
+                    cambio.accept(contadores);
+                    pendientes.add(cambio);
+                    return;
+                }
+            }
+        }
+        cambio.accept(contadores);
+    }
+
+    // Conciliación
+
+    /**
+     * Recalcula todos los contadores desde la base de datos y reemplaza los de memoria. Las consultas van en
+     * una transacción de solo lectura para que vean la misma foto de la base de datos; los cambios que llegan
+     * mientras tanto se vuelven a aplicar sobre los contadores nuevos antes del reemplazo.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.dashboard.conciliacion-ms:300000}",
+            initialDelayString = "${app.dashboard.conciliacion-ms:300000}")
+    @Transactional(readOnly = true)
+    public void conciliar() {
+        synchronized (pendientes) {
+            pendientes.clear();
+            conciliando = true;
+        }
+        try {
+            reemplazar(contar());
+        } finally {
+            synchronized (pendientes) {
+                conciliando = false;
+                pendientes.clear();
+            }
+        }
+    }
+
+    private Contadores contar() {
+        Contadores nuevos = new Contadores();
+        for (Object[] fila : donacionRepository.contarPorDiaYTipo(primerDia().atStartOfDay())) {
+            ContadorDonaciones contador = nuevos.donaciones(
+                    aFecha(fila[0]), Donacion.TipoDonacion.valueOf(fila[1].toString()));
+            contador.cantidad.add(((Number) fila[2]).longValue());
+            contador.centavos.add(centavos(new BigDecimal(fila[3].toString())));
+        }
+        for (Object[] fila : ninoRepository.contarPorEstado()) {
+            nuevos.ninos.get((Nino.EstadoApadrinamiento) fila[0]).add(((Number) fila[1]).longValue());
+        }
+        nuevos.apadrinamientosActivos.add(
+                apadrinamientoRepository.countByEstado(Apadrinamiento.EstadoApadrinamiento.Activo));
+        for (Object[] fila : inscripcionRepository.contarPorEventoYEstado()) {
+            nuevos.inscripciones((Long) fila[0], (InscripcionEvento.EstadoInscripcion) fila[1])
+                    .add(((Number) fila[2]).longValue());
+        }
+        return nuevos;
+    }
+
+    private void reemplazar(Contadores nuevos) {
+        Contadores anteriores;
+        synchronized (pendientes) {
+            pendientes.forEach(cambio -> cambio.accept(nuevos));
+            anteriores = contadores;
+            contadores = nuevos;
+            conciliando = false;
+            pendientes.clear();
+        }
+        // Con varias instancias la diferencia es lo normal (cambios hechos por las otras): solo en DEBUG
+        if (log.isDebugEnabled() && ultimaConciliacion != null && !resumen(anteriores).equals(resumen(nuevos))) {
+            log.debug("Contadores del dashboard corregidos en la conciliación: {} -> {}",
+                    resumen(anteriores), resumen(nuevos));
+        }
+        ultimaConciliacion = LocalDateTime.now();
+    }
+
+    private DashboardDTO resumen(Contadores c) {
+        LocalDate primerDia = primerDia();
+        List<DashboardDTO.DonacionesDia> donaciones = new ArrayList<>();
+        c.donaciones.forEach((clave, contador) -> {
+            long cantidad = contador.cantidad.sum();
+            if (cantidad != 0 && !clave.dia().isBefore(primerDia)) {
+                donaciones.add(new DashboardDTO.DonacionesDia(clave.dia(), clave.tipo(), cantidad,
+                        BigDecimal.valueOf(contador.centavos.sum(), 2)));
+            }
+        });
+        donaciones.sort(Comparator.comparing(DashboardDTO.DonacionesDia::getFecha).reversed()
+                .thenComparing(DashboardDTO.DonacionesDia::getTipo));
+
+        Map<Nino.EstadoApadrinamiento, Long> ninos = new EnumMap<>(Nino.EstadoApadrinamiento.class);
+        c.ninos.forEach((estado, contador) -> ninos.put(estado, contador.sum()));
+
+        List<DashboardDTO.InscripcionesEvento> inscripciones = new ArrayList<>();
+        c.inscripciones.forEach((eventoId, porEstado) -> {
+            DashboardDTO.InscripcionesEvento evento = new DashboardDTO.InscripcionesEvento(eventoId,
+                    porEstado[InscripcionEvento.EstadoInscripcion.CONFIRMADO.ordinal()].sum(),
+                    porEstado[InscripcionEvento.EstadoInscripcion.LISTA_ESPERA.ordinal()].sum(),
+                    porEstado[InscripcionEvento.EstadoInscripcion.CANCELADO.ordinal()].sum());
+            if (evento.getConfirmadas() + evento.getListaEspera() + evento.getCanceladas() != 0) {
+                inscripciones.add(evento);
+            }
+        });
+        inscripciones.sort(Comparator.comparing(DashboardDTO.InscripcionesEvento::getEventoId));
+
+        return new DashboardDTO(donaciones, ninos, c.apadrinamientosActivos.sum(), inscripciones, null);
+    }
+
+    private LocalDate primerDia() {
+        return LocalDate.now().minusDays(dias - 1L);
+    }
+
+    private static long centavos(BigDecimal monto) {
+        return monto.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static LocalDate aFecha(Object valor) {
+        if (valor instanceof java.sql.Date fecha) {
+            return fecha.toLocalDate();
+        }
+        return (LocalDate) valor;
+    }
+}
@@ -1,20 +1,40 @@
 package com.huahuacuna.app.service;
 
 import com.huahuacuna.app.DTO.DonacionDTO;
+import com.huahuacuna.app.DTO.DonacionResumenDTO;
 import com.huahuacuna.app.DTO.DonorReportDTO;
+import com.huahuacuna.app.DTO.FiltroDonacionDTO;
+import com.huahuacuna.app.DTO.PaginaDTO;
+import com.huahuacuna.app.Utils.CursorUtil;
+import com.huahuacuna.app.event.CambioDonaciones;
 import com.huahuacuna.app.model.Donacion;
 import com.huahuacuna.app.repository.DonacionRepository;
+import com.huahuacuna.app.repository.TotalDonanteRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Servicio que encapsula la lógica de negocio relacionada con las donaciones.
@@ -24,7 +44,7 @@ import java.util.List;
  *   <li>Crear y persistir donaciones a partir de DTOs.</li>
  *   <li>Operaciones de lectura (listar, filtrar, obtener por id).</li>
  *   <li>Actualizar estado de una donación y eliminar donaciones.</li>
- *   <li>Construir reportes de donantes y generar un CSV descargable.</li>
+ *   <li>Construir reportes de donantes y generar un CSV descargable (en memoria o en streaming).</li>
  * </ul>
  *
  * <p>Notas importantes:</p>
@@ -51,6 +71,37 @@ public class DonacionService {
     @Autowired
     private DonacionRepository donacionRepository;
 
+    /**
+     * Mantiene los acumulados por donante usados por el reporte.
+     */
+    @Autowired
+    private TotalDonanteService totalDonanteService;
+
+    @Autowired
+    private TotalDonanteRepository totalDonanteRepository;
+
+    /**
+     * Publica los {@link CambioDonaciones} que alimentan el dashboard.
+     */
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Tamaño de página por defecto y máximo del listado paginado.
+     */
+    static final int LIMITE_PAGINA_DEFECTO = 50;
+    static final int LIMITE_PAGINA_MAXIMO = 200;
+
+    /**
+     * BOM UTF-8 que se antepone al CSV para mejorar la compatibilidad con Excel.
+     */
+    private static final String CSV_BOM = "\uFEFF";
+
+    /**
+     * Cabecera de columnas del CSV de donantes.
+     */
+    private static final String CSV_HEADER = "idUsuario,correoElectronico,totalDonado,totalDonaciones,ultimaDonacion\n";
+
     /**
      * Crea y persiste una nueva donación a partir de la información proporcionada en el DTO.
      *
@@ -70,6 +121,19 @@ public class DonacionService {
      */
     @Transactional
     public Donacion crearDonacion(DonacionDTO dto) {
+        Donacion guardada = donacionRepository.save(construirDonacion(dto));
+        totalDonanteService.registrar(guardada);
+        eventPublisher.publishEvent(CambioDonaciones.alta(guardada));
+        return guardada;
+    }
+
+    /**
+     * Construye (sin persistir) la donación a partir del DTO, con las reglas de {@link #crearDonacion}: usuario
+     * por defecto e inferencia del tipo. La usa también la importación masiva ({@link ImportacionDonacionService}).
+     *
+     * @throws IllegalArgumentException si no es posible determinar el tipo de donación
+     */
+    static Donacion construirDonacion(DonacionDTO dto) {
         Donacion donacion = new Donacion();
 
         //  Asignar usuario solo si viene en el DTO
@@ -95,17 +159,16 @@ public class DonacionService {
         donacion.setCorreoElectronico(dto.getCorreoElectronico());
         donacion.setNit(dto.getNit());
         donacion.setTipoDotacion(dto.getTipoDotacion());
-
-        return donacionRepository.save(donacion);
+        return donacion;
     }
 
     /**
      * Devuelve todas las donaciones almacenadas.
      *
-     * @return Lista de {@link Donacion}.
+     * @return Lista de {@link DonacionResumenDTO}, sin descripción, banco ni NIT.
      */
-    public List<Donacion> listarTodas() {
-        return donacionRepository.findAll();
+    public List<DonacionResumenDTO> listarTodas() {
+        return donacionRepository.findAllResumen();
     }
 
     /**
@@ -128,6 +191,48 @@ public class DonacionService {
         return donacionRepository.findByCorreoElectronico(correo);
     }
 
+    /**
+     * Lista donaciones paginadas por keyset, ordenadas de la más reciente a la más antigua.
+     *
+     * <p>En lugar de OFFSET, cada página continúa a partir de la clave {@code (fechaDonacion, id)} de la
+     * última fila de la página anterior, codificada en el cursor. El coste de pedir una página es el mismo
+     * sin importar lo profunda que sea. Se pide una fila extra para saber si hay más páginas.</p>
+     *
+     * @param filtro filtros opcionales (estado, tipo, tipoDotacion, correo, rango de fechas).
+     * @param cursor cursor devuelto en la página anterior, o {@code null} para la primera página.
+     * @param limite tamaño de página; por defecto {@value #LIMITE_PAGINA_DEFECTO}, máximo {@value #LIMITE_PAGINA_MAXIMO}.
+     * @return página con las proyecciones y el cursor de la página siguiente.
+     * @throws IllegalArgumentException si el cursor no es válido.
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<DonacionResumenDTO> listarPagina(FiltroDonacionDTO filtro, String cursor, Integer limite) {
+        int tamano = limite == null ? LIMITE_PAGINA_DEFECTO : Math.max(1, Math.min(limite, LIMITE_PAGINA_MAXIMO));
+
+        LocalDateTime despuesDeFecha = null;
+        Long despuesDeId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] partes = CursorUtil.decodificar(cursor, 2);
+            try {
+                despuesDeFecha = LocalDateTime.parse(partes[0]);
+                despuesDeId = Long.parseLong(partes[1]);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Cursor inválido", e);
+            }
+        }
+
+        List<DonacionResumenDTO> filas = donacionRepository.buscarPagina(filtro, despuesDeFecha, despuesDeId, tamano + 1);
+        boolean hayMas = filas.size() > tamano;
+        if (hayMas) {
+            filas = new ArrayList<>(filas.subList(0, tamano));
+        }
+        String siguienteCursor = null;
+        if (hayMas) {
+            DonacionResumenDTO ultima = filas.get(filas.size() - 1);
+            siguienteCursor = CursorUtil.codificar(ultima.getFechaDonacion(), ultima.getId());
+        }
+        return new PaginaDTO<>(filas, siguienteCursor, hayMas);
+    }
+
     /**
      * Obtiene una donación por su identificador.
      *
@@ -150,8 +255,15 @@ public class DonacionService {
     @Transactional
     public Donacion actualizarEstado(Long id, Donacion.EstadoDonacion nuevoEstado) {
         Donacion donacion = obtenerPorId(id);
+        Donacion.EstadoDonacion estadoAnterior = donacion.getEstado();
         donacion.setEstado(nuevoEstado);
-        return donacionRepository.save(donacion);
+        Donacion guardada = donacionRepository.saveAndFlush(donacion);
+        if (estadoAnterior != nuevoEstado) {
+            // La donación pasa al bucket del nuevo estado
+            totalDonanteService.retirar(guardada, estadoAnterior);
+            totalDonanteService.registrar(guardada);
+        }
+        return guardada;
     }
 
     /**
@@ -161,7 +273,12 @@ public class DonacionService {
      */
     @Transactional
     public void eliminar(Long id) {
-        donacionRepository.deleteById(id);
+        donacionRepository.findById(id).ifPresent(donacion -> {
+            donacionRepository.delete(donacion);
+            donacionRepository.flush();
+            totalDonanteService.retirar(donacion, donacion.getEstado());
+            eventPublisher.publishEvent(CambioDonaciones.baja(donacion));
+        });
     }
 
     // ----------------- REPORTS -----------------
@@ -169,9 +286,11 @@ public class DonacionService {
     /**
      * Construye una lista de {@link DonorReportDTO} aplicando los filtros indicados.
      *
-     * <p>Este método transforma las filas retornadas por la consulta del repositorio (Object[])
-     * a DTOs tipados, manejando valores nulos y distintos tipos de timestamp que puedan venir
-     * desde la base de datos (java.sql.Timestamp, java.util.Date o cadenas parseables).</p>
+     * <p>Los días completos del rango se leen de la tabla de acumulados {@code donor_totals}, así que el
+     * coste depende del número de donantes y días con actividad, no del número de donaciones. Solo los días
+     * parciales de los extremos (cuando {@code from} no es medianoche, y el día de {@code to}) se agregan
+     * desde {@code donaciones}, con un rango de fechas acotado. Los resultados se combinan por donante y se
+     * ordenan por total donado, de mayor a menor.</p>
      *
      * @param from        Fecha/hora inicial del filtro (inclusive). Puede ser {@code null}.
      * @param to          Fecha/hora final del filtro (inclusive). Puede ser {@code null}.
@@ -179,30 +298,56 @@ public class DonacionService {
      * @param tipoDotacion Subtipo/descripcion de dotación (ej. "Alimentos"). Puede ser {@code null}.
      * @return Lista de {@link DonorReportDTO} con idUsuario, correo, totalDonado, totalDonaciones y fecha de última donación.
      */
+    @Transactional(readOnly = true)
     public List<DonorReportDTO> buildDonorReport(LocalDateTime from, LocalDateTime to, String tipo, String tipoDotacion) {
-        List<Object[]> rows = donacionRepository.findDonorReport(from, to, tipo, tipoDotacion);
-        List<DonorReportDTO> report = new ArrayList<>();
-        for (Object[] r : rows) {
-            Long idUsuario = r[0] == null ? 0L : ((Number) r[0]).longValue();
-            String correo = r[1] == null ? "" : r[1].toString();
-            BigDecimal totalDonado = r[2] == null ? BigDecimal.ZERO : new BigDecimal(r[2].toString());
-            Long totalDonaciones = r[3] == null ? 0L : ((Number) r[3]).longValue();
-            LocalDateTime ultima = null;
-            if (r[4] != null) {
-                Object ts = r[4];
-                if (ts instanceof java.sql.Timestamp) {
-                    ultima = ((java.sql.Timestamp) ts).toLocalDateTime();
-                } else if (ts instanceof java.util.Date) {
-                    ultima = ((java.util.Date) ts).toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
-                } else {
-                    try { ultima = LocalDateTime.parse(ts.toString()); } catch (Exception ignored) {}
-                }
+        // Días completos: [primerDiaCompleto, finDiasCompletos). El día de 'to' siempre se trata como parcial.
+        LocalDate primerDiaCompleto = null;
+        if (from != null) {
+            primerDiaCompleto = from.toLocalTime().equals(LocalTime.MIDNIGHT) ? from.toLocalDate() : from.toLocalDate().plusDays(1);
+        }
+        LocalDate finDiasCompletos = to != null ? to.toLocalDate() : null;
+
+        if (primerDiaCompleto != null && finDiasCompletos != null && !primerDiaCompleto.isBefore(finDiasCompletos)) {
+            // No hay ningún día completo en el rango: basta con la consulta acotada sobre donaciones.
+            List<DonorReportDTO> report = new ArrayList<>();
+            for (Object[] r : donacionRepository.findDonorReport(from, to, tipo, tipoDotacion)) {
+                report.add(toDonorReportDTO(r));
             }
-            report.add(new DonorReportDTO(idUsuario, correo, totalDonado, totalDonaciones, ultima));
+            return report;
+        }
+
+        Map<List<Object>, DonorReportDTO> porDonante = new LinkedHashMap<>();
+        acumular(porDonante, totalDonanteRepository.findReporte(primerDiaCompleto, finDiasCompletos, tipo, tipoDotacion));
+        if (from != null && from.isBefore(primerDiaCompleto.atStartOfDay())) {
+            acumular(porDonante, donacionRepository.findDonorReportEntre(from, primerDiaCompleto.atStartOfDay(), tipo, tipoDotacion));
+        }
+        if (to != null) {
+            acumular(porDonante, donacionRepository.findDonorReport(finDiasCompletos.atStartOfDay(), to, tipo, tipoDotacion));
         }
+
+        List<DonorReportDTO> report = new ArrayList<>(porDonante.values());
+        report.sort(Comparator.comparing(DonorReportDTO::getTotalDonado).reversed());
         return report;
     }
 
+    /**
+     * Suma las filas de una consulta de reporte a los totales acumulados por donante (id_usuario, correo).
+     */
+    private void acumular(Map<List<Object>, DonorReportDTO> porDonante, List<Object[]> rows) {
+        for (Object[] r : rows) {
+            DonorReportDTO fila = toDonorReportDTO(r);
+            porDonante.merge(List.of(fila.getIdUsuario(), fila.getCorreoElectronico()), fila, (a, b) -> {
+                a.setTotalDonado(a.getTotalDonado().add(b.getTotalDonado()));
+                a.setTotalDonaciones(a.getTotalDonaciones() + b.getTotalDonaciones());
+                if (a.getUltimaDonacion() == null
+                        || (b.getUltimaDonacion() != null && b.getUltimaDonacion().isAfter(a.getUltimaDonacion()))) {
+                    a.setUltimaDonacion(b.getUltimaDonacion());
+                }
+                return a;
+            });
+        }
+    }
+
     /**
      * Genera un CSV en memoria con el reporte de donantes aplicando los filtros indicados.
      *
@@ -220,26 +365,93 @@ public class DonacionService {
     public byte[] generateDonorReportCsv(LocalDateTime from, LocalDateTime to, String tipo, String tipoDotacion) throws UnsupportedEncodingException {
         List<DonorReportDTO> rows = buildDonorReport(from, to, tipo, tipoDotacion);
         StringBuilder sb = new StringBuilder();
-        final String bom = "\uFEFF";
-        sb.append(bom);
-        sb.append("idUsuario,correoElectronico,totalDonado,totalDonaciones,ultimaDonacion\n");
+        sb.append(CSV_BOM);
+        sb.append(CSV_HEADER);
         for (DonorReportDTO r : rows) {
-            sb.append(r.getIdUsuario() != null ? r.getIdUsuario() : 0).append(",");
-            sb.append(escapeCsv(r.getCorreoElectronico())).append(",");
-            sb.append(r.getTotalDonado() != null ? r.getTotalDonado().toPlainString() : "0").append(",");
-            sb.append(r.getTotalDonaciones() != null ? r.getTotalDonaciones() : 0).append(",");
-            sb.append(r.getUltimaDonacion() != null ? r.getUltimaDonacion().toString() : "").append("\n");
+            appendCsvRow(sb, r);
         }
         return sb.toString().getBytes(StandardCharsets.UTF_8);
     }
 
+    /**
+     * Escribe el reporte de donantes en formato CSV directamente sobre {@code out}, sin materializarlo.
+     *
+     * <p>Las filas se leen de {@link DonacionRepository#streamDonorReport} como un cursor y cada una se
+     * escribe en cuanto llega, reutilizando el mismo buffer de fila; la memoria usada es constante sin
+     * importar cuántos donantes tenga el reporte. El contenido es idéntico al de
+     * {@link #generateDonorReportCsv}. El flujo {@code out} no se cierra: es responsabilidad del llamador.</p>
+     *
+     * @param from        Fecha/hora inicial del filtro (inclusive). Puede ser {@code null}.
+     * @param to          Fecha/hora final del filtro (inclusive). Puede ser {@code null}.
+     * @param tipo        Tipo de donación a filtrar. Puede ser {@code null}.
+     * @param tipoDotacion Subtipo/descripcion de dotación. Puede ser {@code null}.
+     * @param out         Flujo de salida (normalmente el cuerpo de la respuesta HTTP).
+     * @throws IOException si falla la escritura (por ejemplo, el cliente cerró la conexión).
+     */
+    @Transactional(readOnly = true)
+    public void writeDonorReportCsv(LocalDateTime from, LocalDateTime to, String tipo, String tipoDotacion,
+                                    OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_BOM);
+        writer.write(CSV_HEADER);
+
+        StringBuilder fila = new StringBuilder(128);
+        try (Stream<Object[]> rows = donacionRepository.streamDonorReport(from, to, tipo, tipoDotacion)) {
+            Iterator<Object[]> it = rows.iterator();
+            while (it.hasNext()) {
+                fila.setLength(0);
+                appendCsvRow(fila, toDonorReportDTO(it.next()));
+                writer.append(fila);
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * Convierte una fila de la consulta de reporte (Object[]) a {@link DonorReportDTO}.
+     *
+     * <p>Maneja valores nulos y los distintos tipos de timestamp que puede devolver el driver
+     * (java.sql.Timestamp, java.util.Date o cadenas parseables).</p>
+     */
+    static DonorReportDTO toDonorReportDTO(Object[] r) {
+        Long idUsuario = r[0] == null ? 0L : ((Number) r[0]).longValue();
+        String correo = r[1] == null ? "" : r[1].toString();
+        BigDecimal totalDonado = r[2] == null ? BigDecimal.ZERO : new BigDecimal(r[2].toString());
+        Long totalDonaciones = r[3] == null ? 0L : ((Number) r[3]).longValue();
+        LocalDateTime ultima = null;
+        if (r[4] != null) {
+            Object ts = r[4];
+            if (ts instanceof java.sql.Timestamp) {
+                ultima = ((java.sql.Timestamp) ts).toLocalDateTime();
+            } else if (ts instanceof java.util.Date) {
+                ultima = ((java.util.Date) ts).toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
+            } else if (ts instanceof LocalDateTime) {
+                ultima = (LocalDateTime) ts;
+            } else {
+                try { ultima = LocalDateTime.parse(ts.toString()); } catch (Exception ignored) {}
+            }
+        }
+        return new DonorReportDTO(idUsuario, correo, totalDonado, totalDonaciones, ultima);
+    }
+
+    /**
+     * Agrega al buffer una línea CSV (terminada en salto de línea) con los datos del donante.
+     */
+    private void appendCsvRow(StringBuilder sb, DonorReportDTO r) {
+        sb.append(r.getIdUsuario() != null ? r.getIdUsuario() : 0).append(",");
+        sb.append(escapeCsv(r.getCorreoElectronico())).append(",");
+        sb.append(r.getTotalDonado() != null ? r.getTotalDonado().toPlainString() : "0").append(",");
+        sb.append(r.getTotalDonaciones() != null ? r.getTotalDonaciones() : 0).append(",");
+        sb.append(r.getUltimaDonacion() != null ? r.getUltimaDonacion().toString() : "").append("\n");
+    }
+
     /**
      * Escapa valores para CSV: dobla comillas internas y rodea con comillas si es necesario.
      *
      * @param value Texto de entrada.
      * @return Valor seguro para colocar dentro de una celda CSV.
      */
-    private String escapeCsv(String value) {
+    String escapeCsv(String value) {
         if (value == null) return "";
         String s = value.replace("\"", "\"\"");
         if (s.contains(",") || s.contains("\"") || s.contains("\n") || s.contains("\r")) {
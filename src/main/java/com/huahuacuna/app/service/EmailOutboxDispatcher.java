@@ -0,0 +1,230 @@
+package com.huahuacuna.app.service;
+
+import com.huahuacuna.app.Utils.EmailUtil;
+import com.huahuacuna.app.model.EmailOutbox;
+import com.huahuacuna.app.model.EmailOutbox.EstadoCorreo;
+import com.huahuacuna.app.repository.EmailOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Despachador en segundo plano de la tabla {@code email_outbox}.
+ *
+ * <p>Cada {@code app.mail.outbox.intervalo-ms} (y además justo después de cada encolado) drena los correos
+ * pendientes en lotes de {@code app.mail.outbox.tamano-lote}:</p>
+ * <ol>
+ *   <li>Reclama cada correo con una actualización condicional que lo bloquea durante
+ *       {@code app.mail.outbox.bloqueo}, de modo que varias instancias de la aplicación pueden drenar la
+ *       misma tabla sin enviar dos veces el mismo correo.</li>
+ *   <li>Lo envía en un hilo virtual. Como mucho {@code app.mail.outbox.concurrencia} envíos a la vez,
+ *       para no agotar el pool SMTP.</li>
+ *   <li>Si el envío falla, programa el siguiente intento con backoff exponencial (con jitter) entre
+ *       {@code backoff-inicial} y {@code backoff-maximo}. Tras {@code max-intentos} fallos el correo
+ *       pasa a {@code FALLIDO} (dead letter) y deja de reintentarse.</li>
+ * </ol>
+ *
+ * <p>Al pasar a {@code ENVIADO} o {@code FALLIDO} se borra el cuerpo del correo, que puede llevar
+ * credenciales. Cada {@code app.mail.outbox.purga-ms} se eliminan los correos terminados con más de
+ * {@code app.mail.outbox.retencion} de antigüedad.</p>
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private EmailUtil emailUtil;
+
+    @Value("${app.mail.username}")
+    private String fromEmail;
+
+    @Value("${app.mail.outbox.tamano-lote:50}")
+    private int tamanoLote;
+
+    @Value("${app.mail.outbox.max-intentos:8}")
+    private int maxIntentos;
+
+    @Value("${app.mail.outbox.backoff-inicial:30s}")
+    private Duration backoffInicial;
+
+    @Value("${app.mail.outbox.backoff-maximo:1h}")
+    private Duration backoffMaximo;
+
+    @Value("${app.mail.outbox.bloqueo:2m}")
+    private Duration bloqueo;
+
+    @Value("${app.mail.outbox.retencion:7d}")
+    private Duration retencion;
+
+    private final Semaphore enviosEnCurso;
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("correo-outbox-", 0).factory());
+
+    private final AtomicBoolean procesando = new AtomicBoolean(false);
+    private final AtomicBoolean solicitado = new AtomicBoolean(false);
+
+    public EmailOutboxDispatcher(@Value("${app.mail.outbox.concurrencia:4}") int concurrencia) {
+        this.enviosEnCurso = new Semaphore(concurrencia);
+    }
+
+    /**
+     * Solicita un drenado inmediato de la cola (no bloquea al llamador).
+     */
+    public void despertar() {
+        try {
+            executor.execute(this::procesarPendientes);
+        } catch (RuntimeException e) {
+            // Ejecutor detenido (apagado de la aplicación): el siguiente arranque procesará la cola.
+            log.debug("No se pudo despertar el despachador de correos: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Drena los correos pendientes. Si ya hay un drenado en curso, solo se marca que hay trabajo nuevo y
+     * el drenado en curso dará otra vuelta.
+     */
+    @Scheduled(fixedDelayString = "${app.mail.outbox.intervalo-ms:5000}")
+    public void procesarPendientes() {
+        solicitado.set(true);
+        while (solicitado.get() && procesando.compareAndSet(false, true)) {
+            try {
+                while (solicitado.getAndSet(false)) {
+                    drenar();
+                }
+            } catch (RuntimeException e) {
+                log.error("Error procesando la cola de correos", e);
+            } finally {
+                procesando.set(false);
+            }
+        }
+    }
+
+    private void drenar() {
+        List<Long> ids;
+        do {
+            LocalDateTime ahora = LocalDateTime.now();
+            ids = emailOutboxRepository.findIdsVencidos(EstadoCorreo.PENDIENTE, ahora, PageRequest.of(0, tamanoLote));
+
+            List<Future<?>> envios = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                if (emailOutboxRepository.reclamar(id, EstadoCorreo.PENDIENTE, ahora, ahora.plus(bloqueo)) == 1) {
+                    enviosEnCurso.acquireUninterruptibly();
+                    envios.add(executor.submit(() -> {
+                        try {
+                            enviar(id);
+                        } finally {
+                            enviosEnCurso.release();
+                        }
+                    }));
+                }
+            }
+            esperar(envios);
+        } while (ids.size() == tamanoLote);
+    }
+
+    private void enviar(Long id) {
+        EmailOutbox correo = emailOutboxRepository.findById(id).orElse(null);
+        if (correo == null || correo.getEstado() != EstadoCorreo.PENDIENTE) {
+            return;
+        }
+
+        try {
+            emailUtil.sendEmail(fromEmail, correo.getDestinatario(), correo.getAsunto(), correo.getCuerpo());
+            correo.setEstado(EstadoCorreo.ENVIADO);
+            correo.setFechaEnvio(LocalDateTime.now());
+            correo.setUltimoError(null);
+            correo.setCuerpo("");
+        } catch (MessagingException | RuntimeException e) {
+            int intentos = correo.getIntentos() + 1;
+            correo.setIntentos(intentos);
+            correo.setUltimoError(truncar(e.getMessage()));
+            if (intentos >= maxIntentos) {
+                correo.setEstado(EstadoCorreo.FALLIDO);
+                correo.setCuerpo("");
+                log.warn("Correo {} a {} movido a FALLIDO tras {} intentos: {}",
+                        id, correo.getDestinatario(), intentos, e.getMessage());
+            } else {
+                correo.setProximoIntento(LocalDateTime.now().plus(calcularBackoff(intentos)));
+            }
+        }
+
+        try {
+            emailOutboxRepository.save(correo);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // El contenido se reemplazó mientras se enviaba (deduplicación): queda pendiente con el
+            // contenido nuevo y se enviará en el siguiente ciclo.
+            log.debug("Correo {} modificado durante el envío; se reenviará", id);
+        }
+    }
+
+    /**
+     * Elimina los correos enviados o fallidos con más de {@code app.mail.outbox.retencion} de antigüedad. Es
+     * idempotente: varias instancias pueden ejecutarla a la vez.
+     */
+    @Scheduled(fixedDelayString = "${app.mail.outbox.purga-ms:3600000}")
+    public void purgarTerminados() {
+        int eliminados = emailOutboxRepository.eliminarAnteriores(
+                List.of(EstadoCorreo.ENVIADO, EstadoCorreo.FALLIDO), LocalDateTime.now().minus(retencion));
+        if (eliminados > 0) {
+            log.info("Eliminados {} correos enviados o fallidos de la cola", eliminados);
+        }
+    }
+
+    /**
+     * Backoff exponencial: backoffInicial * 2^(intentos-1), acotado por backoffMaximo, con ±20% de jitter
+     * para que los reintentos de muchos correos no coincidan.
+     */
+    private Duration calcularBackoff(int intentos) {
+        long base = backoffInicial.toMillis() << Math.min(intentos - 1, 20);
+        long acotado = Math.min(base, backoffMaximo.toMillis());
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return Duration.ofMillis((long) (acotado * jitter));
+    }
+
+    private void esperar(List<Future<?>> envios) {
+        for (Future<?> envio : envios) {
+            try {
+                envio.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                log.error("Error enviando correo de la cola", e.getCause());
+            }
+        }
+    }
+
+    private String truncar(String mensaje) {
+        if (mensaje == null) return null;
+        return mensaje.length() > 1000 ? mensaje.substring(0, 1000) : mensaje;
+    }
+
+    @PreDestroy
+    public void detener() {
+        executor.shutdown();
+    }
+}
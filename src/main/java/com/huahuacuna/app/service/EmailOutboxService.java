@@ -0,0 +1,71 @@
+package com.huahuacuna.app.service;
+
+import com.huahuacuna.app.model.EmailOutbox;
+import com.huahuacuna.app.model.EmailOutbox.EstadoCorreo;
+import com.huahuacuna.app.repository.EmailOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+/**
+ * Encola correos salientes en la tabla {@code email_outbox}.
+ *
+ * <p>{@link #encolar} participa en la transacción del llamador: el correo queda registrado si y solo si
+ * la operación de negocio se confirma. Tras el commit se despierta al
+ * {@link EmailOutboxDispatcher} para que el envío empiece de inmediato, sin esperar a su siguiente ciclo.</p>
+ */
+@Service
+public class EmailOutboxService {
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private EmailOutboxDispatcher emailOutboxDispatcher;
+
+    /**
+     * Registra un correo para envío asíncrono.
+     *
+     * <p>Si ya hay un correo pendiente con la misma {@code claveDedup} (por ejemplo, el usuario pidió dos
+     * veces el código de recuperación), se reemplaza su contenido y se reinician sus reintentos en lugar
+     * de enviar dos correos. El reemplazo es un upsert sobre un índice único de los correos pendientes
+     * ({@link EmailOutboxRepository#encolarDeduplicado}), así que también vale para encolados simultáneos.</p>
+     *
+     * @param destinatario dirección de destino
+     * @param asunto       asunto del correo
+     * @param cuerpo       cuerpo en texto plano
+     * @param claveDedup   clave de deduplicación (puede ser {@code null} para no deduplicar)
+     */
+    @Transactional
+    public void encolar(String destinatario, String asunto, String cuerpo, String claveDedup) {
+        if (claveDedup != null) {
+            emailOutboxRepository.encolarDeduplicado(destinatario, asunto, cuerpo, claveDedup, LocalDateTime.now());
+        } else {
+            EmailOutbox correo = new EmailOutbox();
+            correo.setDestinatario(destinatario);
+            correo.setAsunto(asunto);
+            correo.setCuerpo(cuerpo);
+            correo.setEstado(EstadoCorreo.PENDIENTE);
+            correo.setProximoIntento(LocalDateTime.now());
+            emailOutboxRepository.save(correo);
+        }
+        despertarTrasCommit();
+    }
+
+    private void despertarTrasCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    emailOutboxDispatcher.despertar();
+                }
+            });
+        } else {
+            emailOutboxDispatcher.despertar();
+        }
+    }
+}
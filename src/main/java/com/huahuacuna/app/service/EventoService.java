@@ -2,15 +2,25 @@ package com.huahuacuna.app.service;
 
 import com.huahuacuna.app.DTO.EventoDTO;
 import com.huahuacuna.app.DTO.InscripcionEventoDTO;
+import com.huahuacuna.app.DTO.InscripcionEventoResumenDTO;
+import com.huahuacuna.app.DTO.VersionRecurso;
+import com.huahuacuna.app.config.CacheConfig;
+import com.huahuacuna.app.event.CambioEstadoInscripcion;
 import com.huahuacuna.app.model.Evento;
 import com.huahuacuna.app.model.InscripcionEvento;
 import com.huahuacuna.app.repository.EventoRepository;
 import com.huahuacuna.app.repository.InscripcionEventoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -28,8 +38,15 @@ import java.util.stream.Collectors;
  * <ul>
  *   <li>Los métodos que modifican datos están anotados con {@code @Transactional} para asegurar
  *       la coherencia durante operaciones de escritura.</li>
+ *   <li>Las listas de eventos activos y próximos se cachean ({@link CacheConfig}); crear, actualizar o
+ *       eliminar un evento, o inscribirse (cambian los cupos ocupados), las invalida después del commit.</li>
  *   <li>Si en {@link EventoDTO#getActivo()} se pasa {@code null} al crear un evento, por defecto
  *       se establece {@code true} (evento activo).</li>
+ *   <li>Cupos: un evento con {@code capacidad} admite como máximo ese número de inscripciones
+ *       CONFIRMADO; las siguientes quedan en LISTA_ESPERA y se confirman por orden de llegada cuando se
+ *       libera un cupo (cancelación) o aumenta la capacidad. El contador {@code cuposOcupados} solo se
+ *       modifica con actualizaciones condicionales atómicas ({@link EventoRepository#ocuparCupo}), nunca
+ *       leyendo y luego escribiendo, así que no se pueden vender más cupos que la capacidad.</li>
  * </ul>
  *
  * @see EventoRepository
@@ -48,6 +65,9 @@ public class EventoService {
     @Autowired
     private InscripcionEventoRepository inscripcionRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // CRUD Eventos
 
     /**
@@ -59,6 +79,10 @@ public class EventoService {
      * @return {@link EventoDTO} representando el evento creado.
      */
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EVENTOS_ACTIVOS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.EVENTOS_PROXIMOS, allEntries = true)
+    })
     public EventoDTO crearEvento(EventoDTO dto) {
         Evento evento = new Evento();
         evento.setTitulo(dto.getTitulo());
@@ -69,6 +93,7 @@ public class EventoService {
         evento.setDescripcionDetallada(dto.getDescripcionDetallada());
         evento.setFechaEvento(dto.getFechaEvento());
         evento.setActivo(dto.getActivo() != null ? dto.getActivo() : true);
+        evento.setCapacidad(dto.getCapacidad());
 
         Evento guardado = eventoRepository.save(evento);
         return convertirADTO(guardado);
@@ -90,10 +115,11 @@ public class EventoService {
      *
      * @return Lista de {@link EventoDTO} activos.
      */
+    @Cacheable(CacheConfig.EVENTOS_ACTIVOS)
     public List<EventoDTO> listarActivos() {
         return eventoRepository.findByActivoTrue().stream()
                 .map(this::convertirADTO)
-                .collect(Collectors.toList());
+                .toList();
     }
 
     /**
@@ -101,10 +127,38 @@ public class EventoService {
      *
      * @return Lista de {@link EventoDTO} próximos.
      */
+    @Cacheable(CacheConfig.EVENTOS_PROXIMOS)
     public List<EventoDTO> listarProximosEventos() {
         return eventoRepository.findByActivoTrueOrderByFechaEventoAsc().stream()
                 .map(this::convertirADTO)
-                .collect(Collectors.toList());
+                .toList();
+    }
+
+    /**
+     * Versión del listado completo (ETag y Last-Modified), con una consulta agregada y sin cargar eventos.
+     */
+    public VersionRecurso versionTodos() {
+        return versionListado(eventoRepository.findVersionTodos());
+    }
+
+    /**
+     * Versión de los listados de eventos activos y próximos.
+     */
+    public VersionRecurso versionActivos() {
+        return versionListado(eventoRepository.findVersionActivos());
+    }
+
+    /**
+     * Versión de un evento, a partir de su {@code fechaActualizacion}; vacía si no existe.
+     */
+    public Optional<VersionRecurso> versionEvento(Long id) {
+        return eventoRepository.findFechaActualizacionById(id)
+                .map(fecha -> VersionRecurso.conFecha(fecha, "evento", id));
+    }
+
+    private static VersionRecurso versionListado(List<Object[]> filas) {
+        Object[] fila = filas.get(0);
+        return VersionRecurso.conFecha((LocalDateTime) fila[2], "eventos", fila[0], fila[1]);
     }
 
     /**
@@ -127,11 +181,20 @@ public class EventoService {
      * @param dto DTO con los nuevos datos.
      * @return {@link EventoDTO} actualizado.
      * @throws RuntimeException si el evento no existe (mensaje: "Evento no encontrado").
+     * @throws IllegalStateException si la nueva capacidad es menor que las inscripciones confirmadas.
      */
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EVENTOS_ACTIVOS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.EVENTOS_PROXIMOS, allEntries = true)
+    })
     public EventoDTO actualizar(Long id, EventoDTO dto) {
-        Evento evento = eventoRepository.findById(id)
+        Evento evento = eventoRepository.bloquear(id)
                 .orElseThrow(() -> new RuntimeException("Evento no encontrado"));
+        if (dto.getCapacidad() != null && dto.getCapacidad() < evento.getCuposOcupados()) {
+            throw new IllegalStateException("La capacidad no puede ser menor que las inscripciones confirmadas ("
+                    + evento.getCuposOcupados() + ")");
+        }
 
         evento.setTitulo(dto.getTitulo());
         evento.setDescripcion(dto.getDescripcion());
@@ -141,9 +204,14 @@ public class EventoService {
         evento.setDescripcionDetallada(dto.getDescripcionDetallada());
         evento.setFechaEvento(dto.getFechaEvento());
         evento.setActivo(dto.getActivo());
+        evento.setCapacidad(dto.getCapacidad());
 
-        Evento actualizado = eventoRepository.save(evento);
-        return convertirADTO(actualizado);
+        eventoRepository.save(evento);
+        // Si aumentó la capacidad, los nuevos cupos son para la lista de espera
+        promoverListaEspera(id, null);
+        // Releer: ocuparCupo vacía el contexto de persistencia y los cupos solo cambian en la base de datos
+        return convertirADTO(eventoRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Evento no encontrado")));
     }
 
     /**
@@ -152,6 +220,10 @@ public class EventoService {
      * @param id Identificador del evento a eliminar.
      */
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EVENTOS_ACTIVOS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.EVENTOS_PROXIMOS, allEntries = true)
+    })
     public void eliminar(Long id) {
         eventoRepository.deleteById(id);
     }
@@ -161,57 +233,141 @@ public class EventoService {
     /**
      * Crea una inscripción para un evento dado por {@code dto.eventoId}.
      *
+     * <p>Primero intenta ocupar un cupo con una actualización condicional ({@link EventoRepository#ocuparCupo});
+     * si lo consigue la inscripción queda CONFIRMADO; si el evento está lleno, queda en LISTA_ESPERA. La fila del
+     * evento queda bloqueada hasta el commit, de modo que las inscripciones simultáneas al mismo evento se
+     * serializan solo durante esta transacción corta.</p>
+     *
      * @param dto DTO con los datos de inscripción (eventoId, nombreCompleto, email, telefono).
-     * @return {@link InscripcionEvento} persistida.
+     * @return {@link InscripcionEvento} persistida, en estado CONFIRMADO o LISTA_ESPERA.
      * @throws RuntimeException si el evento referenciado no existe (mensaje: "Evento no encontrado").
      */
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EVENTOS_ACTIVOS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.EVENTOS_PROXIMOS, allEntries = true)
+    })
     public InscripcionEvento inscribirse(InscripcionEventoDTO dto) {
+        InscripcionEvento.EstadoInscripcion estado;
+        if (eventoRepository.ocuparCupo(dto.getEventoId()) == 1) {
+            estado = InscripcionEvento.EstadoInscripcion.CONFIRMADO;
+        } else {
+            // Lleno o inexistente: bloquear el evento y reintentar una vez, por si se liberó un cupo entre medias
+            eventoRepository.bloquear(dto.getEventoId())
+                    .orElseThrow(() -> new RuntimeException("Evento no encontrado"));
+            estado = eventoRepository.ocuparCupo(dto.getEventoId()) == 1
+                    ? InscripcionEvento.EstadoInscripcion.CONFIRMADO
+                    : InscripcionEvento.EstadoInscripcion.LISTA_ESPERA;
+        }
         Evento evento = eventoRepository.findById(dto.getEventoId())
                 .orElseThrow(() -> new RuntimeException("Evento no encontrado"));
 
         InscripcionEvento inscripcion = new InscripcionEvento();
         inscripcion.setEvento(evento);
+        inscripcion.setEstado(estado);
         inscripcion.setNombreCompleto(dto.getNombreCompleto());
         inscripcion.setEmail(dto.getEmail());
         inscripcion.setTelefono(dto.getTelefono());
 
-        return inscripcionRepository.save(inscripcion);
+        InscripcionEvento guardada = inscripcionRepository.save(inscripcion);
+        eventPublisher.publishEvent(new CambioEstadoInscripcion(evento.getId(), null, estado));
+        return guardada;
     }
 
     /**
      * Obtiene las inscripciones asociadas a un evento.
      *
      * @param eventoId Identificador del evento.
-     * @return Lista de {@link InscripcionEvento} para el evento.
+     * @return Lista de {@link InscripcionEventoResumenDTO} para el evento (el evento va por id).
      */
-    public List<InscripcionEvento> obtenerInscripciones(Long eventoId) {
-        return inscripcionRepository.findByEventoId(eventoId);
+    public List<InscripcionEventoResumenDTO> obtenerInscripciones(Long eventoId) {
+        return inscripcionRepository.findResumenByEventoId(eventoId);
     }
 
     /**
      * Lista todas las inscripciones de todos los eventos.
      *
-     * @return Lista de {@link InscripcionEvento}.
+     * @return Lista de {@link InscripcionEventoResumenDTO} (el evento va por id).
      */
-    public List<InscripcionEvento> listarTodasInscripciones() {
-        return inscripcionRepository.findAll();
+    public List<InscripcionEventoResumenDTO> listarTodasInscripciones() {
+        return inscripcionRepository.findAllResumen();
     }
 
     /**
-     * Actualiza el estado de una inscripción y la persiste.
+     * Actualiza el estado de una inscripción y la persiste, manteniendo los cupos del evento:
+     * confirmar una inscripción ocupa un cupo (falla si no quedan) y dejar de estar confirmada lo libera,
+     * y el cupo liberado pasa a la primera inscripción de la lista de espera.
      *
      * @param inscripcionId Identificador de la inscripción a actualizar.
      * @param nuevoEstado   Nuevo estado a asignar ({@link InscripcionEvento.EstadoInscripcion}).
      * @return {@link InscripcionEvento} actualizado.
      * @throws RuntimeException si la inscripción no existe (mensaje: "Inscripción no encontrada").
+     * @throws IllegalStateException si se confirma una inscripción y el evento no tiene cupos libres.
      */
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EVENTOS_ACTIVOS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.EVENTOS_PROXIMOS, allEntries = true)
+    })
     public InscripcionEvento actualizarEstadoInscripcion(Long inscripcionId, InscripcionEvento.EstadoInscripcion nuevoEstado) {
-        InscripcionEvento inscripcion = inscripcionRepository.findById(inscripcionId)
+        Long eventoId = inscripcionRepository.findEventoIdById(inscripcionId)
                 .orElseThrow(() -> new RuntimeException("Inscripción no encontrada"));
+        // Primero el evento y después la inscripción, el mismo orden que en las inscripciones y la
+        // promoción de la lista de espera, para serializar los cambios sin interbloqueos
+        eventoRepository.bloquear(eventoId);
+        InscripcionEvento inscripcion = inscripcionRepository.bloquear(inscripcionId)
+                .orElseThrow(() -> new RuntimeException("Inscripción no encontrada"));
+
+        InscripcionEvento.EstadoInscripcion anterior = inscripcion.getEstado();
+        if (anterior == nuevoEstado) {
+            return inscripcion;
+        }
+        boolean confirmada = anterior == InscripcionEvento.EstadoInscripcion.CONFIRMADO;
+        if (nuevoEstado == InscripcionEvento.EstadoInscripcion.CONFIRMADO) {
+            if (eventoRepository.ocuparCupo(eventoId) == 0) {
+                throw new IllegalStateException("El evento no tiene cupos disponibles");
+            }
+        }
         inscripcion.setEstado(nuevoEstado);
-        return inscripcionRepository.save(inscripcion);
+        InscripcionEvento guardada = inscripcionRepository.saveAndFlush(inscripcion);
+        eventPublisher.publishEvent(new CambioEstadoInscripcion(eventoId, anterior, nuevoEstado));
+        if (confirmada) {
+            eventoRepository.liberarCupo(eventoId);
+            // Si pasa a la lista de espera, el cupo es para las que ya esperaban, no para ella misma
+            promoverListaEspera(eventoId,
+                    nuevoEstado == InscripcionEvento.EstadoInscripcion.LISTA_ESPERA ? inscripcionId : null);
+        }
+        return guardada;
+    }
+
+    /**
+     * Confirma inscripciones de la lista de espera, por orden de llegada, mientras queden cupos libres. Debe
+     * llamarse dentro de una transacción.
+     *
+     * @param excluida inscripción que no se debe promover ({@code null} = ninguna)
+     * @return número de inscripciones confirmadas
+     */
+    private int promoverListaEspera(Long eventoId, Long excluida) {
+        int promovidas = 0;
+        while (eventoRepository.ocuparCupo(eventoId) == 1) {
+            InscripcionEvento siguiente = (excluida == null
+                    ? inscripcionRepository.findFirstByEventoIdAndEstadoOrderByIdAsc(
+                            eventoId, InscripcionEvento.EstadoInscripcion.LISTA_ESPERA)
+                    : inscripcionRepository.findFirstByEventoIdAndEstadoAndIdNotOrderByIdAsc(
+                            eventoId, InscripcionEvento.EstadoInscripcion.LISTA_ESPERA, excluida))
+                    .orElse(null);
+            if (siguiente == null) {
+                // Nadie esperando: devolver el cupo
+                eventoRepository.liberarCupo(eventoId);
+                break;
+            }
+            siguiente.setEstado(InscripcionEvento.EstadoInscripcion.CONFIRMADO);
+            inscripcionRepository.saveAndFlush(siguiente);
+            eventPublisher.publishEvent(new CambioEstadoInscripcion(eventoId,
+                    InscripcionEvento.EstadoInscripcion.LISTA_ESPERA, InscripcionEvento.EstadoInscripcion.CONFIRMADO));
+            promovidas++;
+        }
+        return promovidas;
     }
 
     // Convertidor
@@ -233,6 +389,25 @@ public class EventoService {
         dto.setDescripcionDetallada(evento.getDescripcionDetallada());
         dto.setFechaEvento(evento.getFechaEvento());
         dto.setActivo(evento.getActivo());
+        dto.setCapacidad(evento.getCapacidad());
+        dto.setCuposOcupados(evento.getCuposOcupados());
         return dto;
     }
+
+    /**
+     * Convierte una {@link InscripcionEvento} a {@link InscripcionEventoResumenDTO}, con el evento por id.
+     *
+     * @param inscripcion Entidad de inscripción.
+     * @return DTO con los datos de la inscripción.
+     */
+    public InscripcionEventoResumenDTO convertirInscripcionADTO(InscripcionEvento inscripcion) {
+        return new InscripcionEventoResumenDTO(
+                inscripcion.getId(),
+                inscripcion.getEvento().getId(),
+                inscripcion.getNombreCompleto(),
+                inscripcion.getEmail(),
+                inscripcion.getTelefono(),
+                inscripcion.getEstado(),
+                inscripcion.getFechaInscripcion());
+    }
 }
\ No newline at end of file
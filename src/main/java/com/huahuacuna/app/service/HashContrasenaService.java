@@ -0,0 +1,297 @@
+package com.huahuacuna.app.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.huahuacuna.app.model.Usuario;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hash y verificación de contraseñas con BCrypt.
+ *
+ * <p>BCrypt es lento a propósito (con el coste por defecto, 12, unos 250 ms de CPU por operación). Para que
+ * un pico de inicios de sesión no ocupe todos los hilos de Tomcat calculando hashes:</p>
+ * <ul>
+ *   <li>El cálculo se hace en un pool acotado ({@code app.auth.hash.hilos}, por defecto un hilo por núcleo)
+ *       con una cola de {@code app.auth.hash.cola} tareas. Si la cola está llena o la tarea no termina en
+ *       {@code app.auth.hash.espera-maxima} se lanza {@link ServicioSaturadoException} y el controlador
+ *       responde 503 en lugar de acumular peticiones.</li>
+ *   <li>Las verificaciones correctas se recuerdan durante {@code app.auth.hash.cache.ttl}, así que un mismo
+ *       usuario que vuelve a iniciar sesión no repite el cálculo. La clave de la caché es un HMAC (con una
+ *       clave aleatoria que solo vive en memoria) del hash almacenado y la contraseña: nunca se guarda la
+ *       contraseña, y al cambiarla el hash almacenado cambia y la entrada antigua deja de coincidir.</li>
+ * </ul>
+ *
+ * <p>Cada usuario guarda el algoritmo y el coste de su hash. Las filas heredadas en texto plano
+ * (algoritmo {@code null}) y los hashes con un coste menor que el configurado se regeneran en el siguiente
+ * inicio de sesión correcto (ver {@link #verificar}).</p>
+ */
+@Service
+public class HashContrasenaService {
+
+    public static final String ALGORITMO_BCRYPT = "bcrypt";
+
+    /**
+     * BCrypt solo usa los primeros 72 bytes de la contraseña.
+     */
+    private static final int MAXIMO_BYTES = 72;
+
+    private final int costo;
+    private final long esperaMaximaMs;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, Boolean> verificadas;
+    private final SecretKeySpec claveCache;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Hash con el que se compara cuando el correo no existe, para que la respuesta tarde lo mismo y no
+     * revele qué correos están registrados.
+     */
+    private final String hashFicticio;
+
+    // Métricas
+    private final AtomicLong hashes = new AtomicLong();
+    private final AtomicLong verificaciones = new AtomicLong();
+    private final AtomicLong aciertosCache = new AtomicLong();
+    private final AtomicLong actualizaciones = new AtomicLong();
+    private final AtomicLong rechazadas = new AtomicLong();
+
+    public HashContrasenaService(@Value("${app.auth.hash.costo:12}") int costo,
+                                 @Value("${app.auth.hash.hilos:0}") int hilos,
+                                 @Value("${app.auth.hash.cola:64}") int cola,
+                                 @Value("${app.auth.hash.espera-maxima:5s}") Duration esperaMaxima,
+                                 @Value("${app.auth.hash.cache.tamano-maximo:10000}") long tamanoCache,
+                                 @Value("${app.auth.hash.cache.ttl:10m}") Duration ttlCache) {
+        if (costo < 4 || costo > 31) {
+            throw new IllegalArgumentException("app.auth.hash.costo debe estar entre 4 y 31");
+        }
+        this.costo = costo;
+        this.esperaMaximaMs = esperaMaxima.toMillis();
+
+        int nucleos = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(nucleos, nucleos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cola),
+                r -> {
+                    Thread t = new Thread(r, "hash-contrasena-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.verificadas = Caffeine.newBuilder()
+                .maximumSize(tamanoCache)
+                .expireAfterWrite(ttlCache)
+                .build();
+
+        byte[] clave = new byte[32];
+        random.nextBytes(clave);
+        this.claveCache = new SecretKeySpec(clave, "HmacSHA256");
+
+        this.hashFicticio = BCrypt.hashpw("contrasena-ficticia", BCrypt.gensalt(costo, random));
+    }
+
+    /**
+     * Coste configurado para los hashes nuevos.
+     */
+    public int getCosto() {
+        return costo;
+    }
+
+    /**
+     * Hashea la contraseña y la asigna al usuario junto con el algoritmo y el coste. No persiste la entidad.
+     *
+     * @throws ContrasenaDemasiadoLargaException si la contraseña supera los 72 bytes que admite BCrypt
+     * @throws ServicioSaturadoException si el pool de hash está saturado
+     */
+    public void asignar(Usuario usuario, String contrasena) {
+        if (contrasena.getBytes(StandardCharsets.UTF_8).length > MAXIMO_BYTES) {
+            throw new ContrasenaDemasiadoLargaException(MAXIMO_BYTES);
+        }
+        String hash = ejecutar(() -> BCrypt.hashpw(contrasena, BCrypt.gensalt(costo, random)));
+        hashes.incrementAndGet();
+        usuario.setContrasena(hash);
+        usuario.setHashAlgoritmo(ALGORITMO_BCRYPT);
+        usuario.setHashCosto(costo);
+        verificadas.put(claveCache(hash, contrasena), Boolean.TRUE);
+    }
+
+    /**
+     * Comprueba la contraseña del usuario. Si es correcta pero el hash es heredado (texto plano) o tiene un
+     * coste menor que el configurado, lo regenera con {@link #asignar}; el llamador debe guardar el usuario
+     * cuando {@link Verificacion#actualizado()} es true.
+     *
+     * @param usuario usuario a comprobar, o {@code null} si el correo no existe (se hace igualmente una
+     *                verificación ficticia para no revelarlo por el tiempo de respuesta)
+     * @throws ServicioSaturadoException si el pool de hash está saturado
+     */
+    public Verificacion verificar(Usuario usuario, String contrasena) {
+        verificaciones.incrementAndGet();
+        if (usuario == null || usuario.getContrasena() == null) {
+            ejecutar(() -> comprobarBcrypt(contrasena, hashFicticio));
+            return Verificacion.INVALIDA;
+        }
+
+        String almacenado = usuario.getContrasena();
+        boolean valida;
+        if (usuario.getHashAlgoritmo() == null) {
+            valida = MessageDigest.isEqual(
+                    almacenado.getBytes(StandardCharsets.UTF_8), contrasena.getBytes(StandardCharsets.UTF_8));
+        } else if (ALGORITMO_BCRYPT.equals(usuario.getHashAlgoritmo())) {
+            String clave = claveCache(almacenado, contrasena);
+            if (verificadas.getIfPresent(clave) != null) {
+                aciertosCache.incrementAndGet();
+                valida = true;
+            } else {
+                valida = ejecutar(() -> comprobarBcrypt(contrasena, almacenado));
+                if (valida) {
+                    verificadas.put(clave, Boolean.TRUE);
+                }
+            }
+        } else {
+            throw new IllegalStateException("Algoritmo de hash desconocido: " + usuario.getHashAlgoritmo());
+        }
+
+        if (!valida) {
+            return Verificacion.INVALIDA;
+        }
+        if (requiereActualizacion(usuario) && contrasena.getBytes(StandardCharsets.UTF_8).length <= MAXIMO_BYTES) {
+            asignar(usuario, contrasena);
+            actualizaciones.incrementAndGet();
+            return Verificacion.VALIDA_ACTUALIZADA;
+        }
+        return Verificacion.VALIDA;
+    }
+
+    /**
+     * Indica si el hash del usuario es heredado o tiene un coste menor que el configurado.
+     */
+    public boolean requiereActualizacion(Usuario usuario) {
+        return !ALGORITMO_BCRYPT.equals(usuario.getHashAlgoritmo())
+                || usuario.getHashCosto() == null
+                || usuario.getHashCosto() < costo;
+    }
+
+    private static boolean comprobarBcrypt(String contrasena, String hash) {
+        try {
+            return BCrypt.checkpw(contrasena, hash);
+        } catch (IllegalArgumentException e) {
+            // Hash mal formado o contraseña de más de 72 bytes
+            return false;
+        }
+    }
+
+    private <T> T ejecutar(Callable<T> tarea) {
+        Future<T> futuro;
+        try {
+            futuro = executor.submit(tarea);
+        } catch (RejectedExecutionException e) {
+            rechazadas.incrementAndGet();
+            throw new ServicioSaturadoException();
+        }
+        try {
+            return futuro.get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            rechazadas.incrementAndGet();
+            throw new ServicioSaturadoException();
+        } catch (InterruptedException e) {
+            futuro.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServicioSaturadoException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private String claveCache(String hash, String contrasena) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(claveCache);
+            mac.update(hash.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(contrasena.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(mac.doFinal());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 no disponible", e);
+        }
+    }
+
+    /**
+     * Instantánea de las métricas del pool de hash y de la caché de verificaciones.
+     */
+    public Map<String, Object> metricas() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("costo", costo);
+        m.put("hilos", executor.getMaximumPoolSize());
+        m.put("activos", executor.getActiveCount());
+        m.put("enCola", executor.getQueue().size());
+        m.put("hashes", hashes.get());
+        m.put("verificaciones", verificaciones.get());
+        m.put("aciertosCache", aciertosCache.get());
+        m.put("actualizaciones", actualizaciones.get());
+        m.put("rechazadas", rechazadas.get());
+        return m;
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Resultado de {@link #verificar}.
+     *
+     * @param valida      la contraseña es correcta
+     * @param actualizado el hash se regeneró y el usuario debe guardarse
+     */
+    public record Verificacion(boolean valida, boolean actualizado) {
+        static final Verificacion INVALIDA = new Verificacion(false, false);
+        static final Verificacion VALIDA = new Verificacion(true, false);
+        static final Verificacion VALIDA_ACTUALIZADA = new Verificacion(true, true);
+    }
+
+    /**
+     * El pool de hash no pudo atender la petición a tiempo (cola llena o espera agotada).
+     */
+    public static class ServicioSaturadoException extends RuntimeException {
+        public ServicioSaturadoException() {
+            super("El servicio de autenticación está saturado, intente de nuevo en unos segundos.");
+        }
+    }
+
+    /**
+     * La contraseña nueva supera los bytes que BCrypt tiene en cuenta (en UTF-8, una letra con tilde ocupa dos).
+     */
+    public static class ContrasenaDemasiadoLargaException extends IllegalArgumentException {
+        public ContrasenaDemasiadoLargaException(int maximoBytes) {
+            super("La contraseña no puede superar los " + maximoBytes + " bytes.");
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.huahuacuna.app.service;
+
+import com.huahuacuna.app.DTO.DonacionDTO;
+import com.huahuacuna.app.DTO.ResultadoImportacionDTO;
+import com.huahuacuna.app.Utils.LectorCsv;
+import com.huahuacuna.app.event.CambioDonaciones;
+import com.huahuacuna.app.model.Donacion;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva de donaciones desde un CSV (conciliación bancaria).
+ *
+ * <p>El archivo se lee registro a registro con {@link LectorCsv}, sin cargarlo en memoria. La primera fila es
+ * la cabecera, con cualquier subconjunto (y en cualquier orden) de las columnas de {@link DonacionDTO}:
+ * {@code idUsuario, tipo, monto, descripcion, banco, correoElectronico, nit, tipoDotacion}. Cada fila se
+ * valida como el DTO de {@code POST /api/donaciones} y se convierte con las mismas reglas
+ * ({@link DonacionService#construirDonacion}): usuario por defecto e inferencia del tipo.</p>
+ *
+ * <p>Las filas válidas se insertan en lotes de {@code app.donaciones.importacion.tamano-lote}, cada lote en su
+ * propia transacción junto con sus acumulados ({@link TotalDonanteService#registrarLote}). La inserción usa
+ * {@link JdbcTemplate#batchUpdate} y no {@code saveAll}: con ids {@code IDENTITY} Hibernate desactiva el
+ * batching de inserts porque necesita leer el id generado tras cada fila. Con
+ * {@code rewriteBatchedStatements=true} en la URL de conexión, Connector/J envía cada lote como un único
+ * {@code INSERT ... VALUES (...), (...), ...}.</p>
+ *
+ * <p>Una fila con errores no aborta la importación: se reporta con su número de línea. Si la base de datos
+ * rechaza un lote, se reintenta fila a fila para aislar las filas culpables.</p>
+ */
+@Service
+public class ImportacionDonacionService {
+
+    /**
+     * Número máximo de errores detallados en la respuesta (el total se cuenta igualmente).
+     */
+    static final int MAX_ERRORES_REPORTADOS = 500;
+
+    private static final List<String> COLUMNAS = List.of(
+            "idUsuario", "tipo", "monto", "descripcion", "banco", "correoElectronico", "nit", "tipoDotacion");
+
+    private static final String INSERT_SQL = "" +
+            "INSERT INTO donaciones (id_usuario, tipo, monto, descripcion, fecha_donacion, estado, banco, " +
+            "  correo_electronico, nit, tipo_dotacion) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TotalDonanteService totalDonanteService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final int tamanoLote;
+
+    public ImportacionDonacionService(JdbcTemplate jdbcTemplate,
+                                      TransactionTemplate transactionTemplate,
+                                      TotalDonanteService totalDonanteService,
+                                      ApplicationEventPublisher eventPublisher,
+                                      Validator validator,
+                                      @Value("${app.donaciones.importacion.tamano-lote:500}") int tamanoLote) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.totalDonanteService = totalDonanteService;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.tamanoLote = tamanoLote;
+    }
+
+    /**
+     * Importa las donaciones del CSV.
+     *
+     * @param reader contenido del CSV (UTF-8, con cabecera)
+     * @return filas leídas, insertadas y con errores, con el detalle de los errores
+     * @throws IllegalArgumentException si la cabecera está vacía o tiene columnas desconocidas o repetidas
+     * @throws IOException si falla la lectura
+     */
+    public ResultadoImportacionDTO importar(Reader reader) throws IOException {
+        long inicio = System.nanoTime();
+        LectorCsv lector = new LectorCsv(reader);
+        List<String> cabecera = leerCabecera(lector);
+
+        ResultadoImportacionDTO resultado = new ResultadoImportacionDTO(0, 0, 0, new ArrayList<>(), 0);
+        List<Fila> lote = new ArrayList<>(tamanoLote);
+        List<String> campos;
+        while ((campos = lector.leer()) != null) {
+            resultado.setFilasLeidas(resultado.getFilasLeidas() + 1);
+            int linea = lector.getLinea();
+            try {
+                lote.add(new Fila(linea, convertir(cabecera, campos)));
+            } catch (IllegalArgumentException e) {
+                registrarError(resultado, linea, e.getMessage());
+            }
+            if (lote.size() >= tamanoLote) {
+                insertarLote(lote, resultado);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            insertarLote(lote, resultado);
+        }
+        resultado.setDuracionMs((System.nanoTime() - inicio) / 1_000_000);
+        return resultado;
+    }
+
+    private static List<String> leerCabecera(LectorCsv lector) throws IOException {
+        List<String> cabecera = lector.leer();
+        if (cabecera == null) {
+            throw new IllegalArgumentException("El archivo está vacío.");
+        }
+        List<String> normalizada = new ArrayList<>(cabecera.size());
+        for (String nombre : cabecera) {
+            String columna = COLUMNAS.stream()
+                    .filter(c -> c.equalsIgnoreCase(nombre.trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Columna desconocida: '" + nombre.trim()
+                            + "'. Columnas admitidas: " + String.join(", ", COLUMNAS)));
+            if (normalizada.contains(columna)) {
+                throw new IllegalArgumentException("Columna repetida: " + columna);
+            }
+            normalizada.add(columna);
+        }
+        return normalizada;
+    }
+
+    /**
+     * Convierte una fila en una donación lista para insertar.
+     *
+     * @throws IllegalArgumentException con un mensaje para el usuario si la fila no es válida
+     */
+    private Donacion convertir(List<String> cabecera, List<String> campos) {
+        if (campos.size() != cabecera.size()) {
+            throw new IllegalArgumentException("Se esperaban " + cabecera.size() + " columnas y hay " + campos.size());
+        }
+        DonacionDTO dto = new DonacionDTO();
+        for (int i = 0; i < cabecera.size(); i++) {
+            String valor = campos.get(i).trim();
+            if (valor.isEmpty()) {
+                continue;
+            }
+            String columna = cabecera.get(i);
+            try {
+                switch (columna) {
+                    case "idUsuario" -> dto.setIdUsuario(Long.parseLong(valor));
+                    case "tipo" -> dto.setTipo(Donacion.TipoDonacion.valueOf(valor.toUpperCase(Locale.ROOT)));
+                    case "monto" -> dto.setMonto(new BigDecimal(valor));
+                    case "descripcion" -> dto.setDescripcion(valor);
+                    case "banco" -> dto.setBanco(valor);
+                    case "correoElectronico" -> dto.setCorreoElectronico(valor);
+                    case "nit" -> dto.setNit(valor);
+                    case "tipoDotacion" -> dto.setTipoDotacion(valor);
+                    default -> throw new IllegalStateException(columna);
+                }
+            } catch (IllegalArgumentException e) {
+                // NumberFormatException y valores de enum inválidos
+                throw new IllegalArgumentException("Valor inválido en la columna " + columna + ": '" + valor + "'");
+            }
+        }
+        Set<ConstraintViolation<DonacionDTO>> violaciones = validator.validate(dto);
+        if (!violaciones.isEmpty()) {
+            throw new IllegalArgumentException(violaciones.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.joining("; ")));
+        }
+        return DonacionService.construirDonacion(dto);
+    }
+
+    private void insertarLote(List<Fila> lote, ResultadoImportacionDTO resultado) {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<Donacion> donaciones = new ArrayList<>(lote.size());
+        for (Fila fila : lote) {
+            fila.donacion.setFechaDonacion(ahora);
+            donaciones.add(fila.donacion);
+        }
+        try {
+            guardar(donaciones);
+            resultado.setInsertadas(resultado.getInsertadas() + donaciones.size());
+        } catch (DataAccessException e) {
+            // Un lote rechazado se reintenta fila a fila para reportar solo las filas culpables
+            for (Fila fila : lote) {
+                try {
+                    guardar(List.of(fila.donacion));
+                    resultado.setInsertadas(resultado.getInsertadas() + 1);
+                } catch (DataAccessException ex) {
+                    registrarError(resultado, fila.linea, ex.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private void guardar(List<Donacion> donaciones) {
+        transactionTemplate.executeWithoutResult(estado -> {
+            jdbcTemplate.batchUpdate(INSERT_SQL, donaciones, donaciones.size(), ImportacionDonacionService::asignarParametros);
+            totalDonanteService.registrarLote(donaciones);
+            CambioDonaciones.altas(donaciones).forEach(eventPublisher::publishEvent);
+        });
+    }
+
+    private static void asignarParametros(PreparedStatement ps, Donacion d) throws SQLException {
+        ps.setLong(1, d.getIdUsuario());
+        ps.setString(2, d.getTipo().name());
+        if (d.getMonto() != null) {
+            ps.setBigDecimal(3, d.getMonto());
+        } else {
+            ps.setNull(3, Types.DECIMAL);
+        }
+        ps.setString(4, d.getDescripcion());
+        ps.setTimestamp(5, Timestamp.valueOf(d.getFechaDonacion()));
+        ps.setString(6, d.getEstado().name());
+        ps.setString(7, d.getBanco());
+        ps.setString(8, d.getCorreoElectronico());
+        ps.setString(9, d.getNit());
+        ps.setString(10, d.getTipoDotacion());
+    }
+
+    private static void registrarError(ResultadoImportacionDTO resultado, int linea, String mensaje) {
+        resultado.setConErrores(resultado.getConErrores() + 1);
+        if (resultado.getErrores().size() < MAX_ERRORES_REPORTADOS) {
+            resultado.getErrores().add(new ResultadoImportacionDTO.ErrorFila(linea, mensaje));
+        }
+    }
+
+    /**
+     * Donación convertida junto con la línea del CSV de la que proviene.
+     */
+    private record Fila(int linea, Donacion donacion) {
+    }
+}
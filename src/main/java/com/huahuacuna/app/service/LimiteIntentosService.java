@@ -0,0 +1,117 @@
+package com.huahuacuna.app.service;
+
+import com.huahuacuna.app.Utils.LimitadorTasa;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Límites de intentos contra fuerza bruta en el login y en la recuperación de contraseña.
+ *
+ * <p>Cada {@link Operacion} tiene dos {@link LimitadorTasa}: uno por IP, que se aplica en
+ * {@link com.huahuacuna.app.config.LimiteIntentosFilter} antes de leer el cuerpo de la petición, y otro por
+ * correo, que aplican los controladores antes de llamar a los servicios. Así un intento rechazado no llega a
+ * consultar la base de datos, calcular un BCrypt ni encolar un correo.</p>
+ *
+ * <p>Configuración por operación ({@code login}, {@code recuperar}, {@code codigo}) y dimensión
+ * ({@code ip}, {@code correo}):</p>
+ * <ul>
+ *   <li>{@code app.limite.<operacion>.<dimension>.capacidad}: intentos seguidos permitidos.</li>
+ *   <li>{@code app.limite.<operacion>.<dimension>.periodo}: tiempo en que se recupera un intento.</li>
+ *   <li>{@code app.limite.max-claves} y {@code app.limite.franjas}: tamaño máximo y franjas de cada limitador.</li>
+ * </ul>
+ */
+@Service
+public class LimiteIntentosService {
+
+    /**
+     * Operaciones protegidas.
+     */
+    public enum Operacion {
+        /** POST /auth/login */
+        LOGIN(10, Duration.ofSeconds(6), 5, Duration.ofMinutes(1)),
+        /** POST /api/usuarios/recuperar (envía un correo) */
+        RECUPERAR(5, Duration.ofMinutes(1), 3, Duration.ofMinutes(5)),
+        /** POST /api/usuarios/recuperar/verificar y /recuperar/reset (comprueban el código de 6 dígitos) */
+        CODIGO(10, Duration.ofSeconds(30), 5, Duration.ofMinutes(3));
+
+        private final int capacidadIp;
+        private final Duration periodoIp;
+        private final int capacidadCorreo;
+        private final Duration periodoCorreo;
+
+        Operacion(int capacidadIp, Duration periodoIp, int capacidadCorreo, Duration periodoCorreo) {
+            this.capacidadIp = capacidadIp;
+            this.periodoIp = periodoIp;
+            this.capacidadCorreo = capacidadCorreo;
+            this.periodoCorreo = periodoCorreo;
+        }
+    }
+
+    private final Map<Operacion, LimitadorTasa> porIp = new EnumMap<>(Operacion.class);
+    private final Map<Operacion, LimitadorTasa> porCorreo = new EnumMap<>(Operacion.class);
+
+    public LimiteIntentosService(Environment env) {
+        int maxClaves = env.getProperty("app.limite.max-claves", Integer.class, 100_000);
+        int franjas = env.getProperty("app.limite.franjas", Integer.class, 16);
+        for (Operacion op : Operacion.values()) {
+            porIp.put(op, crear(env, op, "ip", op.capacidadIp, op.periodoIp, maxClaves, franjas));
+            porCorreo.put(op, crear(env, op, "correo", op.capacidadCorreo, op.periodoCorreo, maxClaves, franjas));
+        }
+    }
+
+    private static LimitadorTasa crear(Environment env, Operacion op, String dimension, int capacidad,
+                                       Duration periodo, int maxClaves, int franjas) {
+        String prefijo = "app.limite." + op.name().toLowerCase(Locale.ROOT) + "." + dimension;
+        return new LimitadorTasa(prefijo,
+                env.getProperty(prefijo + ".capacidad", Integer.class, capacidad),
+                env.getProperty(prefijo + ".periodo", Duration.class, periodo),
+                maxClaves, franjas);
+    }
+
+    /**
+     * Consume un intento de la IP para la operación.
+     *
+     * @return 0 si está permitido; si no, los milisegundos que el cliente debe esperar
+     */
+    public long consumirIp(Operacion operacion, String ip) {
+        return porIp.get(operacion).consumir(ip);
+    }
+
+    /**
+     * Consume un intento del correo (normalizado con trim y minúsculas) para la operación.
+     *
+     * @return 0 si está permitido; si no, los milisegundos que el cliente debe esperar
+     */
+    public long consumirCorreo(Operacion operacion, String correo) {
+        String clave = correo == null ? "" : correo.trim().toLowerCase(Locale.ROOT);
+        return porCorreo.get(operacion).consumir(clave);
+    }
+
+    /**
+     * Libera la memoria de las claves cuya cubeta ya se recargó por completo.
+     */
+    @Scheduled(fixedDelayString = "${app.limite.purga-ms:60000}")
+    public void purgar() {
+        porIp.values().forEach(LimitadorTasa::purgar);
+        porCorreo.values().forEach(LimitadorTasa::purgar);
+    }
+
+    /**
+     * Métricas de cada limitador, con las 20 claves con más intentos rechazados.
+     */
+    public Map<String, Object> metricas() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        for (Operacion op : Operacion.values()) {
+            m.put(porIp.get(op).getNombre(), porIp.get(op).metricas(20));
+            m.put(porCorreo.get(op).getNombre(), porCorreo.get(op).metricas(20));
+        }
+        return m;
+    }
+}
@@ -0,0 +1,351 @@
+package com.huahuacuna.app.service;
+
+import com.huahuacuna.app.DTO.MediaDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Almacén local de fotos y videos direccionado por contenido, con miniaturas.
+ *
+ * <p>Cada archivo se guarda una sola vez con el SHA-256 de su contenido como nombre
+ * ({@code {directorio}/ab/abcd….jpg}); subir dos veces la misma foto devuelve la misma URL. Como el contenido de
+ * una URL no cambia nunca, se puede cachear indefinidamente.</p>
+ *
+ * <p>Para las imágenes JPEG, PNG y GIF se generan variantes JPEG de los anchos {@code app.media.anchos}
+ * ({@code …_480.jpg}) en un pool acotado de {@code app.media.miniaturas.hilos} hilos, fuera de la petición
+ * de subida. Si se pide una variante que todavía no existe (recién subida, o generada antes de cambiar los
+ * anchos) se sirve el original y se encola su generación. Las imágenes grandes se decodifican submuestreadas,
+ * sin cargar todos sus píxeles en memoria.</p>
+ *
+ * <p>Las URLs ({@code /api/media/{hash}.{ext}}) son las que se guardan en {@code Bitacora.fotoUrl},
+ * {@code Nino.fotoUrl} o {@code Evento.imagenUrl}.</p>
+ */
+@Service
+public class MediaService {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaService.class);
+
+    public static final String URL_BASE = "/api/media/";
+
+    /** Ancho de la variante que usa la línea de tiempo de la bitácora. */
+    public static final int ANCHO_LINEA_TIEMPO = 480;
+
+    private static final Pattern NOMBRE = Pattern.compile("([0-9a-f]{64})\\.(jpg|png|gif|webp|mp4|webm)");
+
+    private static final Map<String, String> TIPOS = Map.of(
+            "jpg", "image/jpeg",
+            "png", "image/png",
+            "gif", "image/gif",
+            "webp", "image/webp",
+            "mp4", "video/mp4",
+            "webm", "video/webm");
+
+    /** Formatos que ImageIO sabe leer y de los que se generan miniaturas. */
+    private static final Set<String> CON_MINIATURAS = Set.of("jpg", "png", "gif");
+
+    /**
+     * Archivo a servir.
+     *
+     * @param definitivo {@code false} si es el original servido en lugar de una variante que aún no existe
+     *                   (no se debe cachear como si fuera la variante)
+     */
+    public record Archivo(Path ruta, String tipoContenido, String etag, boolean definitivo) {
+    }
+
+    private final Path directorio;
+    private final Path temporales;
+    private final TreeSet<Integer> anchos;
+    private final float calidad;
+    private final ThreadPoolTaskExecutor miniaturas;
+    private final Set<String> enCurso = ConcurrentHashMap.newKeySet();
+
+    public MediaService(@Value("${app.media.directorio:media}") String directorio,
+                        @Value("${app.media.anchos:160,480,1080}") List<Integer> anchos,
+                        @Value("${app.media.miniaturas.calidad:0.8}") float calidad,
+                        @Value("${app.media.miniaturas.hilos:2}") int hilos,
+                        @Value("${app.media.miniaturas.cola:200}") int cola) throws IOException {
+        this.directorio = Paths.get(directorio).toAbsolutePath().normalize();
+        this.temporales = this.directorio.resolve("tmp");
+        Files.createDirectories(temporales);
+        this.anchos = new TreeSet<>(anchos);
+        this.calidad = calidad;
+        this.miniaturas = new ThreadPoolTaskExecutor();
+        miniaturas.setCorePoolSize(hilos);
+        miniaturas.setMaxPoolSize(hilos);
+        miniaturas.setQueueCapacity(cola);
+        miniaturas.setThreadNamePrefix("miniaturas-");
+        miniaturas.initialize();
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        miniaturas.shutdown();
+    }
+
+    /**
+     * Guarda el archivo subido (si su contenido no estaba ya) y encola sus miniaturas.
+     *
+     * @throws IllegalArgumentException si el archivo está vacío o no es una imagen o video soportado
+     */
+    public MediaDTO guardar(MultipartFile archivo) throws IOException {
+        if (archivo.isEmpty()) {
+            throw new IllegalArgumentException("El archivo está vacío");
+        }
+        Path temporal = temporales.resolve("subida-" + UUID.randomUUID() + ".tmp");
+        try {
+            // Con multipart en disco, transferTo solo mueve el archivo temporal de Tomcat
+            archivo.transferTo(temporal);
+            String extension = detectarFormato(temporal);
+            String hash = sha256(temporal);
+            String nombre = hash + "." + extension;
+            Path destino = ruta(nombre);
+            boolean duplicado = Files.exists(destino);
+            if (!duplicado) {
+                Files.createDirectories(destino.getParent());
+                try {
+                    Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    duplicado = true;  // subido a la vez por otra petición
+                }
+            }
+            if (CON_MINIATURAS.contains(extension)) {
+                for (int ancho : anchos) {
+                    encolarMiniatura(hash, extension, ancho);
+                }
+            }
+            return new MediaDTO(hash, URL_BASE + nombre, TIPOS.get(extension), Files.size(destino), duplicado,
+                    urlsMiniaturas(nombre, extension));
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    /**
+     * Resuelve el archivo de {@code nombre} ({@code {hash}.{ext}}), o su variante más cercana a {@code ancho}.
+     *
+     * @return el archivo, o {@code null} si no existe
+     * @throws IllegalArgumentException si el nombre no tiene el formato {@code {hash}.{ext}}
+     */
+    public Archivo resolver(String nombre, Integer ancho) {
+        Matcher m = NOMBRE.matcher(nombre);
+        if (!m.matches()) {
+            throw new IllegalArgumentException("Nombre de archivo inválido");
+        }
+        String hash = m.group(1);
+        String extension = m.group(2);
+        Path original = ruta(nombre);
+        if (!Files.exists(original)) {
+            return null;
+        }
+        if (ancho != null && CON_MINIATURAS.contains(extension) && !anchos.isEmpty()) {
+            Integer elegido = anchos.ceiling(ancho);
+            int variante = elegido != null ? elegido : anchos.last();
+            Path miniatura = rutaMiniatura(hash, variante);
+            if (Files.exists(miniatura)) {
+                return new Archivo(miniatura, "image/jpeg", "\"" + hash + "-" + variante + "\"", true);
+            }
+            encolarMiniatura(hash, extension, variante);
+            return new Archivo(original, TIPOS.get(extension), "\"" + hash + "\"", false);
+        }
+        return new Archivo(original, TIPOS.get(extension), "\"" + hash + "\"", true);
+    }
+
+    /**
+     * URL de la variante para la línea de tiempo si {@code url} es de este almacén y es una imagen con
+     * miniaturas; si no, {@code null}.
+     */
+    public static String urlMiniatura(String url) {
+        if (url == null || !url.startsWith(URL_BASE)) {
+            return null;
+        }
+        Matcher m = NOMBRE.matcher(url.substring(URL_BASE.length()));
+        if (!m.matches() || !CON_MINIATURAS.contains(m.group(2))) {
+            return null;
+        }
+        return url + "?ancho=" + ANCHO_LINEA_TIEMPO;
+    }
+
+    private Map<Integer, String> urlsMiniaturas(String nombre, String extension) {
+        Map<Integer, String> urls = new LinkedHashMap<>();
+        if (CON_MINIATURAS.contains(extension)) {
+            for (int ancho : anchos) {
+                urls.put(ancho, URL_BASE + nombre + "?ancho=" + ancho);
+            }
+        }
+        return urls;
+    }
+
+    private Path ruta(String nombre) {
+        return directorio.resolve(nombre.substring(0, 2)).resolve(nombre);
+    }
+
+    private Path rutaMiniatura(String hash, int ancho) {
+        return directorio.resolve(hash.substring(0, 2)).resolve(hash + "_" + ancho + ".jpg");
+    }
+
+    private void encolarMiniatura(String hash, String extension, int ancho) {
+        String clave = hash + "_" + ancho;
+        if (!enCurso.add(clave)) {
+            return;
+        }
+        try {
+            miniaturas.execute(() -> {
+                try {
+                    generarMiniatura(hash, extension, ancho);
+                } catch (Exception e) {
+                    log.warn("No se pudo generar la miniatura {}: {}", clave, e.getMessage());
+                } finally {
+                    enCurso.remove(clave);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // Cola llena: se volverá a intentar la próxima vez que se pida la variante
+            enCurso.remove(clave);
+        }
+    }
+
+    private void generarMiniatura(String hash, String extension, int ancho) throws IOException {
+        Path destino = rutaMiniatura(hash, ancho);
+        if (Files.exists(destino)) {
+            return;
+        }
+        BufferedImage imagen = leerReducida(ruta(hash + "." + extension), ancho);
+        if (imagen == null) {
+            return;
+        }
+        int anchoFinal = Math.min(ancho, imagen.getWidth());
+        int altoFinal = Math.max(1, Math.round(imagen.getHeight() * (anchoFinal / (float) imagen.getWidth())));
+        BufferedImage reducida = new BufferedImage(anchoFinal, altoFinal, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = reducida.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);  // fondo para PNG/GIF con transparencia
+            g.fillRect(0, 0, anchoFinal, altoFinal);
+            g.drawImage(imagen, 0, 0, anchoFinal, altoFinal, null);
+        } finally {
+            g.dispose();
+        }
+
+        Path temporal = Files.createTempFile(temporales, "miniatura-", ".tmp");
+        try {
+            escribirJpeg(reducida, temporal);
+            Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    /**
+     * Decodifica la imagen saltando filas y columnas (submuestreo) hasta quedar en como mucho el doble del
+     * ancho pedido: una foto de 6000 px no ocupa 100 MB en memoria para hacer una miniatura de 480 px.
+     */
+    private static BufferedImage leerReducida(Path origen, int ancho) throws IOException {
+        try (ImageInputStream entrada = ImageIO.createImageInputStream(origen.toFile())) {
+            Iterator<ImageReader> lectores = ImageIO.getImageReaders(entrada);
+            if (!lectores.hasNext()) {
+                return null;
+            }
+            ImageReader lector = lectores.next();
+            try {
+                lector.setInput(entrada, true, true);
+                int paso = Math.max(1, lector.getWidth(0) / (ancho * 2));
+                ImageReadParam parametros = lector.getDefaultReadParam();
+                parametros.setSourceSubsampling(paso, paso, 0, 0);
+                return lector.read(0, parametros);
+            } finally {
+                lector.dispose();
+            }
+        }
+    }
+
+    private void escribirJpeg(BufferedImage imagen, Path destino) throws IOException {
+        ImageWriter escritor = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream salida = ImageIO.createImageOutputStream(destino.toFile())) {
+            escritor.setOutput(salida);
+            ImageWriteParam parametros = escritor.getDefaultWriteParam();
+            parametros.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            parametros.setCompressionQuality(calidad);
+            parametros.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            escritor.write(null, new IIOImage(imagen, null, null), parametros);
+        } finally {
+            escritor.dispose();
+        }
+    }
+
+    /**
+     * Formato por los primeros bytes del archivo (no se confía en el nombre ni en el Content-Type del cliente).
+     */
+    private static String detectarFormato(Path archivo) throws IOException {
+        byte[] c = new byte[12];
+        int leidos;
+        try (InputStream in = Files.newInputStream(archivo)) {
+            leidos = in.readNBytes(c, 0, c.length);
+        }
+        if (leidos >= 3 && (c[0] & 0xFF) == 0xFF && (c[1] & 0xFF) == 0xD8 && (c[2] & 0xFF) == 0xFF) return "jpg";
+        if (leidos >= 8 && (c[0] & 0xFF) == 0x89 && c[1] == 'P' && c[2] == 'N' && c[3] == 'G') return "png";
+        if (leidos >= 4 && c[0] == 'G' && c[1] == 'I' && c[2] == 'F' && c[3] == '8') return "gif";
+        if (leidos >= 12 && c[0] == 'R' && c[1] == 'I' && c[2] == 'F' && c[3] == 'F'
+                && c[8] == 'W' && c[9] == 'E' && c[10] == 'B' && c[11] == 'P') return "webp";
+        if (leidos >= 8 && c[4] == 'f' && c[5] == 't' && c[6] == 'y' && c[7] == 'p') return "mp4";
+        if (leidos >= 4 && (c[0] & 0xFF) == 0x1A && (c[1] & 0xFF) == 0x45
+                && (c[2] & 0xFF) == 0xDF && (c[3] & 0xFF) == 0xA3) return "webm";
+        throw new IllegalArgumentException("Formato no soportado: solo imágenes JPEG, PNG, GIF o WebP y videos MP4 o WebM");
+    }
+
+    private static String sha256(Path archivo) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(archivo)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -1,13 +1,22 @@
 package com.huahuacuna.app.service;
 
 import com.huahuacuna.app.DTO.NinoDTO;
+import com.huahuacuna.app.DTO.VersionRecurso;
+import com.huahuacuna.app.config.CacheConfig;
+import com.huahuacuna.app.event.CambioEstadoNino;
 import com.huahuacuna.app.model.Nino;
 import com.huahuacuna.app.repository.NinoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.Period;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -18,14 +27,52 @@ public class NinoService {
     @Autowired
     private NinoRepository ninoRepository;
 
-    public List<Nino> listarTodos() {
-        return ninoRepository.findAll();
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Listado completo para administradores y padrinos, como {@link NinoDTO} (sin la versión ni el estado
+     * interno de la entidad).
+     */
+    public List<NinoDTO> listarTodos() {
+        return ninoRepository.findAll().stream().map(this::convertirADTO).toList();
     }
 
     public Optional<Nino> buscarPorId(Integer id) {
         return ninoRepository.findById(id);
     }
 
+    /**
+     * Perfil público de un niño, tal como lo muestra el sitio público. Se cachea por id en
+     * {@link CacheConfig#NINOS_PUBLICOS}; las escrituras sobre el niño invalidan su entrada.
+     */
+    @Cacheable(cacheNames = CacheConfig.NINOS_PUBLICOS, key = "#id", unless = "#result == null")
+    public Optional<Map<String, Object>> obtenerPerfilPublico(Integer id) {
+        return ninoRepository.findById(id).map(nino -> {
+            Map<String, Object> perfil = new HashMap<>();
+            perfil.put("id_nino", nino.getId_nino());
+            perfil.put("nombre", nino.getNombre() != null ? nino.getNombre() : "");
+            perfil.put("edad", nino.getEdad());
+            perfil.put("genero", nino.getGenero() != null ? nino.getGenero() : "");
+            perfil.put("descripcion", nino.getDescripcion() != null ? nino.getDescripcion() : "");
+            perfil.put("foto", nino.getFotoUrl());
+            perfil.put("fotoUrl", nino.getFotoUrl());
+            perfil.put("fechaNacimiento", nino.getFechaNacimiento() != null ? nino.getFechaNacimiento().toString() : null);
+            perfil.put("estadoApadrinamiento", nino.getEstadoApadrinamiento() != null ? nino.getEstadoApadrinamiento().toString() : "");
+            return Collections.unmodifiableMap(perfil);
+        });
+    }
+
+    /**
+     * Versión (ETag) del perfil público. Incluye la fecha de hoy porque el perfil muestra la edad.
+     */
+    public Optional<VersionRecurso> versionPerfilPublico(Integer id) {
+        return ninoRepository.findVersionById(id)
+                .map(version -> VersionRecurso.de("nino", id, version, LocalDate.now()));
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.NINOS_PUBLICOS, key = "#result.id_nino")
     public Nino guardar(NinoDTO dto) {
         // Validaciones
         if (dto.getNombre() == null || dto.getNombre().trim().isEmpty()) {
@@ -64,12 +111,17 @@ public class NinoService {
             nino.setEstadoApadrinamiento(Nino.EstadoApadrinamiento.Disponible);
         }
         
-        return ninoRepository.save(nino);
+        Nino guardado = ninoRepository.save(nino);
+        eventPublisher.publishEvent(new CambioEstadoNino(null, guardado.getEstadoApadrinamiento()));
+        return guardado;
     }
 
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.NINOS_PUBLICOS, key = "#id")
     public Nino actualizarParcial(Integer id, Map<String, Object> campos) {
         Nino nino = ninoRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Niño no encontrado."));
+        Nino.EstadoApadrinamiento estadoAnterior = nino.getEstadoApadrinamiento();
 
         campos.forEach((clave, valor) -> {
             switch (clave) {
@@ -89,14 +141,33 @@ public class NinoService {
             }
         });
 
-        return ninoRepository.save(nino);
+        Nino guardado = ninoRepository.save(nino);
+        if (guardado.getEstadoApadrinamiento() != estadoAnterior) {
+            eventPublisher.publishEvent(new CambioEstadoNino(estadoAnterior, guardado.getEstadoApadrinamiento()));
+        }
+        return guardado;
     }
 
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.NINOS_PUBLICOS, key = "#id")
     public void eliminar(Integer id) {
-        if (ninoRepository.existsById(id)) {
-            ninoRepository.deleteById(id);
-        } else {
-            throw new RuntimeException("Niño no encontrado con ID " + id);
-        }
+        Nino nino = ninoRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Niño no encontrado con ID " + id));
+        ninoRepository.delete(nino);
+        eventPublisher.publishEvent(new CambioEstadoNino(nino.getEstadoApadrinamiento(), null));
+    }
+
+    private NinoDTO convertirADTO(Nino nino) {
+        NinoDTO dto = new NinoDTO();
+        dto.setId_nino(nino.getId_nino());
+        dto.setNombre(nino.getNombre());
+        dto.setFechaNacimiento(nino.getFechaNacimiento());
+        dto.setEdad(nino.getEdad());
+        dto.setGenero(nino.getGenero());
+        dto.setDescripcion(nino.getDescripcion());
+        dto.setFotoUrl(nino.getFotoUrl());
+        dto.setEstadoApadrinamiento(nino.getEstadoApadrinamiento());
+        dto.setFechaRegistro(nino.getFechaRegistro());
+        return dto;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,449 @@
+package com.huahuacuna.app.service;
+
+import com.huahuacuna.app.DTO.CertificadoDonanteDTO;
+import com.huahuacuna.app.DTO.DonorReportDTO;
+import com.huahuacuna.app.repository.DonacionRepository;
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.ExceptionConverter;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.BaseFont;
+import com.itextpdf.text.pdf.ColumnText;
+import com.itextpdf.text.pdf.PdfContentByte;
+import com.itextpdf.text.pdf.PdfImportedPage;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfPageEventHelper;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Genera en PDF el reporte de donantes y los certificados de donación por donante (para la declaración de
+ * renta), con iText 5.
+ *
+ * <p>Todo se escribe directamente sobre el {@link OutputStream} recibido (normalmente la respuesta HTTP): el
+ * reporte lee las filas como un cursor y vacía la tabla cada {@value #FILAS_POR_BLOQUE} filas, y el ZIP de
+ * certificados de un año genera un PDF por donante directamente dentro de la entrada del ZIP, así que la
+ * memoria usada no depende del número de donantes.</p>
+ *
+ * <p>Lo que no cambia entre documentos se prepara una sola vez al arrancar: las fuentes ({@link BaseFont} y
+ * {@link Font} son inmutables una vez creadas) y el membrete (marco, nombre y NIT de la fundación), que se
+ * dibuja en un PDF plantilla y se estampa en cada página como una página importada.</p>
+ *
+ * <p>Los métodos se llaman desde un {@code StreamingResponseBody}, que Spring MVC ejecuta en el pool acotado
+ * de renderizado configurado en {@link com.huahuacuna.app.config.WebConfig}.</p>
+ */
+@Service
+public class PdfDonacionService {
+
+    private static final int FILAS_POR_BLOQUE = 200;
+    private static final Locale LOCALE = Locale.forLanguageTag("es-CO");
+    private static final DateTimeFormatter FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter FECHA_HORA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final DateTimeFormatter FECHA_LARGA = DateTimeFormatter.ofPattern("d 'de' MMMM 'de' yyyy", LOCALE);
+    private static final BaseColor COLOR = new BaseColor(0x1F, 0x5F, 0x8B);
+
+    private final DonacionRepository donacionRepository;
+    private final String nombreFundacion;
+    private final String nitFundacion;
+    private final String ciudad;
+    private final String representante;
+
+    private final Font fuenteTitulo;
+    private final Font fuenteSubtitulo;
+    private final Font fuenteNormal;
+    private final Font fuenteNegrita;
+    private final Font fuenteTabla;
+    private final Font fuenteCabeceraTabla;
+    private final Font fuentePequena;
+
+    /**
+     * PDF de una página con el membrete, generado al arrancar.
+     */
+    private final byte[] plantillaMembrete;
+
+    public PdfDonacionService(DonacionRepository donacionRepository,
+                              @Value("${app.fundacion.nombre:Fundación Huahuacuna}") String nombreFundacion,
+                              @Value("${app.fundacion.nit:}") String nitFundacion,
+                              @Value("${app.fundacion.ciudad:}") String ciudad,
+                              @Value("${app.fundacion.representante:}") String representante)
+            throws DocumentException, IOException {
+        this.donacionRepository = donacionRepository;
+        this.nombreFundacion = nombreFundacion;
+        this.nitFundacion = nitFundacion;
+        this.ciudad = ciudad;
+        this.representante = representante;
+
+        // Fuentes estándar (no se incrustan) con codificación CP1252 para tildes y eñes
+        BaseFont normal = BaseFont.createFont(BaseFont.HELVETICA, BaseFont.CP1252, BaseFont.NOT_EMBEDDED);
+        BaseFont negrita = BaseFont.createFont(BaseFont.HELVETICA_BOLD, BaseFont.CP1252, BaseFont.NOT_EMBEDDED);
+        this.fuenteTitulo = new Font(negrita, 16, Font.NORMAL, COLOR);
+        this.fuenteSubtitulo = new Font(negrita, 12, Font.NORMAL, BaseColor.DARK_GRAY);
+        this.fuenteNormal = new Font(normal, 11);
+        this.fuenteNegrita = new Font(negrita, 11);
+        this.fuenteTabla = new Font(normal, 9);
+        this.fuenteCabeceraTabla = new Font(negrita, 9, Font.NORMAL, BaseColor.WHITE);
+        this.fuentePequena = new Font(normal, 8, Font.NORMAL, BaseColor.GRAY);
+
+        this.plantillaMembrete = crearMembrete();
+    }
+
+    private byte[] crearMembrete() throws DocumentException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Rectangle pagina = PageSize.LETTER;
+        Document documento = new Document(pagina);
+        PdfWriter writer = PdfWriter.getInstance(documento, bytes);
+        documento.open();
+        PdfContentByte cb = writer.getDirectContent();
+        cb.setColorStroke(COLOR);
+        cb.setLineWidth(1.5f);
+        cb.rectangle(30, 30, pagina.getWidth() - 60, pagina.getHeight() - 60);
+        cb.stroke();
+        cb.moveTo(54, pagina.getHeight() - 96);
+        cb.lineTo(pagina.getWidth() - 54, pagina.getHeight() - 96);
+        cb.stroke();
+        float centro = pagina.getWidth() / 2;
+        ColumnText.showTextAligned(cb, Element.ALIGN_CENTER,
+                new Phrase(nombreFundacion, fuenteTitulo), centro, pagina.getHeight() - 66, 0);
+        if (!nitFundacion.isBlank()) {
+            ColumnText.showTextAligned(cb, Element.ALIGN_CENTER,
+                    new Phrase("NIT " + nitFundacion, fuentePequena), centro, pagina.getHeight() - 84, 0);
+        }
+        writer.setPageEmpty(false);
+        documento.close();
+        return bytes.toByteArray();
+    }
+
+    // ------------------------------------------------------------------
+    // Reporte de donantes
+    // ------------------------------------------------------------------
+
+    /**
+     * Escribe el reporte de donantes en PDF (mismos filtros y filas que el CSV en streaming,
+     * {@link DonacionService#writeDonorReportCsv}). El flujo {@code out} no se cierra.
+     */
+    @Transactional(readOnly = true)
+    public void escribirReportePdf(LocalDateTime from, LocalDateTime to, String tipo, String tipoDotacion,
+                                   OutputStream out) throws IOException {
+        Document documento = nuevoDocumento();
+        try {
+            abrir(documento, out);
+            documento.add(new Paragraph("Reporte de donantes", fuenteSubtitulo));
+            documento.add(new Paragraph(describirFiltros(from, to, tipo, tipoDotacion), fuentePequena));
+
+            PdfPTable tabla = new PdfPTable(new float[]{1.2f, 4f, 2.2f, 1.3f, 2.2f});
+            tabla.setWidthPercentage(100);
+            tabla.setSpacingBefore(10);
+            tabla.setHeaderRows(1);
+            tabla.setComplete(false);
+            for (String titulo : new String[]{"Id usuario", "Correo", "Total donado", "Donaciones", "Última donación"}) {
+                tabla.addCell(celdaCabecera(titulo));
+            }
+
+            BigDecimal total = BigDecimal.ZERO;
+            long donaciones = 0;
+            int filas = 0;
+            try (Stream<Object[]> rows = donacionRepository.streamDonorReport(from, to, tipo, tipoDotacion)) {
+                Iterator<Object[]> it = rows.iterator();
+                while (it.hasNext()) {
+                    DonorReportDTO r = DonacionService.toDonorReportDTO(it.next());
+                    tabla.addCell(celda(r.getIdUsuario() == 0 ? "—" : r.getIdUsuario().toString(), Element.ALIGN_RIGHT));
+                    tabla.addCell(celda(r.getCorreoElectronico(), Element.ALIGN_LEFT));
+                    tabla.addCell(celda(moneda(r.getTotalDonado()), Element.ALIGN_RIGHT));
+                    tabla.addCell(celda(r.getTotalDonaciones().toString(), Element.ALIGN_RIGHT));
+                    tabla.addCell(celda(r.getUltimaDonacion() != null ? r.getUltimaDonacion().format(FECHA_HORA) : "",
+                            Element.ALIGN_CENTER));
+                    total = total.add(r.getTotalDonado());
+                    donaciones += r.getTotalDonaciones();
+                    // Vaciar las filas ya completas al documento (y al flujo de salida)
+                    if (++filas % FILAS_POR_BLOQUE == 0) {
+                        documento.add(tabla);
+                    }
+                }
+            }
+            tabla.setComplete(true);
+            documento.add(tabla);
+
+            Paragraph resumen = new Paragraph(filas + " donantes, " + donaciones + " donaciones, total "
+                    + moneda(total), fuenteNegrita);
+            resumen.setSpacingBefore(10);
+            documento.add(resumen);
+        } catch (DocumentException e) {
+            throw new IOException("Error generando el reporte PDF", e);
+        } finally {
+            cerrar(documento);
+        }
+    }
+
+    private static String describirFiltros(LocalDateTime from, LocalDateTime to, String tipo, String tipoDotacion) {
+        StringBuilder sb = new StringBuilder("Generado el ").append(LocalDateTime.now().format(FECHA_HORA));
+        if (from != null) sb.append(" · Desde ").append(from.format(FECHA_HORA));
+        if (to != null) sb.append(" · Hasta ").append(to.format(FECHA_HORA));
+        if (tipo != null) sb.append(" · Tipo ").append(tipo);
+        if (tipoDotacion != null) sb.append(" · Dotación ").append(tipoDotacion);
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------
+    // Certificados de donación
+    // ------------------------------------------------------------------
+
+    /**
+     * Totales de un donante en el año gravable (donaciones COMPLETADAS). Si no se indica correo y el usuario
+     * donó con varios correos, se suman todos.
+     *
+     * @return vacío si el donante no tiene donaciones completadas ese año
+     */
+    @Transactional(readOnly = true)
+    public Optional<CertificadoDonanteDTO> buscarCertificado(int anio, Long idUsuario, String correo) {
+        List<CertificadoDonanteDTO> filas = donacionRepository.findCertificados(
+                        inicioAnio(anio), inicioAnio(anio + 1), idUsuario, correo).stream()
+                .map(PdfDonacionService::toCertificadoDTO)
+                .toList();
+        return filas.stream().reduce((a, b) -> new CertificadoDonanteDTO(
+                a.getIdUsuario(),
+                a.getCorreoElectronico(),
+                a.getNombre() != null ? a.getNombre() : b.getNombre(),
+                a.getNit() != null ? a.getNit() : b.getNit(),
+                a.getTotalMonetario().add(b.getTotalMonetario()),
+                a.getDonacionesMonetarias() + b.getDonacionesMonetarias(),
+                a.getDonacionesMateriales() + b.getDonacionesMateriales()));
+    }
+
+    /**
+     * Escribe el certificado de un donante. El flujo {@code out} no se cierra.
+     */
+    public void escribirCertificado(CertificadoDonanteDTO certificado, int anio, OutputStream out) throws IOException {
+        Document documento = nuevoDocumento();
+        try {
+            abrir(documento, out);
+            escribirContenidoCertificado(documento, certificado, anio);
+        } catch (DocumentException e) {
+            throw new IOException("Error generando el certificado PDF", e);
+        } finally {
+            cerrar(documento);
+        }
+    }
+
+    /**
+     * Escribe un ZIP con el certificado de cada donante con donaciones completadas en el año. Los donantes
+     * se leen como un cursor y cada PDF se genera directamente dentro de su entrada del ZIP. El flujo
+     * {@code out} no se cierra.
+     *
+     * <p>Dos donantes pueden dar el mismo nombre de archivo (correos que solo difieren en caracteres que
+     * {@link #nombreArchivoCertificado} reemplaza), y un ZIP no admite entradas repetidas: a partir de la
+     * segunda se añade {@code _2}, {@code _3}... antes de la extensión.</p>
+     */
+    @Transactional(readOnly = true)
+    public void escribirCertificadosZip(int anio, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        // Los PDF ya van comprimidos: comprimir de nuevo solo gasta CPU
+        zip.setLevel(Deflater.BEST_SPEED);
+        try (Stream<Object[]> rows = donacionRepository.streamCertificados(
+                inicioAnio(anio), inicioAnio(anio + 1), null, null)) {
+            Iterator<Object[]> it = rows.iterator();
+            Set<String> nombres = new HashSet<>();
+            while (it.hasNext()) {
+                CertificadoDonanteDTO certificado = toCertificadoDTO(it.next());
+                zip.putNextEntry(new ZipEntry(nombreUnico(nombreArchivoCertificado(certificado, anio), nombres)));
+                escribirCertificado(certificado, anio, zip);
+                zip.closeEntry();
+            }
+        }
+        zip.finish();
+        zip.flush();
+    }
+
+    /**
+     * Nombre de archivo del certificado: {@code certificado_<anio>_<idUsuario>_<correo>.pdf}.
+     */
+    public static String nombreArchivoCertificado(CertificadoDonanteDTO c, int anio) {
+        String correo = c.getCorreoElectronico() == null || c.getCorreoElectronico().isEmpty()
+                ? "anonimo" : c.getCorreoElectronico().replaceAll("[^A-Za-z0-9._@-]", "_");
+        return "certificado_" + anio + "_" + c.getIdUsuario() + "_" + correo + ".pdf";
+    }
+
+    private static String nombreUnico(String nombre, Set<String> usados) {
+        String candidato = nombre;
+        String base = nombre.substring(0, nombre.length() - ".pdf".length());
+        for (int n = 2; !usados.add(candidato); n++) {
+            candidato = base + "_" + n + ".pdf";
+        }
+        return candidato;
+    }
+
+    private void escribirContenidoCertificado(Document documento, CertificadoDonanteDTO c, int anio)
+            throws DocumentException {
+        Paragraph titulo = new Paragraph("CERTIFICADO DE DONACIONES", fuenteTitulo);
+        titulo.setAlignment(Element.ALIGN_CENTER);
+        documento.add(titulo);
+        Paragraph subtitulo = new Paragraph("Año gravable " + anio, fuenteSubtitulo);
+        subtitulo.setAlignment(Element.ALIGN_CENTER);
+        subtitulo.setSpacingAfter(24);
+        documento.add(subtitulo);
+
+        String donante = c.getNombre() != null ? c.getNombre()
+                : !c.getCorreoElectronico().isEmpty() ? c.getCorreoElectronico() : "el donante";
+        StringBuilder texto = new StringBuilder("La ").append(nombreFundacion);
+        if (!nitFundacion.isBlank()) {
+            texto.append(", identificada con NIT ").append(nitFundacion);
+        }
+        texto.append(", certifica que ").append(donante);
+        if (c.getNit() != null && !c.getNit().isBlank()) {
+            texto.append(", identificado(a) con NIT/C.C. ").append(c.getNit());
+        }
+        if (c.getNombre() != null && !c.getCorreoElectronico().isEmpty()) {
+            texto.append(" (").append(c.getCorreoElectronico()).append(")");
+        }
+        texto.append(", realizó durante el año ").append(anio)
+                .append(" las siguientes donaciones, recibidas efectivamente por la fundación:");
+        Paragraph cuerpo = new Paragraph(texto.toString(), fuenteNormal);
+        cuerpo.setAlignment(Element.ALIGN_JUSTIFIED);
+        cuerpo.setLeading(16);
+        documento.add(cuerpo);
+
+        PdfPTable totales = new PdfPTable(new float[]{3f, 2f});
+        totales.setWidthPercentage(70);
+        totales.setSpacingBefore(16);
+        totales.setSpacingAfter(16);
+        totales.addCell(celdaEtiqueta("Donaciones en dinero"));
+        totales.addCell(celdaValor(c.getDonacionesMonetarias().toString()));
+        totales.addCell(celdaEtiqueta("Valor total en dinero"));
+        totales.addCell(celdaValor(moneda(c.getTotalMonetario())));
+        totales.addCell(celdaEtiqueta("Donaciones en especie"));
+        totales.addCell(celdaValor(c.getDonacionesMateriales().toString()));
+        documento.add(totales);
+
+        String lugar = ciudad.isBlank() ? "" : " en " + ciudad + ",";
+        documento.add(new Paragraph("Se expide a solicitud del interesado" + lugar + " el "
+                + LocalDate.now().format(FECHA_LARGA) + ".", fuenteNormal));
+
+        Paragraph firma = new Paragraph("\n\n\n______________________________\n"
+                + (representante.isBlank() ? "" : representante + "\n") + "Representante legal", fuenteNormal);
+        documento.add(firma);
+    }
+
+    private static CertificadoDonanteDTO toCertificadoDTO(Object[] r) {
+        return new CertificadoDonanteDTO(
+                r[0] == null ? 0L : ((Number) r[0]).longValue(),
+                r[1] == null ? "" : r[1].toString(),
+                r[2] == null ? null : r[2].toString(),
+                r[3] == null ? null : r[3].toString(),
+                r[4] == null ? BigDecimal.ZERO : new BigDecimal(r[4].toString()),
+                r[5] == null ? 0L : ((Number) r[5]).longValue(),
+                r[6] == null ? 0L : ((Number) r[6]).longValue());
+    }
+
+    private static LocalDateTime inicioAnio(int anio) {
+        return LocalDate.of(anio, 1, 1).atStartOfDay();
+    }
+
+    // ------------------------------------------------------------------
+    // Utilidades de maquetación
+    // ------------------------------------------------------------------
+
+    private static Document nuevoDocumento() {
+        // Margen superior amplio para no pisar el membrete
+        return new Document(PageSize.LETTER, 54, 54, 112, 60);
+    }
+
+    private void abrir(Document documento, OutputStream out) throws DocumentException {
+        PdfWriter writer = PdfWriter.getInstance(documento, out);
+        // El flujo lo gestiona el llamador (respuesta HTTP o entrada del ZIP)
+        writer.setCloseStream(false);
+        writer.setPageEvent(new Membrete());
+        documento.open();
+    }
+
+    private static void cerrar(Document documento) {
+        if (documento.isOpen()) {
+            documento.close();
+        }
+    }
+
+    private PdfPCell celdaCabecera(String texto) {
+        PdfPCell celda = new PdfPCell(new Phrase(texto, fuenteCabeceraTabla));
+        celda.setBackgroundColor(COLOR);
+        celda.setHorizontalAlignment(Element.ALIGN_CENTER);
+        celda.setPadding(4);
+        return celda;
+    }
+
+    private PdfPCell celda(String texto, int alineacion) {
+        PdfPCell celda = new PdfPCell(new Phrase(texto, fuenteTabla));
+        celda.setHorizontalAlignment(alineacion);
+        celda.setPadding(3);
+        celda.setBorderColor(BaseColor.LIGHT_GRAY);
+        return celda;
+    }
+
+    private PdfPCell celdaEtiqueta(String texto) {
+        PdfPCell celda = new PdfPCell(new Phrase(texto, fuenteNegrita));
+        celda.setPadding(6);
+        celda.setBorderColor(BaseColor.LIGHT_GRAY);
+        return celda;
+    }
+
+    private PdfPCell celdaValor(String texto) {
+        PdfPCell celda = new PdfPCell(new Phrase(texto, fuenteNormal));
+        celda.setHorizontalAlignment(Element.ALIGN_RIGHT);
+        celda.setPadding(6);
+        celda.setBorderColor(BaseColor.LIGHT_GRAY);
+        return celda;
+    }
+
+    private static String moneda(BigDecimal valor) {
+        return String.format(LOCALE, "$ %,.2f", valor);
+    }
+
+    /**
+     * Estampa el membrete y el número de página en cada página del documento.
+     */
+    private final class Membrete extends PdfPageEventHelper {
+
+        private PdfImportedPage pagina;
+
+        @Override
+        public void onEndPage(PdfWriter writer, Document documento) {
+            try {
+                if (pagina == null) {
+                    pagina = writer.getImportedPage(new PdfReader(plantillaMembrete), 1);
+                }
+            } catch (IOException e) {
+                throw new ExceptionConverter(e);
+            }
+            writer.getDirectContentUnder().addTemplate(pagina, 0, 0);
+            ColumnText.showTextAligned(writer.getDirectContent(), Element.ALIGN_CENTER,
+                    new Phrase("Página " + writer.getPageNumber(), fuentePequena),
+                    documento.getPageSize().getWidth() / 2, 40, 0);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.huahuacuna.app.service;
 
 import com.huahuacuna.app.DTO.ProyectoDTO;
+import com.huahuacuna.app.DTO.VersionRecurso;
 import com.huahuacuna.app.model.Proyecto;
 import com.huahuacuna.app.repository.ProyectoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -59,4 +60,22 @@ public class ProyectoService {
     public List<Proyecto> listarActivos() {
         return proyectoRepository.findByEstado(Proyecto.EstadoProyecto.ACTIVO);
     }
+
+    // Versiones (ETag) de los listados y de un proyecto, sin cargar los proyectos
+    public VersionRecurso versionTodos() {
+        return versionListado(proyectoRepository.findVersionTodos());
+    }
+
+    public VersionRecurso versionActivos() {
+        return versionListado(proyectoRepository.findVersionPorEstado(Proyecto.EstadoProyecto.ACTIVO));
+    }
+
+    public Optional<VersionRecurso> versionProyecto(Integer id) {
+        return proyectoRepository.findVersionById(id).map(version -> VersionRecurso.de("proyecto", id, version));
+    }
+
+    private static VersionRecurso versionListado(List<Object[]> filas) {
+        Object[] fila = filas.get(0);
+        return VersionRecurso.de("proyectos", fila[0], fila[1], fila[2]);
+    }
 }
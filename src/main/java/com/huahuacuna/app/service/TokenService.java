@@ -0,0 +1,121 @@
+package com.huahuacuna.app.service;
+
+import com.huahuacuna.app.DTO.UsuarioAutenticado;
+import com.huahuacuna.app.model.Usuario;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Emite y verifica los tokens de sesión firmados (HMAC-SHA256).
+ *
+ * <p>Formato: {@code base64url(id:rol:expiracion).base64url(firma)}, donde {@code expiracion} son segundos
+ * epoch. El token solo lleva el id y el rol del usuario; se verifica recalculando la firma con el secreto
+ * compartido, sin consultar la base de datos ni guardar estado en el servidor, así que cualquier nodo puede
+ * atender cualquier petición.</p>
+ *
+ * <p>El secreto se configura con {@code app.auth.token.secreto} (Base64, al menos 32 bytes) y debe ser el
+ * mismo en todos los nodos. Si no se configura se genera uno aleatorio al arrancar: sirve para desarrollo,
+ * pero los tokens dejan de valer al reiniciar y no se comparten entre nodos.</p>
+ *
+ * <p>Los tokens no se pueden revocar antes de expirar; por eso su duración ({@code app.auth.token.duracion})
+ * debe ser corta.</p>
+ */
+@Service
+public class TokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+    private static final String ALGORITMO = "HmacSHA256";
+
+    private final SecretKeySpec clave;
+    private final Duration duracion;
+
+    public TokenService(@Value("${app.auth.token.secreto:}") String secreto,
+                        @Value("${app.auth.token.duracion:8h}") Duration duracion) {
+        byte[] bytes;
+        if (secreto == null || secreto.isBlank()) {
+            bytes = new byte[32];
+            new SecureRandom().nextBytes(bytes);
+            log.warn("app.auth.token.secreto no está configurado: se usa un secreto aleatorio, "
+                    + "los tokens no sobreviven a un reinicio ni se comparten entre nodos");
+        } else {
+            bytes = Base64.getDecoder().decode(secreto.trim());
+            if (bytes.length < 32) {
+                throw new IllegalArgumentException("app.auth.token.secreto debe tener al menos 32 bytes");
+            }
+        }
+        this.clave = new SecretKeySpec(bytes, ALGORITMO);
+        this.duracion = duracion;
+    }
+
+    /**
+     * Duración de los tokens emitidos.
+     */
+    public Duration getDuracion() {
+        return duracion;
+    }
+
+    /**
+     * Emite un token para el usuario.
+     */
+    public String emitir(Integer idUsuario, Usuario.Rol rol) {
+        long expiracion = Instant.now().plus(duracion).getEpochSecond();
+        String datos = idUsuario + ":" + rol.name() + ":" + expiracion;
+        byte[] datosBytes = datos.getBytes(StandardCharsets.UTF_8);
+        Base64.Encoder b64 = Base64.getUrlEncoder().withoutPadding();
+        return b64.encodeToString(datosBytes) + "." + b64.encodeToString(firmar(datosBytes));
+    }
+
+    /**
+     * Verifica la firma y la expiración de un token.
+     *
+     * @return el usuario autenticado, o vacío si el token está mal formado, alterado o expirado
+     */
+    public Optional<UsuarioAutenticado> verificar(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        int punto = token.indexOf('.');
+        if (punto <= 0 || punto == token.length() - 1) {
+            return Optional.empty();
+        }
+        try {
+            Base64.Decoder b64 = Base64.getUrlDecoder();
+            byte[] datosBytes = b64.decode(token.substring(0, punto));
+            byte[] firma = b64.decode(token.substring(punto + 1));
+            if (!MessageDigest.isEqual(firma, firmar(datosBytes))) {
+                return Optional.empty();
+            }
+            String[] partes = new String(datosBytes, StandardCharsets.UTF_8).split(":");
+            if (partes.length != 3 || Long.parseLong(partes[2]) < Instant.now().getEpochSecond()) {
+                return Optional.empty();
+            }
+            return Optional.of(new UsuarioAutenticado(Integer.valueOf(partes[0]), Usuario.Rol.valueOf(partes[1])));
+        } catch (IllegalArgumentException e) {
+            // Base64, número o rol inválidos
+            return Optional.empty();
+        }
+    }
+
+    private byte[] firmar(byte[] datos) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO);
+            mac.init(clave);
+            return mac.doFinal(datos);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo calcular la firma del token", e);
+        }
+    }
+}
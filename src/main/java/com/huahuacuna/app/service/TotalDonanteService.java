@@ -0,0 +1,152 @@
+package com.huahuacuna.app.service;
+
+import com.huahuacuna.app.model.Donacion;
+import com.huahuacuna.app.repository.DonacionRepository;
+import com.huahuacuna.app.repository.TotalDonanteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mantiene la tabla de acumulados {@code donor_totals} ({@link com.huahuacuna.app.model.TotalDonante}).
+ *
+ * <p>Cada donación pertenece a un único bucket (donante, tipo, tipo de dotación, estado, día). Al crear una
+ * donación se suma a su bucket con un upsert atómico; al eliminarla o cambiarla de estado se recalcula el
+ * bucket que abandona leyendo solo las donaciones de ese día, porque {@code MAX(fecha_donacion)} no se puede
+ * restar.</p>
+ *
+ * <p>Los métodos deben llamarse dentro de la transacción que modifica la donación, para que el acumulado
+ * y la donación se confirmen o reviertan juntos.</p>
+ */
+@Service
+public class TotalDonanteService {
+
+    private static final Logger log = LoggerFactory.getLogger(TotalDonanteService.class);
+
+    @Autowired
+    private TotalDonanteRepository totalDonanteRepository;
+
+    @Autowired
+    private DonacionRepository donacionRepository;
+
+    /**
+     * Suma una donación recién persistida a su bucket.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(Donacion donacion) {
+        totalDonanteRepository.sumar(
+                idUsuario(donacion), correo(donacion), donacion.getTipo().name(), tipoDotacion(donacion),
+                estado(donacion), donacion.getFechaDonacion().toLocalDate(),
+                donacion.getMonto() != null ? donacion.getMonto() : BigDecimal.ZERO,
+                donacion.getFechaDonacion());
+    }
+
+    /**
+     * Suma un lote de donaciones recién insertadas: las agrupa por bucket en memoria y hace un único upsert
+     * por bucket, en lugar de uno por donación.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarLote(List<Donacion> donaciones) {
+        Map<List<Object>, Acumulado> buckets = new HashMap<>();
+        for (Donacion d : donaciones) {
+            List<Object> clave = List.of(idUsuario(d), correo(d), d.getTipo().name(), tipoDotacion(d), estado(d),
+                    d.getFechaDonacion().toLocalDate());
+            buckets.computeIfAbsent(clave, k -> new Acumulado()).sumar(d);
+        }
+        buckets.forEach((clave, a) -> totalDonanteRepository.acumular(
+                (Long) clave.get(0), (String) clave.get(1), (String) clave.get(2), (String) clave.get(3),
+                (String) clave.get(4), (LocalDate) clave.get(5), a.monto, a.cantidad, a.ultima));
+    }
+
+    /**
+     * Recalcula el bucket al que pertenecía una donación que se eliminó o cambió de estado. Los cambios de
+     * la donación deben estar ya sincronizados con la base de datos ({@code flush}).
+     *
+     * @param donacion donación con los valores que tenía antes del cambio
+     * @param estadoAnterior estado que tenía la donación antes del cambio
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void retirar(Donacion donacion, Donacion.EstadoDonacion estadoAnterior) {
+        String estado = estadoAnterior != null ? estadoAnterior.name() : Donacion.EstadoDonacion.PENDIENTE.name();
+        LocalDate dia = donacion.getFechaDonacion().toLocalDate();
+        totalDonanteRepository.eliminarBucket(
+                idUsuario(donacion), correo(donacion), donacion.getTipo().name(), tipoDotacion(donacion), estado, dia);
+        totalDonanteRepository.recalcularBucket(
+                idUsuario(donacion), correo(donacion), donacion.getTipo().name(), tipoDotacion(donacion), estado,
+                dia.atStartOfDay(), dia.plusDays(1).atStartOfDay());
+    }
+
+    /**
+     * Borra y vuelve a calcular todos los acumulados desde {@code donaciones}.
+     *
+     * @return número de buckets generados (la tabla se vacía antes, así que no hay actualizaciones)
+     */
+    @Transactional
+    public int reconstruir() {
+        totalDonanteRepository.eliminarTodos();
+        return totalDonanteRepository.reconstruir();
+    }
+
+    /**
+     * Llena la tabla de acumulados al arrancar si está vacía y ya hay donaciones (primer despliegue).
+     *
+     * <p>Varias instancias pueden arrancar a la vez y ver la tabla vacía: {@link TotalDonanteRepository#reconstruir}
+     * sobrescribe los buckets en lugar de sumarlos, así que la segunda deja los mismos valores que la primera
+     * en vez de duplicarlos o fallar por la clave única.</p>
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void inicializar() {
+        if (totalDonanteRepository.count() == 0 && donacionRepository.count() > 0) {
+            int filas = totalDonanteRepository.reconstruir();
+            log.info("Tabla donor_totals inicializada ({} filas afectadas)", filas);
+        }
+    }
+
+    private static Long idUsuario(Donacion d) {
+        return d.getIdUsuario() != null ? d.getIdUsuario() : 0L;
+    }
+
+    private static String correo(Donacion d) {
+        return d.getCorreoElectronico() != null ? d.getCorreoElectronico() : "";
+    }
+
+    private static String tipoDotacion(Donacion d) {
+        return d.getTipoDotacion() != null ? d.getTipoDotacion() : "";
+    }
+
+    private static String estado(Donacion d) {
+        return d.getEstado() != null ? d.getEstado().name() : Donacion.EstadoDonacion.PENDIENTE.name();
+    }
+
+    /**
+     * Suma parcial de un bucket dentro de un lote.
+     */
+    private static final class Acumulado {
+        private BigDecimal monto = BigDecimal.ZERO;
+        private long cantidad;
+        private LocalDateTime ultima;
+
+        private void sumar(Donacion d) {
+            if (d.getMonto() != null) {
+                monto = monto.add(d.getMonto());
+            }
+            cantidad++;
+            if (ultima == null || d.getFechaDonacion().isAfter(ultima)) {
+                ultima = d.getFechaDonacion();
+            }
+        }
+    }
+}
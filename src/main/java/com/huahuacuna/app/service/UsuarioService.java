@@ -4,7 +4,6 @@ package com.huahuacuna.app.service;
 import com.huahuacuna.app.DTO.ActualizarPerfilDTO;
 import com.huahuacuna.app.model.Usuario;
 import com.huahuacuna.app.repository.UsuarioRepository;
-import jakarta.mail.MessagingException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,8 +19,7 @@ import java.util.Optional;
  * - Recuperación de contraseña (generar nueva contraseña y notificar por correo)
  *
  * Notas:
- * - Actualmente las contraseñas se asignan directamente en texto plano. Es imprescindible
- *   almacenar hashes seguros (BCrypt) al persistir.
+ * - Las contraseñas se guardan hasheadas con {@link HashContrasenaService} (BCrypt); nunca en texto plano.
  * - Recomendado añadir anotación {@code @Transactional} en operaciones compuestas que
  *   modifiquen varias entidades o requieran consistencia transaccional.
  */
@@ -37,6 +35,9 @@ public class UsuarioService {
     @Autowired
     private PasswordService passwordService;
 
+    @Autowired
+    private HashContrasenaService hashContrasenaService;
+
     /**
      * Registra un nuevo usuario.
      *
@@ -45,11 +46,10 @@ public class UsuarioService {
      *  - Rellena fecha_creacion y estado.
      *  - Persiste la entidad.
      *
-     * @param usuario entidad Usuario a registrar (se espera que contenga al menos correo y contrasena)
+     * @param usuario entidad Usuario a registrar (se espera que contenga al menos correo y contrasena en
+     *                texto plano, que se reemplaza por su hash antes de guardar)
      * @return Usuario persistido (con id generado)
      * @throws IllegalArgumentException si el correo ya está registrado
-     *
-     * Mejora recomendada: antes de guardar, hashear la contraseña (BCrypt) y validar campos con DTOs.
      */
     public Usuario registrar(Usuario usuario) {
         if (usuarioRepository.existsByCorreo(usuario.getCorreo())) {
@@ -58,6 +58,7 @@ public class UsuarioService {
 
         usuario.setFecha_creacion(LocalDate.now());
         usuario.setEstado(Usuario.Estado.activo);
+        hashContrasenaService.asignar(usuario, usuario.getContrasena());
 
         // Asignar rol por defecto si no viene proporcionado (usar la constante del enum Usuario.Rol)
         if (usuario.getRol() == null) {
@@ -83,17 +84,18 @@ public class UsuarioService {
      *  - Si no existe, retorna false.
      *  - Genera una nueva contraseña con PasswordService.
      *  - Asigna la nueva contraseña a la entidad y la guarda.
-     *  - Intenta enviar la nueva contraseña por correo usando EmailService.
+     *  - Encola el correo con la nueva contraseña usando EmailService.
      *
      * @param correo correo del usuario
-     * @return true si se envió la notificación de recuperación correctamente, false en caso contrario
+     * @return true si la nueva contraseña se guardó y su notificación quedó encolada, false si el usuario no existe
+     *
+     * El correo se registra en la tabla email_outbox dentro de la misma transacción y se envía en
+     * segundo plano (ver EmailOutboxDispatcher), por lo que la petición no espera al servidor SMTP.
      *
-     * Mejoras recomendadas:
-     *  - En lugar de setear y enviar la contraseña en texto plano, generar un token de recuperación
-     *    con expiración y enviar un enlace para restablecer la contraseña.
-     *  - Hashear la contraseña antes de persistir.
-     *  - Hacer el envío de correo de forma asíncrona y lanzar o registrar adecuadamente los errores.
+     * Solo se guarda el hash de la nueva contraseña; el texto plano únicamente viaja en el correo.
+     * Mejora recomendada: en lugar de enviar una contraseña, usar el flujo por código ({@link #iniciarRecuperacion}).
      */
+    @Transactional
     public boolean recuperarContrasena(String correo) {
         Optional<Usuario> usuarioOpt = usuarioRepository.findByCorreo(correo);
 
@@ -104,19 +106,22 @@ public class UsuarioService {
         Usuario usuario = usuarioOpt.get();
 
         String nuevaContrasena = passwordService.generarContrasenaAleatoria();
-        usuario.setContrasena(nuevaContrasena);
+        hashContrasenaService.asignar(usuario, nuevaContrasena);
         usuarioRepository.save(usuario);
 
-        try {
-            emailService.enviarRecuperacion(usuario.getCorreo(), usuario.getNombre(), nuevaContrasena);
-            return true;
-        } catch (MessagingException e) {
-            e.printStackTrace();
-            return false;
-        }
+        emailService.enviarRecuperacion(usuario.getCorreo(), usuario.getNombre(), nuevaContrasena);
+        return true;
     }
 
-    public void iniciarRecuperacion(String correo) throws MessagingException {
+    /**
+     * Inicia la recuperación por código: genera un código de 6 dígitos con expiración de 15 minutos y
+     * encola el correo que lo contiene en la misma transacción (el envío es asíncrono).
+     *
+     * @param correo correo del usuario
+     * @throws IllegalArgumentException si no existe un usuario con ese correo
+     */
+    @Transactional
+    public void iniciarRecuperacion(String correo) {
         Optional<Usuario> usuarioOpt = usuarioRepository.findByCorreo(correo);
         if (usuarioOpt.isEmpty()) {
             throw new IllegalArgumentException("Usuario no encontrado");
@@ -131,7 +136,7 @@ public class UsuarioService {
         usuario.setRecoveryExpiry(LocalDateTime.now().plusMinutes(15));
         usuarioRepository.save(usuario);
 
-        // Enviar correo (reutiliza EmailService.enviarRecuperacion pero ajusta el cuerpo)
+        // Encolar el correo en la misma transacción; se envía en segundo plano tras el commit
         emailService.enviarRecuperacionCodigo(usuario.getCorreo(), usuario.getNombre(), codigo);
     }
 
@@ -169,8 +174,7 @@ public class UsuarioService {
             return false;
         }
 
-        // Aquí: cambiar contraseña. Recomiendo hashear con BCrypt. Ejemplo simple:
-        usuario.setContrasena(nuevaContrasena); // <- reemplazar por passwordEncoder.encode(nuevaContrasena) si usas BCrypt
+        hashContrasenaService.asignar(usuario, nuevaContrasena);
         // Limpiar los campos de recuperación
         usuario.setRecoveryCode(null);
         usuario.setRecoveryExpiry(null);
@@ -178,6 +182,40 @@ public class UsuarioService {
         return true;
     }
 
+    /**
+     * Autentica un usuario por correo y contraseña.
+     *
+     * <p>Si la contraseña es correcta pero su hash es heredado o usa un coste menor que el configurado, se
+     * guarda el hash regenerado. No es transaccional a propósito: la verificación con BCrypt tarda cientos
+     * de milisegundos y no debe retener una conexión de la base de datos mientras tanto.</p>
+     *
+     * @param correo correo del usuario
+     * @param contrasena contraseña en texto plano
+     * @return Optional con el usuario si las credenciales son válidas
+     * @throws HashContrasenaService.ServicioSaturadoException si el pool de hash está saturado
+     */
+    public Optional<Usuario> autenticar(String correo, String contrasena) {
+        Usuario usuario = usuarioRepository.findByCorreo(correo).orElse(null);
+        HashContrasenaService.Verificacion verificacion = hashContrasenaService.verificar(usuario, contrasena);
+        if (!verificacion.valida()) {
+            return Optional.empty();
+        }
+        if (verificacion.actualizado()) {
+            usuarioRepository.save(usuario);
+        }
+        return Optional.of(usuario);
+    }
+
+    /**
+     * Busca un usuario por su id.
+     *
+     * @param idUsuario id del usuario
+     * @return Optional con el usuario si existe
+     */
+    public Optional<Usuario> buscarPorId(Integer idUsuario) {
+        return usuarioRepository.findById(idUsuario);
+    }
+
     /**
      * Cambia la contraseña de un usuario identificado por idUsuario.
      * Verifica que la contrasenaActual coincida con la guardada.
@@ -195,12 +233,11 @@ public class UsuarioService {
 
         Usuario usuario = usuarioOpt.get();
 
-        // Comparación directa (texto plano). Si migras a hashes, usar PasswordEncoder.matches(...)
-        if (!usuario.getContrasena().equals(contrasenaActual)) {
+        if (!hashContrasenaService.verificar(usuario, contrasenaActual).valida()) {
             return false;
         }
 
-        usuario.setContrasena(nuevaContrasena);
+        hashContrasenaService.asignar(usuario, nuevaContrasena);
         usuarioRepository.save(usuario);
         return true;
     }
@@ -25,6 +25,9 @@ public class VoluntariadoService {
     @Autowired
     private VoluntariadoRepository voluntariadoRepository;
 
+    @Autowired
+    private HashContrasenaService hashContrasenaService;
+
     public Voluntariado registrarVoluntario(RegistroVoluntariadoDTO dto) {
 
         // 1️⃣ Verificar si el usuario ya existe
@@ -34,7 +37,7 @@ public class VoluntariadoService {
             usuario = new Usuario();
             usuario.setNombre(dto.getNombre());
             usuario.setCorreo(dto.getEmail());
-            usuario.setContrasena(dto.getPassword());
+            hashContrasenaService.asignar(usuario, dto.getPassword());
             usuario.setRol(Usuario.Rol.voluntario);
             usuarioRepository.save(usuario);
         }
@@ -0,0 +1,120 @@
+-- Esquema base: las tablas tal como las creaba Hibernate (ddl-auto=update) a partir de las entidades antes de
+-- pasar el esquema a Flyway. Solo corre en una base de datos vacía: en las bases existentes sin historial de
+-- Flyway se toma la versión 0 como punto de partida (spring.flyway.baseline-version=0) y esta migración se
+-- omite. Los cambios posteriores van en V1 en adelante.
+--
+-- huahuacuna.sql es un volcado antiguo y ya no coincide con las entidades; no se usa para crear el esquema.
+
+CREATE TABLE usuarios (
+    id_usuario      integer      NOT NULL AUTO_INCREMENT,
+    nombre          varchar(255) NOT NULL,
+    correo          varchar(255) NOT NULL,
+    contrasena      varchar(255) NOT NULL,
+    telefono        varchar(255),
+    direccion       varchar(255),
+    rol             enum('administrador', 'voluntario', 'padrino'),
+    fecha_creacion  date         NOT NULL,
+    estado          enum('activo', 'inactivo') NOT NULL,
+    recovery_code   varchar(255),
+    recovery_expiry datetime(6),
+    PRIMARY KEY (id_usuario),
+    CONSTRAINT uk_usuarios_correo UNIQUE (correo)
+) ENGINE = InnoDB;
+
+CREATE TABLE ninos (
+    id_nino               integer      NOT NULL AUTO_INCREMENT,
+    nombre                varchar(255) NOT NULL,
+    fecha_nacimiento      date         NOT NULL,
+    genero                varchar(255) NOT NULL,
+    descripcion           varchar(500),
+    foto_url              varchar(255),
+    estado_apadrinamiento enum('Disponible', 'Apadrinado', 'Inactivo') NOT NULL,
+    fecha_registro        date         NOT NULL,
+    PRIMARY KEY (id_nino)
+) ENGINE = InnoDB;
+
+CREATE TABLE apadrinamientos (
+    id_apadrinamiento integer NOT NULL AUTO_INCREMENT,
+    id_padrino        integer NOT NULL,
+    id_nino           integer NOT NULL,
+    fecha_inicio      date    NOT NULL,
+    fecha_fin         date,
+    estado            enum('Activo', 'Finalizado', 'Pendiente') NOT NULL,
+    PRIMARY KEY (id_apadrinamiento),
+    CONSTRAINT fk_apadrinamientos_padrino FOREIGN KEY (id_padrino) REFERENCES usuarios (id_usuario),
+    CONSTRAINT fk_apadrinamientos_nino FOREIGN KEY (id_nino) REFERENCES ninos (id_nino)
+) ENGINE = InnoDB;
+
+CREATE TABLE bitacora (
+    id_bitacora    integer NOT NULL AUTO_INCREMENT,
+    id_nino        integer NOT NULL,
+    fecha_registro date    NOT NULL,
+    descripcion    text,
+    foto_url       varchar(255),
+    video_url      varchar(255),
+    PRIMARY KEY (id_bitacora),
+    CONSTRAINT fk_bitacora_nino FOREIGN KEY (id_nino) REFERENCES ninos (id_nino)
+) ENGINE = InnoDB;
+
+CREATE TABLE proyectos (
+    id_proyecto     integer      NOT NULL AUTO_INCREMENT,
+    nombre_proyecto varchar(255) NOT NULL,
+    descripcion     varchar(255) NOT NULL,
+    fecha_inicio    date,
+    fecha_fin       date,
+    estado          enum('ACTIVO', 'INACTIVO', 'FINALIZADO') NOT NULL,
+    PRIMARY KEY (id_proyecto)
+) ENGINE = InnoDB;
+
+CREATE TABLE voluntariado (
+    id_voluntariado   integer NOT NULL AUTO_INCREMENT,
+    id_usuario        integer NOT NULL,
+    id_proyecto       integer NOT NULL,
+    rol_voluntario    varchar(255),
+    fecha_inscripcion date,
+    PRIMARY KEY (id_voluntariado),
+    CONSTRAINT fk_voluntariado_usuario FOREIGN KEY (id_usuario) REFERENCES usuarios (id_usuario),
+    CONSTRAINT fk_voluntariado_proyecto FOREIGN KEY (id_proyecto) REFERENCES proyectos (id_proyecto)
+) ENGINE = InnoDB;
+
+CREATE TABLE donaciones (
+    id_donacion        bigint NOT NULL AUTO_INCREMENT,
+    id_usuario         bigint,
+    tipo               enum('MONETARIA', 'MATERIAL') NOT NULL,
+    monto              decimal(38, 2),
+    descripcion        text,
+    fecha_donacion     datetime(6),
+    estado             enum('PENDIENTE', 'COMPLETADA', 'CANCELADA'),
+    banco              varchar(255),
+    correo_electronico varchar(255),
+    nit                varchar(255),
+    tipo_dotacion      varchar(255),
+    PRIMARY KEY (id_donacion)
+) ENGINE = InnoDB;
+
+CREATE TABLE eventos (
+    id                    bigint       NOT NULL AUTO_INCREMENT,
+    titulo                varchar(255) NOT NULL,
+    descripcion           text,
+    horario               varchar(255),
+    lugar                 varchar(255),
+    imagen_url            varchar(255),
+    descripcion_detallada text,
+    fecha_evento          datetime(6),
+    activo                bit,
+    fecha_creacion        datetime(6),
+    fecha_actualizacion   datetime(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE inscripcion_evento (
+    id                bigint NOT NULL AUTO_INCREMENT,
+    evento_id         bigint NOT NULL,
+    nombre_completo   varchar(255),
+    email             varchar(255),
+    telefono          varchar(255),
+    estado            enum('CONFIRMADO', 'CANCELADO'),
+    fecha_inscripcion datetime(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_inscripcion_evento_evento FOREIGN KEY (evento_id) REFERENCES eventos (id)
+) ENGINE = InnoDB;
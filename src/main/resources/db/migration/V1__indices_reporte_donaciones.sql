@@ -0,0 +1,16 @@
+-- Índices compuestos para el reporte de donantes y los certificados de donación. También están declarados en
+-- @Table de Donacion con los mismos nombres.
+--
+-- idx_donaciones_reporte_fecha: rango de fechas (con o sin tipo). Incluye las columnas de agrupación y el
+--   monto para que el reporte se resuelva solo con el índice, sin leer las filas.
+-- idx_donaciones_reporte_tipo: filtro por tipo (y tipo de dotación) con o sin rango de fechas.
+-- idx_donaciones_estado_fecha: certificados (estado COMPLETADA en un año) y listados por estado.
+
+CREATE INDEX idx_donaciones_reporte_fecha
+    ON donaciones (fecha_donacion, tipo, tipo_dotacion, id_usuario, correo_electronico, monto);
+
+CREATE INDEX idx_donaciones_reporte_tipo
+    ON donaciones (tipo, tipo_dotacion, fecha_donacion, id_usuario, correo_electronico, monto);
+
+CREATE INDEX idx_donaciones_estado_fecha
+    ON donaciones (estado, fecha_donacion);
@@ -0,0 +1,29 @@
+-- Cola de correos salientes (EmailOutbox, ver EmailOutboxDispatcher).
+--
+-- clave_dedup_pendiente es una columna generada: vale clave_dedup mientras el correo está PENDIENTE y NULL
+-- después. Su índice único impide que dos encolados simultáneos creen dos correos pendientes con la misma
+-- clave; los NULL no chocan entre sí, así que los correos ya enviados o fallidos no cuentan.
+
+CREATE TABLE email_outbox (
+    id_correo             bigint        NOT NULL AUTO_INCREMENT,
+    destinatario          varchar(255)  NOT NULL,
+    asunto                varchar(255)  NOT NULL,
+    cuerpo                text          NOT NULL,
+    clave_dedup           varchar(255),
+    estado                enum('PENDIENTE', 'ENVIADO', 'FALLIDO') NOT NULL,
+    clave_dedup_pendiente varchar(255) GENERATED ALWAYS AS (IF(estado = 'PENDIENTE', clave_dedup, NULL)) STORED,
+    intentos              integer       NOT NULL,
+    proximo_intento       datetime(6)   NOT NULL,
+    ultimo_error          varchar(1000),
+    fecha_creacion        datetime(6),
+    fecha_envio           datetime(6),
+    version               bigint,
+    PRIMARY KEY (id_correo),
+    CONSTRAINT uk_email_outbox_dedup_pendiente UNIQUE (clave_dedup_pendiente)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_email_outbox_pendientes ON email_outbox (estado, proximo_intento);
+
+CREATE INDEX idx_email_outbox_dedup ON email_outbox (clave_dedup, estado);
+
+CREATE INDEX idx_email_outbox_terminados ON email_outbox (estado, fecha_creacion);
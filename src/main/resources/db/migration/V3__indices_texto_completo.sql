@@ -0,0 +1,12 @@
+-- Índices FULLTEXT de la búsqueda (BusquedaService): niños, eventos, proyectos y bitácora.
+--
+-- JPA no sabe declarar índices FULLTEXT, así que no están en @Table. Las columnas de cada índice deben ser las
+-- mismas que BusquedaService usa en MATCH.
+
+CREATE FULLTEXT INDEX ft_ninos ON ninos (nombre, descripcion);
+
+CREATE FULLTEXT INDEX ft_eventos ON eventos (titulo, descripcion, descripcion_detallada, lugar);
+
+CREATE FULLTEXT INDEX ft_proyectos ON proyectos (nombre_proyecto, descripcion);
+
+CREATE FULLTEXT INDEX ft_bitacora ON bitacora (descripcion);
@@ -0,0 +1,55 @@
+-- Columnas, índices y tablas que las entidades declaran desde el esquema base (V0):
+--
+-- - version en bitacora, ninos y proyectos (bloqueo optimista y ETag de las respuestas).
+-- - capacidad y cupos_ocupados en eventos, y la lista de espera de inscripcion_evento. cupos_ocupados parte
+--   de las inscripciones confirmadas que ya existan.
+-- - hash_algoritmo y hash_costo en usuarios (ver HashContrasenaService).
+-- - donor_totals: totales por donante y día para el reporte de donantes. Se llena al arrancar si está vacía
+--   (ver TotalDonanteService).
+-- - Índices de los listados paginados (bitácora, donaciones) y de la lista de espera.
+
+ALTER TABLE bitacora
+    ADD COLUMN version bigint NOT NULL DEFAULT 0,
+    ADD INDEX idx_bitacora_nino_fecha (id_nino, fecha_registro, id_bitacora);
+
+ALTER TABLE ninos
+    ADD COLUMN version bigint NOT NULL DEFAULT 0;
+
+ALTER TABLE proyectos
+    ADD COLUMN version bigint NOT NULL DEFAULT 0;
+
+ALTER TABLE donaciones
+    ADD INDEX idx_donaciones_fecha_id (fecha_donacion, id_donacion);
+
+ALTER TABLE eventos
+    ADD COLUMN capacidad integer,
+    ADD COLUMN cupos_ocupados integer NOT NULL DEFAULT 0;
+
+ALTER TABLE inscripcion_evento
+    MODIFY COLUMN estado enum('CONFIRMADO', 'CANCELADO', 'LISTA_ESPERA'),
+    ADD INDEX idx_inscripcion_evento_estado (evento_id, estado, id);
+
+UPDATE eventos e
+SET e.cupos_ocupados = (SELECT COUNT(*) FROM inscripcion_evento i
+                        WHERE i.evento_id = e.id AND i.estado = 'CONFIRMADO');
+
+ALTER TABLE usuarios
+    ADD COLUMN hash_algoritmo varchar(20),
+    ADD COLUMN hash_costo integer;
+
+CREATE TABLE donor_totals (
+    id_total        bigint         NOT NULL AUTO_INCREMENT,
+    id_usuario      bigint         NOT NULL,
+    correo          varchar(255)   NOT NULL,
+    tipo            enum('MONETARIA', 'MATERIAL') NOT NULL,
+    tipo_dotacion   varchar(255)   NOT NULL,
+    estado          enum('PENDIENTE', 'COMPLETADA', 'CANCELADA') NOT NULL,
+    dia             date           NOT NULL,
+    total_monto     decimal(38, 2) NOT NULL,
+    cantidad        bigint         NOT NULL,
+    ultima_donacion datetime(6),
+    PRIMARY KEY (id_total),
+    CONSTRAINT uk_donor_totals_bucket UNIQUE (id_usuario, correo, tipo, tipo_dotacion, estado, dia)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_donor_totals_dia ON donor_totals (dia);
@@ -0,0 +1,95 @@
+package com.huahuacuna.app.Utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lectura de CSV registro a registro: comillas, separadores y saltos de línea dentro de un campo, finales de
+ * línea, BOM, líneas vacías y el número de línea de cada registro.
+ */
+class LectorCsvTest {
+
+    @Test
+    void registrosSimplesYCamposVacios() throws IOException {
+        assertEquals(List.of(
+                        List.of("tipo", "monto"),
+                        List.of("MONETARIA", "100"),
+                        List.of("MATERIAL", ""),
+                        List.of("", "", "")),
+                leerTodo("tipo,monto\nMONETARIA,100\nMATERIAL,\n,,\n"));
+    }
+
+    @Test
+    void camposEntreComillas() throws IOException {
+        assertEquals(List.of(
+                        List.of("a", "x, y", "dice \"hola\""),
+                        List.of("b", "dos\nlineas", "c"),
+                        List.of("", "x")),
+                leerTodo("a,\"x, y\",\"dice \"\"hola\"\"\"\nb,\"dos\nlineas\",c\n\"\",x\n"));
+    }
+
+    @Test
+    void unaComillaEnMedioDelCampoEsUnCaracterMas() throws IOException {
+        assertEquals(List.of(List.of("a", "b\"c\"", "d")), leerTodo("a,b\"c\",d\n"));
+    }
+
+    @Test
+    void bomFinalesDeLineaYUltimaLineaSinSalto() throws IOException {
+        List<List<String>> esperado = List.of(List.of("tipo", "monto"), List.of("A", "1"), List.of("B", "2"));
+
+        assertEquals(esperado, leerTodo("\uFEFFtipo,monto\r\nA,1\r\nB,2"));
+        assertEquals(esperado, leerTodo("tipo,monto\rA,1\rB,2\r"));
+        assertEquals(esperado, leerTodo("tipo,monto\nA,1\nB,2\n"));
+    }
+
+    @Test
+    void archivoVacioOSoloBom() throws IOException {
+        assertTrue(leerTodo("").isEmpty());
+        assertTrue(leerTodo("\uFEFF").isEmpty());
+        assertTrue(leerTodo("\n\r\n\n").isEmpty());
+    }
+
+    @Test
+    void numeroDeLineaConLineasVaciasYCamposMultilinea() throws IOException {
+        LectorCsv lector = new LectorCsv(new StringReader("\n\r\na,b\n\n\"x\ny\nz\",c\nd,e\n"));
+
+        assertEquals(List.of("a", "b"), lector.leer());
+        assertEquals(3, lector.getLinea());
+        assertEquals(List.of("x\ny\nz", "c"), lector.leer());
+        assertEquals(5, lector.getLinea());
+        assertEquals(List.of("d", "e"), lector.leer());
+        assertEquals(8, lector.getLinea());
+        assertNull(lector.leer());
+    }
+
+    @Test
+    void comillasSinCerrarAlFinalDelArchivo() {
+        LectorCsv lector = new LectorCsv(new StringReader("a,b\nc,\"sin cerrar\nd,e\n"));
+
+        IOException error = assertThrows(IOException.class, () -> {
+            while (lector.leer() != null) {
+                // leer hasta el final
+            }
+        });
+        assertTrue(error.getMessage().contains("línea 2"), error.getMessage());
+    }
+
+    private static List<List<String>> leerTodo(String contenido) throws IOException {
+        LectorCsv lector = new LectorCsv(new StringReader(contenido));
+        List<List<String>> registros = new ArrayList<>();
+        List<String> registro;
+        while ((registro = lector.leer()) != null) {
+            registros.add(registro);
+        }
+        return registros;
+    }
+}
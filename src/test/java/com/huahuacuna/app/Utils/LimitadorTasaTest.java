@@ -0,0 +1,76 @@
+package com.huahuacuna.app.Utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cubeta de tokens de {@link LimitadorTasa}: ráfaga inicial, cálculo de la espera, recarga y límite de claves.
+ */
+class LimitadorTasaTest {
+
+    @Test
+    void permiteUnaRafagaDeCapacidadIntentosYRechazaElSiguiente() {
+        LimitadorTasa limitador = new LimitadorTasa("prueba", 3, Duration.ofMinutes(1), 100, 4);
+
+        assertEquals(0, limitador.consumir("1.2.3.4"));
+        assertEquals(0, limitador.consumir("1.2.3.4"));
+        assertEquals(0, limitador.consumir("1.2.3.4"));
+        assertTrue(limitador.consumir("1.2.3.4") > 0);
+        // Otra clave tiene su propia cubeta
+        assertEquals(0, limitador.consumir("5.6.7.8"));
+    }
+
+    @Test
+    void laEsperaEsElTiempoHastaElSiguienteToken() {
+        LimitadorTasa limitador = new LimitadorTasa("prueba", 2, Duration.ofSeconds(10), 100, 4);
+        limitador.consumir("clave");
+        limitador.consumir("clave");
+
+        long esperaMs = limitador.consumir("clave");
+
+        assertTrue(esperaMs > 9_000 && esperaMs <= 10_000, "espera: " + esperaMs);
+    }
+
+    @Test
+    void recuperaUnIntentoPorPeriodo() throws InterruptedException {
+        LimitadorTasa limitador = new LimitadorTasa("prueba", 1, Duration.ofMillis(100), 100, 4);
+        assertEquals(0, limitador.consumir("clave"));
+        assertTrue(limitador.consumir("clave") > 0);
+
+        Thread.sleep(150);
+
+        assertEquals(0, limitador.consumir("clave"));
+        assertTrue(limitador.consumir("clave") > 0);
+    }
+
+    @Test
+    void losRechazosNoConsumenTokens() throws InterruptedException {
+        LimitadorTasa limitador = new LimitadorTasa("prueba", 1, Duration.ofMillis(100), 100, 4);
+        limitador.consumir("clave");
+        for (int i = 0; i < 10; i++) {
+            limitador.consumir("clave");
+        }
+
+        Thread.sleep(150);
+
+        assertEquals(0, limitador.consumir("clave"));
+    }
+
+    @Test
+    void rechazaClavesNuevasConLaFranjaLlenaYLasAdmiteTrasPurgar() throws InterruptedException {
+        LimitadorTasa limitador = new LimitadorTasa("prueba", 1, Duration.ofMillis(100), 1, 1);
+        assertEquals(0, limitador.consumir("a"));
+
+        assertTrue(limitador.consumir("b") > 0);
+        assertEquals(1L, limitador.metricas(10).get("desbordes"));
+
+        Thread.sleep(150);
+        limitador.purgar();
+
+        assertEquals(0, limitador.consumir("b"));
+    }
+}
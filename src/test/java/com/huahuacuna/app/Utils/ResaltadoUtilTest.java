@@ -0,0 +1,61 @@
+package com.huahuacuna.app.Utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Fragmentos resaltados de la búsqueda: escape de HTML, comparación sin tildes, coincidencia por prefijo de
+ * palabra y cortes del fragmento en límites de palabra.
+ */
+class ResaltadoUtilTest {
+
+    @Test
+    void escapaElTextoOriginalYSoloAgregaMark() {
+        String fragmento = ResaltadoUtil.fragmento("<b>Niño</b> & 'amigo' \"x\"",
+                ResaltadoUtil.terminos("nino", 3), 200);
+
+        assertEquals("&lt;b&gt;<mark>Niño</mark>&lt;/b&gt; &amp; &#39;amigo&#39; &quot;x&quot;", fragmento);
+    }
+
+    @Test
+    void comparaSinTildesNiMayusculas() {
+        assertEquals("La <mark>niña</mark> <mark>Sofía</mark>",
+                ResaltadoUtil.fragmento("La niña Sofía", ResaltadoUtil.terminos("NIÑA sofia", 3), 200));
+        assertEquals("aeiounuc", ResaltadoUtil.plegar("ÁÉÍÓÚÑÜç"));
+    }
+
+    @Test
+    void resaltaPalabrasQueEmpiezanPorElTermino() {
+        assertEquals("<mark>Escuela</mark> y <mark>escolar</mark>; descolorido",
+                ResaltadoUtil.fragmento("Escuela y escolar; descolorido", List.of("esc"), 200));
+        // "ano" no coincide dentro de "cumpleaños": solo al principio de la palabra
+        assertEquals("<mark>Año</mark> <mark>2024</mark>: cumpleaños",
+                ResaltadoUtil.fragmento("Año 2024: cumpleaños", ResaltadoUtil.terminos("2024 ano", 3), 200));
+    }
+
+    @Test
+    void cortaElFragmentoEnLimitesDePalabra() {
+        String texto = "palabra ".repeat(50) + "objetivo " + "final ".repeat(50);
+
+        assertEquals("…palabra palabra <mark>objetivo</mark> final final final final…",
+                ResaltadoUtil.fragmento(texto, List.of("objetivo"), 40));
+    }
+
+    @Test
+    void sinCoincidenciasDevuelveElPrincipioYAlFinalElUltimoTramo() {
+        assertEquals("corto relleno relleno…",
+                ResaltadoUtil.fragmento("corto " + "relleno ".repeat(30), List.of("nada"), 20));
+        assertEquals("…relleno relleno relleno <mark>fin</mark>",
+                ResaltadoUtil.fragmento("relleno ".repeat(30) + "fin", List.of("fin"), 20));
+        assertEquals("", ResaltadoUtil.fragmento(null, List.of("x"), 20));
+    }
+
+    @Test
+    void terminosPlegadosSinRepetirNiPalabrasCortas() {
+        assertEquals(List.of("nino", "ninos", "12345", "ecole"),
+                ResaltadoUtil.terminos("  Niño, niño y NIÑOS; ab 12345 l'école ", 3));
+    }
+}
@@ -0,0 +1,36 @@
+package com.huahuacuna.app.Utils;
+
+/**
+ * {@link ContadorConsultas} que además guarda la última sentencia SQL del hilo, para pasarla por
+ * {@code EXPLAIN} en los tests. Se registra solo en los tests que la necesitan:
+ *
+ * <pre>
+ * &#64;SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+ *         + "com.huahuacuna.app.Utils.UltimaConsulta")
+ * </pre>
+ */
+public class UltimaConsulta extends ContadorConsultas {
+
+    private static final ThreadLocal<String> ULTIMA = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        ULTIMA.set(sql);
+        return super.inspect(sql);
+    }
+
+    /**
+     * Última sentencia SQL preparada en el hilo actual, o {@code null} si no hay ninguna.
+     */
+    public static String sql() {
+        return ULTIMA.get();
+    }
+
+    /**
+     * Pone a cero el contador y olvida la última sentencia del hilo actual.
+     */
+    public static void reiniciar() {
+        ContadorConsultas.reiniciar();
+        ULTIMA.remove();
+    }
+}
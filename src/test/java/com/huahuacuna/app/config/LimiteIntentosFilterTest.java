@@ -0,0 +1,60 @@
+package com.huahuacuna.app.config;
+
+import com.huahuacuna.app.service.LimiteIntentosService;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Las variantes de la ruta de login que Spring MVC resuelve al mismo controlador (codificadas, con parámetros
+ * de ruta o barras repetidas) consumen el mismo límite que {@code /auth/login}.
+ */
+class LimiteIntentosFilterTest {
+
+    private LimiteIntentosFilter filtro;
+
+    @BeforeEach
+    void crearFiltro() {
+        MockEnvironment env = new MockEnvironment().withProperty("app.limite.login.ip.capacidad", "1");
+        filtro = new LimiteIntentosFilter(new LimiteIntentosService(env));
+    }
+
+    @Test
+    void lasVariantesDeLaRutaNoEsquivanElLimite() throws ServletException, IOException {
+        assertEquals(HttpStatus.OK.value(), enviar("/auth/login"));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), enviar("/auth/login"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), enviar("/auth/login;x"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), enviar("/auth/%6Cogin"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), enviar("//auth//login"));
+    }
+
+    @Test
+    void noLimitaOtrasRutasNiOtrosMetodos() throws ServletException, IOException {
+        enviar("/auth/login");
+
+        assertEquals(HttpStatus.OK.value(), enviar("/auth/logout"));
+        MockHttpServletRequest get = new MockHttpServletRequest("GET", "/auth/login");
+        get.setRemoteAddr("10.0.0.1");
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+        filtro.doFilter(get, respuesta, new MockFilterChain());
+        assertEquals(HttpStatus.OK.value(), respuesta.getStatus());
+    }
+
+    private int enviar(String uri) throws ServletException, IOException {
+        MockHttpServletRequest peticion = new MockHttpServletRequest("POST", uri);
+        peticion.setRemoteAddr("10.0.0.1");
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+        filtro.doFilter(peticion, respuesta, new MockFilterChain());
+        return respuesta.getStatus();
+    }
+}
@@ -0,0 +1,98 @@
+package com.huahuacuna.app.repository;
+
+import com.huahuacuna.app.Utils.UltimaConsulta;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica con {@code EXPLAIN} que las consultas del reporte de donantes usan los índices
+ * {@code idx_donaciones_reporte_*} en lugar de recorrer toda la tabla.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.huahuacuna.app.Utils.UltimaConsulta")
+@Transactional
+class DonacionRepositoryIndicesTest {
+
+    private static final int DONACIONES = 2000;
+    private static final LocalDateTime INICIO = LocalDateTime.of(2021, 1, 1, 0, 0);
+
+    @Autowired
+    private DonacionRepository donacionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void crearDatos() {
+        // Cuatro años de donaciones, ~1,4 por día
+        List<Object[]> filas = new ArrayList<>(DONACIONES);
+        for (int i = 0; i < DONACIONES; i++) {
+            boolean material = i % 4 == 0;
+            filas.add(new Object[]{
+                    material ? "MATERIAL" : "MONETARIA",
+                    material ? null : 1000 + i,
+                    Timestamp.valueOf(INICIO.plusHours(i * 17L)),
+                    "indices" + i % 40 + "@prueba.com",
+                    material ? "Alimentos" : null});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO donaciones (tipo, monto, fecha_donacion, estado, correo_electronico, tipo_dotacion) "
+                + "VALUES (?, ?, ?, 'COMPLETADA', ?, ?)", filas);
+    }
+
+    @Test
+    void rangoDeFechasUsaIndice() {
+        LocalDateTime desde = INICIO.plusMonths(6);
+        LocalDateTime hasta = desde.plusMonths(1);
+
+        UltimaConsulta.reiniciar();
+        List<Object[]> reporte = donacionRepository.findDonorReport(desde, hasta, null, null);
+        assertFalse(reporte.isEmpty());
+
+        Map<String, Object> plan = explicar(UltimaConsulta.sql(), Timestamp.valueOf(desde), Timestamp.valueOf(hasta));
+        assertEquals("idx_donaciones_reporte_fecha", plan.get("key"), plan.toString());
+        assertEquals("range", plan.get("type"), plan.toString());
+    }
+
+    @Test
+    void tipoYRangoUsanIndice() {
+        LocalDateTime desde = INICIO.plusMonths(12);
+        LocalDateTime hasta = desde.plusMonths(2);
+
+        UltimaConsulta.reiniciar();
+        donacionRepository.findDonorReport(desde, hasta, "material", null);
+
+        Map<String, Object> plan = explicar(UltimaConsulta.sql(),
+                Timestamp.valueOf(desde), Timestamp.valueOf(hasta), "MATERIAL");
+        Object indice = plan.get("key");
+        assertNotNull(indice, plan.toString());
+        assertTrue(indice.toString().startsWith("idx_donaciones_reporte_"), plan.toString());
+        assertNotEquals("ALL", plan.get("type"), plan.toString());
+    }
+
+    /**
+     * Ejecuta {@code EXPLAIN} sobre la sentencia generada y devuelve la fila de la tabla donaciones.
+     */
+    private Map<String, Object> explicar(String sql, Object... parametros) {
+        assertNotNull(sql);
+        // Solo los filtros indicados deben aparecer como predicados (sin "? IS NULL OR ...")
+        assertFalse(sql.toLowerCase().contains("is null"), sql);
+        assertEquals(parametros.length, sql.chars().filter(c -> c == '?').count(), sql);
+        return jdbcTemplate.queryForList("EXPLAIN " + sql, parametros).get(0);
+    }
+}
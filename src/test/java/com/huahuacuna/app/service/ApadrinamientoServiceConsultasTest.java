@@ -0,0 +1,88 @@
+package com.huahuacuna.app.service;
+
+import com.huahuacuna.app.DTO.ApadrinamientoDTO;
+import com.huahuacuna.app.Utils.ContadorConsultas;
+import com.huahuacuna.app.model.Apadrinamiento;
+import com.huahuacuna.app.model.Nino;
+import com.huahuacuna.app.model.Usuario;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Verifica que los listados de apadrinamientos de un padrino se resuelven con una sola consulta SQL,
+ * sin importar cuántos niños tenga apadrinados.
+ */
+@SpringBootTest
+@Transactional
+class ApadrinamientoServiceConsultasTest {
+
+    private static final int NINOS = 25;
+
+    @Autowired
+    private ApadrinamientoService apadrinamientoService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Integer idPadrino;
+
+    @BeforeEach
+    void crearDatos() {
+        Usuario padrino = new Usuario();
+        padrino.setNombre("Padrino de prueba");
+        padrino.setCorreo("padrino.consultas." + System.nanoTime() + "@prueba.com");
+        padrino.setContrasena("x");
+        padrino.setRol(Usuario.Rol.padrino);
+        entityManager.persist(padrino);
+
+        for (int i = 0; i < NINOS; i++) {
+            Nino nino = new Nino();
+            nino.setNombre("Niño " + i);
+            nino.setFechaNacimiento(LocalDate.now().minusYears(5 + i % 10));
+            nino.setGenero("M");
+            nino.setEstadoApadrinamiento(Nino.EstadoApadrinamiento.Apadrinado);
+            entityManager.persist(nino);
+
+            Apadrinamiento apadrinamiento = new Apadrinamiento();
+            apadrinamiento.setPadrino(padrino);
+            apadrinamiento.setNino(nino);
+            if (i % 5 == 0) {
+                apadrinamiento.setEstado(Apadrinamiento.EstadoApadrinamiento.Finalizado);
+                apadrinamiento.setFechaFin(LocalDate.now());
+            }
+            entityManager.persist(apadrinamiento);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        idPadrino = padrino.getId_usuario();
+    }
+
+    @Test
+    void misApadrinadosUsaUnaSolaConsulta() {
+        ContadorConsultas.reiniciar();
+        List<ApadrinamientoDTO> activos = apadrinamientoService.obtenerApadrinamientosPorPadrino(idPadrino);
+
+        assertEquals(1, ContadorConsultas.total());
+        assertEquals(NINOS - NINOS / 5, activos.size());
+        assertEquals(6, activos.get(0).getEdadNino()); // el primero activo es i = 1
+    }
+
+    @Test
+    void historialUsaUnaSolaConsulta() {
+        ContadorConsultas.reiniciar();
+        List<ApadrinamientoDTO> todos = apadrinamientoService.obtenerTodosApadrinamientosPorPadrino(idPadrino);
+
+        assertEquals(1, ContadorConsultas.total());
+        assertEquals(NINOS, todos.size());
+        assertEquals("Padrino de prueba", todos.get(0).getNombrePadrino());
+    }
+}
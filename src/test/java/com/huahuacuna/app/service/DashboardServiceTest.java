@@ -0,0 +1,220 @@
+package com.huahuacuna.app.service;
+
+import com.huahuacuna.app.DTO.DashboardDTO;
+import com.huahuacuna.app.event.CambioApadrinamiento;
+import com.huahuacuna.app.event.CambioDonaciones;
+import com.huahuacuna.app.event.CambioEstadoInscripcion;
+import com.huahuacuna.app.event.CambioEstadoNino;
+import com.huahuacuna.app.model.Apadrinamiento;
+import com.huahuacuna.app.model.Donacion;
+import com.huahuacuna.app.model.Donacion.TipoDonacion;
+import com.huahuacuna.app.model.InscripcionEvento.EstadoInscripcion;
+import com.huahuacuna.app.model.Nino.EstadoApadrinamiento;
+import com.huahuacuna.app.repository.ApadrinamientoRepository;
+import com.huahuacuna.app.repository.DonacionRepository;
+import com.huahuacuna.app.repository.InscripcionEventoRepository;
+import com.huahuacuna.app.repository.NinoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Contadores del dashboard: cada evento de dominio mueve los totales que le corresponden, y la conciliación
+ * los reemplaza por los de la base de datos sin perder los eventos que llegan mientras se recalculan.
+ *
+ * <p>Los listeners se llaman directamente, como lo haría Spring después del commit; que un rollback no
+ * cuente se comprueba en {@link DashboardServiceTransaccionesTest}.</p>
+ */
+class DashboardServiceTest {
+
+    private static final LocalDateTime HOY = LocalDate.now().atTime(10, 30);
+
+    private DonacionRepository donacionRepository;
+    private NinoRepository ninoRepository;
+    private ApadrinamientoRepository apadrinamientoRepository;
+    private InscripcionEventoRepository inscripcionRepository;
+    private DashboardService dashboardService;
+
+    @BeforeEach
+    void crearServicio() {
+        donacionRepository = mock(DonacionRepository.class);
+        ninoRepository = mock(NinoRepository.class);
+        apadrinamientoRepository = mock(ApadrinamientoRepository.class);
+        inscripcionRepository = mock(InscripcionEventoRepository.class);
+        dashboardService = new DashboardService(donacionRepository, ninoRepository, apadrinamientoRepository,
+                inscripcionRepository, 30);
+    }
+
+    @Test
+    void altasYBajasDeDonaciones() {
+        dashboardService.alCambiarDonaciones(CambioDonaciones.alta(donacion(TipoDonacion.MONETARIA, "1500.50", HOY)));
+        dashboardService.alCambiarDonaciones(CambioDonaciones.alta(donacion(TipoDonacion.MONETARIA, "200", HOY)));
+        dashboardService.alCambiarDonaciones(CambioDonaciones.baja(donacion(TipoDonacion.MONETARIA, "200", HOY)));
+        dashboardService.alCambiarDonaciones(CambioDonaciones.alta(donacion(TipoDonacion.MATERIAL, null, HOY)));
+
+        List<DashboardDTO.DonacionesDia> dias = dashboardService.obtener().getDonacionesPorDia();
+
+        assertEquals(List.of(
+                new DashboardDTO.DonacionesDia(HOY.toLocalDate(), TipoDonacion.MONETARIA, 1, new BigDecimal("1500.50")),
+                new DashboardDTO.DonacionesDia(HOY.toLocalDate(), TipoDonacion.MATERIAL, 1, new BigDecimal("0.00"))),
+                dias);
+    }
+
+    @Test
+    void loteDeImportacionPorDiaYTipoYFueraDeLaVentana() {
+        LocalDateTime ayer = HOY.minusDays(1);
+        CambioDonaciones.altas(List.of(
+                donacion(TipoDonacion.MONETARIA, "10", HOY),
+                donacion(TipoDonacion.MONETARIA, "20", HOY),
+                donacion(TipoDonacion.MONETARIA, "30", ayer),
+                donacion(TipoDonacion.MONETARIA, "99", HOY.minusDays(400)))
+        ).forEach(dashboardService::alCambiarDonaciones);
+
+        List<DashboardDTO.DonacionesDia> dias = dashboardService.obtener().getDonacionesPorDia();
+
+        assertEquals(List.of(
+                new DashboardDTO.DonacionesDia(HOY.toLocalDate(), TipoDonacion.MONETARIA, 2, new BigDecimal("30.00")),
+                new DashboardDTO.DonacionesDia(ayer.toLocalDate(), TipoDonacion.MONETARIA, 1, new BigDecimal("30.00"))),
+                dias);
+    }
+
+    @Test
+    void inscripcionesConListaDeEsperaYPromocion() {
+        dashboardService.alCambiarEstadoInscripcion(new CambioEstadoInscripcion(7L, null, EstadoInscripcion.CONFIRMADO));
+        dashboardService.alCambiarEstadoInscripcion(new CambioEstadoInscripcion(7L, null, EstadoInscripcion.LISTA_ESPERA));
+        dashboardService.alCambiarEstadoInscripcion(new CambioEstadoInscripcion(8L, null, EstadoInscripcion.CONFIRMADO));
+        // Se cancela la confirmada del evento 7 y se promueve la de la lista de espera
+        dashboardService.alCambiarEstadoInscripcion(
+                new CambioEstadoInscripcion(7L, EstadoInscripcion.CONFIRMADO, EstadoInscripcion.CANCELADO));
+        dashboardService.alCambiarEstadoInscripcion(
+                new CambioEstadoInscripcion(7L, EstadoInscripcion.LISTA_ESPERA, EstadoInscripcion.CONFIRMADO));
+
+        assertEquals(List.of(
+                new DashboardDTO.InscripcionesEvento(7L, 1, 0, 1),
+                new DashboardDTO.InscripcionesEvento(8L, 1, 0, 0)),
+                dashboardService.obtener().getInscripcionesPorEvento());
+    }
+
+    @Test
+    void ninosYApadrinamientos() {
+        dashboardService.alCambiarEstadoNino(new CambioEstadoNino(null, EstadoApadrinamiento.Disponible));
+        dashboardService.alCambiarEstadoNino(new CambioEstadoNino(null, EstadoApadrinamiento.Disponible));
+        // Apadrinar uno
+        dashboardService.alCambiarEstadoNino(
+                new CambioEstadoNino(EstadoApadrinamiento.Disponible, EstadoApadrinamiento.Apadrinado));
+        dashboardService.alCambiarApadrinamiento(new CambioApadrinamiento(1));
+
+        DashboardDTO dto = dashboardService.obtener();
+        assertEquals(1L, dto.getNinosPorEstado().get(EstadoApadrinamiento.Disponible));
+        assertEquals(1L, dto.getNinosPorEstado().get(EstadoApadrinamiento.Apadrinado));
+        assertEquals(1L, dto.getApadrinamientosActivos());
+
+        // Finalizar el apadrinamiento y eliminar el otro niño
+        dashboardService.alCambiarEstadoNino(
+                new CambioEstadoNino(EstadoApadrinamiento.Apadrinado, EstadoApadrinamiento.Disponible));
+        dashboardService.alCambiarApadrinamiento(new CambioApadrinamiento(-1));
+        dashboardService.alCambiarEstadoNino(new CambioEstadoNino(EstadoApadrinamiento.Disponible, null));
+
+        dto = dashboardService.obtener();
+        assertEquals(1L, dto.getNinosPorEstado().get(EstadoApadrinamiento.Disponible));
+        assertEquals(0L, dto.getNinosPorEstado().get(EstadoApadrinamiento.Apadrinado));
+        assertEquals(0L, dto.getApadrinamientosActivos());
+    }
+
+    @Test
+    void laConciliacionReemplazaLosContadoresPorLosDeLaBaseDeDatos() {
+        // Contadores desviados: cambios que no pasaron por esta instancia
+        dashboardService.alCambiarEstadoNino(new CambioEstadoNino(null, EstadoApadrinamiento.Inactivo));
+        dashboardService.alCambiarApadrinamiento(new CambioApadrinamiento(3));
+        assertNull(dashboardService.obtener().getUltimaConciliacion());
+
+        when(donacionRepository.contarPorDiaYTipo(any())).thenReturn(List.<Object[]>of(
+                new Object[]{Date.valueOf(HOY.toLocalDate()), "MONETARIA", 4L, new BigDecimal("100.00")}));
+        when(ninoRepository.contarPorEstado()).thenReturn(List.<Object[]>of(
+                new Object[]{EstadoApadrinamiento.Disponible, 5L}));
+        when(apadrinamientoRepository.countByEstado(Apadrinamiento.EstadoApadrinamiento.Activo)).thenReturn(2L);
+        when(inscripcionRepository.contarPorEventoYEstado()).thenReturn(List.<Object[]>of(
+                new Object[]{7L, EstadoInscripcion.LISTA_ESPERA, 3L}));
+
+        dashboardService.conciliar();
+
+        DashboardDTO dto = dashboardService.obtener();
+        assertEquals(List.of(new DashboardDTO.DonacionesDia(HOY.toLocalDate(), TipoDonacion.MONETARIA, 4,
+                new BigDecimal("100.00"))), dto.getDonacionesPorDia());
+        assertEquals(5L, dto.getNinosPorEstado().get(EstadoApadrinamiento.Disponible));
+        assertEquals(0L, dto.getNinosPorEstado().get(EstadoApadrinamiento.Inactivo));
+        assertEquals(2L, dto.getApadrinamientosActivos());
+        assertEquals(List.of(new DashboardDTO.InscripcionesEvento(7L, 0, 3, 0)), dto.getInscripcionesPorEvento());
+        assertNotNull(dto.getUltimaConciliacion());
+    }
+
+    @Test
+    void losEventosDuranteLaConciliacionNoSePierden() {
+        when(ninoRepository.contarPorEstado()).thenAnswer(invocacion -> {
+            // Un niño creado y confirmado después de la foto de la base de datos
+            dashboardService.alCambiarEstadoNino(new CambioEstadoNino(null, EstadoApadrinamiento.Disponible));
+            // Se ve ya en los contadores actuales
+            assertEquals(1L, dashboardService.obtener().getNinosPorEstado().get(EstadoApadrinamiento.Disponible));
+            return List.<Object[]>of(new Object[]{EstadoApadrinamiento.Disponible, 5L});
+        });
+        when(apadrinamientoRepository.countByEstado(Apadrinamiento.EstadoApadrinamiento.Activo)).thenAnswer(invocacion -> {
+            dashboardService.alCambiarApadrinamiento(new CambioApadrinamiento(1));
+            return 2L;
+        });
+
+        dashboardService.conciliar();
+
+        DashboardDTO dto = dashboardService.obtener();
+        assertEquals(6L, dto.getNinosPorEstado().get(EstadoApadrinamiento.Disponible));
+        assertEquals(3L, dto.getApadrinamientosActivos());
+
+        // Después de la conciliación los eventos se aplican una sola vez
+        dashboardService.alCambiarEstadoNino(new CambioEstadoNino(null, EstadoApadrinamiento.Disponible));
+        assertEquals(7L, dashboardService.obtener().getNinosPorEstado().get(EstadoApadrinamiento.Disponible));
+    }
+
+    @Test
+    void unaConciliacionFallidaNoDejaEventosAnotados() {
+        when(ninoRepository.contarPorEstado()).thenAnswer(invocacion -> {
+            dashboardService.alCambiarApadrinamiento(new CambioApadrinamiento(1));
+            throw new IllegalStateException("sin conexión");
+        });
+
+        try {
+            dashboardService.conciliar();
+            fail("La conciliación debía fallar");
+        } catch (IllegalStateException esperada) {
+            // Los contadores anteriores siguen en uso, con el evento aplicado
+        }
+        assertEquals(1L, dashboardService.obtener().getApadrinamientosActivos());
+
+        doReturn(List.of()).when(ninoRepository).contarPorEstado();
+        when(apadrinamientoRepository.countByEstado(Apadrinamiento.EstadoApadrinamiento.Activo)).thenReturn(1L);
+        dashboardService.conciliar();
+        assertEquals(1L, dashboardService.obtener().getApadrinamientosActivos());
+        assertTrue(dashboardService.obtener().getDonacionesPorDia().isEmpty());
+    }
+
+    private static Donacion donacion(TipoDonacion tipo, String monto, LocalDateTime fecha) {
+        Donacion donacion = new Donacion();
+        donacion.setTipo(tipo);
+        donacion.setMonto(monto != null ? new BigDecimal(monto) : null);
+        donacion.setFechaDonacion(fecha);
+        return donacion;
+    }
+}
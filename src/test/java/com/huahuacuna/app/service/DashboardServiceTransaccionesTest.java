@@ -0,0 +1,49 @@
+package com.huahuacuna.app.service;
+
+import com.huahuacuna.app.event.CambioApadrinamiento;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Los contadores del dashboard solo cuentan los eventos de transacciones confirmadas: los listeners son
+ * {@code @TransactionalEventListener} y un rollback descarta el evento.
+ */
+@SpringBootTest
+class DashboardServiceTransaccionesTest {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void unaTransaccionRevertidaNoCuenta() {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        long antes = dashboardService.obtener().getApadrinamientosActivos();
+
+        transaccion.executeWithoutResult(estado -> {
+            eventPublisher.publishEvent(new CambioApadrinamiento(1));
+            // Antes del commit todavía no cuenta
+            assertEquals(antes, dashboardService.obtener().getApadrinamientosActivos());
+            estado.setRollbackOnly();
+        });
+        assertEquals(antes, dashboardService.obtener().getApadrinamientosActivos());
+
+        transaccion.executeWithoutResult(estado -> eventPublisher.publishEvent(new CambioApadrinamiento(1)));
+        assertEquals(antes + 1, dashboardService.obtener().getApadrinamientosActivos());
+
+        // Dejar los contadores como estaban (fuera de una transacción el evento se aplica al momento)
+        eventPublisher.publishEvent(new CambioApadrinamiento(-1));
+        assertEquals(antes, dashboardService.obtener().getApadrinamientosActivos());
+    }
+}
@@ -0,0 +1,134 @@
+package com.huahuacuna.app.service;
+
+import com.huahuacuna.app.DTO.DonorReportDTO;
+import com.huahuacuna.app.repository.DonacionRepository;
+import com.huahuacuna.app.repository.TotalDonanteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Comprueba que el reporte de donantes armado con la tabla de acumulados {@code donor_totals} da lo mismo
+ * que un {@code GROUP BY} directo sobre {@code donaciones}, con rangos de días completos, rangos con
+ * extremos a media jornada y rangos dentro de un mismo día.
+ */
+@SpringBootTest
+@Transactional
+class DonacionServiceReporteTest {
+
+    private static final String PREFIJO = "acumulados";
+    private static final int DONACIONES = 600;
+    private static final LocalDateTime INICIO = LocalDateTime.of(2022, 3, 1, 0, 0);
+
+    @Autowired
+    private DonacionService donacionService;
+
+    @Autowired
+    private DonacionRepository donacionRepository;
+
+    @Autowired
+    private TotalDonanteRepository totalDonanteRepository;
+
+    @Autowired
+    private TotalDonanteService totalDonanteService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void crearDatos() {
+        // ~3 donaciones por día durante seis meses, a horas variadas, de 15 donantes
+        List<Object[]> filas = new ArrayList<>(DONACIONES);
+        for (int i = 0; i < DONACIONES; i++) {
+            boolean material = i % 5 == 0;
+            filas.add(new Object[]{
+                    material ? "MATERIAL" : "MONETARIA",
+                    material ? null : 500 + i * 7,
+                    Timestamp.valueOf(INICIO.plusMinutes(i * 437L)),
+                    i % 3 == 0 ? "PENDIENTE" : "COMPLETADA",
+                    PREFIJO + i % 15 + "@prueba.com",
+                    material ? (i % 2 == 0 ? "Alimentos" : "Ropa") : null});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO donaciones (tipo, monto, fecha_donacion, estado, correo_electronico, tipo_dotacion) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", filas);
+        totalDonanteService.reconstruir();
+    }
+
+    @Test
+    void sinFiltros() {
+        comparar(null, null, null, null);
+    }
+
+    @Test
+    void diasCompletos() {
+        comparar(INICIO.plusDays(10), INICIO.plusDays(40), null, null);
+        comparar(INICIO.plusDays(10), null, null, null);
+        comparar(null, INICIO.plusDays(40), null, null);
+    }
+
+    @Test
+    void extremosParciales() {
+        comparar(INICIO.plusDays(10).plusHours(7).plusMinutes(13), INICIO.plusDays(40).plusHours(15), null, null);
+        comparar(INICIO.plusDays(3).plusHours(20), null, null, null);
+        comparar(null, INICIO.plusDays(90).withHour(9), null, null);
+    }
+
+    @Test
+    void dentroDeUnMismoDia() {
+        comparar(INICIO.plusDays(20).plusHours(2), INICIO.plusDays(20).plusHours(22), null, null);
+        comparar(INICIO.plusDays(21).plusHours(8), INICIO.plusDays(22).plusHours(8), null, null);
+    }
+
+    @Test
+    void conFiltrosDeTipo() {
+        comparar(INICIO.plusDays(5).plusHours(11), INICIO.plusDays(120).plusHours(3), "MATERIAL", null);
+        comparar(INICIO.plusDays(5), INICIO.plusDays(120), "material", "Alimentos");
+        comparar(null, null, "MONETARIA", null);
+    }
+
+    @Test
+    void reconstruirDosVecesNoDuplica() {
+        // Lo que pasa si dos instancias inicializan la tabla a la vez
+        totalDonanteRepository.reconstruir();
+        totalDonanteRepository.reconstruir();
+
+        comparar(null, null, null, null);
+        comparar(INICIO.plusDays(10).plusHours(7), INICIO.plusDays(40).plusHours(15), null, null);
+    }
+
+    private void comparar(LocalDateTime desde, LocalDateTime hasta, String tipo, String tipoDotacion) {
+        Map<String, String> esperado = new TreeMap<>();
+        for (Object[] r : donacionRepository.findDonorReport(desde, hasta, tipo, tipoDotacion)) {
+            agregar(esperado, DonacionService.toDonorReportDTO(r));
+        }
+        Map<String, String> obtenido = new TreeMap<>();
+        for (DonorReportDTO fila : donacionService.buildDonorReport(desde, hasta, tipo, tipoDotacion)) {
+            agregar(obtenido, fila);
+        }
+
+        assertFalse(esperado.isEmpty(), "el rango de la prueba no tiene donaciones");
+        assertEquals(esperado, obtenido, "desde=" + desde + ", hasta=" + hasta + ", tipo=" + tipo
+                + ", tipoDotacion=" + tipoDotacion);
+    }
+
+    private static void agregar(Map<String, String> porDonante, DonorReportDTO fila) {
+        if (fila.getCorreoElectronico().startsWith(PREFIJO)) {
+            porDonante.put(fila.getIdUsuario() + "|" + fila.getCorreoElectronico(),
+                    fila.getTotalDonado().stripTrailingZeros().toPlainString() + "|" + fila.getTotalDonaciones()
+                            + "|" + fila.getUltimaDonacion());
+        }
+    }
+}
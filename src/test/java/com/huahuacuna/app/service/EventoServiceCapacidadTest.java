@@ -0,0 +1,142 @@
+package com.huahuacuna.app.service;
+
+import com.huahuacuna.app.DTO.EventoDTO;
+import com.huahuacuna.app.DTO.InscripcionEventoDTO;
+import com.huahuacuna.app.model.InscripcionEvento;
+import com.huahuacuna.app.model.InscripcionEvento.EstadoInscripcion;
+import com.huahuacuna.app.repository.EventoRepository;
+import com.huahuacuna.app.repository.InscripcionEventoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Lanza cientos de inscripciones simultáneas a un evento con capacidad y comprueba que nunca se confirman más
+ * inscripciones que cupos, y que al cancelar una se confirma la primera de la lista de espera.
+ *
+ * <p>No es {@code @Transactional}: cada inscripción debe ir en su propia transacción para que compitan de
+ * verdad por los cupos. Los datos se borran al terminar.</p>
+ */
+@SpringBootTest
+class EventoServiceCapacidadTest {
+
+    private static final int CAPACIDAD = 50;
+    private static final int INSCRIPCIONES = 400;
+    private static final int HILOS = 64;
+
+    @Autowired
+    private EventoService eventoService;
+
+    @Autowired
+    private EventoRepository eventoRepository;
+
+    @Autowired
+    private InscripcionEventoRepository inscripcionRepository;
+
+    private Long eventoId;
+
+    @BeforeEach
+    void crearEvento() {
+        EventoDTO dto = new EventoDTO();
+        dto.setTitulo("Evento con cupos");
+        dto.setFechaEvento(LocalDateTime.now().plusDays(7));
+        dto.setCapacidad(CAPACIDAD);
+        eventoId = eventoService.crearEvento(dto).getId();
+    }
+
+    @AfterEach
+    void borrarDatos() {
+        inscripcionRepository.deleteAll(inscripcionRepository.findByEventoId(eventoId));
+        eventoRepository.deleteById(eventoId);
+    }
+
+    @Test
+    void inscripcionesSimultaneasNoSuperanLaCapacidad() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<InscripcionEvento>> resultados = new ArrayList<>(INSCRIPCIONES);
+        try {
+            for (int i = 0; i < INSCRIPCIONES; i++) {
+                InscripcionEventoDTO dto = new InscripcionEventoDTO(eventoId, "Asistente " + i,
+                        "asistente" + i + "@prueba.com", null);
+                resultados.add(pool.submit(() -> {
+                    salida.await();
+                    return eventoService.inscribirse(dto);
+                }));
+            }
+            salida.countDown();
+
+            int confirmadas = 0;
+            for (Future<InscripcionEvento> resultado : resultados) {
+                if (resultado.get().getEstado() == EstadoInscripcion.CONFIRMADO) {
+                    confirmadas++;
+                }
+            }
+            assertEquals(CAPACIDAD, confirmadas);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(CAPACIDAD, inscripcionRepository.countByEventoIdAndEstado(eventoId, EstadoInscripcion.CONFIRMADO));
+        assertEquals(INSCRIPCIONES - CAPACIDAD,
+                inscripcionRepository.countByEventoIdAndEstado(eventoId, EstadoInscripcion.LISTA_ESPERA));
+        assertEquals(CAPACIDAD, eventoService.obtenerPorId(eventoId).getCuposOcupados());
+
+        // Al cancelar una confirmada, entra la primera de la lista de espera
+        List<InscripcionEvento> inscripciones = inscripcionRepository.findByEventoId(eventoId);
+        Long cancelada = primeraCon(inscripciones, EstadoInscripcion.CONFIRMADO);
+        Long primeraEnEspera = primeraCon(inscripciones, EstadoInscripcion.LISTA_ESPERA);
+        eventoService.actualizarEstadoInscripcion(cancelada, EstadoInscripcion.CANCELADO);
+
+        assertEquals(EstadoInscripcion.CONFIRMADO, inscripcionRepository.findById(primeraEnEspera).orElseThrow().getEstado());
+        assertEquals(CAPACIDAD, inscripcionRepository.countByEventoIdAndEstado(eventoId, EstadoInscripcion.CONFIRMADO));
+        assertEquals(CAPACIDAD, eventoService.obtenerPorId(eventoId).getCuposOcupados());
+    }
+
+    @Test
+    void pasarUnaConfirmadaALaListaDeEsperaNoLeDevuelveElCupo() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i <= CAPACIDAD; i++) {
+            ids.add(eventoService.inscribirse(new InscripcionEventoDTO(eventoId, "Asistente " + i,
+                    "espera" + i + "@prueba.com", null)).getId());
+        }
+        Long ultima = ids.get(CAPACIDAD);
+        assertEquals(EstadoInscripcion.LISTA_ESPERA, inscripcionRepository.findById(ultima).orElseThrow().getEstado());
+
+        // La primera confirmada (id más bajo que la que espera) pasa a la lista de espera: el cupo es para la que
+        // ya esperaba, no para ella misma
+        InscripcionEvento movida = eventoService.actualizarEstadoInscripcion(ids.get(0), EstadoInscripcion.LISTA_ESPERA);
+
+        assertEquals(EstadoInscripcion.LISTA_ESPERA, movida.getEstado());
+        assertEquals(EstadoInscripcion.LISTA_ESPERA, inscripcionRepository.findById(ids.get(0)).orElseThrow().getEstado());
+        assertEquals(EstadoInscripcion.CONFIRMADO, inscripcionRepository.findById(ultima).orElseThrow().getEstado());
+        assertEquals(CAPACIDAD, eventoService.obtenerPorId(eventoId).getCuposOcupados());
+
+        // Y al revés: la que pasó antes a la lista de espera recupera el cupo que deja la otra
+        eventoService.actualizarEstadoInscripcion(ultima, EstadoInscripcion.LISTA_ESPERA);
+
+        assertEquals(EstadoInscripcion.LISTA_ESPERA, inscripcionRepository.findById(ultima).orElseThrow().getEstado());
+        assertEquals(EstadoInscripcion.CONFIRMADO, inscripcionRepository.findById(ids.get(0)).orElseThrow().getEstado());
+        assertEquals(CAPACIDAD, eventoService.obtenerPorId(eventoId).getCuposOcupados());
+    }
+
+    private static Long primeraCon(List<InscripcionEvento> inscripciones, EstadoInscripcion estado) {
+        return inscripciones.stream()
+                .filter(i -> i.getEstado() == estado)
+                .map(InscripcionEvento::getId)
+                .min(Long::compare)
+                .orElseThrow();
+    }
+}